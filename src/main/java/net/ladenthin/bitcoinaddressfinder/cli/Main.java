@@ -18,16 +18,20 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.command.AddressFilesToLMDB;
+import net.ladenthin.bitcoinaddressfinder.command.AnalyzeBatchTrace;
 import net.ladenthin.bitcoinaddressfinder.command.LMDBCompact;
 import net.ladenthin.bitcoinaddressfinder.command.LMDBDelta;
 import net.ladenthin.bitcoinaddressfinder.command.LMDBToAddressFile;
+import net.ladenthin.bitcoinaddressfinder.command.LMDBUpdate;
 import net.ladenthin.bitcoinaddressfinder.command.TuneConfiguration;
 import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFilesToLMDB;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAnalyzeBatchTrace;
 import net.ladenthin.bitcoinaddressfinder.configuration.CCompactLMDB;
 import net.ladenthin.bitcoinaddressfinder.configuration.CConfiguration;
 import net.ladenthin.bitcoinaddressfinder.configuration.CFinder;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBDelta;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBToAddressFile;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBUpdate;
 import net.ladenthin.bitcoinaddressfinder.configuration.CTuneConfiguration;
 import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
 import net.ladenthin.bitcoinaddressfinder.core.InterruptedRuntimeException;
@@ -272,6 +276,9 @@ public class Main implements Runnable, Interruptable {
                     CFinder cFinder = Objects.requireNonNull(configuration.finder);
                     Finder finder = new Finder(cFinder);
                     interruptables.add(finder);
+                    // metrics before anything else, so the lookup build can be watched
+                    finder.startMetricsEndpoint();
+
                     // key producer first
                     finder.startKeyProducer();
 
@@ -314,6 +321,18 @@ public class Main implements Runnable, Interruptable {
                     interruptables.add(lmdbDelta);
                     lmdbDelta.run();
                 }
+                case LMDBUpdate -> {
+                    CLMDBUpdate cLMDBUpdate = Objects.requireNonNull(configuration.lmdbUpdate);
+                    LMDBUpdate lmdbUpdate = new LMDBUpdate(cLMDBUpdate);
+                    interruptables.add(lmdbUpdate);
+                    lmdbUpdate.run();
+                }
+                case AnalyzeBatchTrace -> {
+                    CAnalyzeBatchTrace cAnalyzeBatchTrace = Objects.requireNonNull(configuration.analyzeBatchTrace);
+                    AnalyzeBatchTrace analyzeBatchTrace = new AnalyzeBatchTrace(cAnalyzeBatchTrace);
+                    interruptables.add(analyzeBatchTrace);
+                    analyzeBatchTrace.run();
+                }
                 case OpenCLInfo -> {
                     OpenCLBuilder openCLBuilder = new OpenCLBuilder();
                     List<OpenCLPlatform> openCLPlatforms = openCLBuilder.build();
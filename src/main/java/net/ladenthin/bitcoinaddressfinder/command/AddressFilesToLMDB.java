@@ -4,15 +4,15 @@
 package net.ladenthin.bitcoinaddressfinder.command;
 
 import com.google.common.annotations.VisibleForTesting;
-import java.io.BufferedReader;
+import com.google.common.io.CountingInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
@@ -31,36 +31,47 @@ import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFilesToLMDB;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationWrite;
 import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
-import net.ladenthin.bitcoinaddressfinder.io.AddressFormatNotAcceptedException;
+import net.ladenthin.bitcoinaddressfinder.io.AddressBatch;
+import net.ladenthin.bitcoinaddressfinder.io.AddressLineDecoder;
+import net.ladenthin.bitcoinaddressfinder.io.AddressLineParser;
 import net.ladenthin.bitcoinaddressfinder.io.AddressTxtLine;
+import net.ladenthin.bitcoinaddressfinder.io.ByteLineReader;
 import net.ladenthin.bitcoinaddressfinder.io.FileHelper;
-import net.ladenthin.bitcoinaddressfinder.model.AddressToCoin;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.addressfile.SortedAddressFile;
 import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
 import net.ladenthin.bitcoinaddressfinder.statistics.SlidingWindowRate;
 import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
 import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
-import org.bitcoinj.base.Coin;
 import org.bitcoinj.base.Network;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Imports one or more plaintext address files into an LMDB database.
+ * Imports one or more plaintext address files into an LMDB database. A sorted binary address file
+ * ({@link SortedAddressFile}, recognized by its magic) is bulk-loaded from its mapped records instead.
  *
  * <h2>Pipeline</h2>
  * Files are processed <b>sequentially, in list order</b>. For the whole import a single reader (this
- * thread) reads the current file line by line into a bounded {@link BlockingQueue}; {@code threads}
- * parser workers take lines and decode them into {@link AddressToCoin} entries on a second bounded
- * queue; and a <b>single writer</b> drains that queue and writes to LMDB in <b>batches</b> (one write
+ * thread) reads the current file's raw bytes into blocks of up to 1024 lines on a
+ * bounded {@link BlockingQueue}; {@code threads} parser workers take blocks and decode their lines into
+ * primitive {@link AddressBatch}es on a second bounded queue; and a <b>single writer</b> drains that
+ * queue and writes to LMDB in <b>batches</b> (one write
  * transaction per {@code writeBatchSize} entries, default 32768). LMDB is a single-writer store and a
  * commit per address is the dominant cost of a bulk import, so batching the writes — not the reading —
  * is the main
  * speedup. Reading files one at a time keeps all workers busy on the current file and never has several
  * threads reading different whole files at once.
  *
+ * <h2>Allocation</h2>
+ * Lines are never turned into {@code String}s on the common path: the {@link AddressLineDecoder} of a
+ * parser decodes Base58 and Bech32 P2WPKH lines with an amount straight from the block bytes into the
+ * hash160 slots of a batch with {@link AddressLineParser}, and only other lines fall back to
+ * {@link AddressTxtLine}. Blocks and batches are
+ * recycled once consumed, so a steady import allocates next to nothing per line.
+ *
  * <h2>Ordering</h2>
  * With {@code threads == 1} there is one parser draining a FIFO queue and one writer, so entries are
  * written in the original file/line order — deterministic. This matters when {@code useStaticAmount} is
@@ -75,6 +86,12 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
     /** Log a write-progress line every this many written addresses. */
     private static final long PROGRESS_LOG = 100_000;
 
+    /** Lines per block handed from the reader to the parsers; also the capacity of a parsed batch. */
+    private static final int LINES_PER_BLOCK = 1024;
+
+    /** Initial byte capacity of a block; it grows if its lines are longer. */
+    private static final int INITIAL_BLOCK_BYTES = 64 << 10;
+
     /** Poll timeout used when draining the queues so the "upstream done and queue empty" exit is re-checked. */
     private static final long QUEUE_POLL_MILLIS = 50;
 
@@ -184,26 +201,32 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
         final ReaderProgress progress =
                 new ReaderProgress(files.stream().mapToLong(File::length).sum(), System.currentTimeMillis());
 
-        final BlockingQueue<String> lineQueue = new LinkedBlockingQueue<>(queueCapacity);
-        final BlockingQueue<AddressToCoin> entryQueue = new LinkedBlockingQueue<>(queueCapacity);
+        // queueCapacity counts lines and entries; the queues hold blocks and batches of up to LINES_PER_BLOCK.
+        final int blockQueueCapacity = Math.max(1, (queueCapacity + LINES_PER_BLOCK - 1) / LINES_PER_BLOCK);
+        final BlockingQueue<LineBlock> lineQueue = new LinkedBlockingQueue<>(blockQueueCapacity);
+        final BlockingQueue<AddressBatch> entryQueue = new LinkedBlockingQueue<>(blockQueueCapacity);
+        final Queue<LineBlock> freeBlocks = new ConcurrentLinkedQueue<>();
+        final Queue<AddressBatch> freeBatches = new ConcurrentLinkedQueue<>();
         final AtomicBoolean readingDone = new AtomicBoolean(false);
         final AtomicBoolean parsingDone = new AtomicBoolean(false);
         final AtomicReference<Throwable> failure = new AtomicReference<>();
 
         final ExecutorService writerExecutor = Executors.newSingleThreadExecutor();
         final Future<?> writerFuture =
-                writerExecutor.submit(() -> runWriter(persistence, entryQueue, parsingDone, failure, writeBatchSize));
+                writerExecutor.submit(() -> runWriter(
+                        persistence, entryQueue, freeBatches, parsingDone, failure, writeBatchSize));
 
         final ExecutorService parserPool = Executors.newFixedThreadPool(threads);
         final List<Future<?>> parserFutures = new ArrayList<>(threads);
         for (int i = 0; i < threads; i++) {
-            parserFutures.add(parserPool.submit(() -> runParser(network, lineQueue, entryQueue, readingDone, failure)));
+            parserFutures.add(parserPool.submit(() -> runParser(
+                    network, lineQueue, entryQueue, freeBlocks, freeBatches, readingDone, failure)));
         }
         parserPool.shutdown();
 
         try {
             // The reader is this thread: read every file, in order, into the line queue.
-            readAllFiles(files, lineQueue, failure, progress);
+            readAllFiles(files, lineQueue, entryQueue, freeBlocks, freeBatches, failure, progress);
             readingDone.set(true);
             // Parsers drain the remaining lines, then the writer drains the remaining entries.
             awaitTermination(parserPool);
@@ -231,10 +254,16 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
         }
     }
 
-    /** Reads every file, in list order, pushing each line onto the shared line queue. */
+    /**
+     * Reads every file, in list order, pushing blocks of its lines onto the shared line queue, or the
+     * records of a sorted binary address file straight onto the entry queue.
+     */
     private void readAllFiles(
             @NonNull List<File> files,
-            @NonNull BlockingQueue<String> lineQueue,
+            @NonNull BlockingQueue<LineBlock> lineQueue,
+            @NonNull BlockingQueue<AddressBatch> entryQueue,
+            @NonNull Queue<LineBlock> freeBlocks,
+            @NonNull Queue<AddressBatch> freeBatches,
             @NonNull AtomicReference<Throwable> failure,
             @NonNull ReaderProgress progress)
             throws IOException {
@@ -245,44 +274,151 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
             }
             String path = file.getAbsolutePath();
             LOGGER.info("process " + path);
-            readFileLines(file, lineQueue, failure, progress);
+            if (SortedAddressFile.isSortedAddressFile(file.toPath())) {
+                readSortedAddressFile(file, entryQueue, freeBatches, failure, progress);
+            } else {
+                readFileLines(file, lineQueue, freeBlocks, failure, progress);
+            }
             progress.fileFinished(file.length());
             LOGGER.info("finished (" + filesProcessed.incrementAndGet() + "/" + totalFiles + " files): " + path);
         }
     }
 
     /**
-     * Reads one file line by line onto the line queue, logging a throttled progress line.
+     * Reads one file into blocks of lines on the line queue, logging a throttled progress line.
      *
-     * <p>Uses a {@link BufferedReader} (block reads) rather than {@code RandomAccessFile.readLine()},
-     * which reads one byte at a time and made this single reader the import bottleneck. The
-     * {@link InputStreamReader} decodes UTF-8 leniently (malformed bytes are replaced, not thrown),
-     * matching the previous behaviour. Progress percent is by decoded characters over file bytes —
-     * exact for the ASCII address files, approximate otherwise. Each line also feeds {@code progress},
-     * which samples the running byte count (~1/s) and, on the throttled interval, prints overall
-     * progress and an ETA. All reader-side, so nothing here is shared across threads.
+     * <p>The file is read and split into lines by a {@link ByteLineReader}, without decoding it; the
+     * line bytes are copied into a recycled {@link LineBlock}. A file named {@code *.gz} is decompressed
+     * while it is read. After every block the running count of file bytes read feeds {@code progress},
+     * which samples it (~1/s) and, on the throttled interval, prints overall progress and an ETA. All
+     * reader-side, so nothing here is shared across threads.
      */
     private void readFileLines(
             @NonNull File file,
-            @NonNull BlockingQueue<String> lineQueue,
+            @NonNull BlockingQueue<LineBlock> lineQueue,
+            @NonNull Queue<LineBlock> freeBlocks,
             @NonNull AtomicReference<Throwable> failure,
             @NonNull ReaderProgress progress)
             throws IOException {
         long length = Math.max(file.length(), 1L);
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
-            long charsRead = 0;
-            String line;
-            while (shouldRun.get() && failure.get() == null && (line = reader.readLine()) != null) {
-                charsRead += line.length() + 1L;
-                if (!enqueue(lineQueue, line, failure)) {
+        LineBlock block = takeBlock(freeBlocks);
+        // Progress is measured on the file's own bytes, so it stays within the file length for gzip files too.
+        try (CountingInputStream rawInputStream = new CountingInputStream(Files.newInputStream(file.toPath()));
+                InputStream inputStream = new FileHelper().decompressIfGzip(file, rawInputStream)) {
+            ByteLineReader reader = new ByteLineReader(inputStream);
+            while (shouldRun.get() && failure.get() == null && reader.readLine()) {
+                block.append(reader.bytes(), reader.start(), reader.end() - reader.start());
+                block.endLine();
+                if (block.isFull()) {
+                    if (!enqueue(lineQueue, block, failure)) {
+                        return;
+                    }
+                    block = takeBlock(freeBlocks);
+                    progress.onBytesRead(file, rawInputStream.getCount(), length, System.currentTimeMillis());
+                }
+            }
+            if (block.lines() > 0 && !enqueue(lineQueue, block, failure)) {
+                return;
+            }
+            progress.onBytesRead(file, rawInputStream.getCount(), length, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Reads a {@link SortedAddressFile} into batches on the entry queue. Its records are already
+     * decoded, so they bypass the parsers; they are in key order, so the writer's sorted batches stay
+     * in that order too.
+     */
+    private void readSortedAddressFile(
+            @NonNull File file,
+            @NonNull BlockingQueue<AddressBatch> entryQueue,
+            @NonNull Queue<AddressBatch> freeBatches,
+            @NonNull AtomicReference<Throwable> failure,
+            @NonNull ReaderProgress progress)
+            throws IOException {
+        long length = Math.max(file.length(), 1L);
+        try (SortedAddressFile sortedAddressFile = new SortedAddressFile(file.toPath())) {
+            final long count = sortedAddressFile.count();
+            long record = 0;
+            while (record < count && shouldRun.get() && failure.get() == null) {
+                AddressBatch batch = takeBatch(freeBatches);
+                while (record < count && !batch.isFull()) {
+                    sortedAddressFile.copyHash160(record, batch.hash160s(), batch.nextSlotOffset());
+                    batch.commit(sortedAddressFile.amount(record));
+                    record++;
+                }
+                parsedCounter.addAndGet(batch.size());
+                if (!enqueue(entryQueue, batch, failure)) {
                     return;
                 }
-                progress.onLineRead(file, charsRead, length, System.currentTimeMillis());
+                long bytesRead = SortedAddressFile.HEADER_SIZE + record * SortedAddressFile.RECORD_SIZE;
+                progress.onBytesRead(file, bytesRead, length, System.currentTimeMillis());
             }
         }
     }
 
+    private static LineBlock takeBlock(@NonNull Queue<LineBlock> freeBlocks) {
+        LineBlock block = freeBlocks.poll();
+        return block != null ? block : new LineBlock();
+    }
+
+    private static AddressBatch takeBatch(@NonNull Queue<AddressBatch> freeBatches) {
+        AddressBatch batch = freeBatches.poll();
+        return batch != null ? batch : new AddressBatch(LINES_PER_BLOCK);
+    }
+
+    /**
+     * Up to {@link #LINES_PER_BLOCK} lines stored back to back, without terminators, in one growing
+     * byte array. Owned by one thread at a time: filled by the reader, parsed by one parser, then
+     * cleared and recycled.
+     */
+    private static final class LineBlock {
+
+        private byte[] bytes = new byte[INITIAL_BLOCK_BYTES];
+        private final int[] lineEnds = new int[LINES_PER_BLOCK];
+        private int length;
+        private int lines;
+
+        /** Appends bytes to the current, unfinished line. */
+        void append(byte[] source, int offset, int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length * 2));
+            }
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        /** Finishes the current line. */
+        void endLine() {
+            lineEnds[lines++] = length;
+        }
+
+        boolean isFull() {
+            return lines == LINES_PER_BLOCK;
+        }
+
+        int lines() {
+            return lines;
+        }
+
+        int lineStart(int line) {
+            return line == 0 ? 0 : lineEnds[line - 1];
+        }
+
+        int lineEnd(int line) {
+            return lineEnds[line];
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        void clear() {
+            length = 0;
+            lines = 0;
+        }
+    }
+
     /**
      * Reader-thread-only overall-progress and ETA tracker. All state lives here and only the single
      * reader thread ever calls into it, so no field is shared across threads and none needs
@@ -308,16 +444,16 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
             bytesReadInFinishedFiles += fileBytes;
         }
 
-        /** Per line: samples the byte rate (throttled) and emits the progress+ETA line (throttled). */
-        void onLineRead(File file, long charsRead, long fileLength, long nowMillis) {
-            long overallBytes = bytesReadInFinishedFiles + charsRead;
+        /** Per block: samples the byte rate (throttled) and emits the progress+ETA line (throttled). */
+        void onBytesRead(File file, long bytesRead, long fileLength, long nowMillis) {
+            long overallBytes = bytesReadInFinishedFiles + bytesRead;
             if (nowMillis - lastSampleMillis >= SAMPLE_INTERVAL_MILLIS) {
                 lastSampleMillis = nowMillis;
                 byteRate.sample(nowMillis, overallBytes);
             }
             if (nowMillis - lastProgressLogMillis >= PROGRESS_REPORT_MILLIS) {
                 lastProgressLogMillis = nowMillis;
-                double filePercent = (double) charsRead / (double) fileLength * 100.0d;
+                double filePercent = (double) bytesRead / (double) fileLength * 100.0d;
                 double overallPercent = (double) overallBytes / (double) totalBytes * 100.0d;
                 double bytesPerSecond = byteRate.ratePerSecond(nowMillis, overallBytes);
                 String eta = bytesPerSecond > 0.0
@@ -369,62 +505,75 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
         return seconds + "s";
     }
 
-    /** One parser worker: take lines, decode them, and hand the parsed entries to the writer queue. */
+    /** One parser worker: take line blocks, decode them, and hand the parsed batches to the writer queue. */
     private Void runParser(
             @NonNull Network network,
-            @NonNull BlockingQueue<String> lineQueue,
-            @NonNull BlockingQueue<AddressToCoin> entryQueue,
+            @NonNull BlockingQueue<LineBlock> lineQueue,
+            @NonNull BlockingQueue<AddressBatch> entryQueue,
+            @NonNull Queue<LineBlock> freeBlocks,
+            @NonNull Queue<AddressBatch> freeBatches,
             @NonNull AtomicBoolean readingDone,
             @NonNull AtomicReference<Throwable> failure)
             throws InterruptedException {
-        // Both are stateless/immutable and reused for every line this worker parses.
-        KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(true));
-        AddressTxtLine addressTxtLine = new AddressTxtLine();
+        // Reused for every line this worker parses.
+        AddressLineDecoder addressLineDecoder =
+                new AddressLineDecoder(new KeyUtility(network, new ByteBufferUtility(true)));
         while (failure.get() == null && shouldRun.get() && !(readingDone.get() && lineQueue.isEmpty())) {
-            String line = lineQueue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
-            if (line == null) {
+            LineBlock block = lineQueue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (block == null) {
                 continue;
             }
-            try {
-                AddressToCoin entry = addressTxtLine.fromLine(line, keyUtility);
-                parsedCounter.incrementAndGet();
-                if (!enqueue(entryQueue, entry, failure)) {
-                    return null;
+            AddressBatch batch = takeBatch(freeBatches);
+            byte[] bytes = block.bytes();
+            for (int i = 0; i < block.lines(); i++) {
+                int start = block.lineStart(i);
+                int end = block.lineEnd(i);
+                switch (addressLineDecoder.decode(bytes, start, end, batch)) {
+                    case ADDED -> {}
+                    case UNSUPPORTED -> unsupportedCounter.incrementAndGet();
+                    case ERROR -> errors.add(new String(bytes, start, end - start, StandardCharsets.UTF_8));
                 }
-            } catch (AddressFormatNotAcceptedException e) {
-                unsupportedCounter.incrementAndGet();
-            } catch (RuntimeException e) {
-                errors.add(line);
-                LOGGER.error("Error in line: {}", line, e);
+            }
+            block.clear();
+            freeBlocks.offer(block);
+            parsedCounter.addAndGet(batch.size());
+            if (batch.isEmpty()) {
+                freeBatches.offer(batch);
+            } else if (!enqueue(entryQueue, batch, failure)) {
+                return null;
             }
         }
         return null;
     }
 
-    /** The single LMDB writer: drains parsed entries and writes them in batches (one transaction each). */
+    /** The single LMDB writer: drains parsed batches and writes them in batches (one transaction each). */
     private Void runWriter(
             @NonNull LMDBPersistence persistence,
-            @NonNull BlockingQueue<AddressToCoin> entryQueue,
+            @NonNull BlockingQueue<AddressBatch> entryQueue,
+            @NonNull Queue<AddressBatch> freeBatches,
             @NonNull AtomicBoolean parsingDone,
             @NonNull AtomicReference<Throwable> failure,
             int writeBatchSize)
             throws InterruptedException {
-        List<ByteBuffer> hash160Batch = new ArrayList<>(writeBatchSize);
-        List<Coin> amountBatch = new ArrayList<>(writeBatchSize);
+        AddressBatch writeBatch = new AddressBatch(writeBatchSize);
         try {
             while (failure.get() == null && !(parsingDone.get() && entryQueue.isEmpty())) {
-                AddressToCoin entry = entryQueue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
-                if (entry == null) {
+                AddressBatch parsed = entryQueue.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (parsed == null) {
                     continue;
                 }
-                hash160Batch.add(entry.hash160());
-                amountBatch.add(entry.coin());
-                if (hash160Batch.size() >= writeBatchSize) {
-                    flushBatch(persistence, hash160Batch, amountBatch);
+                int copied = 0;
+                while (copied < parsed.size()) {
+                    copied += writeBatch.addFrom(parsed, copied);
+                    if (writeBatch.isFull()) {
+                        flushBatch(persistence, writeBatch);
+                    }
                 }
+                parsed.clear();
+                freeBatches.offer(parsed);
             }
-            if (!hash160Batch.isEmpty()) {
-                flushBatch(persistence, hash160Batch, amountBatch);
+            if (!writeBatch.isEmpty()) {
+                flushBatch(persistence, writeBatch);
             }
         } catch (RuntimeException e) {
             // Record the failure and keep draining so parsers/reader blocked on a full queue can finish.
@@ -436,23 +585,19 @@ public class AddressFilesToLMDB implements Runnable, Interruptable {
     }
 
     /** Writes one batch in a single transaction and logs write progress when a 100k boundary is crossed. */
-    private void flushBatch(
-            @NonNull LMDBPersistence persistence,
-            @NonNull List<ByteBuffer> hash160Batch,
-            @NonNull List<Coin> amountBatch) {
-        int count = hash160Batch.size();
-        persistence.putNewAmounts(hash160Batch, amountBatch);
+    private void flushBatch(@NonNull LMDBPersistence persistence, @NonNull AddressBatch writeBatch) {
+        int count = writeBatch.size();
+        persistence.putNewAmounts(writeBatch);
         long before = addressCounter.getAndAdd(count);
         long after = before + count;
         if (before / PROGRESS_LOG != after / PROGRESS_LOG) {
             LOGGER.info("Progress: " + after + " addresses written.");
         }
-        hash160Batch.clear();
-        amountBatch.clear();
+        writeBatch.clear();
     }
 
     private static void drainEntries(
-            @NonNull BlockingQueue<AddressToCoin> entryQueue, @NonNull AtomicBoolean parsingDone)
+            @NonNull BlockingQueue<AddressBatch> entryQueue, @NonNull AtomicBoolean parsingDone)
             throws InterruptedException {
         while (!(parsingDone.get() && entryQueue.isEmpty())) {
             // Discard the drained entries: the writer has already failed, this only unblocks upstream.
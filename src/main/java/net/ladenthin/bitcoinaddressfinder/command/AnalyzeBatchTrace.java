@@ -0,0 +1,101 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAnalyzeBatchTrace;
+import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTraceReport;
+import net.ladenthin.bitcoinaddressfinder.util.MultilineLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the {@link BatchStageEvent}s of a Java Flight Recorder file and logs a per-stage latency
+ * breakdown with the stage that dominates the critical path (see {@link BatchTraceReport}).
+ *
+ * <p>The file is streamed event by event, so a recording of any length is analyzed in bounded memory
+ * apart from one small entry per batch.
+ */
+@ToString
+public class AnalyzeBatchTrace implements Runnable, Interruptable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyzeBatchTrace.class);
+
+    private final CAnalyzeBatchTrace analyzeBatchTrace;
+
+    // Lifecycle flag; checked between events so a long recording can be abandoned.
+    @ToString.Exclude
+    private final AtomicBoolean shouldRun = new AtomicBoolean(true);
+
+    /**
+     * Creates a new analysis.
+     *
+     * @param analyzeBatchTrace the analysis configuration
+     */
+    public AnalyzeBatchTrace(CAnalyzeBatchTrace analyzeBatchTrace) {
+        this.analyzeBatchTrace = analyzeBatchTrace;
+    }
+
+    @Override
+    public void run() {
+        final BatchTraceReport report;
+        try {
+            report = analyze();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + analyzeBatchTrace.jfrFile, e);
+        }
+        // One record per line: the report is a formatted table, and the log pattern's CRLF guard
+        // would otherwise fold it onto one line.
+        new MultilineLogger().info(LOGGER, report.render());
+    }
+
+    /**
+     * Reads the configured recording.
+     *
+     * @return the aggregated batch stage events
+     * @throws IOException if the file cannot be read or is not a recording
+     * @throws IllegalArgumentException if the configured file does not exist
+     */
+    public BatchTraceReport analyze() throws IOException {
+        final Path jfrFile = Path.of(analyzeBatchTrace.jfrFile);
+        if (!Files.isRegularFile(jfrFile)) {
+            throw new IllegalArgumentException("jfrFile does not exist: " + jfrFile.toAbsolutePath());
+        }
+        LOGGER.info("Reading batch trace from {} ...", jfrFile);
+        final BatchTraceReport report = new BatchTraceReport();
+        try (RecordingFile recordingFile = new RecordingFile(jfrFile)) {
+            while (shouldRun.get() && recordingFile.hasMoreEvents()) {
+                final RecordedEvent event = recordingFile.readEvent();
+                if (!BatchStageEvent.NAME.equals(event.getEventType().getName())) {
+                    continue;
+                }
+                report.add(
+                        event.getLong(BatchStageEvent.FIELD_BATCH_ID),
+                        event.getString(BatchStageEvent.FIELD_STAGE),
+                        epochNanos(event.getStartTime()),
+                        event.getDuration().toNanos());
+            }
+        }
+        return report;
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    @Override
+    public void interrupt() {
+        shouldRun.set(false);
+    }
+}
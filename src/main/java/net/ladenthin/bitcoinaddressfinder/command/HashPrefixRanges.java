@@ -0,0 +1,176 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.command;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Splits the hash160 key space into ranges of equal two-byte prefix width, for commands that walk a
+ * database with one range cursor per thread. hash160s are uniformly distributed, so the ranges hold
+ * nearly the same number of keys.
+ */
+final class HashPrefixRanges {
+
+    /** Number of distinct two-byte hash160 prefixes; the most ranges the key space is split into. */
+    @VisibleForTesting
+    static final int PREFIX_SPACE = 1 << 16;
+
+    /** Ranges allowed to wait in memory per thread, so a slow range does not stall the others. */
+    private static final int RANGES_IN_FLIGHT_PER_THREAD = 2;
+
+    private HashPrefixRanges() {}
+
+    /**
+     * Validates the configured partition and thread counts.
+     *
+     * @throws IllegalArgumentException if {@code partitions} is not between 1 and {@link #PREFIX_SPACE}
+     *                                  or {@code threads} is negative
+     */
+    static void validate(int partitions, int threads) {
+        if (partitions < 1 || partitions > PREFIX_SPACE) {
+            throw new IllegalArgumentException(
+                    "partitions must be between 1 and " + PREFIX_SPACE + " but was " + partitions);
+        }
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads must not be negative but was " + threads);
+        }
+    }
+
+    /**
+     * Returns the number of threads to use.
+     *
+     * @param threads the configured count, {@code 0} for one per available processor
+     * @return the configured count, or the number of available processors for {@code 0}
+     */
+    @VisibleForTesting
+    static int resolveThreads(int threads) {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the first key of a range: the ranges cut the space of two-byte hash160 prefixes into
+     * {@code partitions} nearly equal parts. A two-byte key sorts before every longer key it prefixes,
+     * so range {@code i} holds exactly the keys from {@code rangeStart(i)} up to {@code rangeStart(i + 1)}.
+     *
+     * @return the two-byte start key, or {@code null} for the open bound before the first and after the
+     *         last range
+     */
+    static byte @Nullable [] rangeStart(int partition, int partitions) {
+        if (partition <= 0 || partition >= partitions) {
+            return null;
+        }
+        final int prefix = (int) ((long) partition * PREFIX_SPACE / partitions);
+        return new byte[] {(byte) (prefix >>> 8), (byte) prefix};
+    }
+
+    /**
+     * Processes the ranges on {@code threads} worker threads and hands their results to {@code consumer}
+     * on the calling thread, strictly in range order. At most {@link #RANGES_IN_FLIGHT_PER_THREAD} ranges
+     * per thread are submitted or waiting, so memory stays bounded; no further range is submitted once
+     * {@code shouldRun} is cleared.
+     *
+     * @param partitions the number of ranges
+     * @param threads    the configured thread count, {@code 0} for one per available processor
+     * @param shouldRun  cleared to stop submitting ranges
+     * @param task       processes one range on a worker thread
+     * @param consumer   receives each range's result in range order
+     * @throws IOException          if {@code consumer} fails
+     * @throws InterruptedException if the wait for a range is interrupted
+     * @throws ExecutionException   if {@code task} fails for a range
+     */
+    static <T> void forEachRangeInOrder(
+            int partitions, int threads, AtomicBoolean shouldRun, RangeTask<T> task, RangeConsumer<T> consumer)
+            throws IOException, InterruptedException, ExecutionException {
+        forEachRangeInOrder(partitions, threads, shouldRun, task, consumer, Long.MAX_VALUE, () -> {});
+    }
+
+    /**
+     * Like {@link #forEachRangeInOrder(int, int, AtomicBoolean, RangeTask, RangeConsumer)}, but waits for
+     * the oldest range in steps of {@code waitStepMillis} and runs {@code afterWaitStep} after each step,
+     * so progress keeps being reported while a range runs.
+     */
+    static <T> void forEachRangeInOrder(
+            int partitions,
+            int threads,
+            AtomicBoolean shouldRun,
+            RangeTask<T> task,
+            RangeConsumer<T> consumer,
+            long waitStepMillis,
+            Runnable afterWaitStep)
+            throws IOException, InterruptedException, ExecutionException {
+        final int resolvedThreads = resolveThreads(threads);
+        final int maxInFlight = resolvedThreads * RANGES_IN_FLIGHT_PER_THREAD;
+        final ExecutorService pool = Executors.newFixedThreadPool(resolvedThreads);
+        final Deque<Future<T>> inFlight = new ArrayDeque<>(maxInFlight);
+        int nextPartition = 0;
+        int finishedPartitions = 0;
+        try {
+            while (true) {
+                while (nextPartition < partitions && inFlight.size() < maxInFlight && shouldRun.get()) {
+                    final byte @Nullable [] from = rangeStart(nextPartition, partitions);
+                    final byte @Nullable [] to = rangeStart(nextPartition + 1, partitions);
+                    inFlight.add(pool.submit(() -> task.process(from, to)));
+                    nextPartition++;
+                }
+                final Future<T> next = inFlight.poll();
+                if (next == null) {
+                    return;
+                }
+                @Nullable T result = null;
+                while (result == null) {
+                    try {
+                        result = next.get(waitStepMillis, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // still running
+                    }
+                    afterWaitStep.run();
+                }
+                consumer.accept(finishedPartitions++, result);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Processes one key range.
+     *
+     * @param <T> the range's result; must not be {@code null}
+     */
+    @FunctionalInterface
+    interface RangeTask<T> {
+
+        /**
+         * @param from the range's first key, {@code null} for the start of the key space
+         * @param to   the first key after the range, {@code null} for the end of the key space
+         */
+        T process(byte @Nullable [] from, byte @Nullable [] to) throws IOException;
+    }
+
+    /**
+     * Receives the result of one key range.
+     *
+     * @param <T> the range's result
+     */
+    @FunctionalInterface
+    interface RangeConsumer<T> {
+
+        /**
+         * @param partition the range's index
+         * @param result    the range's result
+         */
+        void accept(int partition, T result) throws IOException;
+    }
+}
@@ -12,10 +12,14 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationReadOnly;
@@ -37,13 +41,19 @@ import org.slf4j.LoggerFactory;
  * Writes every address that is present in at least one of the "other" databases but <b>not</b> in the
  * reference database to a plaintext file — one Base58 P2PKH ({@code 1...}) address per line.
  *
- * <h2>Cursor merge — near-zero memory</h2>
+ * <h2>Cursor merge</h2>
  * LMDB stores entries sorted by hash160, so each database can be streamed in key order via a single
  * cursor. The reference and all other databases are walked simultaneously as a k-way sorted merge: for
  * the smallest hash160 across the other cursors, it is emitted iff it does not appear in the reference,
  * then every cursor sitting on that key is advanced (which deduplicates across the other databases).
- * The output is streamed directly to the sink, so memory is just the per-cursor head — independent of
- * the delta size — and the whole pass is sequential I/O rather than billions of random lookups.
+ * The whole pass is sequential I/O rather than billions of random lookups.
+ *
+ * <h2>Parallel key ranges</h2>
+ * hash160s are uniformly distributed, so the key space is cut into {@code partitions} ranges of equal
+ * two-byte prefix width. Each range is merged on its own thread with its own range cursor per database
+ * and a heap over the other cursors; the merged ranges are written strictly in range order, so the file
+ * is the same as that of one sequential merge. Memory is bounded by the ranges waiting to be written,
+ * at most two per thread — independent of the delta size as long as there are enough ranges.
  *
  * <p>hash160 is re-encoded as a mainnet P2PKH {@code 1...} address. This is round-trip-safe: re-importing
  * decodes back to the same hash160 (the tool keys on hash160), even though a hash160 that originally came
@@ -79,8 +89,10 @@ public class LMDBDelta implements Runnable, Interruptable {
      * Creates a new delta writer.
      *
      * @param lmdbDelta the delta configuration
+     * @throws IllegalArgumentException if {@code partitions} or {@code threads} is out of range
      */
     public LMDBDelta(CLMDBDelta lmdbDelta) {
+        HashPrefixRanges.validate(lmdbDelta.partitions, lmdbDelta.threads);
         this.lmdbDelta = lmdbDelta;
     }
 
@@ -128,84 +140,146 @@ public class LMDBDelta implements Runnable, Interruptable {
      * as a Base58 P2PKH address line, using a k-way sorted merge over the (key-ordered) cursors. Takes a
      * plain {@link Appendable} rather than a file so it is trivially unit-testable in memory.
      *
+     * <p>The key space is split into {@link CLMDBDelta#partitions} ranges that are merged in parallel,
+     * each over its own range cursor per database. The merged ranges are appended to {@code out} strictly
+     * in range order, so the output is the same as that of a single sequential merge.
+     *
      * @param reference the reference address set (excluded from the delta)
      * @param others    the other address sets to diff against the reference
      * @param out       the sink for one {@code 1...} address per delta hash160, newline-separated
      * @return the delta result: the number of addresses written and the per-source contained counts
-     * @throws IOException if appending to {@code out} fails
+     * @throws IOException if appending to {@code out} fails, a range merge fails or the wait is
+     *                     interrupted
      */
     @VisibleForTesting
     DeltaResult writeDelta(AddressIterable reference, List<? extends AddressIterable> others, Appendable out)
             throws IOException {
-        long[] perSourceContained = new long[others.size()];
-        long referenceTotal = reference.count();
-        List<Stream<ByteBuffer>> openStreams = new ArrayList<>();
+        final long[] perSourceContained = new long[others.size()];
+        final long referenceTotal = reference.count();
+        final LongAdder referenceConsumed = new LongAdder();
+        final AtomicLong written = new AtomicLong();
+        final long startMillis = System.currentTimeMillis();
+        final AtomicLong lastProgressMillis = new AtomicLong(startMillis);
+        final SlidingWindowRate referenceRate = new SlidingWindowRate(RATE_WINDOW_MILLIS);
+        referenceRate.sample(startMillis, 0);
+
+        try {
+            HashPrefixRanges.forEachRangeInOrder(
+                    lmdbDelta.partitions,
+                    lmdbDelta.threads,
+                    shouldRun,
+                    (from, to) -> mergeRange(reference, others, from, to, referenceConsumed),
+                    (partition, range) -> {
+                        out.append(range.lines);
+                        written.addAndGet(range.written);
+                        for (int i = 0; i < perSourceContained.length; i++) {
+                            perSourceContained[i] += range.perSourceContained[i];
+                        }
+                    },
+                    SAMPLE_INTERVAL_MILLIS,
+                    () -> {
+                        long now = System.currentTimeMillis();
+                        referenceRate.sample(now, referenceConsumed.sum());
+                        if (now - lastProgressMillis.get() >= PROGRESS_REPORT_MILLIS) {
+                            logProgress(now, written.get(), referenceConsumed.sum(), referenceTotal, referenceRate);
+                            lastProgressMillis.set(now);
+                        }
+                    });
+            return new DeltaResult(written.get(), perSourceContained);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while merging the delta", e);
+        } catch (ExecutionException e) {
+            // Chain the full ExecutionException so the range's original failure keeps its stack trace.
+            throw new IOException("Failed to merge a key range of the delta", e);
+        }
+    }
+
+    /**
+     * Merges one key range. A heap orders the other databases' cursors by their current key, so each
+     * step costs {@code O(log k)} for {@code k} databases; the keys are compared in place in the
+     * cursors' buffers and only a delta key is copied out, to be encoded.
+     */
+    private RangeResult mergeRange(
+            AddressIterable reference,
+            List<? extends AddressIterable> others,
+            byte @Nullable [] from,
+            byte @Nullable [] to,
+            LongAdder referenceConsumed) {
+        final long[] perSourceContained = new long[others.size()];
+        final StringBuilder lines = new StringBuilder();
+        long written = 0;
+        long consumed = 0;
+        long iterationCounter = 0;
+        final List<Stream<ByteBuffer>> openStreams = new ArrayList<>(others.size() + 1);
         try {
-            Stream<ByteBuffer> referenceStream = reference.addresses();
+            Stream<ByteBuffer> referenceStream = reference.addresses(from, to);
             openStreams.add(referenceStream);
-            Peeker referencePeeker = new Peeker(referenceStream.iterator());
+            Peeker referencePeeker = new Peeker(referenceStream.iterator(), -1);
 
-            List<Peeker> otherPeekers = new ArrayList<>(others.size());
-            for (AddressIterable other : others) {
-                Stream<ByteBuffer> otherStream = other.addresses();
+            PriorityQueue<Peeker> heap = new PriorityQueue<>(Math.max(1, others.size()));
+            for (int i = 0; i < others.size(); i++) {
+                Stream<ByteBuffer> otherStream = others.get(i).addresses(from, to);
                 openStreams.add(otherStream);
-                otherPeekers.add(new Peeker(otherStream.iterator()));
+                Peeker peeker = new Peeker(otherStream.iterator(), i);
+                if (peeker.peek() != null) {
+                    heap.add(peeker);
+                }
             }
 
-            long written = 0;
-            long referenceConsumed = 0;
-            long iterationCounter = 0;
-            long startMillis = System.currentTimeMillis();
-            long lastSampleMillis = startMillis;
-            long lastProgressMillis = startMillis;
-            SlidingWindowRate referenceRate = new SlidingWindowRate(RATE_WINDOW_MILLIS);
-            referenceRate.sample(startMillis, 0);
-
+            // The smallest key, copied out of its cursor: the cursor is advanced while the key is still needed.
+            byte[] key = new byte[0];
+            ByteBuffer smallest = ByteBuffer.wrap(key);
             while (shouldRun.get()) {
-                byte @Nullable [] smallest = smallestHead(otherPeekers);
-                if (smallest == null) {
-                    break; // every other database exhausted
+                Peeker first = heap.peek();
+                if (first == null) {
+                    break; // every other database exhausted in this range
+                }
+                ByteBuffer head = Objects.requireNonNull(first.peek());
+                int length = head.remaining();
+                if (key.length != length) {
+                    key = new byte[length];
+                    smallest = ByteBuffer.wrap(key);
                 }
+                head.get(head.position(), key);
+
                 // Advance the reference to the first key >= smallest (its keys are also ascending).
-                byte @Nullable [] referenceHead = referencePeeker.peek();
-                while (referenceHead != null && Arrays.compareUnsigned(referenceHead, smallest) < 0) {
+                ByteBuffer referenceHead = referencePeeker.peek();
+                while (referenceHead != null && AddressIterable.compareUnsigned(referenceHead, smallest) < 0) {
                     referencePeeker.advance();
-                    referenceConsumed++;
+                    consumed++;
                     referenceHead = referencePeeker.peek();
                 }
-                boolean inReference = referenceHead != null && Arrays.equals(referenceHead, smallest);
+                boolean inReference =
+                        referenceHead != null && AddressIterable.compareUnsigned(referenceHead, smallest) == 0;
 
                 // Consume `smallest` from every other database (deduplicates across them); for a delta key,
                 // tally which sources held it.
-                for (int i = 0; i < otherPeekers.size(); i++) {
-                    Peeker peeker = otherPeekers.get(i);
-                    byte @Nullable [] head = peeker.peek();
-                    if (head != null && Arrays.equals(head, smallest)) {
-                        if (!inReference) {
-                            perSourceContained[i]++;
-                        }
-                        peeker.advance();
+                Peeker peeker;
+                while ((peeker = heap.peek()) != null
+                        && AddressIterable.compareUnsigned(Objects.requireNonNull(peeker.peek()), smallest) == 0) {
+                    heap.poll();
+                    if (!inReference) {
+                        perSourceContained[peeker.source]++;
+                    }
+                    peeker.advance();
+                    if (peeker.peek() != null) {
+                        heap.add(peeker);
                     }
                 }
 
                 if (!inReference) {
-                    out.append(keyUtility.toBase58(smallest)).append('\n');
+                    lines.append(keyUtility.toBase58(key)).append('\n');
                     written++;
                 }
 
                 if ((++iterationCounter & PROGRESS_CHECK_MASK) == 0L) {
-                    long now = System.currentTimeMillis();
-                    if (now - lastSampleMillis >= SAMPLE_INTERVAL_MILLIS) {
-                        referenceRate.sample(now, referenceConsumed);
-                        lastSampleMillis = now;
-                    }
-                    if (now - lastProgressMillis >= PROGRESS_REPORT_MILLIS) {
-                        logProgress(now, written, referenceConsumed, referenceTotal, referenceRate);
-                        lastProgressMillis = now;
-                    }
+                    referenceConsumed.add(consumed);
+                    consumed = 0;
                 }
             }
-            return new DeltaResult(written, perSourceContained);
+            referenceConsumed.add(consumed);
+            return new RangeResult(lines, written, perSourceContained);
         } finally {
             for (Stream<ByteBuffer> stream : openStreams) {
                 stream.close();
@@ -213,18 +287,6 @@ public class LMDBDelta implements Runnable, Interruptable {
         }
     }
 
-    /** Returns the unsigned-smallest current head across the peekers, or {@code null} if all are exhausted. */
-    private byte @Nullable [] smallestHead(Iterable<Peeker> peekers) {
-        byte[] smallest = null;
-        for (Peeker peeker : peekers) {
-            byte @Nullable [] head = peeker.peek();
-            if (head != null && (smallest == null || Arrays.compareUnsigned(head, smallest) < 0)) {
-                smallest = head;
-            }
-        }
-        return smallest;
-    }
-
     private void logProgress(
             long now, long written, long referenceConsumed, long referenceTotal, SlidingWindowRate referenceRate) {
         double rate = referenceRate.ratePerSecond(now, referenceConsumed);
@@ -286,23 +348,41 @@ public class LMDBDelta implements Runnable, Interruptable {
         }
     }
 
+    /** The output of one merged key range, waiting to be written in range order. */
+    private static final class RangeResult {
+
+        private final CharSequence lines;
+        private final long written;
+        private final long[] perSourceContained;
+
+        RangeResult(CharSequence lines, long written, long[] perSourceContained) {
+            this.lines = lines;
+            this.written = written;
+            this.perSourceContained = perSourceContained;
+        }
+    }
+
     /**
-     * One-element look-ahead over a key-ordered hash160 stream. Each head is copied out of the (possibly
-     * cursor-owned, reused) {@link ByteBuffer} so it stays valid after the stream advances. Static nested:
-     * holds no reference to the enclosing instance.
+     * One-element look-ahead over a key-ordered hash160 stream. The head is the stream's own buffer, not
+     * a copy: it stays valid until this peeker advances its stream, and each stream has its own cursor.
+     * Static nested: holds no reference to the enclosing instance.
      */
-    private static class Peeker {
+    private static class Peeker implements Comparable<Peeker> {
 
         private final Iterator<ByteBuffer> iterator;
 
-        private byte @Nullable [] head;
+        /** Index of the source database, for the per-source counts; {@code -1} for the reference. */
+        private final int source;
 
-        Peeker(Iterator<ByteBuffer> iterator) {
+        private @Nullable ByteBuffer head;
+
+        Peeker(Iterator<ByteBuffer> iterator, int source) {
             this.iterator = iterator;
+            this.source = source;
             this.head = nextOrNull(iterator);
         }
 
-        byte @Nullable [] peek() {
+        @Nullable ByteBuffer peek() {
             return head;
         }
 
@@ -310,14 +390,14 @@ public class LMDBDelta implements Runnable, Interruptable {
             head = nextOrNull(iterator);
         }
 
-        private static byte @Nullable [] nextOrNull(Iterator<ByteBuffer> iterator) {
-            if (iterator.hasNext()) {
-                ByteBuffer buffer = iterator.next();
-                byte[] bytes = new byte[buffer.remaining()];
-                buffer.get(bytes);
-                return bytes;
-            }
-            return null;
+        /** Orders by current head; only called on peekers in the heap, which are never exhausted. */
+        @Override
+        public int compareTo(Peeker other) {
+            return AddressIterable.compareUnsigned(Objects.requireNonNull(head), Objects.requireNonNull(other.head));
+        }
+
+        private static @Nullable ByteBuffer nextOrNull(Iterator<ByteBuffer> iterator) {
+            return iterator.hasNext() ? iterator.next() : null;
         }
     }
 }
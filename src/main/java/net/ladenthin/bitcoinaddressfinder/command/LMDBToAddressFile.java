@@ -3,28 +3,52 @@
 // SPDX-License-Identifier: Apache-2.0
 package net.ladenthin.bitcoinaddressfinder.command;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFileCompression;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFileOutputFormat;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBToAddressFile;
 import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.addressfile.SortedAddressFileOutputStream;
 import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
 import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
 import org.bitcoinj.base.Network;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Exports the LMDB database to a plaintext address file in one of the supported formats.
+ *
+ * <p>The key space is cut into {@link CLMDBToAddressFile#partitions} ranges of equal two-byte hash160
+ * prefix width. Each range is formatted on its own thread, with its own read transaction and cursor,
+ * and the formatted ranges are written strictly in key order, so the file is the same as that of one
+ * sequential pass. With {@link CAddressFileCompression#GZIP} every range is compressed on its thread
+ * into a gzip member of its own; concatenated members form one valid gzip file. The binary
+ * {@link CAddressFileOutputFormat#SortedBinaryHash160WithAmount} is written the same way, with the header
+ * before the first range and the index after the last.
  */
 @ToString
 public class LMDBToAddressFile implements Runnable, Interruptable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LMDBToAddressFile.class);
 
+    private static final long PROGRESS_REPORT_MILLIS = 30_000L;
+
     private final Network network = new NetworkParameterFactory().getNetwork();
 
     private final CLMDBToAddressFile lmdbToAddressFile;
@@ -37,8 +61,15 @@ public class LMDBToAddressFile implements Runnable, Interruptable {
      * Creates a new exporter.
      *
      * @param lmdbToAddressFile the export configuration
+     * @throws IllegalArgumentException if {@code partitions} or {@code threads} is out of range
      */
     public LMDBToAddressFile(CLMDBToAddressFile lmdbToAddressFile) {
+        HashPrefixRanges.validate(lmdbToAddressFile.partitions, lmdbToAddressFile.threads);
+        if (lmdbToAddressFile.addressFileOutputFormat == CAddressFileOutputFormat.SortedBinaryHash160WithAmount
+                && lmdbToAddressFile.compression != CAddressFileCompression.NONE) {
+            throw new IllegalArgumentException("compression " + lmdbToAddressFile.compression + " is not supported for "
+                    + CAddressFileOutputFormat.SortedBinaryHash160WithAmount + ", which is read memory-mapped");
+        }
         this.lmdbToAddressFile = lmdbToAddressFile;
     }
 
@@ -55,14 +86,95 @@ public class LMDBToAddressFile implements Runnable, Interruptable {
             if (deleted) {
                 LOGGER.info("deleted existing address file " + addressesFile);
             }
-            persistence.writeAllAmountsToAddressFile(
-                    addressesFile, lmdbToAddressFile.addressFileOutputFormat, shouldRun);
-            LOGGER.info("writeAllAmounts done");
+            final long bytesWritten;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(addressesFile.toPath()))) {
+                bytesWritten = export(persistence, out);
+            }
+            LOGGER.info("writeAllAmounts done: " + bytesWritten + " bytes written to " + addressesFile);
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to write LMDB dump to " + lmdbToAddressFile.addressesFile, e);
         }
     }
 
+    /**
+     * Formats the key ranges of {@code persistence} in parallel and writes them to {@code out} in key
+     * order, compressed as configured. {@code out} is flushed but not closed.
+     *
+     * @param persistence the opened database
+     * @param out         the destination
+     * @return the number of bytes written to {@code out}
+     * @throws IOException if writing to {@code out} fails, a range fails or the wait is interrupted
+     */
+    @VisibleForTesting
+    long export(LMDBPersistence persistence, OutputStream out) throws IOException {
+        final int partitions = lmdbToAddressFile.partitions;
+        final CountingOutputStream counting = new CountingOutputStream(out);
+        final @Nullable SortedAddressFileOutputStream records = lmdbToAddressFile.addressFileOutputFormat
+                        == CAddressFileOutputFormat.SortedBinaryHash160WithAmount
+                ? new SortedAddressFileOutputStream(counting)
+                : null;
+        final OutputStream sink = records != null ? records : counting;
+        final AtomicLong lastProgressMillis = new AtomicLong(System.currentTimeMillis());
+        try {
+            HashPrefixRanges.forEachRangeInOrder(
+                    partitions,
+                    lmdbToAddressFile.threads,
+                    shouldRun,
+                    (from, to) -> formatRange(persistence, from, to),
+                    (partition, range) -> {
+                        sink.write(range);
+                        long now = System.currentTimeMillis();
+                        if (now - lastProgressMillis.get() >= PROGRESS_REPORT_MILLIS) {
+                            LOGGER.info(String.format("export progress: %,d/%,d ranges | %,d bytes written",
+                                    partition + 1, partitions, counting.getCount()));
+                            lastProgressMillis.set(now);
+                        }
+                    });
+            if (records != null) {
+                records.finish();
+            } else if (counting.getCount() == 0 && lmdbToAddressFile.compression == CAddressFileCompression.GZIP) {
+                // An empty file is no valid gzip stream, so an empty database still gets one empty member.
+                counting.write(compress(new byte[0]));
+            }
+            counting.flush();
+            return counting.getCount();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting the database", e);
+        } catch (ExecutionException e) {
+            // Chain the full ExecutionException so the range's original failure keeps its stack trace.
+            throw new IOException("Failed to export a key range of the database", e);
+        }
+    }
+
+    /**
+     * Formats one key range to UTF-8 bytes, compressed as configured, or to binary records; an empty
+     * range yields no bytes.
+     */
+    private byte[] formatRange(LMDBPersistence persistence, byte @Nullable [] from, byte @Nullable [] to)
+            throws IOException {
+        if (lmdbToAddressFile.addressFileOutputFormat == CAddressFileOutputFormat.SortedBinaryHash160WithAmount) {
+            final ByteArrayOutputStream records = new ByteArrayOutputStream();
+            persistence.appendRecords(from, to, records, shouldRun);
+            return records.toByteArray();
+        }
+        final StringBuilder lines = new StringBuilder();
+        persistence.appendAmounts(from, to, lmdbToAddressFile.addressFileOutputFormat, lines, shouldRun);
+        final byte[] text = lines.toString().getBytes(StandardCharsets.UTF_8);
+        if (text.length == 0 || lmdbToAddressFile.compression == CAddressFileCompression.NONE) {
+            return text;
+        }
+        return compress(text);
+    }
+
+    private static byte[] compress(byte[] text) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(text.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(text);
+        }
+        return compressed.toByteArray();
+    }
+
     @Override
     public void interrupt() {
         shouldRun.set(false);
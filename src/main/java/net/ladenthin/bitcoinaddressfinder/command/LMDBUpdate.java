@@ -0,0 +1,168 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToIntFunction;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationWrite;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBUpdate;
+import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
+import net.ladenthin.bitcoinaddressfinder.io.AddressBatch;
+import net.ladenthin.bitcoinaddressfinder.io.AddressLineDecoder;
+import net.ladenthin.bitcoinaddressfinder.io.ByteLineReader;
+import net.ladenthin.bitcoinaddressfinder.io.FileHelper;
+import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.Network;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies address removals and additions to an existing LMDB database, so a new address dump only costs
+ * what changed instead of a full {@code AddressFilesToLMDB} import into a fresh database.
+ *
+ * <p>The removal files are applied first, then the addition files, each in list order. Their lines are
+ * read as raw bytes and decoded by an {@link AddressLineDecoder}, as on an import, and collected into
+ * batches of {@code writeBatchSize}; every batch is sorted by hash160 before it is written in one
+ * transaction, so the B-tree is updated in key order.
+ *
+ * <p>Nothing else needs patching: the in-memory and GPU lookup filters are not stored on disk but built
+ * from the database each time {@code Find} starts, so the next start picks up the update.
+ */
+@ToString
+public class LMDBUpdate implements Runnable, Interruptable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LMDBUpdate.class);
+
+    private final Network network = new NetworkParameterFactory().getNetwork();
+
+    // Stateless helper — nothing to show in toString.
+    @ToString.Exclude
+    private final FileHelper fileHelper = new FileHelper();
+
+    private final CLMDBUpdate lmdbUpdate;
+
+    // Lifecycle flag — uninformative in aggregate toString.
+    @ToString.Exclude
+    private final AtomicBoolean shouldRun = new AtomicBoolean(true);
+
+    /**
+     * Creates a new updater.
+     *
+     * @param lmdbUpdate the update configuration
+     */
+    public LMDBUpdate(CLMDBUpdate lmdbUpdate) {
+        this.lmdbUpdate = lmdbUpdate;
+    }
+
+    @Override
+    public void run() {
+        CLMDBConfigurationWrite lmdbConfigurationWrite = Objects.requireNonNull(lmdbUpdate.lmdbConfigurationWrite);
+        if (!new File(lmdbConfigurationWrite.lmdbDirectory).isDirectory()) {
+            throw new IllegalArgumentException(
+                    "lmdbDirectory must be an existing database: " + lmdbConfigurationWrite.lmdbDirectory);
+        }
+        List<File> removalsFiles = fileHelper.stringsToFiles(lmdbUpdate.removalsFiles);
+        List<File> additionsFiles = fileHelper.stringsToFiles(lmdbUpdate.additionsFiles);
+        fileHelper.assertFilesExists(removalsFiles);
+        fileHelper.assertFilesExists(additionsFiles);
+
+        final int writeBatchSize = Math.max(1, lmdbUpdate.writeBatchSize);
+        final AddressLineDecoder decoder = new AddressLineDecoder(new KeyUtility(network, new ByteBufferUtility(true)));
+        try (LMDBPersistence persistence = new LMDBPersistence(lmdbConfigurationWrite, new PersistenceUtils(network))) {
+            persistence.init();
+            long entriesBefore = persistence.count();
+            LOGGER.info("Update LMDB with " + entriesBefore + " entries: " + removalsFiles.size()
+                    + " removal file(s), " + additionsFiles.size() + " addition file(s) ...");
+
+            long unsupported = 0;
+            long removalsParsed = 0;
+            long removed = 0;
+            for (File file : removalsFiles) {
+                UpdateCount count = applyFile(file, decoder, writeBatchSize, persistence::deleteAddresses);
+                LOGGER.info("Removals " + file + ": " + count.changed() + " of " + count.parsed()
+                        + " address(es) were stored and are removed.");
+                removalsParsed += count.parsed();
+                unsupported += count.unsupported();
+                removed += count.changed();
+            }
+            long additionsParsed = 0;
+            for (File file : additionsFiles) {
+                UpdateCount count = applyFile(file, decoder, writeBatchSize, batch -> {
+                    persistence.putNewAmounts(batch);
+                    return batch.size();
+                });
+                LOGGER.info("Additions " + file + ": " + count.parsed() + " address(es) written.");
+                additionsParsed += count.parsed();
+                unsupported += count.unsupported();
+            }
+
+            long entriesAfter = persistence.count();
+            LOGGER.info("... update done: " + removed + " of " + removalsParsed + " removal(s) applied, "
+                    + additionsParsed + " addition(s) written, " + unsupported + " unsupported line(s); "
+                    + entriesBefore + " -> " + entriesAfter + " entries.");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update " + lmdbConfigurationWrite.lmdbDirectory, e);
+        }
+    }
+
+    /**
+     * Reads one file, decompressed if it is named {@code *.gz}, line by line as raw bytes into sorted
+     * batches and hands each full batch, and the last partial one, to {@code write}.
+     *
+     * @param write writes a batch and returns how many entries it changed
+     * @return the parsed address and unsupported line counts and the total returned by {@code write}
+     */
+    private UpdateCount applyFile(
+            File file, AddressLineDecoder decoder, int writeBatchSize, ToIntFunction<AddressBatch> write)
+            throws IOException {
+        AddressBatch batch = new AddressBatch(writeBatchSize);
+        long parsed = 0;
+        long unsupported = 0;
+        long changed = 0;
+        try (InputStream inputStream = fileHelper.decompressIfGzip(file, Files.newInputStream(file.toPath()))) {
+            ByteLineReader reader = new ByteLineReader(inputStream);
+            while (shouldRun.get() && reader.readLine()) {
+                if (decoder.decode(reader.bytes(), reader.start(), reader.end(), batch)
+                        != AddressLineDecoder.Result.ADDED) {
+                    unsupported++;
+                } else if (batch.isFull()) {
+                    parsed += batch.size();
+                    changed += flush(batch, write);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            parsed += batch.size();
+            changed += flush(batch, write);
+        }
+        return new UpdateCount(parsed, unsupported, changed);
+    }
+
+    private static int flush(AddressBatch batch, ToIntFunction<AddressBatch> write) {
+        batch.sortByHash160();
+        int changed = write.applyAsInt(batch);
+        batch.clear();
+        return changed;
+    }
+
+    @Override
+    public void interrupt() {
+        shouldRun.set(false);
+    }
+
+    /** Parsed addresses and unsupported lines of one file, and how many addresses changed the database. */
+    private record UpdateCount(long parsed, long unsupported, long changed) {}
+}
@@ -374,11 +374,19 @@ public class TuneConfiguration implements Runnable, Interruptable {
         KeyUtility keyUtility = keyUtility();
         BitHelper bitHelper = new BitHelper();
 
+        int maxBatchSizeInBits = 0;
+        for (int batchSizeInBits : cTuneConfiguration.batchSizeInBitsCandidates) {
+            maxBatchSizeInBits = Math.max(maxBatchSizeInBits, batchSizeInBits);
+        }
+        // Sized for the largest listed grid; arms added by the sweep extension still run, with a
+        // queue holding fewer of their batches.
         ConsumerJava consumer = new ConsumerJava(
                 cConsumerJava,
                 keyUtility,
                 new PersistenceUtils(new NetworkParameterFactory().getNetwork()),
-                runtimeStatistics);
+                runtimeStatistics,
+                List.of(),
+                1 << maxBatchSizeInBits);
         // The scan hot path needs *a* lookup, but not a truthful one — see NEVER_PRESENT.
         consumer.initWithLookup(NEVER_PRESENT);
         consumer.startConsumer();
@@ -0,0 +1,54 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Optional adaptive sizing of the consumer worker threads.
+ *
+ * <p>With a fixed {@code consumerJava.threads}, a machine that alternates between workloads — an
+ * OpenCL producer switching between full transfer and compact mode, or a change of lookup backend —
+ * is tuned for one of them at best: too few workers and the keys queue fills up and blocks the
+ * producers, too many and the surplus workers only spin on an empty queue. When enabled,
+ * {@code consumerJava.threads} workers are started as before, but only some of them are active; the
+ * others park. Every {@link #adjustEveryNMillis} the number of active workers is raised by one if a
+ * producer found the keys queue full or the active workers were busier than
+ * {@link #targetUtilization}, and lowered by one if the workers went idle and one fewer would still
+ * stay below it.
+ *
+ * <p>Off by default: all {@code consumerJava.threads} workers are active, as before.
+ */
+@ToString
+@EqualsAndHashCode
+public class CAdaptiveThreads {
+
+    /** Creates a new {@link CAdaptiveThreads}. */
+    public CAdaptiveThreads() {}
+
+    /** Whether the number of active consumer workers adapts at all. Default: {@code false}. */
+    public boolean enabled = false;
+
+    /**
+     * Fewest active consumer workers; {@code consumerJava.threads} is the most. Must be between
+     * {@code 1} and {@code consumerJava.threads}. With thread placement enabled, set it to at least
+     * the number of nodes so every node keeps a worker on its own queue. Default: {@code 1}.
+     */
+    public int minThreads = 1;
+
+    /**
+     * Interval, in milliseconds, between two adjustments. Each adjustment moves by one worker, so
+     * this also bounds how fast the pool follows a change of workload. Must be positive.
+     * Default: {@code 2000}.
+     */
+    public long adjustEveryNMillis = 2000L;
+
+    /**
+     * Share of the interval the active workers should spend checking batches, between {@code 0}
+     * and {@code 1}. Above it a worker is added; a worker is removed only if the remaining ones would
+     * still stay below it, so the count does not oscillate. Default: {@code 0.8}.
+     */
+    public double targetUtilization = 0.8;
+}
@@ -0,0 +1,19 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+/**
+ * Compression of the file written by the LMDB-to-address-file exporter.
+ */
+public enum CAddressFileCompression {
+    /**
+     * The file is written as plain text.
+     */
+    NONE,
+    /**
+     * The file is written gzip compressed. Name it with a {@code .gz} suffix: address files with that suffix are
+     * decompressed on import.
+     */
+    GZIP
+}
@@ -18,5 +18,11 @@ public enum CAddressFileOutputFormat {
     /**
      * The addresses will be written with amount. Separated with a {@link net.ladenthin.bitcoinaddressfinder.io.SeparatorFormat#COMMA}.
      */
-    DynamicWidthBase58BitcoinAddressWithAmount
+    DynamicWidthBase58BitcoinAddressWithAmount,
+    /**
+     * The hash160 and amount of every address will be written as fixed-width binary records, sorted by hash160, with a header and an index.
+     * The file can be imported with {@code AddressFilesToLMDB} without parsing and used as the address source of {@code Find} directly.
+     * Not compressible.
+     */
+    SortedBinaryHash160WithAmount
 }
@@ -57,6 +57,7 @@ public class CAddressFilesToLMDB {
      * Capacity of each internal hand-off queue (reader→parser lines and parser→writer entries). This is
      * back-pressure: it stops a fast stage from outrunning a slow one and exhausting the heap. Higher
      * values absorb bursts at the cost of memory; the default of {@code 200000} suits large imports.
+     * Lines and entries travel in blocks of 1024, so the capacity is rounded up to whole blocks.
      * Values below {@code 1} are treated as {@code 1}.
      */
     public int queueCapacity = 200_000;
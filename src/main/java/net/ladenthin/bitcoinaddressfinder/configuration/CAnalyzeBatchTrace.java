@@ -0,0 +1,26 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Configuration for the {@code AnalyzeBatchTrace} command: read a Java Flight Recorder file recorded
+ * during a {@code Find} run and print where the time of a batch goes, stage by stage.
+ */
+@ToString
+@EqualsAndHashCode
+public class CAnalyzeBatchTrace {
+
+    /** Creates a new {@link CAnalyzeBatchTrace}. */
+    public CAnalyzeBatchTrace() {}
+
+    /**
+     * The recording to analyze, e.g. written by starting {@code Find} with
+     * {@code -XX:StartFlightRecording=filename=trace.jfr}. Only the batch stage events are read; any
+     * other events in the file are skipped.
+     */
+    public String jfrFile = "";
+}
@@ -0,0 +1,29 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Configuration for a chunk scheduler: one incremental key range shared by every producer that
+ * references its {@link #keyProducerId}, handed out in chunks sized to each producer's measured
+ * throughput. The inherited {@link #checkpointFile} persists the watermark below which every chunk
+ * is done; {@link #checkpointEveryNSeconds} does not apply, the scheduler writes whenever the
+ * watermark advances. The inherited shard fields do not apply; a scheduler cannot be sharded.
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class CChunkScheduler extends CKeyProducerJavaIncremental {
+
+    /** Creates a new {@link CChunkScheduler}. */
+    public CChunkScheduler() {}
+
+    /**
+     * Wall-clock time a chunk should take its producer, in seconds. A producer's next chunk is sized
+     * from the throughput it achieved on its previous one, so a fast GPU and a slow CPU producer both
+     * return for more work about this often. Must be positive.
+     */
+    public double targetChunkSeconds = 10.0;
+}
@@ -35,5 +35,15 @@ public enum CCommand {
      * Write every address present in one of the "other" databases but not in a reference database to a
      * plaintext file (one Base58 P2PKH address per line), computed by a cursor-based sorted merge.
      */
-    LMDBDelta
+    LMDBDelta,
+    /**
+     * Apply address removals and additions, such as the output of {@code LMDBDelta}, to an existing LMDB
+     * database in sorted batches instead of importing every address file again.
+     */
+    LMDBUpdate,
+    /**
+     * Read a Java Flight Recorder file recorded during {@code Find} and print a per-stage latency
+     * breakdown of the batches in it, naming the stage that dominates the critical path.
+     */
+    AnalyzeBatchTrace
 }
@@ -30,4 +30,8 @@ public class CConfiguration {
     public @Nullable CCompactLMDB compactLMDB;
     /** Configuration for the {@code LMDBDelta} command. */
     public @Nullable CLMDBDelta lmdbDelta;
+    /** Configuration for the {@code LMDBUpdate} command. */
+    public @Nullable CLMDBUpdate lmdbUpdate;
+    /** Configuration for the {@code AnalyzeBatchTrace} command. */
+    public @Nullable CAnalyzeBatchTrace analyzeBatchTrace;
 }
@@ -3,6 +3,8 @@
 // SPDX-License-Identifier: Apache-2.0
 package net.ladenthin.bitcoinaddressfinder.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.jspecify.annotations.NonNull;
@@ -31,8 +33,19 @@ public class CConsumerJava {
      * dead time (filter build, kernel compile) once the window has advanced past it. Default: 60.
      */
     public int statisticsRateWindowSeconds = 60;
-    /** Number of consumer worker threads. */
+    /**
+     * Only one address lookup in this many is timed for the {@code Lookup latency} percentiles of the
+     * statistics line; the others are not timed at all, so the clock reads stay out of the hot path.
+     * {@code 1} times every lookup. Must be at least {@code 1}. Default: {@code 1024}.
+     */
+    public int lookupLatencySampleInterval = 1024;
+    /** Number of consumer worker threads; the upper bound if {@link #adaptiveThreads} is enabled. */
     public int threads = 4;
+    /**
+     * Optional adaptive sizing of the active consumer workers between a lower bound and
+     * {@link #threads}. Off by default; see {@link CAdaptiveThreads}.
+     */
+    public @NonNull CAdaptiveThreads adaptiveThreads = new CAdaptiveThreads();
     /**
      * Maximum time, in milliseconds, the consumer blocks per loop cycle waiting for
      * the next batch from the keys queue (the {@code poll} timeout). After draining
@@ -42,9 +55,44 @@ public class CConsumerJava {
      * empty for the whole window. Default: {@code 100}.
      */
     public long queuePollTimeoutMillis = 100;
-    /** Maximum number of pending key batches the consumer queue may hold. */
+    /**
+     * Maximum number of pending key batches the consumer queue may hold. A batch split into chunks
+     * (see {@link #batchChunkSize}) still counts as one: the queue is sized to hold this many
+     * batches of the largest configured producer batch size. Default: {@code 10}.
+     */
     public int queueSize = 10;
 
+    /**
+     * How producers wait on a full keys queue and consumers wait on an empty one. The queue is
+     * lock-free; this only decides what a waiting thread does with its core. Default:
+     * {@link QueueWaitStrategy#PARK}.
+     */
+    public @NonNull QueueWaitStrategy queueWaitStrategy = QueueWaitStrategy.PARK;
+
+    /**
+     * Maximum number of queued batches one consumer thread claims from the keys queue at once.
+     * Claiming several with one atomic operation pays off when batches are tiny (one secret per
+     * batch from a secrets file); with large grid batches it would only leave the other consumer
+     * threads idle while one works through the claimed run. Default: {@code 1}.
+     */
+    public int queueClaimBatchSize = 1;
+
+    /**
+     * Largest number of candidates one consumer thread checks as a unit. A producer batch with more
+     * candidates is split into chunks of this size that all consumer threads check concurrently; the
+     * listeners still receive one result per batch once its last chunk is checked. Without the split
+     * an OpenCL full-transfer batch of {@code 2^20} or more candidates keeps one consumer thread busy
+     * while the others idle. Each chunk occupies one entry of the keys queue, which is sized so that
+     * {@link #queueSize} still counts whole batches. {@code 0} disables splitting. Default: {@code 65536}.
+     */
+    public int batchChunkSize = 1 << 16;
+
+    /**
+     * Optional placement of the consumer threads, and of the producers started alongside them, onto
+     * NUMA nodes or other CPU groups. Off by default; see {@link CThreadPlacement}.
+     */
+    public @NonNull CThreadPlacement threadPlacement = new CThreadPlacement();
+
     /**
      * Maximum time (in seconds) {@link net.ladenthin.bitcoinaddressfinder.consumer.ConsumerJava#interrupt()}
      * waits for the worker pool to drain the keys queue before giving up and logging a warning.
@@ -79,6 +127,25 @@ public class CConsumerJava {
     /** Whether to enable vanity-address pattern matching. */
     public boolean enableVanity = false;
 
-    /** Optional vanity pattern (regex) used when {@link #enableVanity} is {@code true}. */
+    /**
+     * Optional vanity pattern (regex) used when {@link #enableVanity} is {@code true}. Matched against
+     * the whole Base58 address. A literal prefix and/or suffix such as {@code 1Love.*} or
+     * {@code .*Zz} is checked on the raw hash160 without encoding the address; any other regex is
+     * matched against every encoded address.
+     */
     public @Nullable String vanityPattern;
+
+    /**
+     * Further vanity patterns, in the same form as {@link #vanityPattern}. All configured patterns are
+     * combined into one index, so the cost per candidate stays nearly constant as long as the
+     * patterns are literal prefixes and suffixes. A hit reports the first matching pattern in the
+     * order {@link #vanityPattern}, this list, {@link #vanityPatternsFile}.
+     */
+    public List<String> vanityPatterns = new ArrayList<>();
+
+    /**
+     * Optional path to a UTF-8 file with one vanity pattern per line; blank lines and lines starting
+     * with {@code #} are ignored. Read once when the consumer starts.
+     */
+    public @Nullable String vanityPatternsFile;
 }
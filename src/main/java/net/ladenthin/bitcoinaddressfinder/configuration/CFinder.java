@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -31,6 +32,12 @@ public class CFinder {
     public List<CKeyProducerJavaWebSocket> keyProducerJavaWebSocket = new ArrayList<>();
     /** ZeroMQ key producer configurations. */
     public List<CKeyProducerJavaZmq> keyProducerJavaZmq = new ArrayList<>();
+    /** Seed-range key producer configurations replaying weakly seeded wallets. */
+    public List<CKeyProducerJavaSeedRange> keyProducerJavaSeedRange = new ArrayList<>();
+    /** Dictionary (brain-wallet) key producer configurations. */
+    public List<CKeyProducerJavaDictionary> keyProducerJavaDictionary = new ArrayList<>();
+    /** Chunk schedulers sharing one incremental range between several producers. */
+    public List<CChunkScheduler> chunkScheduler = new ArrayList<>();
 
     /** Consumer configuration. */
     public @Nullable CConsumerJava consumerJava;
@@ -43,6 +50,18 @@ public class CFinder {
      */
     public long awaitTerminateSeconds = 365L * 1000L * 24L * 3600L;
 
+    /** Prometheus metrics endpoint; off by default. */
+    public @NonNull CMetricsEndpoint metricsEndpoint = new CMetricsEndpoint();
+
+    /**
+     * Whether the threads that only wait on the network run as virtual threads: the readers of the
+     * socket and ZeroMQ key producers, and the accept loop of the socket result server, which then
+     * also gives every connected client a writer thread of its own instead of writing on the
+     * consumer thread. Key derivation and the address lookups stay on platform threads either way.
+     * Default: {@code false}.
+     */
+    public boolean virtualIoThreads = false;
+
     /** Java CPU producer configurations. */
     public List<CProducerJava> producerJava = new ArrayList<>();
     /** Secrets-file based producer configurations. */
@@ -0,0 +1,47 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Configuration for the dictionary (brain-wallet) key producer: every candidate passphrase is
+ * hashed with SHA-256 and the digest is the private key.
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class CKeyProducerJavaDictionary extends CKeyProducerJava {
+
+    /** Creates a new {@link CKeyProducerJavaDictionary}. */
+    public CKeyProducerJavaDictionary() {}
+
+    /**
+     * The wordlist, one passphrase per line (UTF-8, {@code \n}, {@code \r\n} or {@code \r} line
+     * endings). Every line is hashed byte for byte, so the keys match {@link CSecretFormat#STRING_SHA256}.
+     * Empty lines are skipped, so the empty passphrase is never tried.
+     */
+    public @Nullable String dictionaryFile;
+
+    /**
+     * Also try the lower case, upper case and capitalized form of every line. Forms equal to the line
+     * itself are tried once.
+     */
+    public boolean caseMutations;
+
+    /**
+     * Also append every decimal number from {@code 0} to this value (inclusive) to every line, e.g.
+     * {@code 2025} covers {@code "password1"} and {@code "summer2025"}. {@code null} (default)
+     * appends no numbers.
+     */
+    public @Nullable Integer appendNumbersUpTo;
+
+    /**
+     * Optional second wordlist whose non-empty lines are appended to every dictionary line (a
+     * combinator attack), or {@code null} (default). It is held in memory, so keep it small: the candidate count
+     * is the product of both lists.
+     */
+    public @Nullable String appendWordsFile;
+}
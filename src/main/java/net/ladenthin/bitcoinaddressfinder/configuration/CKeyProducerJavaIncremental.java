@@ -8,6 +8,7 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.constants.Radix;
 import net.ladenthin.bitcoinaddressfinder.constants.Secp256k1Constants;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Configuration for the incremental (sequential range) key producer.
@@ -24,6 +25,40 @@ public class CKeyProducerJavaIncremental extends CKeyProducerJava {
     /** Inclusive upper bound of the scanned private-key range as a hex string. */
     public String endPrivateKey = Secp256k1Constants.MAX_PRIVATE_KEY_HEX;
 
+    /**
+     * File the completed-range watermark is checkpointed to, or {@code null} (default) to not
+     * checkpoint. Every key below the watermark has been checked by the consumer; on the next start
+     * the scan resumes there instead of at {@link #startPrivateKey}. Requires producers running with
+     * {@code batchUsePrivateKeyIncrement}, because only then is a checked batch attributable to its
+     * range.
+     */
+    public @Nullable String checkpointFile;
+
+    /**
+     * Minimum interval between two checkpoint writes, in seconds. A crash loses at most this much
+     * progress; the final watermark is always written on an orderly shutdown.
+     */
+    public int checkpointEveryNSeconds = 60;
+
+    /**
+     * Number of independent instances splitting the range, {@code 1} (default) to scan all of it.
+     * The range is cut into chunks of {@code 2^shardChunkSizeInBits} keys counted from
+     * {@link #startPrivateKey}, and chunk {@code k} belongs to the instance whose {@link #shardIndex}
+     * is {@code k mod shardCount}. No coordinator is needed: every instance derives the same
+     * assignment from its own configuration.
+     */
+    public int shardCount = 1;
+
+    /** This instance's shard, {@code 0 <= shardIndex < shardCount}. */
+    public int shardIndex = 0;
+
+    /**
+     * {@code log2} of the shard chunk size. Must be at least the {@code batchSizeInBits} of every
+     * producer, so a batch never crosses into another instance's chunk; larger chunks keep each
+     * instance on longer contiguous runs. Only used when {@link #shardCount} is greater than one.
+     */
+    public int shardChunkSizeInBits = 32;
+
     /**
      * Returns the configured inclusive lower bound of the scanned private-key range.
      *
@@ -0,0 +1,40 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Configuration for the seed-range key producer: replays the keys a weakly seeded wallet would have
+ * generated, for every seed in a range.
+ */
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class CKeyProducerJavaSeedRange extends CKeyProducerJava {
+
+    /** Creates a new {@link CKeyProducerJavaSeedRange}. */
+    public CKeyProducerJavaSeedRange() {}
+
+    /**
+     * The generator the wallet used. {@link CKeyProducerJavaRandomAlgorithm#RANDOM_CURRENT_TIME_MILLIS_SEED}
+     * (default) and {@link CKeyProducerJavaRandomAlgorithm#RANDOM_CUSTOM_SEED} both replay
+     * {@code java.util.Random}; {@link CKeyProducerJavaRandomAlgorithm#SHA1_PRNG} replays a seeded
+     * {@code SHA1PRNG}. {@link CKeyProducerJavaRandomAlgorithm#SECURE_RANDOM} cannot be replayed.
+     */
+    public CKeyProducerJavaRandomAlgorithm randomAlgorithm =
+            CKeyProducerJavaRandomAlgorithm.RANDOM_CURRENT_TIME_MILLIS_SEED;
+
+    /** First seed of the range (inclusive), e.g. the earliest plausible creation time in milliseconds. */
+    public long firstSeed;
+
+    /** Last seed of the range (inclusive). */
+    public long lastSeed;
+
+    /**
+     * Number of keys the wallet drew from each seed. Every seed yields exactly these first keys of
+     * its stream, each of {@link #privateKeyMaxNumBits} bits, in the order the wallet drew them.
+     */
+    public int keysPerSeed = 1;
+}
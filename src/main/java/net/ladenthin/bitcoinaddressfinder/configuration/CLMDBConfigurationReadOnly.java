@@ -21,6 +21,15 @@ public class CLMDBConfigurationReadOnly {
      */
     public String lmdbDirectory = "";
 
+    /**
+     * A sorted binary address file, as written by {@code LMDBToAddressFile} with
+     * {@link CAddressFileOutputFormat#SortedBinaryHash160WithAmount}, to build the address lookup from
+     * instead of the LMDB database. The file is memory-mapped; {@link #lmdbDirectory} is not opened.
+     * With {@link AddressLookupBackend#LMDB_ONLY} lookups are answered by binary search in the file.
+     * Default: {@code ""} (use the LMDB database).
+     */
+    public String sortedAddressFile = "";
+
     /**
      * Whether to use the optimal LMDB proxy implementation
      * (see {@link org.lmdbjava.ByteBufferProxy#PROXY_OPTIMAL}).
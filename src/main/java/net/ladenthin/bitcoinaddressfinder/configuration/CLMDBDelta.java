@@ -31,4 +31,19 @@ public class CLMDBDelta {
      * {@code AddressFilesToLMDB}.
      */
     public String deltaAddressesFile = "";
+
+    /**
+     * Number of key ranges the merge is split into. Ranges are cut evenly over the first two bytes of
+     * the hash160, which are uniformly distributed, and are merged independently; their outputs are
+     * written in key order, so the file is identical for every value. More ranges balance the threads
+     * better and keep less output buffered per range. Must be between {@code 1} and {@code 65536}.
+     * Default: {@code 1024}.
+     */
+    public int partitions = 1024;
+
+    /**
+     * Number of threads merging key ranges in parallel; {@code 0} uses one per available processor.
+     * At most {@code 2 * threads} merged ranges wait in memory to be written. Default: {@code 0}.
+     */
+    public int threads = 0;
 }
@@ -24,4 +24,23 @@ public class CLMDBToAddressFile {
 
     /** Output format for the destination address file. */
     public CAddressFileOutputFormat addressFileOutputFormat = CAddressFileOutputFormat.HexHash;
+
+    /**
+     * Number of key ranges the export is split into. Ranges are cut evenly over the first two bytes of
+     * the hash160 and formatted independently; their outputs are written in key order, so the file is
+     * identical for every value. Must be between {@code 1} and {@code 65536}. Default: {@code 1024}.
+     */
+    public int partitions = 1024;
+
+    /**
+     * Number of threads formatting key ranges in parallel, each with its own read transaction and
+     * cursor; {@code 0} uses one per available processor. At most {@code 2 * threads} formatted ranges
+     * wait in memory to be written. Default: {@code 0}.
+     */
+    public int threads = 0;
+
+    /**
+     * Compression of the destination file. Default: {@link CAddressFileCompression#NONE}.
+     */
+    public CAddressFileCompression compression = CAddressFileCompression.NONE;
 }
@@ -0,0 +1,45 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Configuration for the {@code LMDBUpdate} command: apply address removals and additions to an existing
+ * LMDB database instead of importing every address file again.
+ */
+@ToString
+@EqualsAndHashCode
+public class CLMDBUpdate {
+
+    /** Creates a new {@link CLMDBUpdate}. */
+    public CLMDBUpdate() {}
+
+    /**
+     * Address files whose addresses are removed from the database, in the formats
+     * {@code AddressFilesToLMDB} reads; amounts are ignored. Applied before {@link #additionsFiles}, so
+     * an address listed in both is present afterwards.
+     */
+    public List<String> removalsFiles = new ArrayList<>();
+
+    /**
+     * Address files whose addresses are added to the database, in the formats {@code AddressFilesToLMDB}
+     * reads — for example the output of {@code LMDBDelta}. Amounts, {@code useStaticAmount} and
+     * {@code deleteEmptyAddresses} are handled as on an import.
+     */
+    public List<String> additionsFiles = new ArrayList<>();
+
+    /**
+     * Number of addresses sorted and written per transaction. Values below {@code 1} are treated as
+     * {@code 1}. Default: {@code 32768}.
+     */
+    public int writeBatchSize = 32_768;
+
+    /** The database to update; it must already exist. */
+    public @Nullable CLMDBConfigurationWrite lmdbConfigurationWrite;
+}
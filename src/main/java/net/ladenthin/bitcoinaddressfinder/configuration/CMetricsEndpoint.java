@@ -0,0 +1,39 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Optional HTTP endpoint serving the runtime metrics of the {@code Find} command in the Prometheus
+ * text exposition format, for a scraper such as Prometheus, VictoriaMetrics or the OpenTelemetry
+ * collector.
+ *
+ * <p>Off by default. The metrics are the values the statistics line is rendered from, read on
+ * demand when the endpoint is scraped, so a running endpoint adds nothing to the scan itself.
+ */
+@ToString
+@EqualsAndHashCode
+public class CMetricsEndpoint {
+
+    /** Creates a new {@link CMetricsEndpoint}. */
+    public CMetricsEndpoint() {}
+
+    /** Whether the endpoint is served at all. Default: {@code false}. */
+    public boolean enabled = false;
+
+    /**
+     * Address the endpoint binds to. The default only accepts connections from the local machine;
+     * use {@code "0.0.0.0"} to let a scraper on another host reach it. The metrics disclose
+     * throughput and hit counts, not keys. Default: {@code "127.0.0.1"}.
+     */
+    public String bindAddress = "127.0.0.1";
+
+    /**
+     * TCP port of the endpoint; the metrics are served under {@code /metrics}. {@code 0} picks a free
+     * port, which is logged. Default: {@code 9464}.
+     */
+    public int port = 9464;
+}
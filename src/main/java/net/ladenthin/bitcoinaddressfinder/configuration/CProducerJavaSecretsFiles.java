@@ -28,4 +28,11 @@ public class CProducerJavaSecretsFiles extends CProducerJava {
      * The line format of every file in {@link #secretsFiles}.
      */
     public CSecretFormat secretFormat = CSecretFormat.STRING_SHA256;
+
+    /**
+     * Number of threads reading and decoding each file. With {@code 1} (default) the secrets keep
+     * the file order; with more, each thread takes a chunk of the file and the order across chunks
+     * is lost, which does not matter for checking them.
+     */
+    public int readThreads = 1;
 }
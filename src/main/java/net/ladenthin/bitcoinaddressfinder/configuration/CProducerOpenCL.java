@@ -29,6 +29,20 @@ public class CProducerOpenCL extends CProducer {
     /** Maximum number of threads that read OpenCL kernel results concurrently. */
     public int maxResultReaderThreads = 4;
 
+    /**
+     * Number of kernel launches kept in flight on the device.
+     * <p>
+     * With {@code 1} the next kernel is launched only after the previous result has been read back,
+     * so the GPU idles during every read-back. With {@code 2} or more, each launch has its own
+     * output buffer and its read-back runs on a separate transfer queue, so batch {@code N + 1} is
+     * computed while batch {@code N} is read back and parsed.
+     * <p>
+     * Each additional slot costs one more device output buffer of
+     * {@code 4 + 108 × 2^batchSizeInBits} bytes; lower this on a device that is short of memory at
+     * a large {@link #batchSizeInBits}. Must be at least {@code 1}.
+     */
+    public int pipelineDepth = 2;
+
     /**
      * Number of inner iterations each OpenCL work-item performs on the GPU.
      * <p>
@@ -214,4 +228,19 @@ public class CProducerOpenCL extends CProducer {
      * to AMD alone. See {@code docs/performance.md} ("slow AMD compile").
      */
     public @Nullable Boolean noInlineHelpers;
+
+    /**
+     * Directory of the on-disk OpenCL program binary cache, or {@code null} (default) to compile the
+     * kernel from source on every start.
+     * <p>
+     * When set, {@code OpenCLContext} stores the built program binary there and, on later starts,
+     * loads it with {@code clCreateProgramWithBinary} instead of compiling. Entries are keyed by the
+     * device name and vendor, the driver version, the build options (so {@link #useSafeGcdInverse},
+     * {@link #useReducedRadixField}, {@link #kernelProfileStage} and the resolved
+     * {@link #noInlineHelpers} each select their own entry) and a hash of the kernel sources; a driver
+     * update or a new release therefore never reuses a stale binary. A binary the driver rejects is
+     * deleted and the kernel is compiled from source. Several producers and devices may share one
+     * directory.
+     */
+    public @Nullable String programBinaryCacheDirectory;
 }
@@ -0,0 +1,59 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Optional placement of the consumer and producer threads onto groups of CPUs, typically one group
+ * per NUMA node.
+ *
+ * <p>On a multi-socket machine the scheduler is free to run a consumer thread on one socket while the
+ * batch it checks was written by a producer on the other, and while the in-memory filter it probes
+ * was allocated on either. Every cache miss then crosses the interconnect. Pinning both ends of the
+ * hand-off to the same node, and routing each batch to a consumer on the producer's node, keeps the
+ * batch in the node's last-level cache and the filter probes in node-local memory.
+ *
+ * <p>Off by default. On a single-socket machine there is nothing to gain, and pinning only takes
+ * freedom away from the scheduler. Pinning is implemented for Linux only (via {@code taskset}); on
+ * other platforms, or if pinning fails, a warning is logged and the threads keep their node
+ * assignment for routing but run unpinned.
+ */
+@ToString
+@EqualsAndHashCode
+public class CThreadPlacement {
+
+    /** Creates a new {@link CThreadPlacement}. */
+    public CThreadPlacement() {}
+
+    /** Whether threads are placed at all. Default: {@code false}. */
+    public boolean enabled = false;
+
+    /**
+     * One CPU list per node, in the Linux {@code cpuset} list syntax understood by
+     * {@code taskset -c}: comma-separated CPU numbers and inclusive ranges, for example
+     * {@code "0-15,32-47"} for the first socket of a two-socket machine with hyper-threading. The
+     * node layout of a machine is printed by {@code lscpu} ({@code NUMA nodeN CPU(s)}).
+     *
+     * <p>Consumer threads are assigned to the nodes round-robin, and so are the producers started by
+     * the engine. Each node gets its own keys queue of {@code consumerJava.queueSize} entries. Must
+     * not be empty when {@link #enabled} is {@code true}.
+     */
+    public List<String> nodeCpuSets = new ArrayList<>();
+
+    /**
+     * Whether the in-memory address lookup is built once per node, on a thread pinned to that node.
+     * Linux allocates a page on the node of the thread that first writes it, so each replica lands in
+     * its node's memory and every consumer probes a node-local copy.
+     *
+     * <p>Multiplies both the lookup's memory footprint and its build time by the number of nodes.
+     * Has no effect for backends that read LMDB directly ({@code LMDB_ONLY}): the memory-mapped
+     * database is shared by the operating system's page cache and cannot be replicated from here.
+     * Default: {@code false}.
+     */
+    public boolean replicateLookupPerNode = false;
+}
@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.configuration;
+
+/**
+ * How a thread waits on the producer&#x2192;consumer keys queue when it cannot make progress: a
+ * producer facing a full queue, or a consumer facing an empty one.
+ *
+ * <p>The queue itself is lock-free, so waiting is purely a question of what the thread does with the
+ * core while it retries. The choices trade wake-up latency against CPU burned while idle:
+ *
+ * <ul>
+ *   <li>{@link #SPIN} - busy-spins with {@link Thread#onSpinWait()}. Lowest hand-off latency, but a
+ *       waiting thread occupies a full core. Only sensible when every consumer and producer thread
+ *       has a dedicated core and the queue is rarely empty (a saturated GPU feeding the CPU).</li>
+ *   <li>{@link #YIELD} - spins briefly, then {@link Thread#yield()}s between retries. Gives the core
+ *       back to the scheduler if another runnable thread wants it; still shows as busy in
+ *       {@code top}.</li>
+ *   <li>{@link #PARK} - spins briefly, then parks for a short, bounded interval between retries.
+ *       Idle threads cost (almost) nothing. The default: the per-batch hand-off happens at most a
+ *       few thousand times per second, so a few microseconds of wake-up latency is invisible next to
+ *       the work in one batch.</li>
+ * </ul>
+ */
+public enum QueueWaitStrategy {
+    /** Busy-spin with {@link Thread#onSpinWait()} between retries. */
+    SPIN,
+    /** Spin briefly, then {@link Thread#yield()} between retries. */
+    YIELD,
+    /** Spin briefly, then park for a short bounded interval between retries. */
+    PARK
+}
@@ -0,0 +1,161 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAdaptiveThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides how many of the consumer workers are active, see {@link CAdaptiveThreads}.
+ *
+ * <p>The workers report the time they spend checking batches; {@link #adjust(long, long, long)} runs
+ * once per interval on the consumer's scheduler and compares that busy time, and the consumer's
+ * producer-blocked and ready counters, with the previous interval. Workers are numbered from
+ * {@code 0}; a worker is active while its number is below the active count, so shrinking parks the
+ * highest-numbered workers first.
+ *
+ * <p>Disabled, every worker is always active and nothing is adjusted.
+ */
+@ToString
+public final class AdaptiveThreads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveThreads.class);
+
+    private final boolean enabled;
+
+    private final int minThreads;
+
+    private final int maxThreads;
+
+    private final double targetUtilization;
+
+    private final AtomicInteger activeThreads;
+
+    /** Time the workers spent checking batches since the last adjustment. */
+    @ToString.Exclude
+    private final LongAdder busyNanos = new LongAdder();
+
+    /** Counter values seen by the last adjustment; only touched by the scheduler thread. */
+    @ToString.Exclude
+    private long lastProducerBlocked;
+
+    @ToString.Exclude
+    private long lastConsumerReady;
+
+    /**
+     * Creates the sizing described by the configuration. All workers start active.
+     *
+     * @param config     the adaptive sizing configuration
+     * @param maxThreads the number of workers started, {@code consumerJava.threads}
+     * @throws IllegalArgumentException if enabled with bounds, an interval or a target utilization
+     *                                  out of range
+     */
+    public AdaptiveThreads(CAdaptiveThreads config, int maxThreads) {
+        this.enabled = config.enabled;
+        this.minThreads = config.minThreads;
+        this.maxThreads = maxThreads;
+        this.targetUtilization = config.targetUtilization;
+        if (enabled) {
+            if (minThreads < 1 || minThreads > maxThreads) {
+                throw new IllegalArgumentException("consumerJava.adaptiveThreads.minThreads must be between 1 and "
+                        + "consumerJava.threads (" + maxThreads + ") but was " + minThreads);
+            }
+            if (config.adjustEveryNMillis < 1) {
+                throw new IllegalArgumentException("consumerJava.adaptiveThreads.adjustEveryNMillis must be positive "
+                        + "but was " + config.adjustEveryNMillis);
+            }
+            if (!(targetUtilization > 0.0 && targetUtilization <= 1.0)) {
+                throw new IllegalArgumentException("consumerJava.adaptiveThreads.targetUtilization must be in (0, 1] "
+                        + "but was " + targetUtilization);
+            }
+        }
+        this.activeThreads = new AtomicInteger(maxThreads);
+    }
+
+    /**
+     * Returns whether the number of active workers adapts at all.
+     *
+     * @return {@code true} if adaptive sizing is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns whether the given worker should take batches from the keys queue.
+     *
+     * @param workerIndex the worker's number, from {@code 0}
+     * @return {@code true} if the worker is active
+     */
+    public boolean isActive(int workerIndex) {
+        return workerIndex < activeThreads.get();
+    }
+
+    /**
+     * Returns the number of active workers.
+     *
+     * @return the active worker count
+     */
+    public int getActiveThreads() {
+        return activeThreads.get();
+    }
+
+    /**
+     * Records time a worker spent checking a batch.
+     *
+     * @param nanos the processing time of one batch
+     */
+    public void addBusyNanos(long nanos) {
+        busyNanos.add(nanos);
+    }
+
+    /**
+     * Moves the active worker count by at most one, based on the interval that just ended: up if a
+     * producer found the queue full or the workers were busier than the target, down if a worker
+     * went idle and one fewer would still stay below the target.
+     *
+     * @param producerBlockedTotal the consumer's running count of batches finding no room in the
+     *                             queue; a batch split into chunks counts once, and only if its
+     *                             chunks do not fit
+     * @param consumerReadyTotal   the consumer's running count of cycles that found no work
+     * @param elapsedNanos         the length of the interval that just ended
+     * @return the new active worker count
+     */
+    public int adjust(long producerBlockedTotal, long consumerReadyTotal, long elapsedNanos) {
+        final long blocked = producerBlockedTotal - lastProducerBlocked;
+        final long ready = consumerReadyTotal - lastConsumerReady;
+        lastProducerBlocked = producerBlockedTotal;
+        lastConsumerReady = consumerReadyTotal;
+        final long busy = busyNanos.sumThenReset();
+        final int current = activeThreads.get();
+        if (!enabled || elapsedNanos <= 0) {
+            return current;
+        }
+
+        final double utilization = busy / ((double) current * elapsedNanos);
+        final int next;
+        if ((blocked > 0 || utilization > targetUtilization) && current < maxThreads) {
+            next = current + 1;
+        } else if (blocked == 0
+                && ready > 0
+                && current > minThreads
+                && busy < targetUtilization * (current - 1) * elapsedNanos) {
+            next = current - 1;
+        } else {
+            return current;
+        }
+        activeThreads.set(next);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(String.format(Locale.ROOT,
+                    "Active consumer threads: %d -> %d (utilization %.0f %%, producers blocked %d times).",
+                    current, next, 100.0 * utilization, blocked));
+        }
+        return next;
+    }
+}
@@ -0,0 +1,94 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.core.Hit;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Collects the outcomes of the chunks one oversized producer batch was split into, and yields the
+ * single {@link BatchResult} the listeners expect once the last chunk has been checked.
+ *
+ * <p>Splitting is invisible to the listeners: they still receive exactly one result per submitted
+ * batch, with the batch's full candidate count and every hit of every chunk. The result is emitted
+ * by whichever consumer thread happens to finish the last chunk, which keeps the "emitted after the
+ * whole batch was checked" guarantee the listeners rely on as a completion signal.
+ *
+ * <p>Hits are kept per chunk and concatenated in chunk order, so the reported hit order is the same
+ * as if one thread had checked the batch front to back, independent of which thread finished first.
+ */
+@ToString
+final class BatchAggregation {
+
+    private final @Nullable BigInteger secretBase;
+
+    private final int checkedCount;
+
+    private final int chunkCount;
+
+    @ToString.Exclude
+    private final AtomicReferenceArray<@Nullable List<Hit>> chunkHits;
+
+    private final AtomicInteger pendingChunks;
+
+    /**
+     * Creates an aggregation awaiting {@code chunkCount} chunks.
+     *
+     * @param secretBase   the aligned start of the swept grid, or {@code null}
+     * @param checkedCount the number of candidates in the whole batch
+     * @param chunkCount   the number of chunks the batch was split into; must be at least {@code 1}
+     */
+    BatchAggregation(@Nullable BigInteger secretBase, int checkedCount, int chunkCount) {
+        if (chunkCount < 1) {
+            throw new IllegalArgumentException("chunkCount must be >= 1 but was " + chunkCount);
+        }
+        this.secretBase = secretBase;
+        this.checkedCount = checkedCount;
+        this.chunkCount = chunkCount;
+        this.chunkHits = new AtomicReferenceArray<>(chunkCount);
+        this.pendingChunks = new AtomicInteger(chunkCount);
+    }
+
+    /**
+     * Records the hits of one checked chunk.
+     *
+     * @param chunkIndex the zero-based index of the chunk within the batch
+     * @param hits       the hits found in that chunk, possibly empty
+     * @return the result of the whole batch if this was the last outstanding chunk, otherwise
+     *     {@link Optional#empty()}
+     * @throws IllegalStateException if the same chunk is completed twice
+     */
+    Optional<BatchResult> completeChunk(int chunkIndex, List<Hit> hits) {
+        if (!chunkHits.compareAndSet(chunkIndex, null, hits)) {
+            throw new IllegalStateException("chunk " + chunkIndex + " of " + chunkCount + " completed twice");
+        }
+        // The decrement is a full barrier, so the last thread sees every chunk's hit list.
+        if (pendingChunks.decrementAndGet() != 0) {
+            return Optional.empty();
+        }
+        List<Hit> allHits = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            allHits.addAll(Objects.requireNonNull(chunkHits.get(i)));
+        }
+        return Optional.of(new BatchResult(secretBase, checkedCount, allHits));
+    }
+
+    /**
+     * Returns the number of chunks the batch was split into.
+     *
+     * @return the chunk count
+     */
+    int chunkCount() {
+        return chunkCount;
+    }
+}
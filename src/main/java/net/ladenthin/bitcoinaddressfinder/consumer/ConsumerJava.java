@@ -4,22 +4,27 @@
 package net.ladenthin.bitcoinaddressfinder.consumer;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.configuration.AddressLookupBackend;
 import net.ladenthin.bitcoinaddressfinder.configuration.CConsumerJava;
@@ -33,9 +38,11 @@ import net.ladenthin.bitcoinaddressfinder.core.InterruptedRuntimeException;
 import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
 import net.ladenthin.bitcoinaddressfinder.model.PublicKeyBytes;
 import net.ladenthin.bitcoinaddressfinder.persistence.AddressIterable;
+import net.ladenthin.bitcoinaddressfinder.persistence.AddressLookup;
 import net.ladenthin.bitcoinaddressfinder.persistence.AddressPresence;
 import net.ladenthin.bitcoinaddressfinder.persistence.Persistence;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.addressfile.SortedAddressFile;
 import net.ladenthin.bitcoinaddressfinder.persistence.bloom.BloomFilterAccelerator;
 import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.BinaryFuse16AddressPresence;
 import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.BinaryFuse16GpuFilterData;
@@ -47,10 +54,16 @@ import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.BlockedBloomAddre
 import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.HashSetAddressPresence;
 import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.TruncatedLong64SortedArrayPresence;
 import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStage;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTrace;
+import net.ladenthin.bitcoinaddressfinder.statistics.LatencyHistogram;
+import net.ladenthin.bitcoinaddressfinder.statistics.MetricsRegistry;
 import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
 import net.ladenthin.bitcoinaddressfinder.statistics.SlidingWindowRate;
 import net.ladenthin.bitcoinaddressfinder.statistics.Statistics;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.ThreadAffinity;
 import org.apache.commons.codec.binary.Hex;
 import org.bitcoinj.base.ScriptType;
 import org.bitcoinj.crypto.ECKey;
@@ -69,7 +82,7 @@ public class ConsumerJava implements Consumer {
      * Marker for the {@link #consumeKeysRunner} poll loop's intentional
      * InterruptedException swallow. Cancellation is via {@link #shouldRun}, not via
      * {@link Thread#interrupt()}. Restoring the flag would make the next
-     * {@link LinkedBlockingQueue#poll(long, TimeUnit)} call immediately re-throw,
+     * {@link MpmcRingBuffer#poll(long, TimeUnit)} call immediately re-throw,
      * producing a tight CPU loop until {@code shouldRun} also flips. The constant
      * is {@code false} so the if-branch is dead code (eliminated by the JIT) but
      * kept in source for readers and IDE navigation.
@@ -91,10 +104,24 @@ public class ConsumerJava implements Consumer {
     private static final long RATE_SAMPLE_INTERVAL_SECONDS = 1L;
 
     private final KeyUtility keyUtility;
-    /** Total number of address lookups performed. */
-    protected final AtomicLong checkedKeys = new AtomicLong();
-    /** Cumulative time spent inside the persistence's {@code containsAddress} calls (ms). */
-    protected final AtomicLong checkedKeysSumOfTimeToCheckContains = new AtomicLong();
+    /**
+     * Total number of address lookups performed. Incremented twice per candidate by every consumer
+     * thread, so a striped counter keeps the threads from contending on one cache line.
+     */
+    protected final LongAdder checkedKeys = new LongAdder();
+    /**
+     * Lookup latency histograms, one per consumer thread that has looked up an address; merged by
+     * the statistics printer. Excluded from {@link ToString} — the percentiles are in the log line.
+     */
+    @ToString.Exclude
+    private final List<LatencyHistogram> lookupLatencyHistograms = new CopyOnWriteArrayList<>();
+    /** The calling consumer thread's entry of {@link #lookupLatencyHistograms}. */
+    @ToString.Exclude
+    private final ThreadLocal<LatencyHistogram> lookupLatencyHistogram = ThreadLocal.withInitial(() -> {
+        final LatencyHistogram histogram = new LatencyHistogram(this.consumerJava.lookupLatencySampleInterval);
+        lookupLatencyHistograms.add(histogram);
+        return histogram;
+    });
     /**
      * Number of consume cycles in which the consumer found no work and was therefore ready
      * for more — the keys queue was empty for the entire wait window (nothing drained and
@@ -115,10 +142,12 @@ public class ConsumerJava implements Consumer {
     protected final AtomicLong consumerReadyCount = new AtomicLong();
     /**
      * Number of times a producer reached a <b>full</b> keys queue when enqueuing a batch
-     * (the bounded queue had no remaining capacity, so {@code put} must block until a
-     * slot frees). A rising value means the consumer/CPU is too slow to drain what the
-     * producers generate (CPU-bound). Stays near zero when the consumer keeps up. Sampled
-     * at enqueue time across all producer threads; a heuristic gauge, not exact accounting.
+     * (the bounded queue had no room left for all of the batch's chunks, so {@code put} must
+     * block until slots free). A batch larger than the whole queue only counts if the queue is
+     * completely full, so splitting alone never counts as blocking. A rising value means the
+     * consumer/CPU is too slow to drain what the producers generate (CPU-bound). Stays near zero
+     * when the consumer keeps up. Sampled at enqueue time across all producer threads; a heuristic
+     * gauge, not exact accounting.
      */
     protected final AtomicLong producerBlockedCount = new AtomicLong();
     /**
@@ -152,6 +181,13 @@ public class ConsumerJava implements Consumer {
      */
     protected @Nullable Persistence persistence;
 
+    /**
+     * The sorted binary address file the lookup chain was built from, instead of LMDB, when
+     * {@code sortedAddressFile} is configured; initialised in {@link #initLMDB()}. Like
+     * {@link #persistence} it is closed, and set to {@code null}, once nothing reads from it.
+     */
+    protected @Nullable SortedAddressFile sortedAddressFile;
+
     /**
      * Read-only presence chain the scan hot path queries through. Always non-null after
      * {@link #initLMDB()} returns; may be the LMDB instance itself ({@code LMDB_ONLY}),
@@ -160,6 +196,15 @@ public class ConsumerJava implements Consumer {
      */
     protected @Nullable AddressPresence lookup;
 
+    /**
+     * Per-node replicas of {@link #lookup}, indexed by node, when
+     * {@link ThreadPlacement#replicatesLookup()} is set and the backend is held in memory; empty
+     * otherwise. A consumer thread that entered a node probes that node's replica, which was built
+     * on a thread pinned to the node and so lives in the node's memory.
+     */
+    @ToString.Exclude
+    private List<AddressPresence> nodeLookups = List.of();
+
     /**
      * Whether {@link #initLMDB()} should build the Binary Fuse 8 GPU pre-filter payload.
      * Set by the engine ({@code Finder}) <em>before</em> {@link #initLMDB()} when any OpenCL
@@ -203,13 +248,23 @@ public class ConsumerJava implements Consumer {
     private final List<Future<Void>> consumers = new ArrayList<>();
 
     /**
-     * Queue of pending public-key batches; bounded by {@code consumerJava.queueSize}.
+     * Queues of pending public-key batches, one per {@link ThreadPlacement} node (a single queue
+     * unless thread placement is enabled); each a lock-free ring with room for
+     * {@code consumerJava.queueSize} batches of the largest size, counted in chunks (see
+     * {@link #split}). A batch is queued on the node of the thread producing it and preferably
+     * checked by a consumer thread of the same node.
      *
      * <p>Excluded from {@link ToString} — dumping every queued {@code PublicKeyBytes[]}
      * batch would be log-killing.
      */
     @ToString.Exclude
-    protected final LinkedBlockingQueue<QueuedBatch> keysQueue;
+    protected final List<MpmcRingBuffer<QueuedBatch>> keysQueues;
+
+    /** Node assignment and pinning of the consumer threads, shared with the producers. */
+    private final ThreadPlacement threadPlacement;
+
+    /** Which of the consumer workers are active; all of them unless adaptive sizing is enabled. */
+    private final AdaptiveThreads adaptiveThreads;
 
     /**
      * Sinks notified once per checked batch. Empty unless something was configured, in which case
@@ -221,7 +276,11 @@ public class ConsumerJava implements Consumer {
     /** Total number of vanity-pattern hits found so far. */
     protected final AtomicLong vanityHits = new AtomicLong();
 
-    private final @Nullable Pattern vanityPattern;
+    /**
+     * All configured vanity patterns, compiled to integer range checks on the raw hash160 where
+     * their form allows and combined into one index; {@code null} unless vanity matching is enabled.
+     */
+    private final @Nullable VanityMatcher vanityMatcher;
 
     // Lifecycle flag — uninformative in aggregate toString.
     @ToString.Exclude
@@ -280,6 +339,27 @@ public class ConsumerJava implements Consumer {
             PersistenceUtils persistenceUtils,
             RuntimeStatistics runtimeStatistics,
             List<ResultListener> resultListeners) {
+        this(consumerJava, keyUtility, persistenceUtils, runtimeStatistics, resultListeners, 0);
+    }
+
+    /**
+     * Creates a new consumer whose keys queue holds {@code consumerJava.queueSize} batches of up to
+     * {@code maxBatchSize} candidates, however many chunks each is split into.
+     *
+     * @param consumerJava      consumer configuration
+     * @param keyUtility        cryptographic helper
+     * @param persistenceUtils  persistence helper used to construct the LMDB layer
+     * @param runtimeStatistics shared runtime metrics sink (also written by the producers)
+     * @param resultListeners   sinks notified once per checked batch
+     * @param maxBatchSize      the largest batch the producers hand over, {@code 0} if unknown
+     */
+    public ConsumerJava(
+            CConsumerJava consumerJava,
+            KeyUtility keyUtility,
+            PersistenceUtils persistenceUtils,
+            RuntimeStatistics runtimeStatistics,
+            List<ResultListener> resultListeners,
+            int maxBatchSize) {
         this(
                 consumerJava,
                 keyUtility,
@@ -287,7 +367,8 @@ public class ConsumerJava implements Consumer {
                 runtimeStatistics,
                 Executors.newSingleThreadScheduledExecutor(),
                 Executors.newFixedThreadPool(consumerJava.threads),
-                resultListeners);
+                resultListeners,
+                maxBatchSize);
     }
 
     /**
@@ -310,7 +391,8 @@ public class ConsumerJava implements Consumer {
                 new RuntimeStatistics(),
                 Executors.newSingleThreadScheduledExecutor(),
                 Executors.newFixedThreadPool(consumerJava.threads),
-                resultListeners);
+                resultListeners,
+                0);
     }
 
     /**
@@ -334,7 +416,8 @@ public class ConsumerJava implements Consumer {
                 runtimeStatistics,
                 Executors.newSingleThreadScheduledExecutor(),
                 Executors.newFixedThreadPool(consumerJava.threads),
-                List.of());
+                List.of(),
+                0);
     }
 
     /**
@@ -366,7 +449,8 @@ public class ConsumerJava implements Consumer {
                 runtimeStatistics,
                 scheduledExecutorService,
                 consumeKeysExecutorService,
-                List.of());
+                List.of(),
+                0);
     }
 
     /**
@@ -379,6 +463,7 @@ public class ConsumerJava implements Consumer {
      * @param scheduledExecutorService  scheduler used for the periodic stats logger
      * @param consumeKeysExecutorService pool used for the worker threads that drain the keys queue
      * @param resultListeners           sinks notified once per checked batch
+     * @param maxBatchSize              the largest batch the producers hand over, {@code 0} if unknown
      */
     ConsumerJava(
             CConsumerJava consumerJava,
@@ -387,20 +472,77 @@ public class ConsumerJava implements Consumer {
             RuntimeStatistics runtimeStatistics,
             ScheduledExecutorService scheduledExecutorService,
             ExecutorService consumeKeysExecutorService,
-            List<ResultListener> resultListeners) {
+            List<ResultListener> resultListeners,
+            int maxBatchSize) {
+        if (consumerJava.lookupLatencySampleInterval < 1) {
+            throw new IllegalArgumentException("consumerJava.lookupLatencySampleInterval must be positive but was "
+                    + consumerJava.lookupLatencySampleInterval);
+        }
         this.consumerJava = consumerJava;
-        this.keysQueue = new LinkedBlockingQueue<>(consumerJava.queueSize);
+        this.threadPlacement = new ThreadPlacement(consumerJava.threadPlacement, new ThreadAffinity());
+        this.adaptiveThreads = new AdaptiveThreads(consumerJava.adaptiveThreads, consumerJava.threads);
+        final int queueCapacity =
+                Math.multiplyExact(consumerJava.queueSize, chunksPerBatch(maxBatchSize, consumerJava.batchChunkSize));
+        final List<MpmcRingBuffer<QueuedBatch>> queues = new ArrayList<>(threadPlacement.nodeCount());
+        for (int node = 0; node < threadPlacement.nodeCount(); node++) {
+            queues.add(new MpmcRingBuffer<>(queueCapacity, consumerJava.queueWaitStrategy));
+        }
+        this.keysQueues = List.copyOf(queues);
         this.resultListeners = List.copyOf(resultListeners);
         this.keyUtility = keyUtility;
         this.persistenceUtils = persistenceUtils;
         this.runtimeStatistics = runtimeStatistics;
         this.scheduledExecutorService = scheduledExecutorService;
         this.consumeKeysExecutorService = consumeKeysExecutorService;
-        if (consumerJava.enableVanity && consumerJava.vanityPattern != null) {
-            this.vanityPattern = Pattern.compile(consumerJava.vanityPattern);
+        if (consumerJava.enableVanity) {
+            final List<String> vanityPatterns = collectVanityPatterns(consumerJava);
+            if (vanityPatterns.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "consumerJava.enableVanity requires vanityPattern, vanityPatterns or vanityPatternsFile.");
+            }
+            final VanityMatcher compiledVanityMatcher =
+                    VanityMatcher.compile(vanityPatterns, keyUtility.legacyAddressVersion(), keyUtility::toBase58);
+            LOGGER.info("Vanity patterns: {} configured, {} matched by regex against every candidate "
+                    + "(not a literal prefix/suffix), the rest compiled to hash160 range checks.",
+                    compiledVanityMatcher.patternCount(), compiledVanityMatcher.unindexedPatternCount());
+            this.vanityMatcher = compiledVanityMatcher;
         } else {
-            vanityPattern = null;
+            vanityMatcher = null;
+        }
+    }
+
+    /**
+     * Collects the vanity patterns in configuration order: {@code vanityPattern}, then
+     * {@code vanityPatterns}, then the lines of {@code vanityPatternsFile}. Blank lines and lines
+     * starting with {@code #} in the file are skipped.
+     *
+     * @param consumerJava the consumer configuration
+     * @return the patterns, possibly empty
+     * @throws IllegalArgumentException if the patterns file cannot be read
+     */
+    @VisibleForTesting
+    static List<String> collectVanityPatterns(CConsumerJava consumerJava) {
+        final List<String> patterns = new ArrayList<>();
+        if (consumerJava.vanityPattern != null) {
+            patterns.add(consumerJava.vanityPattern);
+        }
+        patterns.addAll(consumerJava.vanityPatterns);
+        if (consumerJava.vanityPatternsFile != null) {
+            final List<String> lines;
+            try {
+                lines = Files.readAllLines(Path.of(consumerJava.vanityPatternsFile), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(
+                        "Cannot read consumerJava.vanityPatternsFile: " + consumerJava.vanityPatternsFile, e);
+            }
+            for (String line : lines) {
+                String pattern = line.strip();
+                if (!pattern.isEmpty() && !pattern.startsWith("#")) {
+                    patterns.add(pattern);
+                }
+            }
         }
+        return patterns;
     }
 
     /**
@@ -412,6 +554,9 @@ public class ConsumerJava implements Consumer {
      * closed and the {@code persistence} reference is dropped after the in-memory
      * snapshot is built; the on-disk store becomes eligible for garbage collection.
      *
+     * <p>With a configured {@code sortedAddressFile} the chain is built from that file instead and
+     * LMDB is not opened.
+     *
      * @throws Exception if the LMDB env cannot be opened, the snapshot population fails,
      *     or the LMDB cannot be closed after population for self-contained backends
      */
@@ -429,12 +574,15 @@ public class ConsumerJava implements Consumer {
             persistence = null;
             return;
         }
+        if (!cfg.sortedAddressFile.isEmpty()) {
+            initSortedAddressFile(cfg);
+            return;
+        }
         LMDBPersistence lmdb = new LMDBPersistence(cfg, persistenceUtils);
         lmdb.init();
         persistence = lmdb;
 
-        AddressPresence chain = buildLookupChain(lmdb, cfg.addressLookupBackend, cfg.bloomFilterFpp, cfg);
-        lookup = chain;
+        final AddressPresence chain = initLookup(lmdb, cfg);
 
         // Build the GPU pre-filter payload now, while LMDB is guaranteed open. This must happen
         // before the self-contained close below, otherwise a HASHSET/TRUNCATED_LONG_64 backend
@@ -456,6 +604,48 @@ public class ConsumerJava implements Consumer {
         }
     }
 
+    /**
+     * Counterpart of {@link #initLMDB()} for a configured {@code sortedAddressFile}: maps the file and
+     * builds the lookup chain and the GPU pre-filter payload straight from its records, with no LMDB
+     * env at all. A self-contained chain closes the file again.
+     */
+    private void initSortedAddressFile(CLMDBConfigurationReadOnly cfg) throws Exception {
+        SortedAddressFile file = new SortedAddressFile(Path.of(cfg.sortedAddressFile));
+        sortedAddressFile = file;
+        LOGGER.info("Building address lookup from sorted address file {} with {} addresses.",
+                cfg.sortedAddressFile, file.count());
+
+        final AddressPresence chain = initLookup(file, cfg);
+        if (gpuFilterRequested) {
+            if (gpuFilterType == GpuFilterType.FUSE_16) {
+                gpuFilterData16 = computeGpuFilterPayload16(chain, file);
+            } else {
+                gpuFilterData = computeGpuFilterPayload(chain, file);
+            }
+        }
+
+        if (!chain.requiresBackend()) {
+            LOGGER.info("Address lookup backend {} is self-contained; closing sorted address file.",
+                    cfg.addressLookupBackend);
+            file.close();
+            sortedAddressFile = null;
+        }
+    }
+
+    /** Builds the lookup chain, or one replica per node, from {@code source} and sets {@link #lookup}. */
+    private <S extends AddressIterable & AddressLookup> AddressPresence initLookup(
+            S source, CLMDBConfigurationReadOnly cfg) throws Exception {
+        final AddressPresence chain;
+        if (threadPlacement.replicatesLookup() && cfg.addressLookupBackend != AddressLookupBackend.LMDB_ONLY) {
+            nodeLookups = buildLookupReplicas(source, cfg);
+            chain = nodeLookups.get(0);
+        } else {
+            chain = buildLookupChain(source, cfg.addressLookupBackend, cfg.bloomFilterFpp, cfg);
+        }
+        lookup = chain;
+        return chain;
+    }
+
     /**
      * Initialises this consumer against an already-built presence lookup, instead of opening LMDB.
      *
@@ -478,6 +668,49 @@ public class ConsumerJava implements Consumer {
      */
     public void initWithLookup(AddressPresence lookup) {
         this.lookup = lookup;
+        this.nodeLookups = List.of();
+    }
+
+    /**
+     * Builds one lookup chain per {@link ThreadPlacement} node, each on a thread pinned to that node.
+     * Linux places a page on the node of the thread that first writes it, so building a replica on a
+     * node is what puts it into that node's memory. The replicas are built one after the other: they
+     * read the same LMDB, and building them concurrently would only contend for its pages.
+     *
+     * @param lmdb the open LMDB persistence or sorted address file
+     * @param cfg  the read-only LMDB configuration selecting the backend
+     * @return the replicas, indexed by node
+     * @throws Exception if building a replica fails
+     */
+    private <S extends AddressIterable & AddressLookup> List<AddressPresence> buildLookupReplicas(
+            S lmdb, CLMDBConfigurationReadOnly cfg) throws Exception {
+        final List<AddressPresence> replicas = new ArrayList<>(threadPlacement.nodeCount());
+        final ExecutorService builder = Executors.newSingleThreadExecutor();
+        try {
+            for (int node = 0; node < threadPlacement.nodeCount(); node++) {
+                final int replicaNode = node;
+                LOGGER.info(
+                        "Building address lookup replica for node {} of {}.", replicaNode, threadPlacement.nodeCount());
+                replicas.add(builder.submit(() -> {
+                            threadPlacement.enterNode(replicaNode);
+                            return buildLookupChain(lmdb, cfg.addressLookupBackend, cfg.bloomFilterFpp, cfg);
+                        })
+                        .get());
+            }
+        } finally {
+            builder.shutdown();
+        }
+        return List.copyOf(replicas);
+    }
+
+    /**
+     * Returns the thread placement of this consumer. The engine places its producers through the
+     * same instance, so their batches are routed to consumer threads on their node.
+     *
+     * @return the thread placement
+     */
+    public ThreadPlacement getThreadPlacement() {
+        return threadPlacement;
     }
 
     /**
@@ -511,7 +744,63 @@ public class ConsumerJava implements Consumer {
      * @return the number of address lookups performed since this consumer started
      */
     public long getCheckedKeys() {
-        return checkedKeys.get();
+        return checkedKeys.sum();
+    }
+
+    /**
+     * Returns the sampled lookup latencies of all consumer threads merged into one histogram.
+     *
+     * @return {@link LatencyHistogram#BUCKETS} counters, see {@link LatencyHistogram#addTo(long[])}
+     */
+    public long[] getLookupLatencyNanos() {
+        final long[] lookupLatencyNanos = new long[LatencyHistogram.BUCKETS];
+        for (LatencyHistogram histogram : lookupLatencyHistograms) {
+            histogram.addTo(lookupLatencyNanos);
+        }
+        return lookupLatencyNanos;
+    }
+
+    /**
+     * Returns the exact sum of the sampled lookup latencies of all consumer threads.
+     *
+     * @return the sum in nanoseconds, see {@link LatencyHistogram#sumNanos()}
+     */
+    public long getLookupLatencySumNanos() {
+        long sumNanos = 0;
+        for (LatencyHistogram histogram : lookupLatencyHistograms) {
+            sumNanos += histogram.sumNanos();
+        }
+        return sumNanos;
+    }
+
+    /**
+     * Registers the consumer's counters and gauges, the ones the statistics line renders. Every
+     * metric reads the live counter when scraped; nothing is added to the hot path.
+     *
+     * @param registry the registry to add the metrics to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        final String backend = consumerJava.lmdbConfigurationReadOnly.addressLookupBackend.name();
+        registry.counter("checked_addresses_total",
+                "Address lookups performed (two per candidate key reaching the consumer).", this::getCheckedKeys);
+        registry.counter("hits_total", "Addresses found in the database.", hits::get);
+        registry.counter("vanity_hits_total", "Vanity pattern matches.", vanityHits::get);
+        registry.counter("consumer_ready_total",
+                "Consume cycles that found the keys queue empty (healthy when rising).", consumerReadyCount::get);
+        registry.counter("producer_blocked_total",
+                "Producer batches that found no room for all their chunks in the keys queue"
+                        + " (consumer is the bottleneck when rising).",
+                producerBlockedCount::get);
+        registry.gauge("keys_queue_entries", "Batches, or chunks of a split batch, waiting in the keys queues.",
+                this::keysQueueSize);
+        registry.gauge("consumers_running", "Consumer worker threads running.", this::runningConsumerCount);
+        registry.gauge("consumers_active", "Consumer worker threads taking batches (adaptive sizing).",
+                adaptiveThreads::getActiveThreads);
+        registry.gauge("lookup_backend_info", "The configured address lookup backend.", "backend",
+                () -> Map.of(backend, 1.0));
+        registry.latency("lookup_latency_seconds",
+                "Sampled latency of one address lookup on the configured backend.", this::getLookupLatencyNanos,
+                this::getLookupLatencySumNanos);
     }
 
     /**
@@ -631,15 +920,15 @@ public class ConsumerJava implements Consumer {
     }
 
     /** Honours the configured blocked-Bloom geometry, falling back to the defaults when unset. */
-    private static BlockedBloomAddressPresence buildBlockedBloom(LMDBPersistence lmdb, CLMDBConfigurationReadOnly cfg) {
+    private static BlockedBloomAddressPresence buildBlockedBloom(AddressIterable lmdb, CLMDBConfigurationReadOnly cfg) {
         if (cfg.blockedBloomBitsPerEntry > 0 && cfg.blockedBloomK > 0) {
             return BlockedBloomAddressPresence.populateFrom(lmdb, cfg.blockedBloomK, cfg.blockedBloomBitsPerEntry);
         }
         return BlockedBloomAddressPresence.populateFrom(lmdb);
     }
 
-    private static AddressPresence buildLookupChain(
-            LMDBPersistence lmdb, AddressLookupBackend choice, double bloomFpp, CLMDBConfigurationReadOnly cfg) {
+    private static <S extends AddressIterable & AddressLookup> AddressPresence buildLookupChain(
+            S lmdb, AddressLookupBackend choice, double bloomFpp, CLMDBConfigurationReadOnly cfg) {
         return switch (choice) {
             case LMDB_ONLY -> lmdb;
             case BLOOM -> BloomFilterAccelerator.populateFrom(lmdb, lmdb, bloomFpp);
@@ -682,7 +971,7 @@ public class ConsumerJava implements Consumer {
         // (filter build, kernel compile) never contaminates the window.
         scheduledExecutorService.scheduleAtFixedRate(
                 () -> {
-                    long keysNow = checkedKeys.get();
+                    long keysNow = checkedKeys.sum();
                     if (keysNow == 0L) {
                         return;
                     }
@@ -701,11 +990,12 @@ public class ConsumerJava implements Consumer {
         scheduledExecutorService.scheduleAtFixedRate(
                 () -> {
                     long now = System.currentTimeMillis();
-                    long keysNow = checkedKeys.get();
+                    long keysNow = checkedKeys.sum();
                     long generatedNow = runtimeStatistics.getGeneratedKeys();
                     double rate = keysRateWindow.ratePerSecond(now, keysNow);
                     double generatedRate = generatedRateWindow.ratePerSecond(now, generatedNow);
                     long uptime = Math.max(now - startTime, 1);
+                    long[] lookupLatencyNanos = getLookupLatencyNanos();
 
                     String message = new Statistics()
                             .createStatisticsMessage(
@@ -715,13 +1005,14 @@ public class ConsumerJava implements Consumer {
                                     generatedNow,
                                     generatedRate,
                                     rateWindowSeconds,
-                                    checkedKeysSumOfTimeToCheckContains.get(),
+                                    consumerJava.lmdbConfigurationReadOnly.addressLookupBackend.name(),
+                                    lookupLatencyNanos,
                                     runtimeStatistics.generatedKeysByProducerSnapshot(),
                                     runtimeStatistics.getRunningProducers(),
                                     runningConsumerCount(),
                                     consumerReadyCount.get(),
                                     producerBlockedCount.get(),
-                                    keysQueue.size(),
+                                    keysQueueSize(),
                                     hits.get());
 
                     // log the information
@@ -736,23 +1027,70 @@ public class ConsumerJava implements Consumer {
     public void startConsumer() {
         LOGGER.debug("Starting {} consumer threads...", consumerJava.threads);
         for (int i = 0; i < consumerJava.threads; i++) {
+            final int node = threadPlacement.nodeForWorker(i);
+            final int workerIndex = i;
             consumers.add(consumeKeysExecutorService.submit(() -> {
-                consumeKeysRunner();
+                threadPlacement.enterNode(node);
+                consumeKeysRunner(workerIndex);
                 return null;
             }));
         }
         LOGGER.debug("Successfully started {} consumer threads.", consumers.size());
+        if (adaptiveThreads.isEnabled()) {
+            startAdaptiveThreads();
+        }
+    }
+
+    /**
+     * Adjusts the number of active consumer workers once per
+     * {@code consumerJava.adaptiveThreads.adjustEveryNMillis} on the statistics scheduler.
+     */
+    private void startAdaptiveThreads() {
+        final long period = consumerJava.adaptiveThreads.adjustEveryNMillis;
+        LOGGER.info("Adaptive consumer threads: between {} and {} active, adjusted every {} ms.",
+                consumerJava.adaptiveThreads.minThreads, consumerJava.threads, period);
+        final long[] lastAdjustNanos = {System.nanoTime()};
+        scheduledExecutorService.scheduleAtFixedRate(
+                () -> {
+                    final long now = System.nanoTime();
+                    adjustActiveThreads(now - lastAdjustNanos[0]);
+                    lastAdjustNanos[0] = now;
+                },
+                period,
+                period,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adjusts the number of active consumer workers for the interval that just ended. The grow
+     * signal is {@link #producerBlockedCount}, which only counts batches that found no room in the
+     * keys queue, so a batch split into more chunks than the queue has entries does not grow the pool.
+     *
+     * @param elapsedNanos the length of the interval that just ended
+     * @return the new active worker count
+     */
+    @VisibleForTesting
+    int adjustActiveThreads(long elapsedNanos) {
+        return adaptiveThreads.adjust(producerBlockedCount.get(), consumerReadyCount.get(), elapsedNanos);
     }
 
     /**
      * This method runs in multiple threads.
+     *
+     * @param workerIndex the worker's number, from {@code 0}; decides whether it is active
      */
-    private void consumeKeysRunner() {
+    private void consumeKeysRunner(int workerIndex) {
         LOGGER.info("start consumeKeysRunner");
         final ByteBuffer threadLocalReuseableByteBuffer =
                 ByteBuffer.allocateDirect(OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES);
 
         while (shouldRun.get()) {
+            if (!adaptiveThreads.isActive(workerIndex)) {
+                // Parked by adaptive sizing; looks again after one poll window, like an idle worker.
+                // Not counted as ready: the worker is not offering to take work.
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(consumerJava.queuePollTimeoutMillis));
+                continue;
+            }
             try {
                 consumeOneCycle(threadLocalReuseableByteBuffer);
             } catch (InterruptedException e) {
@@ -770,7 +1108,7 @@ public class ConsumerJava implements Consumer {
     }
 
     /**
-     * Runs a single drain-and-wait cycle of {@link #consumeKeysRunner()}: first drains
+     * Runs a single drain-and-wait cycle of {@link #consumeKeysRunner(int)}: first drains
      * every batch already queued, then waits up to {@code queuePollTimeoutMillis} for one
      * more. A cycle is counted as <b>ready</b> (see {@link #consumerReadyCount}) when it
      * did no work at all — nothing was drained and the timed wait returned nothing — which
@@ -791,7 +1129,7 @@ public class ConsumerJava implements Consumer {
         // Wait for the next batch instead of an unconditional sleep — wakes the instant a
         // producer enqueues, so queuePollTimeoutMillis is the max idle wait window per
         // cycle, not a fixed back-off.
-        QueuedBatch next = keysQueue.poll(consumerJava.queuePollTimeoutMillis, TimeUnit.MILLISECONDS);
+        QueuedBatch next = keysQueues.get(ownNode()).poll(consumerJava.queuePollTimeoutMillis, TimeUnit.MILLISECONDS);
         if (next != null) {
             processBatch(next, threadLocalReuseableByteBuffer);
         }
@@ -803,38 +1141,69 @@ public class ConsumerJava implements Consumer {
     }
 
     /**
-     * Drains and processes every batch currently in the keys queue using non-blocking
-     * polls, returning once the queue is momentarily empty.
+     * Returns the node whose keys queue the calling consumer thread waits on: the node it entered,
+     * or the first node for a thread that never entered one.
+     */
+    private int ownNode() {
+        int node = threadPlacement.currentNode();
+        return node == ThreadPlacement.UNPLACED ? 0 : node;
+    }
+
+    /**
+     * Drains and processes every batch currently in the keys queues using non-blocking
+     * claims of up to {@code queueClaimBatchSize} batches each, returning once the queues are
+     * momentarily empty. The calling thread's own node is drained first; the queues of the other
+     * nodes are only helped with once it is empty, so a node without producers does not leave its
+     * consumer threads idle while another node's queue fills up.
      *
      * @param threadLocalReuseableByteBuffer thread-local buffer reused across address lookups
      * @return the number of batches drained and processed in this call
      */
     long consumeKeys(ByteBuffer threadLocalReuseableByteBuffer) {
         LOGGER.trace("consumeKeys");
+        final int claimBatchSize = Math.max(1, consumerJava.queueClaimBatchSize);
+        final List<QueuedBatch> claimed = new ArrayList<>(Math.min(claimBatchSize, keysQueues.get(0).capacity()));
+        final int ownNode = ownNode();
+        final int nodeCount = keysQueues.size();
         long drained = 0;
-        QueuedBatch publicKeyBytesArray = keysQueue.poll();
-        while (publicKeyBytesArray != null) {
-            processBatch(publicKeyBytesArray, threadLocalReuseableByteBuffer);
-            drained++;
-            publicKeyBytesArray = keysQueue.poll();
+        for (int offset = 0; offset < nodeCount; offset++) {
+            final MpmcRingBuffer<QueuedBatch> keysQueue = keysQueues.get((ownNode + offset) % nodeCount);
+            while (keysQueue.drainTo(claimed, claimBatchSize) > 0) {
+                for (QueuedBatch queuedBatch : claimed) {
+                    processBatch(queuedBatch, threadLocalReuseableByteBuffer);
+                    drained++;
+                }
+                claimed.clear();
+            }
         }
         return drained;
     }
 
     /**
      * Processes a single batch of public keys: address lookup, hit logging, optional
-     * vanity matching. Extracted so {@link #consumeKeysRunner()} can dispatch the
+     * vanity matching. Extracted so {@link #consumeKeysRunner(int)} can dispatch the
      * batch returned by its timed wait between drain cycles without re-entering the
      * non-blocking drain loop in {@link #consumeKeys(ByteBuffer)}.
      *
-     * @param queuedBatch                      the batch to process, with the base it was expanded from
+     * @param queuedBatch                      the batch (or chunk of a split batch) to process, with the
+     *                                         base it was expanded from
      * @param threadLocalReuseableByteBuffer   thread-local buffer reused across address lookups
      */
     private void processBatch(QueuedBatch queuedBatch, ByteBuffer threadLocalReuseableByteBuffer) {
+        final long processStartNanos = adaptiveThreads.isEnabled() ? System.nanoTime() : 0L;
         final PublicKeyBytes[] publicKeyBytesArray = queuedBatch.keys();
+        final int entryKeys = queuedBatch.toIndex() - queuedBatch.fromIndex();
+        final BatchStageEvent queueWaitEvent = queuedBatch.queueWaitEvent();
+        if (queueWaitEvent != null) {
+            queueWaitEvent.finish(
+                    queuedBatch.batchId(), BatchStage.QUEUE_WAIT, entryKeys, queuedBatch.secretBase(), null);
+        }
+        final BatchStageEvent checkEvent = new BatchStageEvent();
+        checkEvent.begin();
         // Collected rather than only logged, so the batch can be reported as a whole below.
         final List<Hit> batchHits = new ArrayList<>();
-        for (PublicKeyBytes publicKeyBytes : publicKeyBytesArray) {
+        for (int i = queuedBatch.fromIndex(); i < queuedBatch.toIndex(); i++) {
+            final PublicKeyBytes publicKeyBytes = publicKeyBytesArray[i];
             if (publicKeyBytes.isOutsidePrivateKeyRange()) {
                 continue;
             }
@@ -857,7 +1226,7 @@ public class ConsumerJava implements Consumer {
                         publicKeyBytes.getSecretKey().toByteArray(), publicKeyBytes.getUncompressed());
                 String hitMessageUncompressed = HIT_PREFIX + keyUtility.createKeyDetails(ecKeyUncompressed);
                 LOGGER.info(hitMessageUncompressed);
-                batchHits.add(toHit(publicKeyBytes, hash160Uncompressed, ecKeyUncompressed, false, false));
+                batchHits.add(toHit(publicKeyBytes, hash160Uncompressed, ecKeyUncompressed, false, null));
             }
 
             if (containsAddressCompressed) {
@@ -868,14 +1237,14 @@ public class ConsumerJava implements Consumer {
                         publicKeyBytes.getSecretKey().toByteArray(), publicKeyBytes.getCompressed());
                 String hitMessageCompressed = HIT_PREFIX + keyUtility.createKeyDetails(ecKeyCompressed);
                 LOGGER.info(hitMessageCompressed);
-                batchHits.add(toHit(publicKeyBytes, hash160Compressed, ecKeyCompressed, true, false));
+                batchHits.add(toHit(publicKeyBytes, hash160Compressed, ecKeyCompressed, true, null));
             }
 
             if (consumerJava.enableVanity) {
-                var localVanityPattern = Objects.requireNonNull(vanityPattern);
-                String uncompressedKeyHashAsBase58 = publicKeyBytes.getUncompressedKeyHashAsBase58(keyUtility);
-                Matcher uncompressedKeyHashAsBase58Matcher = localVanityPattern.matcher(uncompressedKeyHashAsBase58);
-                if (uncompressedKeyHashAsBase58Matcher.matches()) {
+                var localVanityMatcher = Objects.requireNonNull(vanityMatcher);
+                // The address string is only built for a candidate the compiled ranges let through.
+                VanityPattern matchedUncompressed = localVanityMatcher.match(hash160Uncompressed);
+                if (matchedUncompressed != null) {
                     // immediately log the secret
                     safeLog(publicKeyBytes, hash160Uncompressed, hash160Compressed);
                     vanityHits.incrementAndGet();
@@ -884,12 +1253,12 @@ public class ConsumerJava implements Consumer {
                     String vanityHitMessageUncompressed =
                             VANITY_HIT_PREFIX + keyUtility.createKeyDetails(ecKeyUncompressed);
                     LOGGER.info(vanityHitMessageUncompressed);
-                    batchHits.add(toHit(publicKeyBytes, hash160Uncompressed, ecKeyUncompressed, false, true));
+                    batchHits.add(toHit(publicKeyBytes, hash160Uncompressed, ecKeyUncompressed, false,
+                            matchedUncompressed.regex()));
                 }
 
-                String compressedKeyHashAsBase58 = publicKeyBytes.getCompressedKeyHashAsBase58(keyUtility);
-                Matcher compressedKeyHashAsBase58Matcher = vanityPattern.matcher(compressedKeyHashAsBase58);
-                if (compressedKeyHashAsBase58Matcher.matches()) {
+                VanityPattern matchedCompressed = localVanityMatcher.match(hash160Compressed);
+                if (matchedCompressed != null) {
                     // immediately log the secret
                     safeLog(publicKeyBytes, hash160Uncompressed, hash160Compressed);
                     vanityHits.incrementAndGet();
@@ -898,7 +1267,8 @@ public class ConsumerJava implements Consumer {
                     String vanityHitMessageCompressed =
                             VANITY_HIT_PREFIX + keyUtility.createKeyDetails(ecKeyCompressed);
                     LOGGER.info(vanityHitMessageCompressed);
-                    batchHits.add(toHit(publicKeyBytes, hash160Compressed, ecKeyCompressed, true, true));
+                    batchHits.add(toHit(publicKeyBytes, hash160Compressed, ecKeyCompressed, true,
+                            matchedCompressed.regex()));
                 }
             }
 
@@ -917,10 +1287,26 @@ public class ConsumerJava implements Consumer {
             }
         }
 
+        checkEvent.finish(queuedBatch.batchId(), BatchStage.CHECK, entryKeys, queuedBatch.secretBase(), null);
+
         // One event per batch, emitted after the checks so it is exact. Reported even when
         // nothing was found: a client sweeping a range needs 'checked, empty' to be
-        // distinguishable from 'never checked'.
-        notifyResultListeners(new BatchResult(queuedBatch.secretBase(), publicKeyBytesArray.length, batchHits));
+        // distinguishable from 'never checked'. A chunk of a split batch reports to its
+        // aggregation; only the thread that completes the last chunk emits the batch's event.
+        BatchAggregation aggregation = queuedBatch.aggregation();
+        final @Nullable BatchResult batchResult = aggregation == null
+                ? new BatchResult(queuedBatch.secretBase(), publicKeyBytesArray.length, batchHits)
+                : aggregation.completeChunk(queuedBatch.chunkIndex(), batchHits).orElse(null);
+        if (batchResult != null) {
+            final BatchStageEvent notifyEvent = new BatchStageEvent();
+            notifyEvent.begin();
+            notifyResultListeners(batchResult);
+            notifyEvent.finish(queuedBatch.batchId(), BatchStage.NOTIFY, publicKeyBytesArray.length,
+                    queuedBatch.secretBase(), null);
+        }
+        if (adaptiveThreads.isEnabled()) {
+            adaptiveThreads.addBusyNanos(System.nanoTime() - processStartNanos);
+        }
     }
 
     /**
@@ -930,16 +1316,22 @@ public class ConsumerJava implements Consumer {
      * @param hash160        the matching address hash
      * @param ecKey          the key pair for the matching representation
      * @param compressed     whether the compressed representation matched
-     * @param vanity         whether this was a vanity-pattern match rather than a database hit
+     * @param vanityPattern  the vanity pattern that matched, or {@code null} for a database hit
      * @return the hit as reported to the result listeners
      */
-    private Hit toHit(PublicKeyBytes publicKeyBytes, byte[] hash160, ECKey ecKey, boolean compressed, boolean vanity) {
+    private Hit toHit(
+            PublicKeyBytes publicKeyBytes,
+            byte[] hash160,
+            ECKey ecKey,
+            boolean compressed,
+            @Nullable String vanityPattern) {
         return new Hit(
                 publicKeyBytes.getSecretKey(),
                 Hex.encodeHexString(hash160),
                 ecKey.toAddress(ScriptType.P2PKH, keyUtility.network()).toString(),
                 compressed,
-                vanity);
+                vanityPattern != null,
+                vanityPattern);
     }
 
     /**
@@ -1003,24 +1395,43 @@ public class ConsumerJava implements Consumer {
         LOGGER.info(HIT_SAFE_PREFIX + "hash160Compressed: " + Hex.encodeHexString(hash160Compressed));
     }
 
+    /**
+     * Looks up the hash160 and counts the lookup. Only one lookup in
+     * {@link CConsumerJava#lookupLatencySampleInterval} is timed, so the clock is not read twice
+     * per address.
+     */
     private boolean containsAddress(ByteBuffer hash160AsByteBuffer) {
-        long timeBefore = System.currentTimeMillis();
-        if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("Time before lookup.containsAddress: " + timeBefore);
+        checkedKeys.increment();
+        AddressPresence localLookup = lookupForCurrentThread();
+        LatencyHistogram histogram = lookupLatencyHistogram.get();
+        if (!histogram.sampleNext()) {
+            return localLookup.containsAddress(hash160AsByteBuffer);
         }
-        AddressPresence localLookup = Objects.requireNonNull(lookup);
+        long timeBefore = System.nanoTime();
         boolean containsAddress = localLookup.containsAddress(hash160AsByteBuffer);
-        long timeAfter = System.currentTimeMillis();
-        long timeDelta = timeAfter - timeBefore;
-        checkedKeys.incrementAndGet();
-        checkedKeysSumOfTimeToCheckContains.addAndGet(timeDelta);
+        long timeDelta = System.nanoTime() - timeBefore;
+        histogram.record(timeDelta);
         if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("Time after lookup.containsAddress: " + timeAfter);
-            LOGGER.trace("Time delta: " + timeDelta);
+            LOGGER.trace("Time delta of lookup.containsAddress: " + timeDelta + " ns");
         }
         return containsAddress;
     }
 
+    /**
+     * Returns the lookup the calling thread probes: its node's replica if the lookup is replicated
+     * per node, otherwise the single shared {@link #lookup}.
+     */
+    private AddressPresence lookupForCurrentThread() {
+        final List<AddressPresence> replicas = nodeLookups;
+        if (!replicas.isEmpty()) {
+            int node = threadPlacement.currentNode();
+            if (node != ThreadPlacement.UNPLACED) {
+                return replicas.get(node);
+            }
+        }
+        return Objects.requireNonNull(lookup);
+    }
+
     @Override
     public void consumeKeys(PublicKeyBytes[] publicKeyBytes, @Nullable BigInteger secretBase)
             throws InterruptedException {
@@ -1028,19 +1439,75 @@ public class ConsumerJava implements Consumer {
             LOGGER.debug("keysQueue.put(publicKeyBytes) with length: " + publicKeyBytes.length);
         }
 
-        if (keysQueue.remainingCapacity() == 0) {
-            // The bounded queue is full, so the following put() will block this producer
-            // until the consumer frees a slot. A rising count means the consumer/CPU is
-            // the bottleneck (cannot drain as fast as producers generate).
+        final BatchStageEvent enqueueEvent = new BatchStageEvent();
+        enqueueEvent.begin();
+        // All chunks of a batch go to the queue of the producing thread's node.
+        final MpmcRingBuffer<QueuedBatch> keysQueue = keysQueues.get(threadPlacement.routingNode());
+        final List<QueuedBatch> chunks = split(publicKeyBytes, secretBase);
+        if (keysQueue.remainingCapacity() < Math.min(chunks.size(), keysQueue.capacity())) {
+            // The bounded queue has no room for the whole batch, so a put() below waits (per
+            // queueWaitStrategy) until the consumer frees slots. A rising count means the
+            // consumer/CPU is the bottleneck (cannot drain as fast as producers generate).
+            // Counted once per producer batch, however many of its chunks have to wait.
             producerBlockedCount.incrementAndGet();
         }
-        keysQueue.put(new QueuedBatch(publicKeyBytes, secretBase));
+        for (QueuedBatch queuedBatch : chunks) {
+            queuedBatch.startQueueWait();
+            keysQueue.put(queuedBatch);
+        }
+        enqueueEvent.finish(BatchTrace.currentBatch(), BatchStage.ENQUEUE, publicKeyBytes.length, secretBase, null);
 
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("keysQueue.size(): " + keysQueue.size());
         }
     }
 
+    /**
+     * Returns how many queue entries the largest batch takes, so the keys queue can hold
+     * {@code consumerJava.queueSize} such batches.
+     *
+     * @param maxBatchSize   the largest batch the producers hand over, {@code 0} if unknown
+     * @param batchChunkSize {@code consumerJava.batchChunkSize}; {@code 0} disables splitting
+     * @return the number of chunks of the largest batch; {@code 1} if unknown or not split
+     */
+    @VisibleForTesting
+    static int chunksPerBatch(int maxBatchSize, int batchChunkSize) {
+        if (batchChunkSize <= 0 || maxBatchSize <= batchChunkSize) {
+            return 1;
+        }
+        return (int) (((long) maxBatchSize + batchChunkSize - 1) / batchChunkSize);
+    }
+
+    /**
+     * Splits a producer batch into queue entries of at most {@code consumerJava.batchChunkSize}
+     * candidates each, so that several consumer threads can check it concurrently. The chunks are
+     * views on the shared array; nothing is copied. A batch that fits into one chunk, or any batch
+     * when splitting is disabled, travels as a single entry exactly as before.
+     *
+     * @param publicKeyBytes the batch of public keys derived by a producer
+     * @param secretBase     the aligned start of the swept grid, or {@code null}
+     * @return the queue entries, in candidate order
+     */
+    @VisibleForTesting
+    List<QueuedBatch> split(PublicKeyBytes[] publicKeyBytes, @Nullable BigInteger secretBase) {
+        // Called on the producer thread, whose current batch this is.
+        final long batchId = BatchTrace.currentBatch();
+        final int chunkSize = consumerJava.batchChunkSize;
+        if (chunkSize <= 0 || publicKeyBytes.length <= chunkSize) {
+            return List.of(new QueuedBatch(publicKeyBytes, secretBase, batchId));
+        }
+        final int chunkCount = (publicKeyBytes.length + chunkSize - 1) / chunkSize;
+        final BatchAggregation aggregation = new BatchAggregation(secretBase, publicKeyBytes.length, chunkCount);
+        final List<QueuedBatch> chunks = new ArrayList<>(chunkCount);
+        for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+            int fromIndex = chunkIndex * chunkSize;
+            int toIndex = Math.min(fromIndex + chunkSize, publicKeyBytes.length);
+            chunks.add(new QueuedBatch(
+                    publicKeyBytes, secretBase, fromIndex, toIndex, chunkIndex, aggregation, batchId));
+        }
+        return chunks;
+    }
+
     /**
      * Initiates a graceful shutdown of the consumer:
      * <ul>
@@ -1083,6 +1550,11 @@ public class ConsumerJava implements Consumer {
                 localPersistence.close();
                 persistence = null;
             }
+            if (sortedAddressFile != null) {
+                SortedAddressFile localSortedAddressFile = Objects.requireNonNull(sortedAddressFile);
+                localSortedAddressFile.close();
+                sortedAddressFile = null;
+            }
         } catch (Exception e) {
             throw new IllegalStateException(
                     "Failed to close persistence during ConsumerJava shutdown ("
@@ -1092,9 +1564,19 @@ public class ConsumerJava implements Consumer {
         LOGGER.debug("Interrupt complete: resources released and persistence closed.");
     }
 
+    /**
+     * Returns the number of entries (batches, or chunks of a split batch) waiting in the keys queues
+     * of all nodes.
+     *
+     * @return the total queue depth
+     */
     @VisibleForTesting
     int keysQueueSize() {
-        return keysQueue.size();
+        int size = 0;
+        for (MpmcRingBuffer<QueuedBatch> keysQueue : keysQueues) {
+            size += keysQueue.size();
+        }
+        return size;
     }
 
     /**
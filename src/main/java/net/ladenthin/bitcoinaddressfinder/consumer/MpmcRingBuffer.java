@@ -0,0 +1,307 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.QueueWaitStrategy;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Bounded, pre-sized, lock-free multi-producer/multi-consumer ring buffer: the hand-off between the
+ * producers and the consumer worker threads.
+ *
+ * <h2>Why not {@code LinkedBlockingQueue}</h2>
+ * The JDK queue takes one of two locks per operation and allocates a node per element. Every
+ * producer, every OpenCL result reader and every consumer thread meets on those two locks, and under
+ * many consumer threads the lock hand-over (with its park/unpark of the waiters) shows up in profiles
+ * ahead of the work it hands over. This buffer allocates nothing after construction and never blocks
+ * inside an operation: a thread that cannot make progress returns, and waiting is a separate, explicit
+ * decision governed by {@link QueueWaitStrategy}.
+ *
+ * <h2>Algorithm</h2>
+ * Each slot carries a <em>turn</em> counter. Position {@code p} maps to slot {@code p % capacity} in
+ * lap {@code p / capacity}; the slot is free for a producer of lap {@code L} when its turn is
+ * {@code 2L}, and holds that producer's element when its turn is {@code 2L + 1}. A producer claims a
+ * position by CAS on {@link #tail}, writes the element, then publishes it by advancing the turn; a
+ * consumer claims by CAS on {@link #head}, takes the element, and frees the slot for the next lap.
+ * The even/odd encoding (rather than one sequence number per slot) keeps a capacity of {@code 1}
+ * unambiguous, which {@code consumerJava.queueSize = 1} relies on.
+ *
+ * <p>Elements are stored in a plain array. The volatile write of the slot's turn after the element is
+ * stored, and the volatile read of the turn before it is loaded, give the happens-before edge that
+ * publishes the element — the same pattern as a seqlock.
+ *
+ * <h2>Batch claim</h2>
+ * {@link #drainTo(List, int)} claims several consecutive published slots with a single CAS, so a
+ * consumer facing many small batches (one per secret from a secrets file) pays one contended
+ * operation for the whole run rather than one per batch.
+ *
+ * @param <E> the element type
+ */
+@ToString
+final class MpmcRingBuffer<E> {
+
+    /**
+     * Retries that only {@link Thread#onSpinWait() spin} before {@link QueueWaitStrategy#YIELD} and
+     * {@link QueueWaitStrategy#PARK} start giving the core away. Covers the common case of a hand-off
+     * that completes within a few hundred nanoseconds without a scheduler round trip.
+     */
+    static final int SPIN_TRIES = 100;
+
+    /**
+     * Upper bound of one {@link QueueWaitStrategy#PARK} interval. Short enough that a parked consumer
+     * notices a new batch well before a producer could fill the queue behind it; the wait loop
+     * re-checks the deadline after every interval, so timed waits stay accurate.
+     */
+    static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50L);
+
+    private final int capacity;
+
+    private final QueueWaitStrategy waitStrategy;
+
+    @ToString.Exclude
+    private final @Nullable Object[] elements;
+
+    @ToString.Exclude
+    private final AtomicLongArray turns;
+
+    /** Next position a consumer claims. */
+    @ToString.Exclude
+    private final AtomicLong head = new AtomicLong();
+
+    /** Next position a producer claims. */
+    @ToString.Exclude
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity     the fixed number of slots; must be at least {@code 1}
+     * @param waitStrategy how {@link #put(Object)} and {@link #poll(long, TimeUnit)} wait
+     * @throws IllegalArgumentException if {@code capacity} is smaller than {@code 1}
+     */
+    MpmcRingBuffer(int capacity, QueueWaitStrategy waitStrategy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1 but was " + capacity);
+        }
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+        this.elements = new Object[capacity];
+        this.turns = new AtomicLongArray(capacity);
+    }
+
+    private int index(long position) {
+        return (int) (position % capacity);
+    }
+
+    private long lap(long position) {
+        return position / capacity;
+    }
+
+    /**
+     * Inserts the element if a slot is free, without waiting.
+     *
+     * @param element the element to insert
+     * @return {@code true} if inserted, {@code false} if the buffer was full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = index(position);
+            long freeTurn = lap(position) * 2L;
+            if (turns.get(index) == freeTurn) {
+                if (tail.compareAndSet(position, position + 1L)) {
+                    elements[index] = element;
+                    turns.set(index, freeTurn + 1L);
+                    return true;
+                }
+                position = tail.get();
+            } else {
+                long previous = position;
+                position = tail.get();
+                if (position == previous) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the element, waiting according to the {@link QueueWaitStrategy} while the buffer is full.
+     *
+     * @param element the element to insert
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    void put(E element) throws InterruptedException {
+        int attempt = 0;
+        while (!offer(element)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idle(attempt++, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Removes the oldest published element, without waiting.
+     *
+     * @return the element, or {@code null} if none was available
+     */
+    @Nullable
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = index(position);
+            long fullTurn = lap(position) * 2L + 1L;
+            if (turns.get(index) == fullTurn) {
+                if (head.compareAndSet(position, position + 1L)) {
+                    return take(index, fullTurn);
+                }
+                position = head.get();
+            } else {
+                long previous = position;
+                position = head.get();
+                if (position == previous) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest published element, waiting according to the {@link QueueWaitStrategy} up to
+     * the given timeout for one to arrive.
+     *
+     * @param timeout how long to wait at most
+     * @param unit    the unit of {@code timeout}
+     * @return the element, or {@code null} if the timeout elapsed first
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    @Nullable
+    E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0L) {
+                return null;
+            }
+            idle(attempt++, remaining);
+            element = poll();
+            if (element != null) {
+                return element;
+            }
+        }
+    }
+
+    /**
+     * Claims up to {@code maxElements} consecutive published elements with a single CAS and appends
+     * them, oldest first, to {@code sink}.
+     *
+     * @param sink        receives the claimed elements
+     * @param maxElements the largest number of elements to claim; capped at the capacity
+     * @return the number of elements appended to {@code sink}; {@code 0} if none was available
+     */
+    int drainTo(List<? super E> sink, int maxElements) {
+        final int limit = Math.min(maxElements, capacity);
+        if (limit <= 0) {
+            return 0;
+        }
+        long position = head.get();
+        while (true) {
+            int ready = 0;
+            while (ready < limit
+                    && turns.get(index(position + ready)) == lap(position + ready) * 2L + 1L) {
+                ready++;
+            }
+            if (ready == 0) {
+                long previous = position;
+                position = head.get();
+                if (position == previous) {
+                    return 0;
+                }
+                continue;
+            }
+            if (head.compareAndSet(position, position + ready)) {
+                for (int i = 0; i < ready; i++) {
+                    long claimed = position + i;
+                    sink.add(take(index(claimed), lap(claimed) * 2L + 1L));
+                }
+                return ready;
+            }
+            position = head.get();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E take(int index, long fullTurn) {
+        E element = (E) elements[index];
+        elements[index] = null;
+        turns.set(index, fullTurn + 1L);
+        return element;
+    }
+
+    /**
+     * Waits once between two retries, as dictated by the {@link QueueWaitStrategy}.
+     *
+     * @param attempt      the zero-based retry count of the current wait
+     * @param maxWaitNanos upper bound for a park, so a timed wait does not overshoot its deadline
+     */
+    private void idle(int attempt, long maxWaitNanos) {
+        if (waitStrategy == QueueWaitStrategy.SPIN || attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (waitStrategy == QueueWaitStrategy.YIELD) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(PARK_NANOS, maxWaitNanos));
+        }
+    }
+
+    /**
+     * Returns the number of claimed-but-not-yet-consumed positions. A momentary snapshot under
+     * concurrent access; it may count an element whose producer has claimed but not yet published it.
+     *
+     * @return the number of elements in the buffer, between {@code 0} and the capacity
+     */
+    int size() {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        long size = currentTail - currentHead;
+        if (size < 0L) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+
+    /**
+     * Returns how many more elements could be inserted right now without waiting. A momentary
+     * snapshot under concurrent access.
+     *
+     * @return the free capacity
+     */
+    int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Returns the fixed number of slots.
+     *
+     * @return the capacity
+     */
+    int capacity() {
+        return capacity;
+    }
+}
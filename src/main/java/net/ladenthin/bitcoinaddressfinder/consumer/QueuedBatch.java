@@ -6,6 +6,7 @@ package net.ladenthin.bitcoinaddressfinder.consumer;
 import java.math.BigInteger;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.model.PublicKeyBytes;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -19,6 +20,9 @@ import org.jspecify.annotations.Nullable;
  * {@code 2^batchSizeInBits} entries, and a record would either compare it by reference (misleading)
  * or force a defensive copy of a multi-megabyte array on the hot path. This type is only ever moved
  * through a queue and never compared, so identity semantics are exactly right.
+ *
+ * <p>An oversized batch travels as several entries, each a view on one index range of the shared
+ * array (see {@link BatchAggregation}), so all consumer threads can work on it at once.
  */
 @ToString
 final class QueuedBatch {
@@ -28,21 +32,74 @@ final class QueuedBatch {
 
     private final @Nullable BigInteger secretBase;
 
+    private final int fromIndex;
+
+    private final int toIndex;
+
+    private final int chunkIndex;
+
+    private final @Nullable BatchAggregation aggregation;
+
+    private final long batchId;
+
     /**
-     * Creates a queued batch.
+     * Times the wait in the queue while a recording wants {@link BatchStageEvent}s; otherwise
+     * {@code null}, so an untraced run allocates nothing per entry. Written by the producer thread
+     * before the entry is offered and read by the consumer thread after taking it, which the queue
+     * hand-off orders.
+     */
+    @ToString.Exclude
+    private @Nullable BatchStageEvent queueWaitEvent;
+
+    /**
+     * Creates a queued batch covering the whole candidate array.
      *
      * @param keys       the candidates of this batch, taken over as-is
      * @param secretBase the aligned start of the swept grid, or {@code null} when the batch is a set
      *                   of independent secrets rather than one expanded range
+     * @param batchId    the batch the entry is traced under, see {@code BatchTrace}
+     */
+    QueuedBatch(PublicKeyBytes[] keys, @Nullable BigInteger secretBase, long batchId) {
+        this(keys, secretBase, 0, keys.length, 0, null, batchId);
+    }
+
+    /**
+     * Creates a queued chunk: a view on {@code [fromIndex, toIndex)} of a producer batch that was
+     * split so several consumer threads can check it concurrently. The array is shared by all chunks
+     * of the batch and never copied.
+     *
+     * @param keys        the candidates of the whole batch, shared with the sibling chunks
+     * @param secretBase  the aligned start of the swept grid, or {@code null}
+     * @param fromIndex   the first candidate of this chunk, inclusive
+     * @param toIndex     the last candidate of this chunk, exclusive
+     * @param chunkIndex  the zero-based position of this chunk within the batch
+     * @param aggregation collects the chunk outcomes into one result, or {@code null} for a batch
+     *                    that was not split
+     * @param batchId     the batch the entry is traced under, see {@code BatchTrace}
      */
-    QueuedBatch(PublicKeyBytes[] keys, @Nullable BigInteger secretBase) {
+    QueuedBatch(
+            PublicKeyBytes[] keys,
+            @Nullable BigInteger secretBase,
+            int fromIndex,
+            int toIndex,
+            int chunkIndex,
+            @Nullable BatchAggregation aggregation,
+            long batchId) {
         this.keys = keys;
         this.secretBase = secretBase;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+        this.chunkIndex = chunkIndex;
+        this.aggregation = aggregation;
+        this.batchId = batchId;
     }
 
     /**
      * Returns the candidates of this batch.
      *
+     * <p>For a chunk this is the array of the whole batch; only {@link #fromIndex()} up to
+     * {@link #toIndex()} belong to this chunk.
+     *
      * @return the candidate array, not copied
      */
     PublicKeyBytes[] keys() {
@@ -58,4 +115,72 @@ final class QueuedBatch {
     BigInteger secretBase() {
         return secretBase;
     }
+
+    /**
+     * Returns the first candidate index this entry covers.
+     *
+     * @return the inclusive start index into {@link #keys()}
+     */
+    int fromIndex() {
+        return fromIndex;
+    }
+
+    /**
+     * Returns the end of the candidate range this entry covers.
+     *
+     * @return the exclusive end index into {@link #keys()}
+     */
+    int toIndex() {
+        return toIndex;
+    }
+
+    /**
+     * Returns the position of this chunk within its batch.
+     *
+     * @return the zero-based chunk index; {@code 0} for a batch that was not split
+     */
+    int chunkIndex() {
+        return chunkIndex;
+    }
+
+    /**
+     * Returns the aggregation the outcome of this chunk is reported to.
+     *
+     * @return the aggregation, or {@code null} when this entry is a whole batch
+     */
+    @Nullable
+    BatchAggregation aggregation() {
+        return aggregation;
+    }
+
+    /**
+     * Returns the batch this entry is traced under.
+     *
+     * @return the batch id, {@code BatchTrace.NO_BATCH} if no producer started the batch
+     */
+    long batchId() {
+        return batchId;
+    }
+
+    /**
+     * Starts timing the wait in the queue if a recording wants it. Called right before the entry is
+     * offered.
+     */
+    void startQueueWait() {
+        final BatchStageEvent event = new BatchStageEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            queueWaitEvent = event;
+        }
+    }
+
+    /**
+     * Returns the event timing the wait in the queue.
+     *
+     * @return the event begun by {@link #startQueueWait()}, or {@code null} while nothing is recorded
+     */
+    @Nullable
+    BatchStageEvent queueWaitEvent() {
+        return queueWaitEvent;
+    }
 }
@@ -0,0 +1,178 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CThreadPlacement;
+import net.ladenthin.bitcoinaddressfinder.util.ThreadAffinity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Assigns threads to the nodes configured by {@link CThreadPlacement}, pins them to the node's CPUs,
+ * and remembers each thread's node so the keys queue can route a batch to a consumer on the node of
+ * the thread that produced it.
+ *
+ * <p>One instance is shared by the consumer and the producers of a scan: the node a producer thread
+ * entered is the node its batches are queued on, and a consumer thread drains the queue of the node
+ * it entered first. Threads that never entered a node (the OpenCL result readers, a test thread) are
+ * spread over the nodes round-robin.
+ *
+ * <p>With placement disabled there is exactly one node, nothing is pinned, and every thread routes
+ * to that node, which is the unplaced behaviour.
+ */
+@ToString
+public final class ThreadPlacement {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadPlacement.class);
+
+    /** Node of a thread that never called {@link #enterNode(int)}. */
+    static final int UNPLACED = -1;
+
+    private final boolean enabled;
+
+    private final List<String> nodeCpuSets;
+
+    private final boolean replicateLookup;
+
+    @ToString.Exclude
+    private final ThreadAffinity threadAffinity;
+
+    @ToString.Exclude
+    private final ThreadLocal<Integer> currentNode = ThreadLocal.withInitial(() -> UNPLACED);
+
+    @ToString.Exclude
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    /**
+     * Creates the placement described by the configuration.
+     *
+     * @param config         the placement configuration
+     * @param threadAffinity pins threads to CPUs
+     * @throws IllegalArgumentException if placement is enabled without nodes, or a CPU list is not
+     *                                  well-formed
+     */
+    public ThreadPlacement(CThreadPlacement config, ThreadAffinity threadAffinity) {
+        this.enabled = config.enabled;
+        this.nodeCpuSets = List.copyOf(config.nodeCpuSets);
+        this.replicateLookup = config.enabled && config.replicateLookupPerNode;
+        this.threadAffinity = threadAffinity;
+        if (enabled) {
+            if (nodeCpuSets.isEmpty()) {
+                throw new IllegalArgumentException("threadPlacement.enabled requires at least one nodeCpuSets entry");
+            }
+            for (String cpuSet : nodeCpuSets) {
+                if (!ThreadAffinity.isValidCpuList(cpuSet)) {
+                    throw new IllegalArgumentException("threadPlacement.nodeCpuSets: not a valid CPU list: \""
+                            + cpuSet + "\"");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether threads are placed at all.
+     *
+     * @return {@code true} if placement is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the number of nodes; {@code 1} when placement is disabled.
+     *
+     * @return the node count, at least {@code 1}
+     */
+    public int nodeCount() {
+        return enabled ? nodeCpuSets.size() : 1;
+    }
+
+    /**
+     * Returns whether the in-memory lookup is to be built once per node.
+     *
+     * @return {@code true} if lookup replication is enabled
+     */
+    public boolean replicatesLookup() {
+        return replicateLookup;
+    }
+
+    /**
+     * Returns the node the {@code index}-th worker of a pool is assigned to; workers are spread over
+     * the nodes round-robin.
+     *
+     * @param index the zero-based worker index
+     * @return the node
+     */
+    public int nodeForWorker(int index) {
+        return Math.floorMod(index, nodeCount());
+    }
+
+    /**
+     * Binds the calling thread to a node: pins it to the node's CPUs (if placement is enabled) and
+     * records the node for routing. A failure to pin is logged and the thread continues unpinned;
+     * the node is recorded either way, so routing stays consistent.
+     *
+     * @param node the node to enter
+     */
+    public void enterNode(int node) {
+        currentNode.set(node);
+        if (!enabled) {
+            return;
+        }
+        String cpuSet = nodeCpuSets.get(node);
+        try {
+            threadAffinity.pinCurrentThread(cpuSet);
+            LOGGER.info("Pinned thread {} to node {} (CPUs {}).", Thread.currentThread().getName(), node, cpuSet);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while pinning thread {} to node {}; continuing unpinned.",
+                    Thread.currentThread().getName(), node);
+        } catch (Exception e) {
+            LOGGER.warn("Could not pin thread {} to node {} (CPUs {}); continuing unpinned.",
+                    Thread.currentThread().getName(), node, cpuSet, e);
+        }
+    }
+
+    /**
+     * Returns the node the calling thread entered.
+     *
+     * @return the node, or {@link #UNPLACED} if the thread never entered one
+     */
+    int currentNode() {
+        return currentNode.get();
+    }
+
+    /**
+     * Returns the node a batch produced by the calling thread is queued on: the thread's own node,
+     * or, for a thread that never entered one, the next node in round-robin order.
+     *
+     * @return the node
+     */
+    int routingNode() {
+        int node = currentNode.get();
+        if (node != UNPLACED) {
+            return node;
+        }
+        return Math.floorMod(roundRobin.getAndIncrement(), nodeCount());
+    }
+
+    /**
+     * Wraps a task so it runs on the given node. The pool thread enters the node before the task
+     * starts; a pool thread is never shared between tasks of different nodes here, because every
+     * placed task runs until shutdown.
+     *
+     * @param node the node to run on
+     * @param task the task
+     * @return the wrapped task
+     */
+    public Runnable onNode(int node, Runnable task) {
+        return () -> {
+            enterNode(node);
+            task.run();
+        };
+    }
+}
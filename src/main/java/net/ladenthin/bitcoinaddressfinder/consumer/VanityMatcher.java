@@ -0,0 +1,268 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Any number of {@link VanityPattern}s combined into one index, so that checking a candidate costs
+ * about the same for thousands of patterns as for one.
+ *
+ * <h2>Prefix index</h2>
+ * Every compiled prefix is a few ranges of the first 64 bits of the hash160 (see
+ * {@link VanityPattern}). All range boundaries of all patterns cut the 64-bit space into disjoint
+ * segments; each segment lists the patterns whose ranges cover it. A candidate finds its segment
+ * with one binary search, and the segment is empty for all but a vanishing fraction of candidates.
+ *
+ * <h2>Suffix index</h2>
+ * Patterns with only a suffix are grouped by suffix length. A candidate's SHA-256d checksum is
+ * computed once, then {@code V mod 58^s} is looked up in a hash map per distinct length, of which
+ * there are at most {@value VanityPattern#MAX_COMPILED_SUFFIX_LENGTH}.
+ *
+ * <h2>Everything else</h2>
+ * Patterns that could not be compiled, and compiled ones that restrict nothing ({@code .*}), are
+ * candidates for every address and are matched by regex, which makes their cost linear in their
+ * number as before. Every candidate from the indexes is confirmed against its regex on the actual
+ * address, which is built at most once per hash160 and only when there is a candidate at all.
+ */
+@ToString
+final class VanityMatcher {
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    /** The patterns in configuration order; a pattern's id is its index. */
+    private final List<VanityPattern> patterns;
+
+    private final int addressVersion;
+
+    @ToString.Exclude
+    private final Function<byte[], String> addressEncoder;
+
+    /** Unsigned ascending start of each prefix segment; the first is always {@code 0}. */
+    @ToString.Exclude
+    private final long[] segmentStarts;
+
+    /** Ids of the prefix patterns covering each segment, ascending. */
+    @ToString.Exclude
+    private final int[][] segmentPatterns;
+
+    /** The distinct suffix moduli of the suffix-only patterns. */
+    @ToString.Exclude
+    private final long[] suffixModuli;
+
+    /** Per entry of {@link #suffixModuli}: suffix value to the ids of the patterns with that suffix. */
+    @ToString.Exclude
+    private final List<Map<Long, int[]>> suffixPatterns;
+
+    /** Ids of the patterns every address is a candidate for. */
+    @ToString.Exclude
+    private final int[] unindexedPatterns;
+
+    private VanityMatcher(
+            List<VanityPattern> patterns,
+            int addressVersion,
+            Function<byte[], String> addressEncoder,
+            long[] segmentStarts,
+            int[][] segmentPatterns,
+            long[] suffixModuli,
+            List<Map<Long, int[]>> suffixPatterns,
+            int[] unindexedPatterns) {
+        this.patterns = patterns;
+        this.addressVersion = addressVersion;
+        this.addressEncoder = addressEncoder;
+        this.segmentStarts = segmentStarts;
+        this.segmentPatterns = segmentPatterns;
+        this.suffixModuli = suffixModuli;
+        this.suffixPatterns = suffixPatterns;
+        this.unindexedPatterns = unindexedPatterns;
+    }
+
+    /**
+     * Compiles and indexes the given vanity regexes.
+     *
+     * @param regexes        the vanity patterns, each matched against the whole Base58 address
+     * @param addressVersion the P2PKH version byte of the network
+     * @param addressEncoder renders a hash160 as the address the regexes are matched against
+     * @return the matcher
+     * @throws IllegalArgumentException               if {@code regexes} is empty
+     * @throws java.util.regex.PatternSyntaxException if a regex is not valid
+     */
+    static VanityMatcher compile(List<String> regexes, int addressVersion, Function<byte[], String> addressEncoder) {
+        if (regexes.isEmpty()) {
+            throw new IllegalArgumentException("At least one vanity pattern is required.");
+        }
+        final List<VanityPattern> patterns = new ArrayList<>(regexes.size());
+        for (String regex : regexes) {
+            patterns.add(VanityPattern.compile(regex, addressVersion));
+        }
+
+        // prefix segments: sweep over the range boundaries of all prefix patterns
+        final List<long[]> events = new ArrayList<>(); // {boundary, id, +1 start / -1 end}
+        final List<Integer> unindexed = new ArrayList<>();
+        final Map<Long, Map<Long, List<Integer>>> suffixOnly = new HashMap<>();
+        final List<Long> suffixModuliInOrder = new ArrayList<>();
+        for (int id = 0; id < patterns.size(); id++) {
+            VanityPattern pattern = patterns.get(id);
+            if (pattern.hasPrefix()) {
+                for (int i = 0; i < pattern.prefixRangeCount(); i++) {
+                    events.add(new long[] {pattern.prefixRangeLow(i), id, 1L});
+                    long high = pattern.prefixRangeHigh(i);
+                    if (high != -1L) {
+                        events.add(new long[] {high + 1L, id, -1L});
+                    }
+                }
+            } else if (pattern.isCompiled() && pattern.suffixModulus() != 0L) {
+                long modulus = pattern.suffixModulus();
+                if (!suffixOnly.containsKey(modulus)) {
+                    suffixModuliInOrder.add(modulus);
+                }
+                suffixOnly.computeIfAbsent(modulus, key -> new HashMap<>())
+                        .computeIfAbsent(pattern.suffixValue(), key -> new ArrayList<>())
+                        .add(id);
+            } else {
+                unindexed.add(id);
+            }
+        }
+        events.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+        final List<Long> starts = new ArrayList<>();
+        final List<int[]> covering = new ArrayList<>();
+        starts.add(0L);
+        covering.add(NO_PATTERNS);
+        final TreeSet<Integer> active = new TreeSet<>();
+        int e = 0;
+        while (e < events.size()) {
+            long boundary = events.get(e)[0];
+            while (e < events.size() && events.get(e)[0] == boundary) {
+                long[] event = events.get(e++);
+                // a pattern's own ranges are disjoint and not adjacent, so add/remove never collide
+                if (event[2] > 0) {
+                    active.add((int) event[1]);
+                } else {
+                    active.remove((int) event[1]);
+                }
+            }
+            int[] ids = active.stream().mapToInt(Integer::intValue).toArray();
+            if (boundary == starts.get(starts.size() - 1)) {
+                covering.set(covering.size() - 1, ids);
+            } else {
+                starts.add(boundary);
+                covering.add(ids);
+            }
+        }
+
+        final long[] suffixModuli = new long[suffixModuliInOrder.size()];
+        final List<Map<Long, int[]>> suffixPatterns = new ArrayList<>(suffixModuli.length);
+        for (int i = 0; i < suffixModuli.length; i++) {
+            suffixModuli[i] = suffixModuliInOrder.get(i);
+            Map<Long, int[]> byValue = new HashMap<>();
+            suffixOnly.get(suffixModuli[i])
+                    .forEach((value, ids) -> byValue.put(value, ids.stream().mapToInt(Integer::intValue).toArray()));
+            suffixPatterns.add(byValue);
+        }
+
+        return new VanityMatcher(
+                List.copyOf(patterns),
+                addressVersion,
+                addressEncoder,
+                starts.stream().mapToLong(Long::longValue).toArray(),
+                covering.toArray(new int[0][]),
+                suffixModuli,
+                List.copyOf(suffixPatterns),
+                unindexed.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns the first pattern, in configuration order, whose regex matches the address of the
+     * given hash160.
+     *
+     * @param hash160 the 20-byte hash of a candidate
+     * @return the matching pattern, or {@code null} if none matches
+     */
+    @Nullable
+    VanityPattern match(byte[] hash160) {
+        @Nullable List<Integer> candidates = null;
+
+        for (int id : segmentPatterns[segmentOf(VanityPattern.rangeKey(hash160))]) {
+            if (patterns.get(id).suffixMayMatch(hash160)) {
+                candidates = add(candidates, id);
+            }
+        }
+        if (suffixModuli.length > 0) {
+            byte[] digest = VanityPattern.checksum(hash160, addressVersion);
+            for (int i = 0; i < suffixModuli.length; i++) {
+                long remainder = VanityPattern.payloadModulo(hash160, digest, suffixModuli[i], addressVersion);
+                int[] ids = suffixPatterns.get(i).get(remainder);
+                if (ids != null) {
+                    for (int id : ids) {
+                        candidates = add(candidates, id);
+                    }
+                }
+            }
+        }
+        for (int id : unindexedPatterns) {
+            candidates = add(candidates, id);
+        }
+        if (candidates == null) {
+            return null;
+        }
+
+        candidates.sort(null);
+        String address = addressEncoder.apply(hash160);
+        for (int id : candidates) {
+            VanityPattern pattern = patterns.get(id);
+            if (pattern.matches(address)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private static List<Integer> add(@Nullable List<Integer> candidates, int id) {
+        List<Integer> list = candidates != null ? candidates : new ArrayList<>();
+        list.add(id);
+        return list;
+    }
+
+    /** Returns the index of the segment containing the unsigned key. */
+    private int segmentOf(long key) {
+        int low = 0;
+        int high = segmentStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (Long.compareUnsigned(segmentStarts[mid], key) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of patterns.
+     *
+     * @return the pattern count
+     */
+    int patternCount() {
+        return patterns.size();
+    }
+
+    /**
+     * Returns the number of patterns matched by regex against every address, because they could not
+     * be compiled or restrict nothing.
+     *
+     * @return the count of unindexed patterns
+     */
+    int unindexedPatternCount() {
+        return unindexedPatterns.length;
+    }
+}
@@ -0,0 +1,467 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import java.math.BigInteger;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.ToString;
+
+/**
+ * A vanity pattern compiled to integer comparisons on the raw hash160, so that the Base58 address of
+ * a candidate only has to be built for the rare candidate that can match.
+ *
+ * <h2>Why</h2>
+ * A legacy address is the Base58 rendering of the 25-byte payload {@code version | hash160 |
+ * checksum}. Encoding it per candidate (two per key) means a SHA-256d checksum, a long division by 58
+ * and a {@code String}; matching a regex against it costs as much again. For a vanity scan this is
+ * the whole per-candidate cost, several times that of a database lookup.
+ *
+ * <h2>Prefix</h2>
+ * Read as a big-endian number {@code V}, the payload is rendered as one {@code '1'} per leading zero
+ * byte followed by the Base58 digits of {@code V}. A prefix therefore fixes how many leading zero
+ * bytes the payload has and, for every possible digit count, an interval of {@code V}. Because the
+ * checksum only occupies the 32 low bits of {@code V}, each interval of {@code V} maps to an interval
+ * of the hash160; the prefix becomes a handful of unsigned ranges over the first 64 bits of the
+ * hash160, checked without touching the checksum at all.
+ *
+ * <h2>Suffix</h2>
+ * The last {@code s} Base58 digits are {@code V mod 58^s}, which does depend on the checksum. A suffix
+ * check computes the SHA-256d checksum into reused buffers and reduces the payload modulo
+ * {@code 58^s} in a {@code long}; that bounds compiled suffixes to {@value #MAX_COMPILED_SUFFIX_LENGTH}
+ * characters.
+ *
+ * <h2>Exactness</h2>
+ * The compiled check is a <em>superset</em> of the regex: it may let a candidate through whose hash160
+ * sits on the edge of a range, but it never rejects a match. A candidate that passes is confirmed by
+ * {@link #matches(String)} against the original regex on its actual address, so hits are exactly the
+ * ones the plain regex finds. Patterns not of the form {@code prefix.*suffix} (with optional
+ * {@code ^}/{@code $} anchors and literal Base58 characters only) are not compiled; every candidate
+ * passes the prefilter and the regex decides, as before.
+ */
+@ToString
+final class VanityPattern {
+
+    /** The Base58 alphabet in digit order. */
+    static final String BASE58_ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+
+    /**
+     * Longest suffix compiled to a modulus check: the reduction multiplies the running remainder by
+     * 256, which must stay below {@code 2^63}, and {@code 58^9 * 256 < 2^63 < 58^10 * 256}.
+     */
+    static final int MAX_COMPILED_SUFFIX_LENGTH = 9;
+
+    /** The patterns compiled: literal prefix, {@code .*}, literal suffix, optionally anchored. */
+    private static final Pattern PREFIX_SUFFIX_FORM =
+            Pattern.compile("\\^?([1-9A-HJ-NP-Za-km-z]*)\\.\\*([1-9A-HJ-NP-Za-km-z]*)\\$?");
+
+    private static final int HASH160_BYTES = 20;
+    private static final int CHECKSUM_BYTES = 4;
+    private static final int PAYLOAD_BYTES = 1 + HASH160_BYTES + CHECKSUM_BYTES;
+    /** Most Base58 digits a 25-byte payload can have: {@code 58^34 < 256^25 <= 58^35}. */
+    private static final int MAX_PAYLOAD_DIGITS = 35;
+    /** Bits of the hash160 below the 64-bit range key: {@code 160 - 64}. */
+    private static final int RANGE_KEY_SHIFT = 96;
+
+    private static final BigInteger BASE = BigInteger.valueOf(58);
+    private static final BigInteger BYTE = BigInteger.valueOf(256);
+    private static final BigInteger CHECKSUM_RANGE = BigInteger.ONE.shiftLeft(CHECKSUM_BYTES * Byte.SIZE);
+    private static final BigInteger MAX_HASH160 =
+            BigInteger.ONE.shiftLeft(HASH160_BYTES * Byte.SIZE).subtract(BigInteger.ONE);
+
+    /** Per-thread SHA-256 and scratch buffer for the suffix check; the consumer threads share a pattern. */
+    private static final ThreadLocal<ChecksumScratch> CHECKSUM_SCRATCH =
+            ThreadLocal.withInitial(ChecksumScratch::new);
+
+    private final String regex;
+
+    @ToString.Exclude
+    private final Pattern pattern;
+
+    private final boolean compiled;
+
+    private final int addressVersion;
+
+    /** Whether the compiled form restricts the prefix; if not, {@link #rangeLows} is empty. */
+    private final boolean hasPrefix;
+
+    /** Inclusive unsigned lower bounds of the first 64 bits of a matching hash160, ascending. */
+    @ToString.Exclude
+    private final long[] rangeLows;
+
+    /** Inclusive unsigned upper bounds, parallel to {@link #rangeLows}; the ranges are disjoint. */
+    @ToString.Exclude
+    private final long[] rangeHighs;
+
+    /** {@code 58^s} for a compiled suffix of {@code s} characters; {@code 0} without a suffix. */
+    private final long suffixModulus;
+
+    /** The value of the compiled suffix's digits; compared against {@code V mod suffixModulus}. */
+    private final long suffixValue;
+
+    private VanityPattern(
+            String regex,
+            boolean compiled,
+            int addressVersion,
+            boolean hasPrefix,
+            long[] rangeLows,
+            long[] rangeHighs,
+            long suffixModulus,
+            long suffixValue) {
+        this.regex = regex;
+        this.pattern = Pattern.compile(regex);
+        this.compiled = compiled;
+        this.addressVersion = addressVersion;
+        this.hasPrefix = hasPrefix;
+        this.rangeLows = rangeLows;
+        this.rangeHighs = rangeHighs;
+        this.suffixModulus = suffixModulus;
+        this.suffixValue = suffixValue;
+    }
+
+    /**
+     * Compiles a vanity regex for legacy addresses of the given version byte.
+     *
+     * @param regex          the vanity pattern, matched against the whole Base58 address
+     * @param addressVersion the P2PKH version byte of the network ({@code 0} on mainnet)
+     * @return the compiled pattern; {@link #isCompiled()} tells whether the integer prefilter applies
+     * @throws java.util.regex.PatternSyntaxException if {@code regex} is not a valid regex
+     */
+    static VanityPattern compile(String regex, int addressVersion) {
+        Matcher form = PREFIX_SUFFIX_FORM.matcher(regex);
+        if (!form.matches() || form.group(2).length() > MAX_COMPILED_SUFFIX_LENGTH) {
+            return new VanityPattern(regex, false, addressVersion, false, new long[0], new long[0], 0L, 0L);
+        }
+        String prefix = form.group(1);
+        String suffix = form.group(2);
+
+        boolean hasPrefix = !prefix.isEmpty();
+        List<long[]> ranges = hasPrefix ? prefixRanges(prefix, addressVersion) : List.of();
+        long[] rangeLows = new long[ranges.size()];
+        long[] rangeHighs = new long[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            rangeLows[i] = ranges.get(i)[0];
+            rangeHighs[i] = ranges.get(i)[1];
+        }
+
+        long suffixModulus = 0L;
+        long suffixValue = 0L;
+        if (!suffix.isEmpty()) {
+            suffixModulus = BASE.pow(suffix.length()).longValueExact();
+            suffixValue = decodeDigits(suffix).longValueExact();
+        }
+        return new VanityPattern(
+                regex, true, addressVersion, hasPrefix, rangeLows, rangeHighs, suffixModulus, suffixValue);
+    }
+
+    /**
+     * Returns the ranges of the first 64 bits of a hash160 whose address may start with
+     * {@code prefix}, sorted, merged, inclusive and unsigned; each range is a {@code long[2]}.
+     */
+    private static List<long[]> prefixRanges(String prefix, int addressVersion) {
+        int ones = 0;
+        while (ones < prefix.length() && prefix.charAt(ones) == '1') {
+            ones++;
+        }
+        String digits = prefix.substring(ones);
+
+        // The number of leading '1's equals the number of leading zero bytes of the payload.
+        final List<BigInteger[]> payloadRanges = new ArrayList<>();
+        if (digits.isEmpty()) {
+            // at least 'ones' leading zero bytes
+            payloadRanges.add(new BigInteger[] {BigInteger.ZERO, BYTE.pow(Math.max(0, PAYLOAD_BYTES - ones))});
+        } else if (ones < PAYLOAD_BYTES) {
+            // exactly 'ones' leading zero bytes, then the digits of V start with 'digits'
+            BigInteger zeroBytesLow = BYTE.pow(PAYLOAD_BYTES - ones - 1);
+            BigInteger zeroBytesHigh = BYTE.pow(PAYLOAD_BYTES - ones);
+            BigInteger digitsValue = decodeDigits(digits);
+            for (int digitCount = digits.length(); digitCount <= MAX_PAYLOAD_DIGITS; digitCount++) {
+                BigInteger scale = BASE.pow(digitCount - digits.length());
+                BigInteger low = digitsValue.multiply(scale).max(zeroBytesLow);
+                BigInteger high = digitsValue.add(BigInteger.ONE).multiply(scale).min(zeroBytesHigh);
+                if (low.compareTo(high) < 0) {
+                    payloadRanges.add(new BigInteger[] {low, high});
+                }
+            }
+        }
+
+        // V = version * 2^192 + hash160 * 2^32 + checksum, with an unknown checksum: widen each
+        // range of V to every hash160 that some checksum could place inside it.
+        BigInteger versionOffset =
+                BigInteger.valueOf(addressVersion).shiftLeft((HASH160_BYTES + CHECKSUM_BYTES) * Byte.SIZE);
+        final List<long[]> ranges = new ArrayList<>();
+        for (BigInteger[] payloadRange : payloadRanges) {
+            BigInteger hashLow =
+                    floorDiv(payloadRange[0].subtract(versionOffset), CHECKSUM_RANGE).max(BigInteger.ZERO);
+            BigInteger lastPayload = payloadRange[1].subtract(BigInteger.ONE);
+            BigInteger hashHigh = floorDiv(lastPayload.subtract(versionOffset), CHECKSUM_RANGE).min(MAX_HASH160);
+            if (hashLow.compareTo(hashHigh) <= 0) {
+                ranges.add(new long[] {
+                    hashLow.shiftRight(RANGE_KEY_SHIFT).longValue(), hashHigh.shiftRight(RANGE_KEY_SHIFT).longValue()
+                });
+            }
+        }
+        return mergeRanges(ranges);
+    }
+
+    /** Sorts inclusive unsigned ranges and merges the overlapping and adjacent ones. */
+    static List<long[]> mergeRanges(List<long[]> ranges) {
+        List<long[]> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparing((long[] range) -> range[0], Long::compareUnsigned));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : sorted) {
+            if (!merged.isEmpty()) {
+                long[] last = merged.get(merged.size() - 1);
+                boolean touches = last[1] == -1L || Long.compareUnsigned(range[0], last[1] + 1L) <= 0;
+                if (touches) {
+                    if (Long.compareUnsigned(range[1], last[1]) > 0) {
+                        last[1] = range[1];
+                    }
+                    continue;
+                }
+            }
+            merged.add(new long[] {range[0], range[1]});
+        }
+        return merged;
+    }
+
+    private static BigInteger floorDiv(BigInteger dividend, BigInteger divisor) {
+        BigInteger[] quotientAndRemainder = dividend.divideAndRemainder(divisor);
+        if (quotientAndRemainder[1].signum() < 0) {
+            return quotientAndRemainder[0].subtract(BigInteger.ONE);
+        }
+        return quotientAndRemainder[0];
+    }
+
+    /** Decodes Base58 digits (no leading-zero semantics) into their numeric value. */
+    static BigInteger decodeDigits(String digits) {
+        BigInteger value = BigInteger.ZERO;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = BASE58_ALPHABET.indexOf(digits.charAt(i));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a Base58 character: '" + digits.charAt(i) + "'");
+            }
+            value = value.multiply(BASE).add(BigInteger.valueOf(digit));
+        }
+        return value;
+    }
+
+    /**
+     * Reads the first 64 bits of a hash160 as a big-endian unsigned key, the unit of the prefix ranges.
+     *
+     * @param hash160 the 20-byte hash
+     * @return the range key
+     */
+    static long rangeKey(byte[] hash160) {
+        long key = 0L;
+        for (int i = 0; i < Long.BYTES; i++) {
+            key = (key << Byte.SIZE) | (hash160[i] & 0xFFL);
+        }
+        return key;
+    }
+
+    /**
+     * Returns whether the address of this hash160 can match. Never {@code false} for an address the
+     * regex matches; a {@code true} must be confirmed with {@link #matches(String)}. Always
+     * {@code true} for a pattern that was not compiled.
+     *
+     * @param hash160 the 20-byte hash of a candidate
+     * @return {@code false} if the address certainly does not match
+     */
+    boolean mayMatch(byte[] hash160) {
+        if (!compiled) {
+            return true;
+        }
+        if (hasPrefix && !inPrefixRanges(rangeKey(hash160))) {
+            return false;
+        }
+        return suffixMayMatch(hash160);
+    }
+
+    /**
+     * Returns whether the suffix part of the compiled check passes; {@code true} without a compiled
+     * suffix.
+     *
+     * @param hash160 the 20-byte hash of a candidate
+     * @return {@code false} if the address certainly does not end with the suffix
+     */
+    boolean suffixMayMatch(byte[] hash160) {
+        return suffixModulus == 0L || payloadModulo(hash160, suffixModulus, addressVersion) == suffixValue;
+    }
+
+    /**
+     * Returns whether the compiled form restricts the prefix.
+     *
+     * @return {@code true} if {@link #prefixRangeCount()} ranges bound the first 64 bits
+     */
+    boolean hasPrefix() {
+        return compiled && hasPrefix;
+    }
+
+    /**
+     * Returns the number of prefix ranges; {@code 0} for a prefix no address can have.
+     *
+     * @return the range count
+     */
+    int prefixRangeCount() {
+        return rangeLows.length;
+    }
+
+    /**
+     * Returns the inclusive unsigned lower bound of a prefix range.
+     *
+     * @param index the range index
+     * @return the lower bound of the first 64 bits of the hash160
+     */
+    long prefixRangeLow(int index) {
+        return rangeLows[index];
+    }
+
+    /**
+     * Returns the inclusive unsigned upper bound of a prefix range.
+     *
+     * @param index the range index
+     * @return the upper bound of the first 64 bits of the hash160
+     */
+    long prefixRangeHigh(int index) {
+        return rangeHighs[index];
+    }
+
+    /**
+     * Returns {@code 58^s} for a compiled suffix of {@code s} characters.
+     *
+     * @return the suffix modulus; {@code 0} without a compiled suffix
+     */
+    long suffixModulus() {
+        return suffixModulus;
+    }
+
+    /**
+     * Returns the value of the compiled suffix's digits.
+     *
+     * @return the value {@code V mod suffixModulus()} must equal
+     */
+    long suffixValue() {
+        return suffixValue;
+    }
+
+    private boolean inPrefixRanges(long key) {
+        for (int i = 0; i < rangeLows.length; i++) {
+            if (Long.compareUnsigned(key, rangeLows[i]) >= 0 && Long.compareUnsigned(key, rangeHighs[i]) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes {@code V mod modulus} for the payload {@code version | hash160 | checksum}, deriving
+     * the checksum with reused per-thread buffers.
+     *
+     * @param hash160        the 20-byte hash
+     * @param modulus        the modulus; at most {@code 58^}{@value #MAX_COMPILED_SUFFIX_LENGTH}
+     * @param addressVersion the version byte
+     * @return the payload modulo {@code modulus}
+     */
+    static long payloadModulo(byte[] hash160, long modulus, int addressVersion) {
+        return payloadModulo(hash160, checksum(hash160, addressVersion), modulus, addressVersion);
+    }
+
+    /**
+     * Computes the SHA-256d of {@code version | hash160} into a per-thread buffer; its first
+     * {@code 4} bytes are the address checksum. The buffer is overwritten by the next call on the same
+     * thread.
+     *
+     * @param hash160        the 20-byte hash
+     * @param addressVersion the version byte
+     * @return the per-thread digest buffer
+     */
+    static byte[] checksum(byte[] hash160, int addressVersion) {
+        return CHECKSUM_SCRATCH.get().digest(addressVersion, hash160);
+    }
+
+    /**
+     * Computes {@code V mod modulus} for the payload {@code version | hash160 | checksum} with an
+     * already computed checksum, so several moduli can share one SHA-256d.
+     *
+     * @param hash160        the 20-byte hash
+     * @param digest         the output of {@link #checksum(byte[], int)} for this hash160
+     * @param modulus        the modulus; at most {@code 58^}{@value #MAX_COMPILED_SUFFIX_LENGTH}
+     * @param addressVersion the version byte
+     * @return the payload modulo {@code modulus}
+     */
+    static long payloadModulo(byte[] hash160, byte[] digest, long modulus, int addressVersion) {
+        long remainder = (addressVersion & 0xFF) % modulus;
+        for (int i = 0; i < HASH160_BYTES; i++) {
+            remainder = (remainder * 256L + (hash160[i] & 0xFF)) % modulus;
+        }
+        for (int i = 0; i < CHECKSUM_BYTES; i++) {
+            remainder = (remainder * 256L + (digest[i] & 0xFF)) % modulus;
+        }
+        return remainder;
+    }
+
+    /**
+     * Confirms a candidate against the original regex.
+     *
+     * @param address the Base58 address of a candidate that passed {@link #mayMatch(byte[])}
+     * @return {@code true} if the regex matches the whole address
+     */
+    boolean matches(String address) {
+        return pattern.matcher(address).matches();
+    }
+
+    /**
+     * Returns whether the integer prefilter applies; {@code false} means every candidate is matched
+     * by the regex alone.
+     *
+     * @return {@code true} if the pattern was compiled
+     */
+    boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Returns the regex this pattern was compiled from.
+     *
+     * @return the regex
+     */
+    String regex() {
+        return regex;
+    }
+
+    /** SHA-256 state and output buffer reused by one thread for the double-SHA-256 checksum. */
+    private static final class ChecksumScratch {
+        private final MessageDigest sha256;
+        private final byte[] buffer = new byte[32];
+
+        ChecksumScratch() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform is required to provide SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] digest(int addressVersion, byte[] hash160) {
+            try {
+                sha256.update((byte) addressVersion);
+                sha256.update(hash160, 0, HASH160_BYTES);
+                sha256.digest(buffer, 0, buffer.length);
+                sha256.update(buffer, 0, buffer.length);
+                sha256.digest(buffer, 0, buffer.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return buffer;
+        }
+    }
+}
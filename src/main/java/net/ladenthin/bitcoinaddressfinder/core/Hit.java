@@ -4,6 +4,7 @@
 package net.ladenthin.bitcoinaddressfinder.core;
 
 import java.math.BigInteger;
+import org.jspecify.annotations.Nullable;
 
 /**
  * One address found in the database, together with the key that produced it.
@@ -22,5 +23,26 @@ import java.math.BigInteger;
  * @param address      the encoded address
  * @param compressed   whether the address was derived from the compressed public key
  * @param vanity       whether this is a vanity-pattern match rather than a database hit
+ * @param vanityPattern the vanity pattern that matched, or {@code null} for a database hit
  */
-public record Hit(BigInteger privateKey, String hash160Hex, String address, boolean compressed, boolean vanity) {}
+public record Hit(
+        BigInteger privateKey,
+        String hash160Hex,
+        String address,
+        boolean compressed,
+        boolean vanity,
+        @Nullable String vanityPattern) {
+
+    /**
+     * Creates a hit without a vanity pattern.
+     *
+     * @param privateKey the private key that derives this address
+     * @param hash160Hex the RIPEMD-160 hash of the public key, hex-encoded
+     * @param address    the encoded address
+     * @param compressed whether the address was derived from the compressed public key
+     * @param vanity     whether this is a vanity-pattern match rather than a database hit
+     */
+    public Hit(BigInteger privateKey, String hash160Hex, String address, boolean compressed, boolean vanity) {
+        this(privateKey, hash160Hex, address, compressed, vanity, null);
+    }
+}
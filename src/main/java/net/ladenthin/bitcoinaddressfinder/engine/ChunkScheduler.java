@@ -0,0 +1,310 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.engine;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CChunkScheduler;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyChunk;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyChunkSource;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaChunked;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.WatermarkFile;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares one incremental key range between any number of producers, handing out chunks on demand.
+ *
+ * <h2>No overlap, no gaps</h2>
+ * Chunks are cut sequentially from a single cursor, so they never overlap and leave nothing out.
+ * Every chunk is a whole number of <em>units</em>, a unit being the largest batch of all registered
+ * producers ({@code 2^maxBatchSizeInBits} keys), and starts on a unit boundary. A producer with a
+ * smaller batch therefore splits any chunk into whole, aligned batches, and a producer expanding a
+ * batch base with {@code batchUsePrivateKeyIncrement} never reaches below its chunk. The unit is
+ * fixed on the first chunk request, after all producers have been registered; the range is widened
+ * to unit boundaries at both ends.
+ *
+ * <h2>Sizing by throughput</h2>
+ * A producer's first chunk is one unit. Every further chunk is sized from the throughput the
+ * producer achieved on its previous one, so that it lasts about
+ * {@link CChunkScheduler#targetChunkSeconds}: a fast device takes large chunks, a slow one small
+ * chunks, and all of them come back at about the same rate. No chunk is larger than an equal share
+ * of what is left, so near the end of the range the remaining work is spread over all producers
+ * instead of landing on one.
+ *
+ * <h2>Watermark</h2>
+ * Handing a batch to the consumer does not make it done: it may still sit in a queue or be checked
+ * when the process dies. A chunk is therefore complete only once its producer has asked for the next
+ * one <em>and</em> the consumer has reported every batch issued from it checked, identified by the
+ * aligned {@link BatchResult#secretBase()} as in {@code IncrementalCheckpoint}. The watermark is the
+ * start of the oldest chunk not yet complete: everything below it is checked. It is persisted to
+ * {@link CChunkScheduler#checkpointFile} whenever it advances, and a restart resumes from it. Chunks
+ * completed above the watermark are scanned again after a restart; that repeats work but never skips
+ * any. Batches of independent secrets cannot be attributed to a chunk, so issuing one stops the
+ * watermark for good.
+ */
+@ToString
+public class ChunkScheduler implements KeyChunkSource, ResultListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkScheduler.class);
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** Radix of logged keys, matching the hex keys of the configuration. */
+    private static final int HEX_RADIX = 16;
+
+    /** Per-producer state. */
+    private static final class Requester {
+        private final int batchSizeInBits;
+        private long assignedAtNanos;
+
+        private Requester(int batchSizeInBits) {
+            this.batchSizeInBits = batchSizeInBits;
+        }
+    }
+
+    /** Progress of a chunk handed out and not yet complete. */
+    private static final class ChunkProgress {
+        /** Batches issued from the chunk and not yet reported checked. */
+        private int unchecked;
+
+        /** Set once the producer asked for its next chunk, so no further batch is issued from this one. */
+        private boolean handedBack;
+    }
+
+    private final CChunkScheduler cChunkScheduler;
+
+    private final @Nullable WatermarkFile watermarkFile;
+
+    @ToString.Exclude
+    private final LongSupplier nanoTime;
+
+    @ToString.Exclude
+    private final List<Requester> requesters = new ArrayList<>();
+
+    /** Starts of the chunks handed out and not yet completed. */
+    @ToString.Exclude
+    private final TreeMap<BigInteger, ChunkProgress> inFlight = new TreeMap<>();
+
+    /** Aligned base of every batch issued and not yet reported checked, mapped to its chunk's start. */
+    @ToString.Exclude
+    private final Map<BigInteger, BigInteger> uncheckedBatches = new HashMap<>();
+
+    /** Set once a batch was issued that cannot be attributed; the watermark stops from then on. */
+    private boolean untracked;
+
+    /** {@code log2} of the unit, {@code -1} until the first chunk is requested. */
+    private int unitBits = -1;
+
+    private BigInteger cursor = BigInteger.ZERO;
+
+    /** Exclusive end of the range, widened to a unit boundary. */
+    private BigInteger end = BigInteger.ZERO;
+
+    private BigInteger watermark = BigInteger.ZERO;
+
+    /**
+     * Creates a scheduler for the configured range.
+     *
+     * @param cChunkScheduler the range and scheduling configuration
+     * @throws IllegalArgumentException if {@link CChunkScheduler#targetChunkSeconds} is not positive,
+     *     the range is empty or a shard is configured
+     */
+    public ChunkScheduler(CChunkScheduler cChunkScheduler) {
+        this(cChunkScheduler, System::nanoTime);
+    }
+
+    /**
+     * Creates a scheduler with an injectable clock, so throughput-based sizing can be tested.
+     *
+     * @param cChunkScheduler the range and scheduling configuration
+     * @param nanoTime        the monotonic clock
+     */
+    @VisibleForTesting
+    ChunkScheduler(CChunkScheduler cChunkScheduler, LongSupplier nanoTime) {
+        if (!(cChunkScheduler.targetChunkSeconds > 0.0)) {
+            throw new IllegalArgumentException(
+                    "targetChunkSeconds must be positive but was " + cChunkScheduler.targetChunkSeconds);
+        }
+        if (cChunkScheduler.shardCount != 1) {
+            throw new IllegalArgumentException("A chunk scheduler cannot be sharded; give each instance its own"
+                    + " startPrivateKey and endPrivateKey instead.");
+        }
+        if (cChunkScheduler.getStartPrivateKey().compareTo(cChunkScheduler.getEndPrivateKey()) > 0) {
+            throw new IllegalArgumentException("startPrivateKey " + cChunkScheduler.startPrivateKey
+                    + " is greater than endPrivateKey " + cChunkScheduler.endPrivateKey);
+        }
+        this.cChunkScheduler = cChunkScheduler;
+        this.nanoTime = nanoTime;
+        final @Nullable String checkpointFile = cChunkScheduler.checkpointFile;
+        this.watermarkFile = checkpointFile != null ? new WatermarkFile(Path.of(checkpointFile)) : null;
+    }
+
+    /**
+     * Registers a producer and returns the key producer it draws its batches from.
+     *
+     * @param batchSizeInBits the producer's {@code batchSizeInBits}
+     * @return the key producer for exactly one producer
+     * @throws IllegalStateException if chunks have already been handed out with a smaller unit
+     */
+    public synchronized KeyProducerJavaChunked createKeyProducer(int batchSizeInBits) {
+        if (unitBits >= 0 && batchSizeInBits > unitBits) {
+            throw new IllegalStateException("Cannot register a producer with batchSizeInBits=" + batchSizeInBits
+                    + " after scheduling started with units of 2^" + unitBits + " keys");
+        }
+        requesters.add(new Requester(batchSizeInBits));
+        return new KeyProducerJavaChunked(cChunkScheduler, this, requesters.size() - 1);
+    }
+
+    @Override
+    public synchronized @Nullable KeyChunk nextChunk(int requesterId, @Nullable KeyChunk completed) {
+        if (unitBits < 0) {
+            start();
+        }
+        final long now = nanoTime.getAsLong();
+        final Requester requester = requesters.get(requesterId);
+
+        long units = 1L;
+        if (completed != null) {
+            complete(completed);
+            final long elapsedNanos = Math.max(1L, now - requester.assignedAtNanos);
+            final double keysPerSecond = completed.keyCount() * NANOS_PER_SECOND / elapsedNanos;
+            final double wantedUnits = keysPerSecond * cChunkScheduler.targetChunkSeconds / (1L << unitBits);
+            // bounded so the key count of a chunk always fits a long
+            units = (long) Math.min(Math.max(1.0, Math.ceil(wantedUnits)), (double) (Long.MAX_VALUE >>> unitBits));
+        }
+
+        final BigInteger remainingUnits = end.subtract(cursor).shiftRight(unitBits);
+        if (remainingUnits.signum() == 0) {
+            return null;
+        }
+        final BigInteger fairShare = remainingUnits.divide(BigInteger.valueOf(requesters.size())).max(BigInteger.ONE);
+        units = BigInteger.valueOf(units).min(fairShare).longValueExact();
+
+        final KeyChunk chunk = new KeyChunk(cursor, units << unitBits);
+        cursor = chunk.end();
+        inFlight.put(chunk.start(), new ChunkProgress());
+        requester.assignedAtNanos = now;
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Chunk for requester " + requesterId + ": " + chunk.start().toString(HEX_RADIX) + " + "
+                    + chunk.keyCount());
+        }
+        return chunk;
+    }
+
+    /** Fixes the unit and the range on the first request. */
+    private void start() {
+        int maxBits = 0;
+        for (Requester requester : requesters) {
+            maxBits = Math.max(maxBits, requester.batchSizeInBits);
+        }
+        unitBits = maxBits;
+        final BigInteger unitMask = BigInteger.ONE.shiftLeft(unitBits).subtract(BigInteger.ONE);
+        final BigInteger start = cChunkScheduler.getStartPrivateKey().andNot(unitMask);
+        end = cChunkScheduler.getEndPrivateKey().or(unitMask).add(BigInteger.ONE);
+        cursor = start;
+
+        final @Nullable BigInteger resumed = watermarkFile != null ? watermarkFile.read() : null;
+        if (resumed != null && resumed.compareTo(start) > 0) {
+            cursor = resumed.min(end).andNot(unitMask);
+        }
+        watermark = cursor;
+        LOGGER.info("Chunk scheduler {}: range [{}, {}) in units of 2^{} keys, starting at {}",
+                cChunkScheduler.keyProducerId,
+                start.toString(HEX_RADIX),
+                end.toString(HEX_RADIX),
+                unitBits,
+                cursor.toString(HEX_RADIX));
+    }
+
+    private void complete(KeyChunk completed) {
+        final @Nullable ChunkProgress progress = inFlight.get(completed.start());
+        if (progress == null) {
+            throw new IllegalStateException("Chunk " + completed.start().toString(HEX_RADIX) + " is not in flight");
+        }
+        progress.handedBack = true;
+        if (progress.unchecked == 0 || untracked) {
+            inFlight.remove(completed.start());
+            advanceWatermark();
+        }
+    }
+
+    @Override
+    public synchronized void issued(BigInteger first, int overallWorkSize, boolean returnStartSecretOnly) {
+        if (!returnStartSecretOnly && !untracked) {
+            untracked = true;
+            uncheckedBatches.clear();
+            LOGGER.warn("Chunk scheduler {}: batches of independent secrets cannot be attributed to their chunk;"
+                    + " the watermark stops. Use batchUsePrivateKeyIncrement to checkpoint.",
+                    cChunkScheduler.keyProducerId);
+        }
+        if (untracked) {
+            return;
+        }
+        final Map.@Nullable Entry<BigInteger, ChunkProgress> chunk = inFlight.floorEntry(first);
+        if (chunk == null || chunk.getValue().handedBack) {
+            throw new IllegalStateException("Batch " + first.toString(HEX_RADIX) + " is not in a chunk in flight");
+        }
+        chunk.getValue().unchecked++;
+        uncheckedBatches.put(first.andNot(BigInteger.valueOf(overallWorkSize - 1)), chunk.getKey());
+    }
+
+    @Override
+    public void onBatchChecked(BatchResult batchResult) {
+        final @Nullable BigInteger secretBase = batchResult.secretBase();
+        if (secretBase == null) {
+            return;
+        }
+        synchronized (this) {
+            // Results of every key producer reach every listener; one not issued here is not ours.
+            final @Nullable BigInteger chunkStart = untracked ? null : uncheckedBatches.remove(secretBase);
+            if (chunkStart == null) {
+                return;
+            }
+            final ChunkProgress progress = Objects.requireNonNull(inFlight.get(chunkStart));
+            progress.unchecked--;
+            if (progress.unchecked == 0 && progress.handedBack) {
+                inFlight.remove(chunkStart);
+                advanceWatermark();
+            }
+        }
+    }
+
+    private void advanceWatermark() {
+        if (untracked) {
+            return;
+        }
+        final BigInteger newWatermark = inFlight.isEmpty() ? cursor : inFlight.firstKey();
+        if (newWatermark.compareTo(watermark) > 0) {
+            watermark = newWatermark;
+            if (watermarkFile != null) {
+                watermarkFile.write(watermark);
+            }
+            if (watermark.compareTo(end) >= 0) {
+                LOGGER.info("Chunk scheduler {}: range completed.", cChunkScheduler.keyProducerId);
+            }
+        }
+    }
+
+    /**
+     * Returns the start of the oldest chunk not yet complete; every key below it has been checked.
+     *
+     * @return the watermark
+     */
+    public synchronized BigInteger getWatermark() {
+        return watermark;
+    }
+}
@@ -12,33 +12,41 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.*;
 import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CChunkScheduler;
 import net.ladenthin.bitcoinaddressfinder.configuration.CConsumerJava;
 import net.ladenthin.bitcoinaddressfinder.configuration.CFinder;
 import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaSocket;
 import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaWebSocket;
 import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaZmq;
+import net.ladenthin.bitcoinaddressfinder.configuration.CMetricsEndpoint;
 import net.ladenthin.bitcoinaddressfinder.configuration.CProducer;
 import net.ladenthin.bitcoinaddressfinder.configuration.CProducerOpenCL;
 import net.ladenthin.bitcoinaddressfinder.configuration.GpuFilterType;
 import net.ladenthin.bitcoinaddressfinder.consumer.Consumer;
 import net.ladenthin.bitcoinaddressfinder.consumer.ConsumerJava;
+import net.ladenthin.bitcoinaddressfinder.consumer.ThreadPlacement;
 import net.ladenthin.bitcoinaddressfinder.core.FireAndForget;
 import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
 import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
 import net.ladenthin.bitcoinaddressfinder.core.Startable;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.BatchResultJsonFormatter;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.IncrementalCheckpoint;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducer;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerIdIsNotUniqueException;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerIdNullException;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerIdUnknownException;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaBip39;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaDictionary;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaIncremental;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaRandom;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaSeedRange;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaSocket;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaWebSocket;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaZmq;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.SocketResultBroadcaster;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.WebSocketResultBroadcaster;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.ZmqResultBroadcaster;
+import net.ladenthin.bitcoinaddressfinder.persistence.FilterBuildProgress;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
 import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.BinaryFuse16GpuFilterData;
 import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.BinaryFuse8GpuFilterData;
@@ -48,9 +56,12 @@ import net.ladenthin.bitcoinaddressfinder.producer.ProducerJavaSecretsFiles;
 import net.ladenthin.bitcoinaddressfinder.producer.ProducerOpenCL;
 import net.ladenthin.bitcoinaddressfinder.producer.ProducerReleaser;
 import net.ladenthin.bitcoinaddressfinder.producer.ProducerState;
+import net.ladenthin.bitcoinaddressfinder.statistics.MetricsEndpoint;
+import net.ladenthin.bitcoinaddressfinder.statistics.MetricsRegistry;
 import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
 import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.IoThreads;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
 import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
 import org.bitcoinj.base.Network;
@@ -72,12 +83,30 @@ public class Finder implements Interruptable {
 
     private final Map<String, KeyProducer> keyProducers = new HashMap<>();
 
+    /**
+     * Chunk schedulers by id. They share the id namespace of {@link #keyProducers}, but hand every
+     * producer referencing them a key producer of its own (see {@link #getKeyProducer(CProducer)}).
+     */
+    @ToString.Exclude
+    private final Map<String, ChunkScheduler> chunkSchedulers = new HashMap<>();
+
     /**
      * Shared runtime metrics sink wired into the consumer (which renders the statistics
      * line) and every producer (which increment their per-producer batch counters).
      */
     private final RuntimeStatistics runtimeStatistics = new RuntimeStatistics();
 
+    /**
+     * Metrics of the consumer, the producers and the filter build, served by {@link #metricsEndpoint}.
+     * Populated whether or not the endpoint is enabled; a registered metric costs nothing until it
+     * is scraped.
+     */
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    /** The running metrics endpoint, kept so its socket can be closed on shutdown. */
+    @ToString.Exclude
+    private @Nullable MetricsEndpoint metricsEndpoint;
+
     // ConsumerJava is a stateful coordinator (executors + queue + lifecycle) — recursive/heavy.
     @ToString.Exclude
     private @Nullable ConsumerJava consumerJava;
@@ -111,6 +140,13 @@ public class Finder implements Interruptable {
     @ToString.Exclude
     private final List<SocketResultBroadcaster> socketBroadcasters = new ArrayList<>();
 
+    /**
+     * Checkpoints of the incremental key producers, kept beyond the key producers themselves so the
+     * final watermark can be written once the consumer has drained its queue.
+     */
+    @ToString.Exclude
+    private final List<IncrementalCheckpoint> checkpoints = new ArrayList<>();
+
     /** Guarantees each producer is released exactly once, even when two teardowns overlap. */
     private final ProducerReleaser producerReleaser = new ProducerReleaser();
 
@@ -146,6 +182,66 @@ public class Finder implements Interruptable {
         this.persistenceUtils = new PersistenceUtils(network);
     }
 
+    /**
+     * Registers the pipeline-wide metrics and, if {@code metricsEndpoint.enabled} is set, starts
+     * serving them. Called first, so the endpoint already answers while the lookup is being built.
+     *
+     * <p>A port that cannot be bound is logged and the scan continues without the endpoint, like a
+     * result server that cannot be bound.
+     */
+    public void startMetricsEndpoint() {
+        metricsRegistry.counter("generated_keys_total",
+                "Candidate private keys generated by all producers.", runtimeStatistics::getGeneratedKeys);
+        metricsRegistry.counter("producer_generated_keys_total",
+                "Candidate private keys generated per producer.", "producer",
+                runtimeStatistics::generatedKeysByProducerSnapshot);
+        metricsRegistry.gauge("producers_running", "Producers in the RUNNING state.",
+                runtimeStatistics::getRunningProducers);
+        metricsRegistry.gauge("filter_build_progress_ratio",
+                "Progress of the address lookup build phase last started or advanced.", "phase",
+                () -> FilterBuildProgress.latest()
+                        .map(progress -> Map.of(progress.phase(), progressRatio(progress)))
+                        .orElse(Map.of()));
+
+        final CMetricsEndpoint config = finder.metricsEndpoint;
+        if (!config.enabled) {
+            return;
+        }
+        final MetricsEndpoint endpoint = new MetricsEndpoint(config.bindAddress, config.port, metricsRegistry);
+        try {
+            endpoint.start();
+        } catch (IOException e) {
+            LOGGER.error(
+                    "Could not serve metrics on {}:{}; continuing without it.", config.bindAddress, config.port, e);
+            return;
+        }
+        metricsEndpoint = endpoint;
+    }
+
+    private static double progressRatio(FilterBuildProgress.Snapshot progress) {
+        return progress.total() == 0L ? 1.0 : (double) progress.done() / progress.total();
+    }
+
+    /**
+     * Returns the registry the metrics endpoint serves.
+     *
+     * @return the registry
+     */
+    @VisibleForTesting
+    MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Returns the running metrics endpoint.
+     *
+     * @return the endpoint, or {@code null} if it is disabled, could not be bound or was closed
+     */
+    @VisibleForTesting
+    @Nullable MetricsEndpoint getMetricsEndpoint() {
+        return metricsEndpoint;
+    }
+
     /**
      * Instantiates and registers every configured key producer.
      */
@@ -172,7 +268,8 @@ public class Finder implements Interruptable {
 
         processKeyProducers(
                 finder.keyProducerJavaSocket,
-                cKeyProducerJavaSocket -> new KeyProducerJavaSocket(cKeyProducerJavaSocket, keyUtility, bitHelper),
+                cKeyProducerJavaSocket -> new KeyProducerJavaSocket(
+                        cKeyProducerJavaSocket, keyUtility, bitHelper, IoThreads.of(finder.virtualIoThreads)),
                 cKeyProducerJavaSocket -> cKeyProducerJavaSocket.keyProducerId,
                 keyProducers);
 
@@ -183,11 +280,37 @@ public class Finder implements Interruptable {
                 cKeyProducerJavaWebSocket -> cKeyProducerJavaWebSocket.keyProducerId,
                 keyProducers);
 
+        processKeyProducers(
+                finder.keyProducerJavaSeedRange,
+                cKeyProducerJavaSeedRange ->
+                        new KeyProducerJavaSeedRange(cKeyProducerJavaSeedRange, keyUtility, bitHelper),
+                cKeyProducerJavaSeedRange -> cKeyProducerJavaSeedRange.keyProducerId,
+                keyProducers);
+
+        processKeyProducers(
+                finder.keyProducerJavaDictionary,
+                cKeyProducerJavaDictionary ->
+                        new KeyProducerJavaDictionary(cKeyProducerJavaDictionary, keyUtility, bitHelper),
+                cKeyProducerJavaDictionary -> cKeyProducerJavaDictionary.keyProducerId,
+                keyProducers);
+
         processKeyProducers(
                 finder.keyProducerJavaZmq,
-                cKeyProducerJavaZmq -> new KeyProducerJavaZmq(cKeyProducerJavaZmq, keyUtility, bitHelper),
+                cKeyProducerJavaZmq -> new KeyProducerJavaZmq(
+                        cKeyProducerJavaZmq, keyUtility, bitHelper, IoThreads.of(finder.virtualIoThreads)),
                 cKeyProducerJavaZmq -> cKeyProducerJavaZmq.keyProducerId,
                 keyProducers);
+
+        for (CChunkScheduler cChunkScheduler : finder.chunkScheduler) {
+            final String keyProducerId = cChunkScheduler.keyProducerId;
+            if (keyProducerId == null) {
+                throw new KeyProducerIdNullException();
+            }
+            if (keyProducers.containsKey(keyProducerId) || chunkSchedulers.containsKey(keyProducerId)) {
+                throw new KeyProducerIdIsNotUniqueException(keyProducerId);
+            }
+            chunkSchedulers.put(keyProducerId, new ChunkScheduler(cChunkScheduler));
+        }
     }
 
     private <T, K> void processKeyProducers(
@@ -227,9 +350,17 @@ public class Finder implements Interruptable {
         LOGGER.info("startConsumer");
         CConsumerJava localCConsumerJava = Objects.requireNonNull(finder.consumerJava);
 
-        final ConsumerJava localConsumerJava = new ConsumerJava(
-                localCConsumerJava, keyUtility, persistenceUtils, runtimeStatistics, createResultListeners());
+        final ConsumerJava localConsumerJava = new ConsumerJava(localCConsumerJava, keyUtility, persistenceUtils,
+                runtimeStatistics, createResultListeners(), maxBatchSize());
         consumerJava = localConsumerJava;
+        localConsumerJava.registerMetrics(metricsRegistry);
+        metricsRegistry.gauge("filter_survivor_ratio",
+                "Share of the potential address lookups (two per generated key) that reach the consumer;"
+                        + " below 1 when a GPU pre-filter is active; 0 before the first key is generated.",
+                () -> {
+                    final long generatedKeys = runtimeStatistics.getGeneratedKeys();
+                    return generatedKeys == 0 ? 0.0 : localConsumerJava.getCheckedKeys() / (2.0 * generatedKeys);
+                });
         // Decide up-front whether the GPU pre-filter is needed so initLMDB() can build it while
         // LMDB is still open — a self-contained backend closes the env at the end of initLMDB().
         localConsumerJava.setGpuFilterRequested(isGpuFilterRequested());
@@ -253,9 +384,29 @@ public class Finder implements Interruptable {
         addWebSocketBroadcasters(listeners);
         addZmqBroadcasters(listeners);
         addSocketBroadcasters(listeners);
+        addCheckpoints(listeners);
         return listeners;
     }
 
+    /**
+     * Adds the checkpoint of every incremental key producer configured with a checkpoint file, and
+     * every chunk scheduler; both advance their watermark only on batches the consumer reports checked.
+     *
+     * @param listeners the list to add to
+     */
+    private void addCheckpoints(List<ResultListener> listeners) {
+        listeners.addAll(chunkSchedulers.values());
+        for (KeyProducer keyProducer : keyProducers.values()) {
+            if (keyProducer instanceof KeyProducerJavaIncremental incremental) {
+                final @Nullable IncrementalCheckpoint checkpoint = incremental.getCheckpoint();
+                if (checkpoint != null) {
+                    checkpoints.add(checkpoint);
+                    listeners.add(checkpoint);
+                }
+            }
+        }
+    }
+
     /**
      * Adds a broadcaster for every WebSocket key producer configured to report results.
      *
@@ -322,7 +473,8 @@ public class Finder implements Interruptable {
             if (!config.broadcastResults) {
                 continue;
             }
-            final SocketResultBroadcaster broadcaster = new SocketResultBroadcaster(config.resultPort);
+            final SocketResultBroadcaster broadcaster = new SocketResultBroadcaster(
+                    config.resultPort, new BatchResultJsonFormatter(), IoThreads.of(finder.virtualIoThreads));
             try {
                 broadcaster.start();
             } catch (IOException e) {
@@ -365,6 +517,20 @@ public class Finder implements Interruptable {
         }
     }
 
+    /**
+     * Returns the largest batch a configured producer hands to the consumer, so its keys queue can
+     * hold {@code consumerJava.queueSize} such batches.
+     *
+     * @return the largest {@code 2^batchSizeInBits} of the producers, {@code 0} without producers
+     */
+    private int maxBatchSize() {
+        int maxBatchSize = 0;
+        for (CProducer cProducer : configuredProducerConfigs()) {
+            maxBatchSize = Math.max(maxBatchSize, cProducer.getOverallWorkSize());
+        }
+        return maxBatchSize;
+    }
+
     /**
      * Returns the configuration of every producer that was actually created.
      *
@@ -466,6 +632,8 @@ public class Finder implements Interruptable {
                         config, localConsumerJava, keyUtility, keyProducer, bitHelper, runtimeStatistics),
                 openCLProducers);
 
+        registerOpenCLMetrics();
+
         // Vanity scanning needs every derived address on the CPU, so it is mutually exclusive
         // with the GPU compact filter mode; force full transfer first, then upload the filter
         // only to the producers that remain in compact mode.
@@ -475,6 +643,31 @@ public class Finder implements Interruptable {
         announceGridConfigurationToBroadcasters();
     }
 
+    /**
+     * Registers the device-side timings of the last launch per OpenCL producer, labelled with the
+     * producer's index in {@code producerOpenCL}. Only reported with {@code enableProfiling}.
+     */
+    private void registerOpenCLMetrics() {
+        final List<ProducerOpenCL> producers = List.copyOf(openCLProducers);
+        metricsRegistry.gauge("gpu_kernel_last_seconds",
+                "On-device kernel time of the last read-back launch (requires enableProfiling).", "producer",
+                () -> lastOpenCLSeconds(producers, ProducerOpenCL::getLastKernelExecutionNanos));
+        metricsRegistry.gauge("gpu_readback_last_seconds",
+                "On-device result read-back time of the last read-back launch (requires enableProfiling).",
+                "producer", () -> lastOpenCLSeconds(producers, ProducerOpenCL::getLastResultReadbackNanos));
+    }
+
+    private static Map<String, Double> lastOpenCLSeconds(
+            List<ProducerOpenCL> producers, ToLongFunction<ProducerOpenCL> nanos) {
+        final Map<String, Double> seconds = new TreeMap<>();
+        for (int i = 0; i < producers.size(); i++) {
+            final long value = nanos.applyAsLong(producers.get(i));
+            // A negative value is the "not profiled" sentinel; NaN leaves the series out.
+            seconds.put(Integer.toString(i), value < 0 ? Double.NaN : value / 1_000_000_000.0);
+        }
+        return seconds;
+    }
+
     /**
      * Forces {@code transferAll = true} on every OpenCL producer when vanity scanning is enabled,
      * logging a warning that GPU compact filter mode is disabled.
@@ -620,6 +813,9 @@ public class Finder implements Interruptable {
     /**
      * Resolves the {@link KeyProducer} configured for the given producer.
      *
+     * <p>An id naming a chunk scheduler registers the producer with it and returns a key producer
+     * serving only that producer, so every call for such an id adds one more participant.
+     *
      * @param cProducer the producer configuration
      * @return the resolved {@link KeyProducer}
      * @throws KeyProducerIdUnknownException if the referenced id is null or unknown
@@ -629,6 +825,10 @@ public class Finder implements Interruptable {
         if (id == null) {
             throw new KeyProducerIdUnknownException(null);
         }
+        final ChunkScheduler chunkScheduler = chunkSchedulers.get(id);
+        if (chunkScheduler != null) {
+            return chunkScheduler.createKeyProducer(cProducer.batchSizeInBits);
+        }
         KeyProducer keyProducer = keyProducers.get(id);
         if (keyProducer == null) {
             throw new KeyProducerIdUnknownException(id);
@@ -660,10 +860,21 @@ public class Finder implements Interruptable {
         runtimeStatistics.setRunningProducersGauge(() -> getAllProducers().stream()
                 .filter(producer -> producer.getState() == ProducerState.RUNNING)
                 .count());
+        // With thread placement enabled, the producers are spread over the nodes like the consumer
+        // threads, so each batch is queued on, and checked by, the node that produced it.
+        final ConsumerJava localConsumerJava = consumerJava;
+        final @Nullable ThreadPlacement threadPlacement =
+                localConsumerJava != null ? localConsumerJava.getThreadPlacement() : null;
+        int producerIndex = 0;
         for (Producer producer : getAllProducers()) {
+            Runnable task = producer;
+            if (threadPlacement != null && threadPlacement.isEnabled()) {
+                task = threadPlacement.onNode(threadPlacement.nodeForWorker(producerIndex), producer);
+            }
+            producerIndex++;
             @FireAndForget("lifecycle via Producer.interrupt() and Finder.interrupt() shutdown")
             @SuppressWarnings("FutureReturnValueIgnored")
-            Object unused = producerExecutorService.submit(producer);
+            Object unused = producerExecutorService.submit(task);
         }
     }
 
@@ -700,6 +911,12 @@ public class Finder implements Interruptable {
             consumerJava = null;
         }
         LOGGER.info("consumerJava released.");
+
+        // Only now has every batch still queued been checked, so the watermark is final.
+        for (IncrementalCheckpoint checkpoint : checkpoints) {
+            checkpoint.flush();
+        }
+        checkpoints.clear();
     }
 
     /**
@@ -739,6 +956,13 @@ public class Finder implements Interruptable {
         socketBroadcasters.clear();
         resultBroadcasters.clear();
 
+        // The endpoint's dispatcher thread is non-daemon too.
+        final MetricsEndpoint localMetricsEndpoint = metricsEndpoint;
+        if (localMetricsEndpoint != null) {
+            localMetricsEndpoint.close();
+            metricsEndpoint = null;
+        }
+
         // Interrupt and release all Producers, each exactly once even under a concurrent teardown.
         producerReleaser.release(getAllProducers());
         freeAllProducers();
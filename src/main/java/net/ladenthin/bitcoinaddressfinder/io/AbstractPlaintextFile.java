@@ -3,11 +3,22 @@
 // SPDX-License-Identifier: Apache-2.0
 package net.ladenthin.bitcoinaddressfinder.io;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.core.Interruptable;
 import net.ladenthin.bitcoinaddressfinder.statistics.ReadStatistic;
@@ -19,41 +30,85 @@ import org.slf4j.LoggerFactory;
 /**
  * Base class for line-by-line readers of plaintext files that update a {@link ReadStatistic}
  * and can be interrupted gracefully.
+ *
+ * <p>The file is cut into chunks of about {@link #DEFAULT_CHUNK_SIZE} bytes, each ending at a line
+ * boundary, and every chunk is memory-mapped and split into lines that are decoded from UTF-8
+ * directly. With one thread (default) the chunks are read in order on the calling thread, so
+ * {@link #processLine(String)} sees the lines in file order. With more threads the chunks are read
+ * concurrently: lines keep their order within a chunk but not across chunks, and
+ * {@link #processLine(String)} must be thread-safe.
  */
 @ToString
 public abstract class AbstractPlaintextFile implements Interruptable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractPlaintextFile.class);
 
+    /** Default chunk size: 16 MiB. */
+    static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    /** Block size used to find the line boundary after a tentative chunk end. */
+    private static final int BOUNDARY_SCAN_SIZE = 64 << 10;
+
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
     /** The file being read. */
     protected final @NonNull File file;
     /** Statistic updated while the file is being processed. */
     protected final @NonNull ReadStatistic readStatistic;
 
+    /** Number of threads reading chunks concurrently. */
+    private final int threads;
+
+    /** Target size of a chunk; a chunk extends to the end of the line it would cut. */
+    private final int chunkSize;
+
     // Lifecycle AtomicBoolean — its value flips on shutdown and the toString form is uninformative.
     @ToString.Exclude
     private final @NonNull AtomicBoolean shouldRun = new AtomicBoolean(true);
 
     /**
-     * Creates a new reader for the given file.
+     * Creates a new single-threaded reader for the given file.
      *
      * @param file          the file to read
      * @param readStatistic the statistic to update while reading
      */
     public AbstractPlaintextFile(@NonNull File file, @NonNull ReadStatistic readStatistic) {
+        this(file, readStatistic, 1);
+    }
+
+    /**
+     * Creates a new reader for the given file.
+     *
+     * @param file          the file to read
+     * @param readStatistic the statistic to update while reading
+     * @param threads       the number of threads reading chunks concurrently; more than one requires a
+     *                      thread-safe {@link #processLine(String)}
+     */
+    public AbstractPlaintextFile(@NonNull File file, @NonNull ReadStatistic readStatistic, int threads) {
+        this(file, readStatistic, threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    @VisibleForTesting
+    AbstractPlaintextFile(@NonNull File file, @NonNull ReadStatistic readStatistic, int threads, int chunkSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive but was " + threads);
+        }
         this.file = file;
         this.readStatistic = readStatistic;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
     }
 
     /**
-     * Calculates the current read progress as a percentage of the file size.
+     * Calculates the read progress as a percentage of the file size.
      *
-     * @param raf the currently open random-access file
+     * @param position the number of bytes read
+     * @param length   the file size in bytes
      * @return the progress in percent (0 to 100)
-     * @throws IOException if the file pointer or length cannot be read
      */
-    protected double calculateFileProgress(@NonNull RandomAccessFile raf) throws IOException {
-        return ((double) Math.max(raf.getFilePointer(), 1) / (double) raf.length()) * 100.0d;
+    protected double calculateFileProgress(long position, long length) {
+        return ((double) Math.max(position, 1) / (double) length) * 100.0d;
     }
 
     /**
@@ -69,24 +124,156 @@ public abstract class AbstractPlaintextFile implements Interruptable {
      * @throws IOException if reading fails
      */
     public void readFile() throws IOException {
-        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-            while (shouldRun.get()) {
-                String line = raf.readLine();
-                if (line == null) {
-                    return;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final List<Long> chunkEnds = findChunkEnds(channel, size);
+            if (threads == 1) {
+                long start = 0;
+                for (long end : chunkEnds) {
+                    if (!readChunk(channel, start, end, size, shouldRun)) {
+                        return;
+                    }
+                    start = end;
                 }
-                String utf8 = new String(line.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
-                readStatistic.currentFileProgress = calculateFileProgress(raf);
-                try {
-                    processLine(utf8);
-                } catch (LmdbException e) {
-                    // do not catch expections from LMDB (e. g. MapFullException).
-                    throw e;
-                } catch (Exception e) {
-                    LOGGER.error("Error in line: {}", utf8, e);
-                    readStatistic.errors.add(utf8);
+            } else {
+                readChunksConcurrently(channel, chunkEnds, size);
+            }
+        }
+    }
+
+    /**
+     * Returns the end of every chunk: the first line start at or after each multiple of
+     * {@link #chunkSize}, and finally the file size.
+     */
+    private List<Long> findChunkEnds(FileChannel channel, long size) throws IOException {
+        final List<Long> chunkEnds = new ArrayList<>();
+        final ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long end = 0;
+        while (end < size) {
+            end = Math.min(end + chunkSize, size);
+            end = nextLineStart(channel, end, size, scan);
+            chunkEnds.add(end);
+        }
+        return chunkEnds;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer scan) throws IOException {
+        long position = from;
+        while (position < size) {
+            scan.clear();
+            final int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == LINE_FEED) {
+                    return position + i + 1;
                 }
             }
+            position += read;
+        }
+        return size;
+    }
+
+    private void readChunksConcurrently(FileChannel channel, List<Long> chunkEnds, long size) throws IOException {
+        final AtomicBoolean keepRunning = new AtomicBoolean(true);
+        final AtomicLong readBytes = new AtomicLong();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(chunkEnds.size());
+            long start = 0;
+            for (long end : chunkEnds) {
+                final long chunkStart = start;
+                futures.add(pool.submit(() -> {
+                    if (shouldRun.get()) {
+                        readChunk(channel, chunkStart, end, -1L, keepRunning);
+                        updateProgress(readBytes.addAndGet(end - chunkStart), size);
+                    }
+                    return null;
+                }));
+                start = end;
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + file, e);
+        } catch (ExecutionException e) {
+            keepRunning.set(false);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                // e.g. an LmdbException, which must reach the caller as it does single-threaded
+                throw runtimeException;
+            }
+            throw new IOException("Failed to read " + file, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the lines of one chunk.
+     *
+     * @param channel     the file
+     * @param start       offset of the chunk's first line
+     * @param end         offset after the chunk's last line
+     * @param size        the file size to report per-line progress against, or {@code -1} to not
+     *                    report it
+     * @param keepRunning cleared to stop reading
+     * @return {@code false} if reading was stopped
+     */
+    private boolean readChunk(FileChannel channel, long start, long end, long size, AtomicBoolean keepRunning)
+            throws IOException {
+        final long length = end - start;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("A line of " + file + " near offset " + start + " is longer than 2 GiB.");
+        }
+        final MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        final int limit = (int) length;
+        byte[] lineBytes = new byte[256];
+        int lineStart = 0;
+        while (lineStart < limit) {
+            if (!shouldRun.get() || !keepRunning.get()) {
+                return false;
+            }
+            int lineEnd = lineStart;
+            while (lineEnd < limit && chunk.get(lineEnd) != LINE_FEED && chunk.get(lineEnd) != CARRIAGE_RETURN) {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd < limit - 1 && chunk.get(lineEnd) == CARRIAGE_RETURN && chunk.get(lineEnd + 1) == LINE_FEED) {
+                next++;
+            }
+            final int lineLength = lineEnd - lineStart;
+            if (lineBytes.length < lineLength) {
+                lineBytes = new byte[Math.max(lineLength, lineBytes.length * 2)];
+            }
+            chunk.get(lineStart, lineBytes, 0, lineLength);
+            final String line = new String(lineBytes, 0, lineLength, StandardCharsets.UTF_8);
+            if (size >= 0) {
+                updateProgress(start + Math.min(next, limit), size);
+            }
+            processLineAndRecordErrors(line);
+            lineStart = next;
+        }
+        return true;
+    }
+
+    private void updateProgress(long position, long size) {
+        readStatistic.currentFileProgress = calculateFileProgress(position, size);
+    }
+
+    private void processLineAndRecordErrors(String line) {
+        try {
+            processLine(line);
+        } catch (LmdbException e) {
+            // do not catch expections from LMDB (e. g. MapFullException).
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("Error in line: {}", line, e);
+            synchronized (readStatistic) {
+                readStatistic.errors.add(line);
+            }
         }
     }
 
@@ -0,0 +1,165 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
+
+/**
+ * A reusable, fixed-capacity batch of parsed addresses held in primitive arrays: entry {@code i} is
+ * the 20-byte hash160 at {@code hash160s()[i * 20]} and the amount {@link #amount(int)}. Filling and
+ * writing a batch allocates nothing, which matters when importing hundreds of millions of lines.
+ *
+ * <p>Not thread-safe; a batch is owned by one thread at a time.
+ */
+@ToString
+public class AddressBatch {
+
+    /** Bytes of one hash160 slot. */
+    public static final int HASH160_BYTES = OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES;
+
+    // The raw slots are uninformative in toString; size and capacity describe the batch.
+    @ToString.Exclude
+    private final byte[] hash160s;
+
+    @ToString.Exclude
+    private final long[] amounts;
+
+    private int size;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param capacity the maximum number of entries
+     */
+    public AddressBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive but was " + capacity);
+        }
+        this.hash160s = new byte[capacity * HASH160_BYTES];
+        this.amounts = new long[capacity];
+    }
+
+    /**
+     * Returns the backing hash160 slots; entry {@code i} starts at {@code i * }{@link #HASH160_BYTES}.
+     *
+     * @return the backing array, not a copy
+     */
+    public byte[] hash160s() {
+        return hash160s;
+    }
+
+    /**
+     * Returns the offset of the slot the next entry is written to; a decoder fills it and then
+     * calls {@link #commit(long)}.
+     *
+     * @return the offset into {@link #hash160s()}
+     */
+    public int nextSlotOffset() {
+        return size * HASH160_BYTES;
+    }
+
+    /**
+     * Completes the entry whose hash160 was written to {@link #nextSlotOffset()}.
+     *
+     * @param amount the amount of the entry
+     */
+    public void commit(long amount) {
+        amounts[size++] = amount;
+    }
+
+    /**
+     * Appends an entry by copying its hash160.
+     *
+     * @param hash160 the 20-byte hash; its position is not changed
+     * @param amount  the amount of the entry
+     */
+    public void add(ByteBuffer hash160, long amount) {
+        hash160.get(hash160.position(), hash160s, nextSlotOffset(), HASH160_BYTES);
+        commit(amount);
+    }
+
+    /**
+     * Appends as many entries of {@code other}, starting at {@code from}, as fit into this batch.
+     *
+     * @param other the batch to copy from
+     * @param from  the index of the first entry to copy
+     * @return the number of entries copied
+     */
+    public int addFrom(AddressBatch other, int from) {
+        final int count = Math.min(other.size - from, amounts.length - size);
+        System.arraycopy(other.hash160s, from * HASH160_BYTES, hash160s, nextSlotOffset(), count * HASH160_BYTES);
+        System.arraycopy(other.amounts, from, amounts, size, count);
+        size += count;
+        return count;
+    }
+
+    /**
+     * Returns the amount of an entry.
+     *
+     * @param index the index of the entry
+     * @return its amount
+     */
+    public long amount(int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the batch is empty.
+     *
+     * @return {@code true} if there is no entry
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns whether the batch is full.
+     *
+     * @return {@code true} if no further entry fits
+     */
+    public boolean isFull() {
+        return size == amounts.length;
+    }
+
+    /**
+     * Sorts the entries by hash160 in unsigned byte order, the order LMDB keeps its keys in. Entries
+     * with the same hash160 keep their order, so the last one still wins when the batch is written.
+     * Written in key order, a batch touches each B-tree page once instead of jumping between pages
+     * for every entry. Unlike filling and writing, sorting allocates a temporary permutation.
+     */
+    public void sortByHash160() {
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // Arrays.sort on objects is stable.
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(
+                hash160s, a * HASH160_BYTES, (a + 1) * HASH160_BYTES,
+                hash160s, b * HASH160_BYTES, (b + 1) * HASH160_BYTES));
+        final byte[] unsortedHash160s = Arrays.copyOf(hash160s, size * HASH160_BYTES);
+        final long[] unsortedAmounts = Arrays.copyOf(amounts, size);
+        for (int i = 0; i < size; i++) {
+            final int from = order[i];
+            System.arraycopy(unsortedHash160s, from * HASH160_BYTES, hash160s, i * HASH160_BYTES, HASH160_BYTES);
+            amounts[i] = unsortedAmounts[from];
+        }
+    }
+
+    /** Removes all entries; the arrays are kept for reuse. */
+    public void clear() {
+        size = 0;
+    }
+}
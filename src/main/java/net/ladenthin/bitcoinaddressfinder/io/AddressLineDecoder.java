@@ -0,0 +1,78 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import java.nio.charset.StandardCharsets;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.model.AddressToCoin;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes one address line from raw bytes into an {@link AddressBatch}: {@link AddressLineParser} first,
+ * which allocates nothing, and {@link AddressTxtLine} for every line it declines. Only such a declined
+ * line is turned into a {@code String}, decoded leniently from UTF-8 (malformed bytes are replaced).
+ * Every command that reads address files decodes its lines here, so they all accept the same lines.
+ *
+ * <p>Not thread-safe: the parsers are reused for every line, so use one instance per thread.
+ */
+@ToString
+public class AddressLineDecoder {
+
+    /** Outcome of {@link #decode}. */
+    public enum Result {
+        /** The line's address was appended to the batch. */
+        ADDED,
+        /** The line is not a supported address (a comment, header or unsupported format). */
+        UNSUPPORTED,
+        /** Decoding the line failed unexpectedly; the error is logged. */
+        ERROR
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AddressLineDecoder.class);
+
+    private final @NonNull KeyUtility keyUtility;
+
+    private final AddressLineParser addressLineParser = new AddressLineParser();
+
+    private final AddressTxtLine addressTxtLine = new AddressTxtLine();
+
+    /**
+     * Creates a new {@link AddressLineDecoder}.
+     *
+     * @param keyUtility the {@link KeyUtility} used by the {@link AddressTxtLine} fallback
+     */
+    public AddressLineDecoder(@NonNull KeyUtility keyUtility) {
+        this.keyUtility = keyUtility;
+    }
+
+    /**
+     * Decodes the line {@code bytes[start, end)}, without its terminator, and appends its address to
+     * {@code batch} if it is supported.
+     *
+     * @param bytes the bytes holding the line
+     * @param start the first byte of the line
+     * @param end the end of the line, exclusive
+     * @param batch the batch to append the address to; must not be full
+     * @return whether the address was appended, the line is unsupported, or decoding it failed
+     */
+    public @NonNull Result decode(byte[] bytes, int start, int end, @NonNull AddressBatch batch) {
+        if (addressLineParser.parse(bytes, start, end, batch)) {
+            return Result.ADDED;
+        }
+        String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        try {
+            AddressToCoin entry = addressTxtLine.fromLine(line, keyUtility);
+            batch.add(entry.hash160(), entry.coin().value);
+            return Result.ADDED;
+        } catch (AddressFormatNotAcceptedException e) {
+            return Result.UNSUPPORTED;
+        } catch (RuntimeException e) {
+            LOGGER.error("Error in line: {}", line, e);
+            return Result.ERROR;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.util.Bech32Helper;
+
+/**
+ * Allocation-free fast path for the address lines that make up nearly all of a large dump: a
+ * Base58 address with a one-byte version ({@code 1...}, {@code 3...}) or a Bech32 P2WPKH address
+ * ({@code bc1q...}), optionally followed by one separator and a decimal amount. The line is parsed
+ * from its raw bytes, and the hash160 is decoded straight into the next slot of an
+ * {@link AddressBatch}.
+ *
+ * <p>The fast path only accepts a line if {@link AddressTxtLine#fromLine} would decode it to the very
+ * same hash160 and amount; every other line — comments, headers, other coins, multiple columns,
+ * anything unusual — is declined and must be handed to {@link AddressTxtLine}. Like it, a Base58
+ * checksum is not verified (bulk-import contract), whereas a Bech32 checksum is.
+ *
+ * <p>Not thread-safe: the decode buffers are reused for every line.
+ */
+@ToString
+public class AddressLineParser {
+
+    private static final String BASE58_ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+
+    /** Base58 digit per ASCII character, or {@code -1}. */
+    private static final byte[] BASE58_DIGITS = new byte[128];
+
+    /** Bech32 value per ASCII character (lower case only), or {@code -1}. */
+    private static final byte[] BECH32_VALUES = new byte[128];
+
+    /** Single-character {@link SeparatorFormat} symbols, except {@code ':'} (see {@link #parse}). */
+    private static final boolean[] SEPARATORS = new boolean[128];
+
+    private static final int[] BECH32_GENERATOR = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+
+    /** Polymod result of a valid Bech32 (not Bech32m) checksum. */
+    private static final int BECH32_CONSTANT = 1;
+
+    /** Decoded length of a Base58 address with a one-byte version: version, hash160, checksum. */
+    private static final int BASE58_DECODED_BYTES = 1 + AddressBatch.HASH160_BYTES + 4;
+
+    /** Data characters of a P2WPKH address: witness version, 32 program characters, 6 checksum. */
+    private static final int P2WPKH_DATA_CHARS = 1 + 32 + 6;
+
+    /** Maximum length of a Bech32 string. */
+    private static final int BECH32_MAX_LENGTH = 90;
+
+    /** Amounts of up to 18 digits fit into a {@code long} without an overflow check. */
+    private static final int MAX_AMOUNT_DIGITS = 18;
+
+    private static final byte[] ADDRESS_HEADER = AddressTxtLine.ADDRESS_HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        Arrays.fill(BASE58_DIGITS, (byte) -1);
+        for (int i = 0; i < BASE58_ALPHABET.length(); i++) {
+            BASE58_DIGITS[BASE58_ALPHABET.charAt(i)] = (byte) i;
+        }
+        Arrays.fill(BECH32_VALUES, (byte) -1);
+        for (int i = 0; i < Bech32Helper.CHARSET.length(); i++) {
+            BECH32_VALUES[Bech32Helper.CHARSET.charAt(i)] = (byte) i;
+        }
+        for (SeparatorFormat separatorFormat : SeparatorFormat.values()) {
+            final String symbol = separatorFormat.getSymbol();
+            if (symbol.length() == 1 && symbol.charAt(0) != ':') {
+                SEPARATORS[symbol.charAt(0)] = true;
+            }
+        }
+    }
+
+    private final byte[] base58 = new byte[BASE58_DECODED_BYTES];
+
+    /** Creates a new {@link AddressLineParser}. */
+    public AddressLineParser() {}
+
+    /**
+     * Parses a line into the next entry of {@code batch} if it is in one of the fast-path formats.
+     *
+     * <p>{@code ':'} is not taken as a separator: {@link AddressTxtLine} strips a
+     * {@code bitcoincash:} prefix before splitting, which a Base58 address could in theory end with.
+     *
+     * @param line  the buffer holding the line
+     * @param start offset of the first byte of the line
+     * @param end   offset after the last byte of the line, without line terminator
+     * @param batch the batch to append to; must not be full
+     * @return {@code true} if the line was appended, {@code false} if it must be parsed by
+     *     {@link AddressTxtLine} (nothing was appended)
+     */
+    public boolean parse(byte[] line, int start, int end, AddressBatch batch) {
+        int addressEnd = start;
+        boolean upper = false;
+        boolean lower = false;
+        while (addressEnd < end) {
+            final byte b = line[addressEnd];
+            if (b >= 'A' && b <= 'Z') {
+                upper = true;
+            } else if (b >= 'a' && b <= 'z') {
+                lower = true;
+            } else if (b < '0' || b > '9') {
+                break;
+            }
+            addressEnd++;
+        }
+        if (addressEnd == start) {
+            return false;
+        }
+        final long amount;
+        if (addressEnd == end) {
+            amount = AddressTxtLine.DEFAULT_COIN.value;
+        } else {
+            amount = parseAmount(line, addressEnd, end);
+            if (amount < 0) {
+                return false;
+            }
+        }
+        final byte first = line[start];
+        if (first == '1' || first == '3') {
+            // Mixed case rules out Bech32, which AddressTxtLine tries before Base58.
+            return upper && lower && decodeBase58(line, start, addressEnd, batch, amount);
+        }
+        if (first >= 'a' && first <= 'z' && !upper && !startsWithAddressHeader(line, start, addressEnd)) {
+            return decodeP2WPKH(line, start, addressEnd, batch, amount);
+        }
+        return false;
+    }
+
+    /** Returns the amount after the separator at {@code separator}, or {@code -1} if not fast-path. */
+    private static long parseAmount(byte[] line, int separator, int end) {
+        final byte b = line[separator];
+        final int digits = end - separator - 1;
+        if (b < 0 || !SEPARATORS[b] || digits < 1 || digits > MAX_AMOUNT_DIGITS) {
+            return -1;
+        }
+        long amount = 0;
+        for (int i = separator + 1; i < end; i++) {
+            final int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            amount = amount * 10 + digit;
+        }
+        return amount;
+    }
+
+    private static boolean startsWithAddressHeader(byte[] line, int start, int end) {
+        return end - start >= ADDRESS_HEADER.length
+                && Arrays.equals(line, start, start + ADDRESS_HEADER.length, ADDRESS_HEADER, 0, ADDRESS_HEADER.length);
+    }
+
+    /**
+     * Decodes a Base58 address of exactly {@link #BASE58_DECODED_BYTES} bytes and stores the bytes
+     * after its version, like {@code AddressTxtLine.parseBase58Address} with one version byte.
+     */
+    private boolean decodeBase58(byte[] line, int start, int end, AddressBatch batch, long amount) {
+        final byte[] number = base58;
+        Arrays.fill(number, (byte) 0);
+        int leadingZeros = 0;
+        while (start + leadingZeros < end && line[start + leadingZeros] == '1') {
+            leadingZeros++;
+        }
+        for (int i = start; i < end; i++) {
+            int carry = BASE58_DIGITS[line[i]];
+            if (carry < 0) {
+                return false;
+            }
+            for (int j = number.length - 1; j >= 0; j--) {
+                carry += 58 * (number[j] & 0xFF);
+                number[j] = (byte) carry;
+                carry >>>= 8;
+            }
+            if (carry != 0) {
+                return false;
+            }
+        }
+        int numberStart = 0;
+        while (numberStart < number.length && number[numberStart] == 0) {
+            numberStart++;
+        }
+        // The decoded form is the leading '1's as zero bytes followed by the number without them.
+        if (leadingZeros + number.length - numberStart != number.length) {
+            return false;
+        }
+        System.arraycopy(number, 1, batch.hash160s(), batch.nextSlotOffset(), AddressBatch.HASH160_BYTES);
+        batch.commit(amount);
+        return true;
+    }
+
+    /** Decodes a lower-case Bech32 witness version 0 address with a 20-byte program. */
+    private static boolean decodeP2WPKH(byte[] line, int start, int end, AddressBatch batch, long amount) {
+        int separator = end - 1;
+        while (separator > start && line[separator] != '1') {
+            separator--;
+        }
+        if (separator == start || end - separator - 1 != P2WPKH_DATA_CHARS || end - start > BECH32_MAX_LENGTH) {
+            return false;
+        }
+        int checksum = 1;
+        for (int i = start; i < separator; i++) {
+            checksum = polymodStep(checksum, line[i] >>> 5);
+        }
+        checksum = polymodStep(checksum, 0);
+        for (int i = start; i < separator; i++) {
+            checksum = polymodStep(checksum, line[i] & 31);
+        }
+        for (int i = separator + 1; i < end; i++) {
+            final int value = BECH32_VALUES[line[i]];
+            if (value < 0) {
+                return false;
+            }
+            checksum = polymodStep(checksum, value);
+        }
+        if (checksum != BECH32_CONSTANT || BECH32_VALUES[line[separator + 1]] != 0) {
+            return false;
+        }
+        final byte[] slots = batch.hash160s();
+        int slot = batch.nextSlotOffset();
+        int accumulator = 0;
+        int bits = 0;
+        final int programEnd = end - 6;
+        for (int i = separator + 2; i < programEnd; i++) {
+            accumulator = (accumulator << 5) | BECH32_VALUES[line[i]];
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                slots[slot++] = (byte) (accumulator >>> bits);
+            }
+        }
+        batch.commit(amount);
+        return true;
+    }
+
+    private static int polymodStep(int checksum, int value) {
+        final int top = checksum >>> 25;
+        int next = ((checksum & 0x1ffffff) << 5) ^ value;
+        for (int i = 0; i < BECH32_GENERATOR.length; i++) {
+            if (((top >>> i) & 1) != 0) {
+                next ^= BECH32_GENERATOR[i];
+            }
+        }
+        return next;
+    }
+}
@@ -0,0 +1,172 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import lombok.ToString;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Reads lines from a stream as raw bytes, without decoding them. Lines end at {@code \n}, {@code \r} or
+ * {@code \r\n} — the line terminators of {@link java.io.BufferedReader#readLine()} — and a last line
+ * without a terminator is still returned.
+ *
+ * <p>The stream is read in large blocks. After {@link #readLine()} the line is {@code bytes()[start(),
+ * end())}: a line inside one block is returned straight from the read buffer, and only a line spanning
+ * two blocks is copied into a reused line buffer. Either way the bytes are valid only until the next
+ * {@link #readLine()}, and reading allocates nothing per line.
+ *
+ * <p>Not thread-safe. The stream is not closed by this reader.
+ */
+@ToString
+public class ByteLineReader {
+
+    /** Default size of the buffer the stream is read into. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    @ToString.Exclude
+    private final @NonNull InputStream inputStream;
+
+    @ToString.Exclude
+    private final byte[] buffer;
+
+    /** Holds a line spanning two blocks; grows if such a line is longer. */
+    @ToString.Exclude
+    private byte[] spanned = new byte[256];
+
+    private int position;
+    private int limit;
+
+    /** The previous line ended with {@code \r}, so a leading {@code \n} belongs to it. */
+    private boolean skipLineFeed;
+
+    @ToString.Exclude
+    private byte[] lineBytes;
+
+    private int lineStart;
+    private int lineEnd;
+
+    /**
+     * Creates a reader with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     *
+     * @param inputStream the stream to read
+     */
+    public ByteLineReader(@NonNull InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param inputStream the stream to read
+     * @param bufferSize the size of the buffer the stream is read into; at least {@code 1}
+     */
+    public ByteLineReader(@NonNull InputStream inputStream, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be at least 1: " + bufferSize);
+        }
+        this.inputStream = inputStream;
+        this.buffer = new byte[bufferSize];
+        this.lineBytes = buffer;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return {@code false} at the end of the stream, otherwise {@code true} with the line in
+     *     {@link #bytes()} from {@link #start()} to {@link #end()}
+     * @throws IOException if reading the stream fails
+     */
+    public boolean readLine() throws IOException {
+        int spannedLength = 0;
+        while (true) {
+            if (position == limit) {
+                int read = inputStream.read(buffer);
+                if (read == -1) {
+                    if (spannedLength == 0) {
+                        return false;
+                    }
+                    // last line without a terminator
+                    setLine(spanned, 0, spannedLength);
+                    return true;
+                }
+                position = 0;
+                limit = read;
+                continue;
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == LINE_FEED) {
+                    // second byte of a \r\n
+                    position++;
+                    continue;
+                }
+            }
+            for (int i = position; i < limit; i++) {
+                byte b = buffer[i];
+                if (b == LINE_FEED || b == CARRIAGE_RETURN) {
+                    skipLineFeed = b == CARRIAGE_RETURN;
+                    if (spannedLength == 0) {
+                        setLine(buffer, position, i);
+                    } else {
+                        spannedLength = appendSpanned(spannedLength, position, i);
+                        setLine(spanned, 0, spannedLength);
+                    }
+                    position = i + 1;
+                    return true;
+                }
+            }
+            spannedLength = appendSpanned(spannedLength, position, limit);
+            position = limit;
+        }
+    }
+
+    /**
+     * Returns the array holding the current line.
+     *
+     * @return the array holding the current line
+     */
+    public byte[] bytes() {
+        return lineBytes;
+    }
+
+    /**
+     * Returns the index of the first byte of the current line in {@link #bytes()}.
+     *
+     * @return the start of the current line
+     */
+    public int start() {
+        return lineStart;
+    }
+
+    /**
+     * Returns the index after the last byte of the current line in {@link #bytes()}, excluding its terminator.
+     *
+     * @return the end of the current line, exclusive
+     */
+    public int end() {
+        return lineEnd;
+    }
+
+    private void setLine(byte[] bytes, int start, int end) {
+        lineBytes = bytes;
+        lineStart = start;
+        lineEnd = end;
+    }
+
+    /** Appends {@code buffer[from, to)} to the spanned line and returns its new length. */
+    private int appendSpanned(int spannedLength, int from, int to) {
+        int count = to - from;
+        if (spannedLength + count > spanned.length) {
+            spanned = Arrays.copyOf(spanned, Math.max(spannedLength + count, spanned.length * 2));
+        }
+        System.arraycopy(buffer, from, spanned, spannedLength, count);
+        return spannedLength + count;
+    }
+}
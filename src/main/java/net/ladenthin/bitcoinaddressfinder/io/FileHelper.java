@@ -4,9 +4,13 @@
 package net.ladenthin.bitcoinaddressfinder.io;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +24,12 @@ public class FileHelper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileHelper.class);
 
+    /** File name suffix of gzip compressed address files, matched case-insensitively. */
+    public static final String GZIP_SUFFIX = ".gz";
+
+    /** Buffer size of the gzip decompressor. */
+    private static final int GZIP_BUFFER_SIZE = 64 << 10;
+
     /**
      * Converts a list of path strings to {@link File} objects.
      *
@@ -50,4 +60,27 @@ public class FileHelper {
         }
         LOGGER.info("All input files verified successfully.");
     }
+
+    /**
+     * Returns whether {@code file} is gzip compressed, judged by its {@link #GZIP_SUFFIX}.
+     *
+     * @param file the file to check
+     * @return {@code true} if the file name ends with {@code .gz}
+     */
+    public boolean isGzip(File file) {
+        return file.getName().toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX);
+    }
+
+    /**
+     * Wraps the stream of {@code file} in a gzip decompressor if the file {@link #isGzip(File) is gzip
+     * compressed}. Files of several concatenated gzip members are read as one stream.
+     *
+     * @param file        the file {@code inputStream} reads
+     * @param inputStream the raw stream of the file
+     * @return the decompressed stream, or {@code inputStream} itself for an uncompressed file
+     * @throws IOException if the gzip header cannot be read
+     */
+    public InputStream decompressIfGzip(File file, InputStream inputStream) throws IOException {
+        return isGzip(file) ? new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE) : inputStream;
+    }
 }
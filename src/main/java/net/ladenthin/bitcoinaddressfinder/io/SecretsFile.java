@@ -33,7 +33,7 @@ public class SecretsFile extends AbstractPlaintextFile {
     private final Network network;
 
     /**
-     * Creates a new reader for the given secrets file.
+     * Creates a new single-threaded reader for the given secrets file.
      *
      * @param network         the network used to interpret WiF keys
      * @param file            the file to read
@@ -47,7 +47,28 @@ public class SecretsFile extends AbstractPlaintextFile {
             @NonNull CSecretFormat secretFormat,
             @NonNull ReadStatistic readStatistic,
             @NonNull Consumer<BigInteger[]> secretConsumer) {
-        super(file, readStatistic);
+        this(network, file, secretFormat, readStatistic, secretConsumer, 1);
+    }
+
+    /**
+     * Creates a new reader for the given secrets file. Decoding a line is thread-safe, so with more
+     * than one thread only {@code secretConsumer} must be.
+     *
+     * @param network         the network used to interpret WiF keys
+     * @param file            the file to read
+     * @param secretFormat    the format of each line
+     * @param readStatistic   statistic updated while reading
+     * @param secretConsumer  consumer that receives the decoded secrets
+     * @param threads         the number of threads reading the file concurrently
+     */
+    public SecretsFile(
+            @NonNull Network network,
+            @NonNull File file,
+            @NonNull CSecretFormat secretFormat,
+            @NonNull ReadStatistic readStatistic,
+            @NonNull Consumer<BigInteger[]> secretConsumer,
+            int threads) {
+        super(file, readStatistic, threads);
         this.network = network;
         this.secretFormat = secretFormat;
         this.secretConsumer = secretConsumer;
@@ -80,6 +80,7 @@ public class BatchResultJsonFormatter {
             hitNode.put("address", hit.address());
             hitNode.put("compressed", hit.compressed());
             hitNode.put("vanity", hit.vanity());
+            hitNode.put("vanityPattern", hit.vanityPattern());
         }
         return objectMapper.writeValueAsString(root);
     }
@@ -0,0 +1,143 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.math.BigInteger;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.constants.Radix;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks which batches of an incremental scan have been checked and checkpoints the watermark below
+ * which all of them have.
+ *
+ * <p>Handing a batch to a producer does not make it done: it may still sit in an OpenCL result
+ * reader or in the consumer's queue when the process dies. A batch therefore counts as done only
+ * once the consumer reports it checked, identified by the aligned {@link BatchResult#secretBase()}
+ * the producer expanded it from. The watermark is the first key of the oldest batch not yet
+ * reported, or the next key to be issued when none is outstanding, so batches checked out of order
+ * hold it back rather than push it past a gap. A batch whose producer failed never reports and
+ * holds the watermark for good: the scan then repeats work after a restart but never skips any.
+ *
+ * <p>The watermark is written at most every {@code checkpointEveryNSeconds} from the consumer
+ * thread that reports a batch, and once more by {@link #flush()} on shutdown.
+ */
+@ToString
+public class IncrementalCheckpoint implements ResultListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalCheckpoint.class);
+
+    private final WatermarkFile watermarkFile;
+
+    private final long intervalNanos;
+
+    @ToString.Exclude
+    private final LongSupplier nanoTime;
+
+    /** Aligned base the consumer reports a batch under, mapped to the first key issued for it. */
+    @ToString.Exclude
+    private final TreeMap<BigInteger, BigInteger> inFlight = new TreeMap<>();
+
+    private BigInteger next;
+
+    private BigInteger persisted;
+
+    private long persistedAtNanos;
+
+    /** Set once a batch was issued that cannot be attributed; checkpointing stops from then on. */
+    private boolean untracked;
+
+    /**
+     * Creates a checkpoint for a scan continuing at {@code start}.
+     *
+     * @param watermarkFile          the state file
+     * @param start                  the first key the scan will issue
+     * @param checkpointEveryNSeconds minimum interval between two writes
+     * @param nanoTime               the monotonic clock
+     */
+    public IncrementalCheckpoint(
+            WatermarkFile watermarkFile, BigInteger start, int checkpointEveryNSeconds, LongSupplier nanoTime) {
+        this.watermarkFile = watermarkFile;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(checkpointEveryNSeconds);
+        this.nanoTime = nanoTime;
+        this.next = start;
+        this.persisted = start;
+        this.persistedAtNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Records a batch handed to a producer.
+     *
+     * @param first                 the first key of the batch
+     * @param overallWorkSize       the batch size, a power of two
+     * @param returnStartSecretOnly whether the producer expands {@code first} itself; only then does
+     *                              the consumer report the batch with a base
+     */
+    synchronized void issued(BigInteger first, int overallWorkSize, boolean returnStartSecretOnly) {
+        if (!returnStartSecretOnly && !untracked) {
+            untracked = true;
+            LOGGER.warn("Checkpoint {}: batches of independent secrets cannot be attributed to their range;"
+                    + " checkpointing stops. Use batchUsePrivateKeyIncrement to checkpoint.",
+                    watermarkFile.getPath());
+        }
+        if (untracked) {
+            return;
+        }
+        inFlight.put(first.andNot(BigInteger.valueOf(overallWorkSize - 1)), first);
+        next = first.add(BigInteger.valueOf(overallWorkSize));
+    }
+
+    @Override
+    public void onBatchChecked(BatchResult batchResult) {
+        final @Nullable BigInteger secretBase = batchResult.secretBase();
+        if (secretBase == null) {
+            return;
+        }
+        synchronized (this) {
+            // Results of every key producer reach every listener; one not issued here is not ours.
+            if (untracked || inFlight.remove(secretBase) == null) {
+                return;
+            }
+            if (nanoTime.getAsLong() - persistedAtNanos >= intervalNanos) {
+                persist();
+            }
+        }
+    }
+
+    /** Writes the current watermark if it advanced since the last write. */
+    public synchronized void flush() {
+        if (!untracked) {
+            persist();
+        }
+    }
+
+    /**
+     * Returns the first key not yet known to be checked.
+     *
+     * @return the watermark
+     */
+    public synchronized BigInteger getWatermark() {
+        return inFlight.isEmpty() ? next : inFlight.firstEntry().getValue();
+    }
+
+    private void persist() {
+        final BigInteger watermark = getWatermark();
+        persistedAtNanos = nanoTime.getAsLong();
+        if (watermark.equals(persisted)) {
+            return;
+        }
+        watermarkFile.write(watermark);
+        persisted = watermark;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Checkpoint {}: {}", watermarkFile.getPath(), watermark.toString(Radix.HEX));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.math.BigInteger;
+
+/**
+ * A contiguous run of private keys handed to one producer.
+ *
+ * @param start    the first private key of the chunk
+ * @param keyCount the number of keys in the chunk
+ */
+public record KeyChunk(BigInteger start, long keyCount) {
+
+    /**
+     * Returns the first private key after the chunk.
+     *
+     * @return {@code start + keyCount}
+     */
+    public BigInteger end() {
+        return start.add(BigInteger.valueOf(keyCount));
+    }
+}
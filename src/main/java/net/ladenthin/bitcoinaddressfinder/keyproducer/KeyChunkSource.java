@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.math.BigInteger;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Hands out chunks of one shared key range to several {@link KeyProducerJavaChunked} instances.
+ */
+public interface KeyChunkSource {
+
+    /**
+     * Reports the requester's previous chunk as completed and returns its next one.
+     *
+     * @param requesterId the id the requester was registered under
+     * @param completed   the chunk the requester has finished, or {@code null} on its first call
+     * @return the next chunk, or {@code null} if the range is exhausted
+     */
+    @Nullable KeyChunk nextChunk(int requesterId, @Nullable KeyChunk completed);
+
+    /**
+     * Records a batch cut from a chunk handed out by {@link #nextChunk}. A chunk counts as done only
+     * once every batch issued from it has been checked, not once it is handed back.
+     *
+     * @param first                 the first key of the batch
+     * @param overallWorkSize       the batch size, a power of two
+     * @param returnStartSecretOnly whether the producer expands {@code first} itself; only then does
+     *                              the consumer report the batch with a base
+     */
+    void issued(BigInteger first, int overallWorkSize, boolean returnStartSecretOnly);
+}
@@ -0,0 +1,77 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.math.BigInteger;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CChunkScheduler;
+import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Key producer serving one producer from chunks of a range it shares with other producers.
+ *
+ * <p>Batches are cut sequentially from the current chunk; once it is used up the next one is
+ * requested from the {@link KeyChunkSource}, which also learns that the previous chunk is handed
+ * back. Every batch is reported to the source as issued, so it can tell when the chunk is checked.
+ * Chunks are multiples of every registered producer's batch size, so a chunk always splits into
+ * whole batches. Each instance serves exactly one producer thread.
+ */
+@ToString(callSuper = true)
+public class KeyProducerJavaChunked extends KeyProducerJava<CChunkScheduler> {
+
+    @ToString.Exclude
+    private final KeyChunkSource keyChunkSource;
+
+    private final int requesterId;
+
+    private @Nullable KeyChunk chunk;
+
+    private BigInteger next = BigInteger.ZERO;
+
+    /**
+     * Creates a new chunked key producer.
+     *
+     * @param cChunkScheduler the configuration of the shared range
+     * @param keyChunkSource  the source handing out the chunks
+     * @param requesterId     the id this producer was registered under at the source
+     */
+    public KeyProducerJavaChunked(CChunkScheduler cChunkScheduler, KeyChunkSource keyChunkSource, int requesterId) {
+        super(cChunkScheduler);
+        this.keyChunkSource = keyChunkSource;
+        this.requesterId = requesterId;
+    }
+
+    @Override
+    public BigInteger[] createSecrets(int overallWorkSize, boolean returnStartSecretOnly) {
+        verifyWorkSize(overallWorkSize, cKeyProducerJava.maxWorkSize);
+        KeyChunk localChunk = chunk;
+        if (localChunk == null || next.compareTo(localChunk.end()) >= 0) {
+            localChunk = keyChunkSource.nextChunk(requesterId, localChunk);
+            chunk = localChunk;
+            if (localChunk == null) {
+                throw new NoMoreSecretsAvailableException("The chunk scheduler's range is exhausted.");
+            }
+            if (localChunk.keyCount() % overallWorkSize != 0) {
+                throw new IllegalStateException("Chunk of " + localChunk.keyCount()
+                        + " keys does not split into batches of " + overallWorkSize);
+            }
+            next = localChunk.start();
+        }
+
+        final int length = returnStartSecretOnly ? 1 : overallWorkSize;
+        final BigInteger[] secrets = new BigInteger[length];
+        BigInteger counter = next;
+        for (int i = 0; i < length; i++) {
+            secrets[i] = counter;
+            counter = counter.add(BigInteger.ONE);
+        }
+        keyChunkSource.issued(next, overallWorkSize, returnStartSecretOnly);
+        next = next.add(BigInteger.valueOf(overallWorkSize));
+        return secrets;
+    }
+
+    @Override
+    public void interrupt() {}
+}
@@ -0,0 +1,253 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaDictionary;
+import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Brain-wallet key producer: hashes every candidate passphrase of a wordlist with SHA-256 and
+ * returns the digests as private keys, a full batch per call.
+ *
+ * <p>The wordlist is memory-mapped and read as raw bytes, and each candidate is hashed straight
+ * from those bytes into a reused 32-byte buffer. The rule-based mutations
+ * ({@link CKeyProducerJavaDictionary#caseMutations case},
+ * {@link CKeyProducerJavaDictionary#appendNumbersUpTo appended numbers} and
+ * {@link CKeyProducerJavaDictionary#appendWordsFile appended words}) are generated on the fly as
+ * {@code (form, suffix)} pairs, so neither the expanded list nor the concatenated candidates are
+ * ever materialized.
+ *
+ * <p>Only taking the next candidates is serialized; hashing runs on the calling thread. Any number
+ * of producers can therefore share one instance and split the wordlist between them.
+ */
+@ToString(callSuper = true)
+public class KeyProducerJavaDictionary extends KeyProducerJava<CKeyProducerJavaDictionary> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyProducerJavaDictionary.class);
+
+    private static final byte[] NO_SUFFIX = new byte[0];
+
+    private static final int SHA256_LENGTH = 32;
+
+    @ToString.Exclude
+    private final MappedLineReader lines;
+
+    /** Every suffix appended to each form: the empty suffix first, then numbers, then words. */
+    @ToString.Exclude
+    private final List<byte[]> suffixes;
+
+    /** The forms of the current line; guarded by {@code this}. */
+    @ToString.Exclude
+    private List<byte[]> forms = List.of();
+
+    /** Position within {@link #forms} × {@link #suffixes}; guarded by {@code this}. */
+    @ToString.Exclude
+    private int formIndex;
+
+    @ToString.Exclude
+    private int suffixIndex;
+
+    /** Whether the wordlist has been read to its end or closed; guarded by {@code this}. */
+    @ToString.Exclude
+    private boolean exhausted;
+
+    /**
+     * Creates a new dictionary key producer and maps its wordlist.
+     *
+     * @param cKeyProducerJavaDictionary the dictionary configuration
+     * @param keyUtility                 cryptographic helper (unused but kept for symmetry)
+     * @param bitHelper                  bit/batch-size helper (unused but kept for symmetry)
+     * @throws IllegalArgumentException if no dictionary file is configured or
+     *     {@code appendNumbersUpTo} is negative
+     * @throws UncheckedIOException if a wordlist cannot be read
+     */
+    public KeyProducerJavaDictionary(
+            CKeyProducerJavaDictionary cKeyProducerJavaDictionary, KeyUtility keyUtility, BitHelper bitHelper) {
+        super(cKeyProducerJavaDictionary);
+        final @Nullable String dictionaryFile = cKeyProducerJavaDictionary.dictionaryFile;
+        if (dictionaryFile == null) {
+            throw new IllegalArgumentException("dictionaryFile must be set.");
+        }
+        this.suffixes = createSuffixes(cKeyProducerJavaDictionary);
+        try {
+            this.lines = new MappedLineReader(Path.of(dictionaryFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map dictionary " + dictionaryFile, e);
+        }
+    }
+
+    private static List<byte[]> createSuffixes(CKeyProducerJavaDictionary cKeyProducerJavaDictionary) {
+        final List<byte[]> suffixes = new ArrayList<>();
+        suffixes.add(NO_SUFFIX);
+        final @Nullable Integer appendNumbersUpTo = cKeyProducerJavaDictionary.appendNumbersUpTo;
+        if (appendNumbersUpTo != null) {
+            if (appendNumbersUpTo < 0) {
+                throw new IllegalArgumentException(
+                        "appendNumbersUpTo must not be negative but was " + appendNumbersUpTo);
+            }
+            for (int number = 0; number <= appendNumbersUpTo; number++) {
+                suffixes.add(Integer.toString(number).getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        final @Nullable String appendWordsFile = cKeyProducerJavaDictionary.appendWordsFile;
+        if (appendWordsFile != null) {
+            try (MappedLineReader words = new MappedLineReader(Path.of(appendWordsFile))) {
+                for (byte[] word = words.nextLine(); word != null; word = words.nextLine()) {
+                    // an empty word would repeat the empty suffix
+                    if (word.length > 0) {
+                        suffixes.add(word);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + appendWordsFile, e);
+            }
+        }
+        return suffixes;
+    }
+
+    @Override
+    public BigInteger[] createSecrets(int overallWorkSize, boolean returnStartSecretOnly) {
+        verifyWorkSize(overallWorkSize, cKeyProducerJava.maxWorkSize);
+        final int length = returnStartSecretOnly ? 1 : overallWorkSize;
+        final byte[][] candidateForms = new byte[length][];
+        final byte[][] candidateSuffixes = new byte[length][];
+        final int count = nextCandidates(candidateForms, candidateSuffixes);
+        if (count == 0) {
+            throw new NoMoreSecretsAvailableException(
+                    "All candidates of " + cKeyProducerJava.dictionaryFile + " have been produced.");
+        }
+
+        final MessageDigest sha256 = createSha256();
+        final byte[] secretBuffer = new byte[SHA256_LENGTH];
+        final BigInteger[] secrets = new BigInteger[length];
+        for (int i = 0; i < count; i++) {
+            sha256.update(candidateForms[i]);
+            sha256.update(candidateSuffixes[i]);
+            try {
+                sha256.digest(secretBuffer, 0, SHA256_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest does not fit 32 bytes", e);
+            }
+            secrets[i] = new BigInteger(1, secretBuffer);
+        }
+        // A producer needs a full batch; checking the last key again is harmless.
+        Arrays.fill(secrets, count, length, secrets[count - 1]);
+        return secrets;
+    }
+
+    /**
+     * Takes the next candidates of the wordlist.
+     *
+     * @param candidateForms    receives the form of each candidate
+     * @param candidateSuffixes receives the suffix appended to the form
+     * @return the number of candidates taken; less than the array length only at the end
+     */
+    private synchronized int nextCandidates(byte[][] candidateForms, byte[][] candidateSuffixes) {
+        int count = 0;
+        while (count < candidateForms.length) {
+            if (formIndex == forms.size()) {
+                if (exhausted || !nextLine()) {
+                    break;
+                }
+            }
+            candidateForms[count] = forms.get(formIndex);
+            candidateSuffixes[count] = suffixes.get(suffixIndex);
+            count++;
+            if (++suffixIndex == suffixes.size()) {
+                suffixIndex = 0;
+                formIndex++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the next non-empty line and derives its forms. Empty lines are skipped, so blank lines in
+     * a wordlist do not hash the empty passphrase again and again.
+     *
+     * @return {@code false} at the end of the wordlist
+     */
+    private boolean nextLine() {
+        byte @Nullable [] line;
+        try {
+            do {
+                line = lines.nextLine();
+            } while (line != null && line.length == 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + cKeyProducerJava.dictionaryFile, e);
+        }
+        if (line == null) {
+            exhausted = true;
+            LOGGER.info("Dictionary {} read to its end.", cKeyProducerJava.dictionaryFile);
+            return false;
+        }
+        forms = cKeyProducerJava.caseMutations ? caseForms(line) : List.of(line);
+        formIndex = 0;
+        suffixIndex = 0;
+        return true;
+    }
+
+    /**
+     * Returns the line followed by those of its lower case, upper case and capitalized forms that
+     * differ from the forms before them.
+     *
+     * @param line the line's bytes
+     * @return the distinct forms, the line first
+     */
+    static List<byte[]> caseForms(byte[] line) {
+        final String text = new String(line, StandardCharsets.UTF_8);
+        final String lower = text.toLowerCase(Locale.ROOT);
+        final String capitalized = lower.isEmpty()
+                ? lower
+                : lower.substring(0, lower.offsetByCodePoints(0, 1)).toUpperCase(Locale.ROOT)
+                        + lower.substring(lower.offsetByCodePoints(0, 1));
+        final List<byte[]> forms = new ArrayList<>(4);
+        forms.add(line);
+        for (String form : List.of(lower, text.toUpperCase(Locale.ROOT), capitalized)) {
+            final byte[] bytes = form.getBytes(StandardCharsets.UTF_8);
+            if (forms.stream().noneMatch(existing -> Arrays.equals(existing, bytes))) {
+                forms.add(bytes);
+            }
+        }
+        return forms;
+    }
+
+    private static MessageDigest createSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK MessageDigest SHA-256 unavailable (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /** Closes the wordlist; the candidates already taken are the last ones produced. */
+    @Override
+    public synchronized void interrupt() {
+        exhausted = true;
+        try {
+            lines.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close dictionary {}.", cKeyProducerJava.dictionaryFile, e);
+        }
+    }
+}
@@ -4,21 +4,35 @@
 package net.ladenthin.bitcoinaddressfinder.keyproducer;
 
 import java.math.BigInteger;
+import java.nio.file.Path;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaIncremental;
+import net.ladenthin.bitcoinaddressfinder.constants.Radix;
 import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Key producer that iterates a private-key range sequentially.
+ *
+ * <p>With {@link CKeyProducerJavaIncremental#checkpointFile} set, the scan resumes at the persisted
+ * watermark instead of the start of the range, and an {@link IncrementalCheckpoint} keeps that
+ * watermark up to date as the consumer reports batches checked.
  */
 @ToString(callSuper = true)
 public class KeyProducerJavaIncremental extends KeyProducerJava<CKeyProducerJavaIncremental> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyProducerJavaIncremental.class);
+
     private @NonNull BigInteger currentValue;
 
+    @ToString.Exclude
+    private final @Nullable IncrementalCheckpoint checkpoint;
+
     /**
      * Creates a new incremental key producer.
      *
@@ -31,12 +45,80 @@ public class KeyProducerJavaIncremental extends KeyProducerJava<CKeyProducerJava
         super(cKeyProducerJavaIncremental);
         // Use the config POJO's canonical parser rather than re-parsing the raw string
         // here, so the radix and any future format tightening live in one place.
-        this.currentValue = cKeyProducerJavaIncremental.getStartPrivateKey();
+        final BigInteger startPrivateKey = cKeyProducerJavaIncremental.getStartPrivateKey();
+        final int shardCount = cKeyProducerJavaIncremental.shardCount;
+        final int shardIndex = cKeyProducerJavaIncremental.shardIndex;
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(
+                    "shardIndex=" + shardIndex + " must be in [0, shardCount=" + shardCount + ")");
+        }
+        if (shardCount > 1 && cKeyProducerJavaIncremental.shardChunkSizeInBits < 0) {
+            throw new IllegalArgumentException(
+                    "shardChunkSizeInBits=" + cKeyProducerJavaIncremental.shardChunkSizeInBits + " must not be negative");
+        }
+        final @Nullable String checkpointFile = cKeyProducerJavaIncremental.checkpointFile;
+        if (checkpointFile == null) {
+            this.currentValue = toOwnShard(startPrivateKey);
+            this.checkpoint = null;
+            return;
+        }
+        final WatermarkFile watermarkFile = new WatermarkFile(Path.of(checkpointFile));
+        final @Nullable BigInteger resumed = watermarkFile.read();
+        if (resumed != null && resumed.compareTo(startPrivateKey) > 0) {
+            LOGGER.info("Resuming {} at {} from checkpoint {}",
+                    cKeyProducerJavaIncremental.keyProducerId, resumed.toString(Radix.HEX), checkpointFile);
+            this.currentValue = toOwnShard(resumed);
+        } else {
+            this.currentValue = toOwnShard(startPrivateKey);
+        }
+        this.checkpoint = new IncrementalCheckpoint(
+                watermarkFile, currentValue, cKeyProducerJavaIncremental.checkpointEveryNSeconds, System::nanoTime);
+    }
+
+    /**
+     * Returns the checkpoint tracking this scan; it must be registered as a result listener of the
+     * consumer to advance.
+     *
+     * @return the checkpoint, or {@code null} if no {@code checkpointFile} is configured
+     */
+    public @Nullable IncrementalCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns the key itself if it lies in one of this instance's chunks, otherwise the first key of
+     * this instance's next chunk.
+     *
+     * @param key a key at or above {@code startPrivateKey}
+     * @return the next key this instance may scan
+     */
+    private BigInteger toOwnShard(BigInteger key) {
+        final int shardCount = cKeyProducerJava.shardCount;
+        if (shardCount == 1) {
+            return key;
+        }
+        final BigInteger startPrivateKey = cKeyProducerJava.getStartPrivateKey();
+        final int chunkBits = cKeyProducerJava.shardChunkSizeInBits;
+        final BigInteger chunk = key.subtract(startPrivateKey).shiftRight(chunkBits);
+        final int owner = chunk.mod(BigInteger.valueOf(shardCount)).intValueExact();
+        if (owner == cKeyProducerJava.shardIndex) {
+            return key;
+        }
+        final int chunksAhead = Math.floorMod(cKeyProducerJava.shardIndex - owner, shardCount);
+        return startPrivateKey.add(chunk.add(BigInteger.valueOf(chunksAhead)).shiftLeft(chunkBits));
     }
 
     @Override
     public BigInteger[] createSecrets(int overallWorkSize, boolean returnStartSecretOnly) {
         verifyWorkSize(overallWorkSize, cKeyProducerJava.maxWorkSize);
+        if (cKeyProducerJava.shardCount > 1
+                && (overallWorkSize == 0
+                        || BigInteger.ONE.shiftLeft(cKeyProducerJava.shardChunkSizeInBits)
+                                        .mod(BigInteger.valueOf(overallWorkSize))
+                                        .signum() != 0)) {
+            throw new IllegalArgumentException("A shard chunk of 2^" + cKeyProducerJava.shardChunkSizeInBits
+                    + " keys does not split into batches of " + overallWorkSize);
+        }
         final BigInteger endPrivateKey = cKeyProducerJava.getEndPrivateKey();
         if (currentValue.compareTo(endPrivateKey) > 0) {
             throw new NoMoreSecretsAvailableException(currentValue + " exceeds ");
@@ -53,7 +135,10 @@ public class KeyProducerJavaIncremental extends KeyProducerJava<CKeyProducerJava
             counter = counter.add(BigInteger.ONE);
         }
 
-        currentValue = currentValue.add(BigInteger.valueOf(overallWorkSize));
+        if (checkpoint != null) {
+            checkpoint.issued(currentValue, overallWorkSize, returnStartSecretOnly);
+        }
+        currentValue = toOwnShard(currentValue.add(BigInteger.valueOf(overallWorkSize)));
 
         return secrets;
     }
@@ -0,0 +1,156 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaRandomAlgorithm;
+import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaSeedRange;
+import net.ladenthin.bitcoinaddressfinder.secret.JavaRandomFastForward;
+import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+
+/**
+ * Key producer that replays weakly seeded wallets: for every seed in a range it yields the first
+ * {@code keysPerSeed} keys the wallet drew, exactly as {@link KeyProducerJavaRandom} would with that
+ * seed.
+ *
+ * <p>The seed range and the keys within each seed form one sequence of draws, and every call claims
+ * the next slice of it atomically. Any number of producers can therefore share one instance, each
+ * deriving its slice on its own thread without overlap. A slice may start in the middle of a seed's
+ * stream; for {@code java.util.Random} the stream is positioned there by
+ * {@link JavaRandomFastForward} instead of drawing the keys before it, so the cost of a key does not
+ * depend on its position. {@code SHA1PRNG} has no such shortcut and is replayed from the seed.
+ *
+ * <p>The last batch is padded with its final key when the range does not fill it: a producer needs a
+ * full batch, and checking a key twice is harmless.
+ */
+@ToString(callSuper = true)
+public class KeyProducerJavaSeedRange extends KeyProducerJava<CKeyProducerJavaSeedRange> {
+
+    /** Total number of keys: seeds in the range times keys per seed. */
+    private final long totalDraws;
+
+    /** Index of the next key to hand out, counted over all seeds. */
+    private final AtomicLong nextDraw = new AtomicLong();
+
+    /**
+     * Creates a new seed-range key producer.
+     *
+     * @param cKeyProducerJavaSeedRange the seed-range configuration
+     * @param keyUtility                cryptographic helper (unused but kept for symmetry)
+     * @param bitHelper                 bit/batch-size helper (unused but kept for symmetry)
+     * @throws IllegalArgumentException if the algorithm cannot be replayed, the range is empty, or it
+     *     holds more than {@link Long#MAX_VALUE} keys
+     */
+    public KeyProducerJavaSeedRange(
+            CKeyProducerJavaSeedRange cKeyProducerJavaSeedRange, KeyUtility keyUtility, BitHelper bitHelper) {
+        super(cKeyProducerJavaSeedRange);
+        if (cKeyProducerJavaSeedRange.randomAlgorithm == CKeyProducerJavaRandomAlgorithm.SECURE_RANDOM) {
+            throw new IllegalArgumentException("SECURE_RANDOM has no seed and cannot be replayed.");
+        }
+        if (cKeyProducerJavaSeedRange.keysPerSeed < 1) {
+            throw new IllegalArgumentException(
+                    "keysPerSeed must be positive but was " + cKeyProducerJavaSeedRange.keysPerSeed);
+        }
+        if (cKeyProducerJavaSeedRange.firstSeed > cKeyProducerJavaSeedRange.lastSeed) {
+            throw new IllegalArgumentException("firstSeed " + cKeyProducerJavaSeedRange.firstSeed
+                    + " is greater than lastSeed " + cKeyProducerJavaSeedRange.lastSeed);
+        }
+        try {
+            final long seedCount = Math.addExact(
+                    Math.subtractExact(cKeyProducerJavaSeedRange.lastSeed, cKeyProducerJavaSeedRange.firstSeed), 1L);
+            this.totalDraws = Math.multiplyExact(seedCount, cKeyProducerJavaSeedRange.keysPerSeed);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The seed range holds more than " + Long.MAX_VALUE + " keys.", e);
+        }
+    }
+
+    @Override
+    public BigInteger[] createSecrets(int overallWorkSize, boolean returnStartSecretOnly) {
+        verifyWorkSize(overallWorkSize, cKeyProducerJava.maxWorkSize);
+        final int length = returnStartSecretOnly ? 1 : overallWorkSize;
+        final long first = nextDraw.getAndAdd(length);
+        if (first >= totalDraws) {
+            throw new NoMoreSecretsAvailableException("All " + totalDraws + " keys of seeds "
+                    + cKeyProducerJava.firstSeed + " to " + cKeyProducerJava.lastSeed + " have been produced.");
+        }
+        final int available = (int) Math.min(length, totalDraws - first);
+        final BigInteger[] secrets = new BigInteger[length];
+        replay(first, available, secrets);
+        Arrays.fill(secrets, available, length, secrets[available - 1]);
+        return secrets;
+    }
+
+    /**
+     * Derives {@code count} consecutive keys of the draw sequence into {@code secrets}.
+     *
+     * @param firstDraw index of the first key, counted over all seeds
+     * @param count     the number of keys
+     * @param secrets   the array to fill from index {@code 0}
+     */
+    private void replay(long firstDraw, int count, BigInteger[] secrets) {
+        final int keysPerSeed = cKeyProducerJava.keysPerSeed;
+        final int bitLength = cKeyProducerJava.privateKeyMaxNumBits;
+        long draw = firstDraw;
+        int index = 0;
+        while (index < count) {
+            final long seed = cKeyProducerJava.firstSeed + draw / keysPerSeed;
+            final int keyInSeed = (int) (draw % keysPerSeed);
+            final Random random = positionedRandom(seed, keyInSeed, bitLength);
+            final int keysFromSeed = Math.min(keysPerSeed - keyInSeed, count - index);
+            for (int i = 0; i < keysFromSeed; i++) {
+                secrets[index++] = new BigInteger(bitLength, random);
+            }
+            draw += keysFromSeed;
+        }
+    }
+
+    /**
+     * Returns the wallet's generator for {@code seed}, positioned before its {@code keyInSeed}-th key.
+     *
+     * @param seed      the seed
+     * @param keyInSeed the number of keys to skip
+     * @param bitLength the bit length of every key
+     * @return the positioned generator
+     */
+    @SuppressWarnings({"squid:S2245"})
+    private Random positionedRandom(long seed, int keyInSeed, int bitLength) {
+        return switch (cKeyProducerJava.randomAlgorithm) {
+            case RANDOM_CURRENT_TIME_MILLIS_SEED, RANDOM_CUSTOM_SEED ->
+                JavaRandomFastForward.positioned(
+                        seed, (long) keyInSeed * JavaRandomFastForward.nextIntCallsPerSecret(bitLength));
+            case SHA1_PRNG -> {
+                final SecureRandom sha1prng;
+                try {
+                    sha1prng = SecureRandom.getInstance("SHA1PRNG");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(
+                            "JDK SecureRandom.getInstance(\"SHA1PRNG\") unavailable ("
+                                    + e.getMessage()
+                                    + ") — JRE security config broken",
+                            e);
+                }
+                // Seeding before the first draw replaces the self-seeding, exactly as the wallet did.
+                sha1prng.setSeed(seed);
+                // BigInteger(bitLength, random) draws exactly one nextBytes of the key's byte length.
+                final byte[] skipped = new byte[(bitLength + Byte.SIZE - 1) / Byte.SIZE];
+                for (int i = 0; i < keyInSeed; i++) {
+                    sha1prng.nextBytes(skipped);
+                }
+                yield sha1prng;
+            }
+            case SECURE_RANDOM -> throw new IllegalStateException("SECURE_RANDOM is rejected by the constructor.");
+        };
+    }
+
+    @Override
+    public void interrupt() {}
+}
@@ -16,6 +16,7 @@ import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaSocket;
 import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
 import net.ladenthin.bitcoinaddressfinder.core.Startable;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.IoThreads;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -53,7 +54,7 @@ public class KeyProducerJavaSocket extends AbstractKeyProducerQueueBuffered<CKey
 
     // ExecutorService toString includes the pool internals — verbose and unhelpful for logs.
     @ToString.Exclude
-    private final ExecutorService readerExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService readerExecutor;
 
     /**
      * Creates a new socket-based key producer. The background reader thread is NOT
@@ -64,7 +65,21 @@ public class KeyProducerJavaSocket extends AbstractKeyProducerQueueBuffered<CKey
      * @param bitHelper   bit/batch-size helper (unused but kept for symmetry)
      */
     public KeyProducerJavaSocket(CKeyProducerJavaSocket config, KeyUtility keyUtility, BitHelper bitHelper) {
+        this(config, keyUtility, bitHelper, IoThreads.PLATFORM);
+    }
+
+    /**
+     * Creates a new socket-based key producer whose reader runs on the given kind of thread.
+     *
+     * @param config      the socket configuration
+     * @param keyUtility  cryptographic helper
+     * @param bitHelper   bit/batch-size helper (unused but kept for symmetry)
+     * @param ioThreads   platform or virtual threads for the blocking reader
+     */
+    public KeyProducerJavaSocket(
+            CKeyProducerJavaSocket config, KeyUtility keyUtility, BitHelper bitHelper, IoThreads ioThreads) {
         super(config, keyUtility);
+        readerExecutor = ioThreads.newSingleTaskExecutor("KeyProducerJavaSocket-Reader");
     }
 
     /**
@@ -8,6 +8,7 @@ import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaZmq;
 import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
 import net.ladenthin.bitcoinaddressfinder.core.Startable;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.IoThreads;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -23,8 +24,7 @@ import org.zeromq.ZMQException;
  * <p>The background receiver thread is not spawned by the constructor; callers
  * must invoke {@link #start()} after construction. This avoids the JEP&nbsp;410
  * this-escape that would otherwise publish a partially-constructed instance to
- * the worker thread the moment the {@code new Thread(() -> ...)} lambda captures
- * {@code this}.</p>
+ * the worker thread the moment the receiver lambda captures {@code this}.</p>
  */
 @ToString(callSuper = true)
 public class KeyProducerJavaZmq extends AbstractKeyProducerQueueBuffered<CKeyProducerJavaZmq> implements Startable {
@@ -34,6 +34,7 @@ public class KeyProducerJavaZmq extends AbstractKeyProducerQueueBuffered<CKeyPro
     private final ZContext context;
     private final ZMQ.Socket socket;
     private @Nullable Thread receiverThread;
+    private final IoThreads ioThreads;
 
     /**
      * Creates a new ZMQ-based key producer and opens the underlying ZMQ socket
@@ -46,7 +47,21 @@ public class KeyProducerJavaZmq extends AbstractKeyProducerQueueBuffered<CKeyPro
      * @param bitHelper   bit/batch-size helper (unused but kept for symmetry)
      */
     public KeyProducerJavaZmq(CKeyProducerJavaZmq config, KeyUtility keyUtility, BitHelper bitHelper) {
+        this(config, keyUtility, bitHelper, IoThreads.PLATFORM);
+    }
+
+    /**
+     * Creates a new ZMQ-based key producer whose receiver runs on the given kind of thread.
+     *
+     * @param config      the ZMQ configuration
+     * @param keyUtility  cryptographic helper
+     * @param bitHelper   bit/batch-size helper (unused but kept for symmetry)
+     * @param ioThreads   platform or virtual threads for the blocking receiver
+     */
+    public KeyProducerJavaZmq(
+            CKeyProducerJavaZmq config, KeyUtility keyUtility, BitHelper bitHelper, IoThreads ioThreads) {
         super(config, keyUtility);
+        this.ioThreads = ioThreads;
 
         context = new ZContext();
         socket = context.createSocket(SocketType.PULL);
@@ -72,7 +87,8 @@ public class KeyProducerJavaZmq extends AbstractKeyProducerQueueBuffered<CKeyPro
      */
     @Override
     public void start() {
-        Thread thread = new Thread(
+        receiverThread = ioThreads.start(
+                "ZMQ-Receiver",
                 () -> {
                     while (!shouldStop && !Thread.currentThread().isInterrupted()) {
                         try {
@@ -90,12 +106,7 @@ public class KeyProducerJavaZmq extends AbstractKeyProducerQueueBuffered<CKeyPro
                             LOGGER.error("ZMQ error", e); // unexpected ZMQ errors
                         }
                     }
-                },
-                "ZMQ-Receiver");
-
-        thread.setDaemon(true);
-        thread.start();
-        receiverThread = thread;
+                });
     }
 
     @Override
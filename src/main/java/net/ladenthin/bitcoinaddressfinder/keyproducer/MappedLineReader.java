@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads the lines of a file as raw bytes through a memory-mapped window.
+ *
+ * <p>The window slides along the file, so files larger than a single mapping (2 GiB) are read as
+ * well; a line must fit into one window. Line terminators ({@code \n}, {@code \r\n}, {@code \r}) are
+ * stripped and the bytes are returned undecoded. Not thread-safe.
+ */
+final class MappedLineReader implements Closeable {
+
+    /** Default window size: 1 GiB. */
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    /** File offset of {@link #window}'s first byte. */
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    /** File offset of the next line. */
+    private long position;
+
+    /** Whether the previous line ended with {@code \r}, so a {@code \n} at {@link #position} belongs to it. */
+    private boolean skipLineFeed;
+
+    /**
+     * Opens a reader with the default window size.
+     *
+     * @param path the file to read
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    MappedLineReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    @VisibleForTesting
+    MappedLineReader(Path path, int windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.window = map(0L);
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        windowStart = start;
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+
+    /**
+     * Returns the next line without its terminator.
+     *
+     * @return the line's bytes, or {@code null} at the end of the file
+     * @throws IOException if the next window cannot be mapped
+     * @throws IllegalArgumentException if a line does not fit into one window
+     */
+    @Nullable
+    byte[] nextLine() throws IOException {
+        while (position < size) {
+            final int offset = (int) (position - windowStart);
+            final int limit = window.limit();
+            if (skipLineFeed && offset < limit) {
+                skipLineFeed = false;
+                if (window.get(offset) == LINE_FEED) {
+                    position++;
+                    continue;
+                }
+            }
+            int end = offset;
+            while (end < limit && !isTerminator(window.get(end))) {
+                end++;
+            }
+            final boolean lastWindow = windowStart + limit >= size;
+            if (end < limit || lastWindow) {
+                position = windowStart + end + 1;
+                skipLineFeed = end < limit && window.get(end) == CARRIAGE_RETURN;
+                final byte[] line = new byte[end - offset];
+                window.get(offset, line);
+                return line;
+            }
+            if (offset == 0) {
+                throw new IllegalArgumentException(
+                        "The line at offset " + position + " is longer than " + windowSize + " bytes.");
+            }
+            window = map(position);
+        }
+        return null;
+    }
+
+    private static boolean isTerminator(byte b) {
+        return b == LINE_FEED || b == CARRIAGE_RETURN;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -12,13 +12,15 @@ import java.net.Socket;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
 import net.ladenthin.bitcoinaddressfinder.core.FireAndForget;
 import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
+import net.ladenthin.bitcoinaddressfinder.util.IoThreads;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +51,13 @@ import org.slf4j.LoggerFactory;
  * fails is dropped, and one slow client cannot be allowed to stall the scan — writes happen on the
  * consumer's worker thread, so a peer that stops reading will eventually fill its buffer and be
  * dropped on the resulting error rather than blocking forever.
+ *
+ * <p>On virtual threads ({@link IoThreads#VIRTUAL}) every client instead gets a writer thread of its
+ * own, which is affordable only because a blocked virtual thread holds no OS thread. The consumer
+ * then merely queues the message; a slow peer delays only itself, and one that falls
+ * {@value #CLIENT_OUTBOX_CAPACITY} messages behind is dropped. {@link #close()} lets every writer
+ * drain its outbox first, for up to {@value #CLOSE_DRAIN_MILLIS} ms in total, so the results of the
+ * last batches — hits among them — still reach the clients that were connected.
  */
 @ToString
 public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
@@ -64,17 +73,38 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
     /** Poll interval used while waiting for an expected client count. */
     private static final int CLIENT_WAIT_POLL_MILLIS = 20;
 
+    /** Messages a client's writer thread may fall behind before the client is dropped as too slow. */
+    static final int CLIENT_OUTBOX_CAPACITY = 1024;
+
+    /** How long {@link #close()} waits, in total, for the writers to drain their outboxes. */
+    static final int CLOSE_DRAIN_MILLIS = 5_000;
+
+    /**
+     * Queued last by {@link #close()} to end a writer once everything before it is written. The
+     * formatter never produces an empty message, so it cannot be mistaken for one.
+     */
+    private static final String END_OF_OUTBOX = "";
+
     private final int port;
     private final BatchResultJsonFormatter formatter;
+    private final IoThreads ioThreads;
 
     @ToString.Exclude
-    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
 
     @ToString.Exclude
-    private final ExecutorService acceptExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService acceptExecutor;
 
     private volatile boolean shouldStop = false;
 
+    /**
+     * Makes registering a client and announcing the configuration mutually exclusive, so a client
+     * either reads the new configuration as its greeting or is already listed when it is broadcast.
+     * Also orders registration before {@link #close()}, so no client is added after it.
+     */
+    @ToString.Exclude
+    private final Object registrationLock = new Object();
+
     @ToString.Exclude
     private volatile @Nullable ServerSocket serverSocket;
 
@@ -98,8 +128,37 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
      * @param formatter renders the wire messages
      */
     public SocketResultBroadcaster(int port, BatchResultJsonFormatter formatter) {
+        this(port, formatter, IoThreads.PLATFORM);
+    }
+
+    /**
+     * Creates a broadcaster on an explicit formatter and kind of I/O thread.
+     *
+     * @param port      the TCP port to serve on
+     * @param formatter renders the wire messages
+     * @param ioThreads platform threads write on the caller's thread; virtual threads give every
+     *                  client a writer of its own
+     */
+    public SocketResultBroadcaster(int port, BatchResultJsonFormatter formatter, IoThreads ioThreads) {
         this.port = port;
         this.formatter = formatter;
+        this.ioThreads = ioThreads;
+        this.acceptExecutor = ioThreads.newSingleTaskExecutor("SocketResultBroadcaster-Accept");
+    }
+
+    /**
+     * One connected result listener. {@code outbox} and {@code writer} are only set on virtual
+     * threads; otherwise messages are written on the calling thread.
+     */
+    private static final class Client {
+        final Socket socket;
+        final @Nullable BlockingQueue<String> outbox;
+        volatile @Nullable Thread writer;
+
+        Client(Socket socket, @Nullable BlockingQueue<String> outbox) {
+            this.socket = socket;
+            this.outbox = outbox;
+        }
     }
 
     /**
@@ -118,15 +177,7 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
         Object unused = acceptExecutor.submit(() -> {
             while (!shouldStop) {
                 try {
-                    final Socket client = localServerSocket.accept();
-                    clients.add(client);
-                    LOGGER.info("Result listener connected: {}", String.valueOf(client.getRemoteSocketAddress()));
-                    // A client that arrives after the grid is known must not have to wait for the
-                    // next republication to learn it.
-                    final String greeting = configurationMessage;
-                    if (greeting != null) {
-                        writeTo(client, greeting);
-                    }
+                    register(localServerSocket.accept());
                 } catch (java.net.SocketTimeoutException e) {
                     // expected: the timeout exists so the loop can observe shouldStop
                 } catch (IOException e) {
@@ -138,6 +189,64 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
         });
     }
 
+    /**
+     * Adds an accepted client and greets it with the grid configuration if that is already known:
+     * a client that arrives after the grid is known must not have to wait for the next
+     * republication to learn it.
+     *
+     * @param socket the accepted connection
+     */
+    private void register(Socket socket) {
+        LOGGER.info("Result listener connected: {}", String.valueOf(socket.getRemoteSocketAddress()));
+        synchronized (registrationLock) {
+            if (shouldStop) {
+                closeQuietly(socket);
+                return;
+            }
+            final String greeting = configurationMessage;
+            if (!ioThreads.isVirtual()) {
+                clients.add(new Client(socket, null));
+                if (greeting != null) {
+                    writeTo(socket, greeting);
+                }
+                return;
+            }
+            final BlockingQueue<String> outbox = new ArrayBlockingQueue<>(CLIENT_OUTBOX_CAPACITY);
+            if (greeting != null) {
+                // Queued before the client is visible to broadcast(), so it is always the first line.
+                outbox.add(greeting);
+            }
+            final Client client = new Client(socket, outbox);
+            clients.add(client);
+            client.writer = ioThreads.start("SocketResultBroadcaster-Writer", () -> drainOutbox(client, outbox));
+        }
+    }
+
+    /**
+     * Writes a client's queued messages until it fails, is dropped, or reaches the
+     * {@link #END_OF_OUTBOX} queued by {@link #close()}. Runs on the client's own virtual thread.
+     *
+     * @param client the client
+     * @param outbox its queued messages
+     */
+    private void drainOutbox(Client client, BlockingQueue<String> outbox) {
+        try {
+            while (true) {
+                final String message = outbox.take();
+                if (message.isEmpty()) {
+                    return;
+                }
+                if (!writeTo(client.socket, message)) {
+                    drop(client);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // drop() stops the writer; nothing is left to do on this thread
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Records the grid configuration and sends it to everyone already connected.
      *
@@ -152,8 +261,10 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
             LOGGER.error("Could not serialise the grid configuration; clients will not receive it.", e);
             return;
         }
-        configurationMessage = message;
-        broadcast(message);
+        synchronized (registrationLock) {
+            configurationMessage = message;
+            broadcast(message);
+        }
     }
 
     @Override
@@ -200,15 +311,48 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
         // Collect first, remove after: mutating the list while walking it is legal on a
         // copy-on-write list but reads as a bug at every later glance, and the intent here is
         // simply "drop the ones that failed".
-        final List<Socket> dead = new ArrayList<>();
-        for (Socket client : clients) {
-            if (!writeTo(client, message)) {
+        final List<Client> dead = new ArrayList<>();
+        for (Client client : clients) {
+            if (!send(client, message)) {
                 dead.add(client);
             }
         }
-        for (Socket client : dead) {
-            clients.remove(client);
-            closeQuietly(client);
+        for (Client client : dead) {
+            drop(client);
+        }
+    }
+
+    /**
+     * Writes a message to a client, or queues it for the client's writer.
+     *
+     * @param client  the client to send to
+     * @param message the message to send
+     * @return {@code false} if the write failed or the client's writer is too far behind
+     */
+    private boolean send(Client client, String message) {
+        final BlockingQueue<String> outbox = client.outbox;
+        if (outbox == null) {
+            return writeTo(client.socket, message);
+        }
+        if (!outbox.offer(message)) {
+            LOGGER.info("Result listener {} is {} messages behind; dropping it.",
+                    String.valueOf(client.socket.getRemoteSocketAddress()), CLIENT_OUTBOX_CAPACITY);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a client, closes its connection and stops its writer.
+     *
+     * @param client the client to drop
+     */
+    private void drop(Client client) {
+        clients.remove(client);
+        closeQuietly(client.socket);
+        final Thread writer = client.writer;
+        if (writer != null && writer != Thread.currentThread()) {
+            writer.interrupt();
         }
     }
 
@@ -244,9 +388,15 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
         }
     }
 
+    /**
+     * Stops accepting, lets every writer drain its outbox, then closes the connections. A writer
+     * still busy after {@value #CLOSE_DRAIN_MILLIS} ms in total is cut off.
+     */
     @Override
     public void close() {
-        shouldStop = true;
+        synchronized (registrationLock) {
+            shouldStop = true;
+        }
         final ServerSocket localServerSocket = serverSocket;
         if (localServerSocket != null) {
             try {
@@ -255,10 +405,31 @@ public class SocketResultBroadcaster implements ResultListener, AutoCloseable {
                 // best-effort during shutdown
             }
         }
-        for (Socket client : clients) {
-            closeQuietly(client);
+        acceptExecutor.shutdownNow();
+
+        final List<Client> closing = new ArrayList<>(clients);
+        for (Client client : closing) {
+            final BlockingQueue<String> outbox = client.outbox;
+            if (outbox != null && !outbox.offer(END_OF_OUTBOX)) {
+                // a full outbox means the writer is already too far behind to be waited for
+                drop(client);
+            }
+        }
+        final long deadline = System.currentTimeMillis() + CLOSE_DRAIN_MILLIS;
+        try {
+            for (Client client : closing) {
+                final Thread writer = client.writer;
+                final long remaining = deadline - System.currentTimeMillis();
+                if (writer != null && remaining > 0) {
+                    writer.join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Client client : closing) {
+            drop(client);
         }
         clients.clear();
-        acceptExecutor.shutdownNow();
     }
 }
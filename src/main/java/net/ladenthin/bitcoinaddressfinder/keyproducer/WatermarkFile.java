@@ -0,0 +1,81 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.constants.Radix;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small state file holding one private key as hex: the point below which a range scan is done.
+ *
+ * <p>The file is replaced atomically: the new value is written beside it and moved over it, so a
+ * crash at any moment leaves either the old or the new value, never a truncated one.
+ */
+@ToString
+public class WatermarkFile {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatermarkFile.class);
+
+    private final Path path;
+
+    /**
+     * Creates a handle for the file; nothing is read or written yet.
+     *
+     * @param path the state file
+     */
+    public WatermarkFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Reads the persisted watermark.
+     *
+     * @return the watermark, or {@code null} if the file does not exist yet
+     * @throws IllegalArgumentException if the file exists but cannot be read or parsed
+     */
+    public @Nullable BigInteger read() {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return new BigInteger(Files.readString(path, StandardCharsets.US_ASCII).strip(), Radix.HEX);
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot read the watermark file " + path, e);
+        }
+    }
+
+    /**
+     * Replaces the persisted watermark. A failure is logged and otherwise ignored: the previous
+     * value stays in place, which repeats work on a restart but never skips any.
+     *
+     * @param watermark the new watermark
+     */
+    public void write(BigInteger watermark) {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.writeString(temporary, watermark.toString(Radix.HEX), StandardCharsets.US_ASCII);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not persist the watermark to {}.", path, e);
+        }
+    }
+
+    /**
+     * Returns the state file.
+     *
+     * @return the path of the state file
+     */
+    public Path getPath() {
+        return path;
+    }
+}
@@ -11,6 +11,7 @@ import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -342,6 +343,13 @@ public class OpenCLContext implements ReleaseCLObject {
     @ToString.Exclude
     private @Nullable ClCommandQueue commandQueue;
 
+    /**
+     * Second queue on the same device that only carries the bulk result read-backs, so a read-back
+     * runs alongside the next kernel instead of queueing behind it (see {@link OpenClTask}).
+     */
+    @ToString.Exclude
+    private @Nullable ClCommandQueue transferQueue;
+
     @ToString.Exclude
     private @Nullable ClProgram program;
 
@@ -511,13 +519,11 @@ public class OpenCLContext implements ReleaseCLObject {
         // only when the diagnostic flag is set, so the production pipeline pays no profiling
         // overhead (see CProducerOpenCL.enableProfiling).
         commandQueue = clApi.createCommandQueue(localContext, device.device(), producerOpenCL.enableProfiling);
+        transferQueue = clApi.createCommandQueue(localContext, device.device(), producerOpenCL.enableProfiling);
 
         // #################### kernel specifix ####################
 
         String[] openCLPrograms = getOpenCLPrograms();
-        // Create the program from the source code
-        final ClProgram localProgram = clApi.createProgramWithSource(localContext, openCLPrograms);
-        program = localProgram;
 
         // Build the program with the Stage-0 quick-win options (see CL_BUILD_OPTIONS), plus the
         // per-config modular-inverse selector (see CProducerOpenCL.useSafeGcdInverse). The noinline
@@ -525,7 +531,27 @@ public class OpenCLContext implements ReleaseCLObject {
         // only; logged) — see resolveEffectiveNoInlineHelpers.
         final boolean effectiveNoInlineHelpers =
                 resolveEffectiveNoInlineHelpers(device.deviceName(), device.deviceVendor());
-        clApi.buildProgram(localProgram, device.device(), buildOptions(effectiveNoInlineHelpers));
+        final String options = buildOptions(effectiveNoInlineHelpers);
+        final @Nullable String programBinaryCacheDirectory = producerOpenCL.programBinaryCacheDirectory;
+        final ClProgram localProgram;
+        if (programBinaryCacheDirectory != null) {
+            // Built (or loaded) completely before it is assigned: the cache releases a program
+            // whose build failed itself.
+            localProgram = new OpenCLProgramCache(clApi, Path.of(programBinaryCacheDirectory)).build(
+                    localContext,
+                    device.device(),
+                    device.deviceName(),
+                    device.deviceVendor(),
+                    device.driverVersion(),
+                    openCLPrograms,
+                    options);
+            program = localProgram;
+        } else {
+            // Create the program from the source code
+            localProgram = clApi.createProgramWithSource(localContext, openCLPrograms);
+            program = localProgram;
+            clApi.buildProgram(localProgram, device.device(), options);
+        }
 
         if (producerOpenCL.logGpuDiagnostics) {
             logProgramBuildLog(device);
@@ -1282,13 +1308,15 @@ public class OpenCLContext implements ReleaseCLObject {
     @Override
     public void close() {
         if (!closed) {
-            releaseGpuFilter();
-            releaseIGTable();
-            releaseCombTable();
+            // The task first: it reads back any launch still in flight, which may use the filter
+            // and table buffers released below.
             if (openClTask != null) {
                 openClTask.close();
                 openClTask = null;
             }
+            releaseGpuFilter();
+            releaseIGTable();
+            releaseCombTable();
             if (kernel != null) {
                 clApi.releaseKernel(kernel);
                 kernel = null;
@@ -1297,6 +1325,10 @@ public class OpenCLContext implements ReleaseCLObject {
                 clApi.releaseProgram(program);
                 program = null;
             }
+            if (transferQueue != null) {
+                clApi.releaseCommandQueue(transferQueue);
+                transferQueue = null;
+            }
             if (commandQueue != null) {
                 clApi.releaseCommandQueue(commandQueue);
                 commandQueue = null;
@@ -1310,7 +1342,12 @@ public class OpenCLContext implements ReleaseCLObject {
     }
 
     /**
-     * Runs the kernel for the given private-key base and returns the result grid.
+     * Launches the kernel for the given private-key base and returns the result grid.
+     *
+     * <p>Returns as soon as the launch is enqueued: the grid is read back when the result is first
+     * accessed, so the device computes the next batch while this one is read back and parsed. Up to
+     * {@link CProducerOpenCL#pipelineDepth} launches are in flight; the call that would exceed that
+     * reads back the oldest one first.
      *
      * @param privateKeyBase the base private key for the batch
      * @return the grid result containing the derived public-key bytes
@@ -1319,6 +1356,7 @@ public class OpenCLContext implements ReleaseCLObject {
         OpenClTask localOpenClTask = Objects.requireNonNull(openClTask);
         ClKernel localKernel = Objects.requireNonNull(kernel);
         ClCommandQueue localCommandQueue = Objects.requireNonNull(commandQueue);
+        ClCommandQueue localTransferQueue = Objects.requireNonNull(transferQueue);
         ClMem localFuse8FingerprintsMem = Objects.requireNonNull(fuse8FingerprintsMem);
         ClMem localFuse8MetadataMem = Objects.requireNonNull(fuse8MetadataMem);
         ClMem localIgTableMem = Objects.requireNonNull(igTableMem);
@@ -1340,9 +1378,10 @@ public class OpenCLContext implements ReleaseCLObject {
         final int filterType = configuredType.getWireValue();
 
         localOpenClTask.setSrcPrivateKeyChunk(privateKeyBase);
-        ByteBuffer dstByteBuffer = localOpenClTask.executeKernel(
+        OpenClTask.Launch launch = localOpenClTask.launchKernel(
                 localKernel,
                 localCommandQueue,
+                localTransferQueue,
                 localFuse8FingerprintsMem,
                 localFuse8MetadataMem,
                 transferAll,
@@ -1351,12 +1390,13 @@ public class OpenCLContext implements ReleaseCLObject {
                 localCombTableMem);
 
         // The result owns the readback buffer until closed; close() returns it to the task's reuse
-        // pool. The producer's result reader closes it after consuming (see ProducerOpenCL).
+        // pool, after completing the read-back so no pending transfer can still write into it. The
+        // producer's result reader closes it after consuming (see ProducerOpenCL).
         return new OpenCLGridResult(
                 privateKeyBase,
                 producerOpenCL.getOverallWorkSize(),
-                dstByteBuffer,
-                () -> localOpenClTask.releaseHostBuffer(dstByteBuffer));
+                launch::await,
+                () -> localOpenClTask.releaseLaunch(launch));
     }
 
     private static List<String> getResourceNamesContent(Collection<String> resourceNames) throws IOException {
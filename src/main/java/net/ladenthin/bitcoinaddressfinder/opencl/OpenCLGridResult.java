@@ -6,6 +6,7 @@ package net.ladenthin.bitcoinaddressfinder.opencl;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.function.Supplier;
 import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.configuration.CConsumerJava;
 import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
@@ -35,9 +36,10 @@ public class OpenCLGridResult implements AutoCloseable {
 
     private final BigInteger secretKeyBase;
     private final int workSize;
+    // Yields the result buffer; for a pipelined launch the first call waits for the read-back.
     // ByteBuffer.toString is "HeapByteBuffer[pos=N lim=M cap=K]" — useless in logs.
     @ToString.Exclude
-    private final ByteBuffer result;
+    private final Supplier<ByteBuffer> result;
 
     // Returns the result buffer to the OpenClTask reuse pool when this result is closed. Null for
     // results not backed by a pooled buffer (e.g. unit tests that construct a result directly), in
@@ -67,6 +69,20 @@ public class OpenCLGridResult implements AutoCloseable {
      * @param onClose       returns {@code result} to the pool; run once by {@link #close()}
      */
     OpenCLGridResult(BigInteger secretKeyBase, int workSize, ByteBuffer result, @Nullable Runnable onClose) {
+        this(secretKeyBase, workSize, () -> result, onClose);
+    }
+
+    /**
+     * Constructs a result whose buffer is read back on first access.
+     *
+     * @param secretKeyBase the base secret used by the kernel for this batch
+     * @param workSize      the number of keys in this batch
+     * @param result        waits for the read-back and returns the raw OpenCL result buffer; may be
+     *                      called repeatedly and from any thread
+     * @param onClose       returns the buffer to the pool; run once by {@link #close()}
+     */
+    OpenCLGridResult(
+            BigInteger secretKeyBase, int workSize, Supplier<ByteBuffer> result, @Nullable Runnable onClose) {
         this.secretKeyBase = secretKeyBase;
         this.workSize = workSize;
         this.result = result;
@@ -109,12 +125,12 @@ public class OpenCLGridResult implements AutoCloseable {
     }
 
     /**
-     * Returns the raw OpenCL result buffer.
+     * Returns the raw OpenCL result buffer, waiting for its read-back if it is still in flight.
      *
      * @return the raw OpenCL result buffer
      */
     public ByteBuffer getResult() {
-        return result;
+        return result.get();
     }
 
     /**
@@ -142,7 +158,7 @@ public class OpenCLGridResult implements AutoCloseable {
         // device's native little-endian order; read the view as little-endian. The X/Y/hash
         // byte slots are copied verbatim (the kernel already produced big-endian coordinates),
         // so the buffer order does not affect those absolute byte-range reads.
-        ByteBuffer readOnlyResult = result.asReadOnlyBuffer().order(OpenClKernelConstants.GPU_NATIVE_WORD_ORDER);
+        ByteBuffer readOnlyResult = getResult().asReadOnlyBuffer().order(OpenClKernelConstants.GPU_NATIVE_WORD_ORDER);
 
         final int count = readOnlyResult.getInt(0);
 
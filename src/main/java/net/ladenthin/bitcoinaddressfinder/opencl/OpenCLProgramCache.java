@@ -0,0 +1,209 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.opencl;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClApi;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClContext;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClDeviceId;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClProgram;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.OpenClCallFailedException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of built OpenCL program binaries.
+ *
+ * <p>Compiling the kernel sources takes seconds per device on NVIDIA and far longer on AMD, and it
+ * is repeated for every producer on every start and for every tuner arm. A built program's binary is
+ * stored under a key derived from everything that determines it: the device name and vendor, the
+ * driver version, the {@code clBuildProgram} options (which carry every configuration define, such
+ * as the modular-inverse, field-radix and profile-stage selectors) and the full source text. Any
+ * change to one of them yields a new key, so an entry is never reused for a different build.
+ *
+ * <p>A cached binary the driver rejects, or fails to build, is deleted and the program is built from
+ * source as if the entry never existed. Failing to write the cache is logged and otherwise ignored;
+ * the cache only ever costs a startup, never a run.
+ */
+public class OpenCLProgramCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenCLProgramCache.class);
+
+    /** Bumped whenever the key derivation or the entry layout changes. */
+    private static final String CACHE_FORMAT_VERSION = "1";
+
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final ClApi clApi;
+    private final Path directory;
+
+    /**
+     * Creates a cache in the given directory; the directory is created on the first store.
+     *
+     * @param clApi     the OpenCL API to work through
+     * @param directory the directory holding the cached binaries
+     */
+    public OpenCLProgramCache(ClApi clApi, Path directory) {
+        this.clApi = clApi;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a program built for the device, from the cached binary if there is a usable one,
+     * otherwise from source, storing its binary for the next start.
+     *
+     * @param context       the owning context
+     * @param device        the device the program is built for
+     * @param deviceName    the device name ({@code CL_DEVICE_NAME}), part of the key
+     * @param deviceVendor  the device vendor ({@code CL_DEVICE_VENDOR}), part of the key
+     * @param driverVersion the driver version ({@code CL_DRIVER_VERSION}), part of the key
+     * @param sources       the program sources
+     * @param options       the {@code clBuildProgram} options
+     * @return the built program, owned by the caller
+     * @throws OpenClCallFailedException if building from source fails
+     */
+    public ClProgram build(
+            ClContext context,
+            ClDeviceId device,
+            String deviceName,
+            String deviceVendor,
+            String driverVersion,
+            String[] sources,
+            String options) {
+        final Path entry = entryPath(cacheKey(deviceName, deviceVendor, driverVersion, sources, options));
+
+        final @Nullable ClProgram cached = loadCached(context, device, entry, options);
+        if (cached != null) {
+            LOGGER.info("Loaded OpenCL program binary from cache: {}", entry);
+            return cached;
+        }
+
+        final ClProgram program = clApi.createProgramWithSource(context, sources);
+        try {
+            clApi.buildProgram(program, device, options);
+        } catch (RuntimeException e) {
+            clApi.releaseProgram(program);
+            throw e;
+        }
+        store(program, entry);
+        return program;
+    }
+
+    private @Nullable ClProgram loadCached(ClContext context, ClDeviceId device, Path entry, String options) {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        final byte[] binary;
+        try {
+            binary = Files.readAllBytes(entry);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read the cached OpenCL program binary {}; building from source.", entry, e);
+            return null;
+        }
+        @Nullable ClProgram program = null;
+        try {
+            program = clApi.createProgramWithBinary(context, device, binary);
+            clApi.buildProgram(program, device, options);
+            return program;
+        } catch (OpenClCallFailedException e) {
+            LOGGER.warn("Cached OpenCL program binary {} was rejected ({}); building from source.",
+                    entry, e.getMessage());
+            if (program != null) {
+                clApi.releaseProgram(program);
+            }
+            deleteQuietly(entry);
+            return null;
+        }
+    }
+
+    private void store(ClProgram program, Path entry) {
+        try {
+            final byte[] binary = clApi.getProgramBinary(program);
+            if (binary.length == 0) {
+                LOGGER.info("The OpenCL runtime exposes no program binary; nothing cached.");
+                return;
+            }
+            Files.createDirectories(directory);
+            // Write beside the entry and move it into place, so a concurrent producer or a crash
+            // never leaves a truncated binary under the final name.
+            final Path temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, binary);
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            LOGGER.info("Stored OpenCL program binary in cache: {}", entry);
+        } catch (IOException | OpenClCallFailedException e) {
+            LOGGER.warn("Could not store the OpenCL program binary in {}.", entry, e);
+        }
+    }
+
+    private static void deleteQuietly(Path entry) {
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete the rejected cache entry {}.", entry, e);
+        }
+    }
+
+    /**
+     * Returns the path of the cache entry for a key.
+     *
+     * @param cacheKey the key from {@link #cacheKey}
+     * @return the entry's path inside the cache directory
+     */
+    @VisibleForTesting
+    Path entryPath(String cacheKey) {
+        return directory.resolve(cacheKey + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Derives the cache key: the hex SHA-256 over every input that determines the program binary.
+     * Each input is length-prefixed, so no two different input lists can produce the same digest
+     * input.
+     *
+     * @param deviceName    the device name
+     * @param deviceVendor  the device vendor
+     * @param driverVersion the driver version
+     * @param sources       the program sources
+     * @param options       the {@code clBuildProgram} options
+     * @return the 64-character lower-case hex key
+     */
+    @VisibleForTesting
+    static String cacheKey(
+            String deviceName, String deviceVendor, String driverVersion, String[] sources, String options) {
+        final MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a mandatory JCA algorithm.", e);
+        }
+        update(sha256, CACHE_FORMAT_VERSION);
+        update(sha256, deviceName);
+        update(sha256, deviceVendor);
+        update(sha256, driverVersion);
+        update(sha256, options);
+        for (String source : sources) {
+            update(sha256, source);
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+}
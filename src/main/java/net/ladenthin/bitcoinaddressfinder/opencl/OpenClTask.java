@@ -6,6 +6,7 @@ package net.ladenthin.bitcoinaddressfinder.opencl;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import lombok.ToString;
@@ -28,7 +29,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Encapsulates one OpenCL kernel invocation: manages source/destination buffers and runs the kernel.
+ * Encapsulates the OpenCL kernel invocations of one producer: manages source/destination buffers and
+ * runs the kernel.
+ *
+ * <p>Launches are pipelined over {@link CProducerOpenCL#pipelineDepth} slots. Each slot owns a
+ * private-key source buffer, a device output buffer and a count-header buffer, so a launch never
+ * waits for the previous one to be read back. {@link #launchKernel} only enqueues work and returns a
+ * {@link Launch}; the result is read back when {@link Launch#await()} is first called, either by the
+ * result reader that consumes it or, once the producer has run a full pipeline ahead, by the producer
+ * itself before it reuses the slot. Commands are ordered by the in-order compute queue and by events
+ * rather than by draining the queues: key write, header reset, kernel and the 4-byte count-header
+ * read follow each other on the compute queue, and the bulk read-back waits for the count header's
+ * event and then runs on a separate transfer queue, where it does not queue up behind the next
+ * kernel.
  */
 @ToString
 public class OpenClTask implements ReleaseCLObject {
@@ -64,25 +77,28 @@ public class OpenClTask implements ReleaseCLObject {
 
     private final CProducerOpenCL cProducer;
 
-    // SourceArgument carries its own ByteBuffer payload — heavy and not useful in logs.
+    // The pipeline slots, used round-robin. Each owns its own device output buffer (allocated once
+    // at the fixed per-batch result size instead of per launch: the ~100+ MB device buffer
+    // alloc/free dominated per-launch host overhead) and its own private-key source, so a launch can
+    // be enqueued while the previous one is still running or being read back. A slot is reused only
+    // after its previous launch has been read back (see nextSlot()). Released in close().
     @ToString.Exclude
-    private final SourceArgument privateKeySourceArgument;
-
-    // Reusable GPU output buffer (write-only). Allocated once at the fixed per-batch result size and
-    // reused for every executeKernel() launch, instead of creating and releasing it per launch (the
-    // ~100+ MB device buffer alloc/free dominated per-launch host overhead). It is safe to reuse a
-    // single device buffer because executeKernel() uses it strictly synchronously (kernel write +
-    // readback, each followed by a finish, on the single producer thread) before returning; the
-    // asynchronous result readers only ever touch the host-side ByteBuffer copy, never this buffer.
-    // Released in close().
+    private final Slot[] slots;
+
+    // Index of the slot the next launch uses. Only touched by the single producer thread.
+    @ToString.Exclude
+    private int nextSlotIndex = 0;
+
+    // Written to the head of the output buffer before every launch. Allocated once and never
+    // modified, so the non-blocking write may read it at any time.
     @ToString.Exclude
-    private final ClMem dstMem;
+    private final ByteBuffer zeroHeader = ByteBuffer.allocateDirect(OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES);
 
-    // Pool of reusable host-side readback buffers (full per-batch result size). Unlike dstMem, each
+    // Pool of reusable host-side readback buffers (full per-batch result size). Like a slot, each
     // launch's host buffer is handed to an OpenCLGridResult and read ASYNCHRONOUSLY by the
     // result-reader pool, so it must not be shared with the next launch until that reader is done.
     // The pool isolates in-flight buffers (up to maxResultReaderThreads, the same peak as before)
-    // while avoiding a fresh 100+ MB allocateDirect (and its zeroing) on every launch: executeKernel
+    // while avoiding a fresh 100+ MB allocateDirect (and its zeroing) on every launch: launchKernel
     // checks one out; OpenCLGridResult.close() (called by the reader when finished) returns it.
     // A caller that never closes its result simply lets the buffer be GC'd (no reuse, no leak), so
     // reuse is an optimisation, not a correctness requirement. Thread-safe: checkout on the single
@@ -97,9 +113,9 @@ public class OpenClTask implements ReleaseCLObject {
 
     private volatile boolean closed = false;
 
-    // Device-side nanosecond timings of the most recent executeKernel() call. Only populated when
+    // Device-side nanosecond timings of the most recently read-back launch. Only populated when
     // CProducerOpenCL.enableProfiling is true (a diagnostic/benchmark switch); otherwise they stay
-    // at PROFILING_NOT_AVAILABLE. Mutated from executeKernel and read by the benchmark; volatile so
+    // at PROFILING_NOT_AVAILABLE. Mutated by Launch.await() and read by the benchmark; volatile so
     // a reader on another thread sees a consistent value. Excluded from toString (mutable state).
     @ToString.Exclude
     private volatile long lastKernelExecutionNanos = PROFILING_NOT_AVAILABLE;
@@ -107,6 +123,131 @@ public class OpenClTask implements ReleaseCLObject {
     @ToString.Exclude
     private volatile long lastResultReadbackNanos = PROFILING_NOT_AVAILABLE;
 
+    /** The per-launch resources of one pipeline slot. */
+    private static final class Slot {
+
+        private final SourceArgument privateKeySource;
+        private final ClMem dstMem;
+
+        /** Receives the count word the kernel wrote at the head of {@link #dstMem}. */
+        private final ByteBuffer countHeader = ByteBuffer.allocateDirect(OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES)
+                .order(OpenClKernelConstants.GPU_NATIVE_WORD_ORDER);
+
+        /** The launch that last used this slot; {@code null} before the first launch. */
+        private @Nullable Launch launch;
+
+        private Slot(SourceArgument privateKeySource, ClMem dstMem) {
+            this.privateKeySource = privateKeySource;
+            this.dstMem = dstMem;
+        }
+    }
+
+    /**
+     * A kernel launch whose result has not necessarily been read back yet.
+     *
+     * <p>{@link #await()} may be called from any thread and any number of times; the first call
+     * reads the result back, later calls return the same buffer (or rethrow the same failure).
+     */
+    public final class Launch {
+
+        private final Slot slot;
+        private final ClCommandQueue transferQueue;
+        private final ByteBuffer hostBuffer;
+        private final @Nullable ClEvent kernelEvent;
+        private final ClEvent countHeaderEvent;
+        private boolean done = false;
+        private @Nullable RuntimeException failure;
+
+        private Launch(
+                Slot slot,
+                ClCommandQueue transferQueue,
+                ByteBuffer hostBuffer,
+                @Nullable ClEvent kernelEvent,
+                ClEvent countHeaderEvent) {
+            this.slot = slot;
+            this.transferQueue = transferQueue;
+            this.hostBuffer = hostBuffer;
+            this.kernelEvent = kernelEvent;
+            this.countHeaderEvent = countHeaderEvent;
+        }
+
+        /**
+         * Returns the host buffer the result is read into. Only meaningful after {@link #await()}.
+         *
+         * @return the host readback buffer of this launch
+         */
+        public ByteBuffer getHostBuffer() {
+            return hostBuffer;
+        }
+
+        /**
+         * Waits for the launch to complete and reads its result back, unless that already happened.
+         *
+         * @return the host buffer containing the kernel results, positioned at {@code 0}
+         */
+        public synchronized ByteBuffer await() {
+            if (!done) {
+                try {
+                    readBack();
+                } catch (RuntimeException e) {
+                    failure = e;
+                } finally {
+                    done = true;
+                    clApi.releaseEvent(countHeaderEvent);
+                }
+            }
+            final RuntimeException localFailure = failure;
+            if (localFailure != null) {
+                throw localFailure;
+            }
+            return hostBuffer;
+        }
+
+        private void readBack() {
+            // The count word is read on the compute queue right behind the kernel; once its event
+            // completed, read back only the bytes the kernel produced: full mode -> overallWorkSize
+            // entries; compact mode -> K hit entries.
+            clApi.waitForEvents(List.of(countHeaderEvent));
+            lastKernelExecutionNanos = consumeElapsedNanos(kernelEvent);
+
+            final int count = slot.countHeader.getInt(0);
+            final long entriesToRead;
+            if (count == OpenClKernelConstants.OUTPUT_COUNT_FULL_TRANSFER_SENTINEL) {
+                entriesToRead = cProducer.getOverallWorkSize();
+            } else {
+                // The sentinel (0xFFFF_FFFF = 4_294_967_295 unsigned) can never alias a
+                // real compact count: MAXIMUM_CHUNK_ELEMENTS (~19.9 M) is far below that
+                // value, so the bounds check below always catches it before it would
+                // silently look like a normal count.
+                final long compactCount = Integer.toUnsignedLong(count);
+                if (compactCount > cProducer.getOverallWorkSize()) {
+                    throw new IllegalStateException("GPU compact-mode count " + compactCount
+                            + " exceeds overallWorkSize " + cProducer.getOverallWorkSize()
+                            + "; kernel output is corrupt");
+                }
+                entriesToRead = compactCount;
+            }
+            final long bytesToRead = OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES
+                    + entriesToRead * OpenClKernelConstants.OUTPUT_ENTRY_SIZE_BYTES;
+
+            final long beforeRead = System.currentTimeMillis();
+            // The read length is the destination's remaining bytes, so the window is narrowed to
+            // exactly the produced range — this is where compact mode's bandwidth saving happens.
+            hostBuffer.position(0).limit(ByteBufferUtility.ensureByteBufferCapacityFitsInt(bytesToRead));
+            final @Nullable ClEvent readEvent =
+                    clApi.enqueueReadBuffer(transferQueue, slot.dstMem, 0L, hostBuffer, cProducer.enableProfiling);
+            lastResultReadbackNanos = consumeElapsedNanos(readEvent);
+            hostBuffer.position(0);
+
+            final long afterRead = System.currentTimeMillis();
+
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("Read OpenCL data " + ((bytesToRead / 1024) / 1024) + "Mb in " + (afterRead - beforeRead)
+                        + "ms");
+            }
+        }
+    }
+
     /**
      * Kernel input buffer backed by host memory the caller keeps alive.
      *
@@ -182,6 +323,7 @@ public class OpenClTask implements ReleaseCLObject {
      * @param cProducer         the OpenCL producer configuration
      * @param bitHelper         bit/batch-size helper
      * @param byteBufferUtility byte-buffer helper used for endian conversion
+     * @throws IllegalArgumentException if {@link CProducerOpenCL#pipelineDepth} is less than {@code 1}
      */
     public OpenClTask(
             ClApi clApi,
@@ -195,11 +337,18 @@ public class OpenClTask implements ReleaseCLObject {
         this.byteBufferUtility = byteBufferUtility;
         this.privateKeyValidator = new PrivateKeyValidator();
         this.maxPrivateKeyForBatchSize = privateKeyValidator.getMaxPrivateKeyForBatchSize(cProducer.batchSizeInBits);
-        this.privateKeySourceArgument = SourceArgument.create(clApi, context, PRIVATE_KEY_SOURCE_SIZE_IN_BYTES);
-        // Allocate the reusable GPU output buffer once at the fixed per-batch size (constant for this
-        // task's lifetime). Reused by every executeKernel() launch; released in close(). Uses the
-        // static size helper to avoid a this-escape (no overridable instance call in the constructor).
-        this.dstMem = clApi.createBuffer(context, ClBufferFlags.WRITE_ONLY, dstSizeInBytes(cProducer));
+        if (cProducer.pipelineDepth < 1) {
+            throw new IllegalArgumentException("pipelineDepth must be >= 1 but was " + cProducer.pipelineDepth);
+        }
+        // Allocate the reusable GPU output buffers once at the fixed per-batch size (constant for
+        // this task's lifetime); released in close(). Uses the static size helper to avoid a
+        // this-escape (no overridable instance call in the constructor).
+        this.slots = new Slot[cProducer.pipelineDepth];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(
+                    SourceArgument.create(clApi, context, PRIVATE_KEY_SOURCE_SIZE_IN_BYTES),
+                    clApi.createBuffer(context, ClBufferFlags.WRITE_ONLY, dstSizeInBytes(cProducer)));
+        }
     }
 
     /**
@@ -260,6 +409,43 @@ public class OpenClTask implements ReleaseCLObject {
         }
     }
 
+    /**
+     * Returns the slot the next launch uses, after reading back the launch that used it last if no
+     * result reader has done so yet. Reading back is what frees the slot's buffers.
+     *
+     * @return the next slot, free for a new launch
+     */
+    private Slot nextSlot() {
+        final Slot slot = slots[nextSlotIndex];
+        final Launch previous = slot.launch;
+        if (previous != null) {
+            try {
+                previous.await();
+            } catch (RuntimeException e) {
+                // Reported to whoever consumes that launch's result; the slot itself is free.
+                LOGGER.trace("Previous launch of the slot failed; reusing the slot.", e);
+            }
+            slot.launch = null;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns a launch's host buffer to the pool, completing its read-back first if nobody has, so
+     * no pending transfer can still write into a buffer a later launch owns. A failed read-back
+     * was already reported to whoever awaited the launch and is not rethrown here.
+     *
+     * @param launch the launch whose result is no longer needed
+     */
+    void releaseLaunch(Launch launch) {
+        try {
+            launch.await();
+        } catch (RuntimeException e) {
+            LOGGER.trace("Released a launch whose read-back failed.", e);
+        }
+        releaseHostBuffer(launch.getHostBuffer());
+    }
+
     /**
      * Writes the base private key to the source buffer in the format expected by the OpenCL kernel.
      * <p>
@@ -274,6 +460,9 @@ public class OpenClTask implements ReleaseCLObject {
      * This matches the behavior of the OpenCL kernel {@code generateKeysKernel_grid}, which reads the key
      * using {@code copy_u32_array(k_littleEndian_local, k, ...)} assuming Little-Endian input and applies
      * the work-item ID to the least-significant word.
+     * <p>
+     * The key is written to the slot of the next {@link #launchKernel} call, which waits for that
+     * slot's previous launch to be read back first.
      *
      * @param privateKeyBase the base private key used as input to the OpenCL kernel
      * @throws PrivateKeyTooLargeException if the key is too large for the current batch size
@@ -296,30 +485,34 @@ public class OpenClTask implements ReleaseCLObject {
         EndiannessConverter endiannessConverter = new EndiannessConverter(
                 ByteOrder.BIG_ENDIAN, OpenClKernelConstants.GPU_NATIVE_WORD_ORDER, byteBufferUtility);
         endiannessConverter.convertEndian(byteArray);
-        ByteBufferUtility.putToByteBuffer(privateKeySourceArgument.getByteBuffer(), byteArray);
+        ByteBufferUtility.putToByteBuffer(nextSlot().privateKeySource.getByteBuffer(), byteArray);
     }
 
     /**
-     * Returns the private-key source argument backing this task (visible for testing).
+     * Returns the private-key source argument the next launch reads (visible for testing).
      *
-     * @return the private-key source argument backing this task
+     * @return the private-key source argument of the next launch's slot
      */
     public SourceArgument getPrivateKeySourceArgument() {
-        return privateKeySourceArgument;
+        return slots[nextSlotIndex].privateKeySource;
     }
 
     /**
-     * Runs the OpenCL kernel for the configured batch and returns the result buffer.
+     * Enqueues the OpenCL kernel for the configured batch and returns without waiting for it.
      *
      * <p>Binds the two GPU Binary Fuse filter buffers and the {@code transfer_all} mode flag
      * as kernel arguments, zero-initialises the output buffer's leading count word (so compact
-     * mode's {@code atomic_add} starts from zero), runs the kernel, then reads back only the
-     * bytes the kernel actually produced: in full-transfer mode the whole grid
-     * ({@code overallWorkSize} entries), in compact mode just the {@code K} hit entries the
+     * mode's {@code atomic_add} starts from zero), enqueues the kernel and the read of the count
+     * word behind it, and flushes the queue. {@link Launch#await()}
+     * then reads back only the bytes the kernel actually produced: in full-transfer mode the whole
+     * grid ({@code overallWorkSize} entries), in compact mode just the {@code K} hit entries the
      * count word reports &mdash; realising the PCIe bandwidth saving.
      *
      * @param kernel        the compiled OpenCL kernel
-     * @param commandQueue  the OpenCL command queue
+     * @param commandQueue  the OpenCL command queue the writes, the kernel and the count-header read
+     *     run on
+     * @param transferQueue the OpenCL command queue the results are read back on; may be
+     *     {@code commandQueue} itself, at the cost of a read-back waiting for later kernels
      * @param fuse8FpMem    the GPU fingerprint slot buffer (a dummy empty filter when none is uploaded)
      * @param fuse8MetaMem  the GPU 5-int metadata buffer {@code [seedLo, seedHi, segLen, segLenMask, segCountLen]}
      * @param transferAll   {@code 0} for compact (filter) mode, non-zero to force full transfer
@@ -331,21 +524,18 @@ public class OpenClTask implements ReleaseCLObject {
      * @param iGTableMem    the GPU {@code i·G} table buffer for the affine scalar walk (a one-byte
      *     placeholder when {@code keysPerWorkItem == 1})
      * @param combTableMem  the GPU fixed-base comb table buffer used to compute the {@code P0} anchor
-     * @return the destination buffer containing kernel results
+     * @return the launch, whose {@link Launch#await()} yields the destination buffer
      */
-    public ByteBuffer executeKernel(
+    public Launch launchKernel(
             ClKernel kernel,
             ClCommandQueue commandQueue,
+            ClCommandQueue transferQueue,
             ClMem fuse8FpMem,
             ClMem fuse8MetaMem,
             int transferAll,
             int filterType,
             ClMem iGTableMem,
             ClMem combTableMem) {
-        // Host-side readback buffer for this launch. Checked out from the pool (reused, see field
-        // doc) or freshly allocated if the pool is empty; returned by OpenCLGridResult.close().
-        final ByteBuffer dstByteBuffer = acquireHostBuffer();
-
         // Set the work-item dimensions
         final long totalResultCount = bitHelper.convertBitsToSize(cProducer.batchSizeInBits);
         final int keysPerWorkItem = cProducer.keysPerWorkItem;
@@ -369,9 +559,19 @@ public class OpenClTask implements ReleaseCLObject {
 
         final long[] globalWorkSize = new long[] {adjustedWorkSize};
 
-        // Set the arguments for the kernel
-        clApi.setKernelArg(kernel, ARG_DESTINATION, dstMem);
-        clApi.setKernelArg(kernel, ARG_PRIVATE_KEY_SOURCE, privateKeySourceArgument.getMem());
+        // The key was written to this slot by setSrcPrivateKeyChunk, which already freed it.
+        final int slotIndex = nextSlotIndex;
+        final Slot slot = nextSlot();
+        nextSlotIndex = (slotIndex + 1) % slots.length;
+
+        // Host-side readback buffer for this launch. Checked out from the pool (reused, see field
+        // doc) or freshly allocated if the pool is empty; returned by OpenCLGridResult.close().
+        final ByteBuffer dstByteBuffer = acquireHostBuffer();
+
+        // Set the arguments for the kernel. The runtime captures argument values at enqueue time,
+        // so rebinding for the next slot does not affect a kernel already enqueued.
+        clApi.setKernelArg(kernel, ARG_DESTINATION, slot.dstMem);
+        clApi.setKernelArg(kernel, ARG_PRIVATE_KEY_SOURCE, slot.privateKeySource.getMem());
         clApi.setKernelArgInt(kernel, ARG_KEYS_PER_WORK_ITEM, keysPerWorkItem);
         clApi.setKernelArg(kernel, ARG_FILTER_FINGERPRINTS, fuse8FpMem);
         clApi.setKernelArg(kernel, ARG_FILTER_METADATA, fuse8MetaMem);
@@ -383,80 +583,37 @@ public class OpenClTask implements ReleaseCLObject {
         {
             // write src buffer. The transfer length is the buffer's remaining bytes, so the window
             // is set explicitly rather than relying on whatever position the last writer left.
-            final ByteBuffer source = privateKeySourceArgument.getByteBuffer();
+            // Non-blocking: the slot's source is not rewritten before this launch has been read back.
+            final ByteBuffer source = slot.privateKeySource.getByteBuffer();
             source.position(0).limit(PRIVATE_KEY_SOURCE_SIZE_IN_BYTES);
-            clApi.enqueueWriteBuffer(commandQueue, privateKeySourceArgument.getMem(), 0L, source);
-            clApi.finish(commandQueue);
+            clApi.enqueueWriteBufferNonBlocking(commandQueue, slot.privateKeySource.getMem(), 0L, source);
         }
         {
             // zero-initialise the leading count word so compact mode's atomic_add starts at
             // 0 (full mode's work-item 0 overwrites it with the sentinel). Also resets any stale
-            // count left in the reused dstMem from the previous launch.
-            final ByteBuffer zeroHeader = ByteBuffer.allocateDirect(OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES);
-            clApi.enqueueWriteBuffer(commandQueue, dstMem, 0L, zeroHeader);
-            clApi.finish(commandQueue);
+            // count left in the reused dstMem from the slot's previous launch.
+            clApi.enqueueWriteBufferNonBlocking(commandQueue, slot.dstMem, 0L, zeroHeader);
         }
-        final boolean profiling = cProducer.enableProfiling;
+        // enqueue the kernel; the in-order compute queue runs it after both writes
+        final @Nullable ClEvent kernelEvent =
+                clApi.enqueueNDRangeKernel(commandQueue, kernel, globalWorkSize, cProducer.enableProfiling);
+        final ClEvent countHeaderEvent;
         {
-            // execute the kernel
-            final long beforeExecute = System.currentTimeMillis();
-            final @Nullable ClEvent kernelEvent =
-                    clApi.enqueueNDRangeKernel(commandQueue, kernel, globalWorkSize, profiling);
-            clApi.finish(commandQueue);
-            lastKernelExecutionNanos = consumeElapsedNanos(kernelEvent);
-
-            final long afterExecute = System.currentTimeMillis();
-
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("Executed OpenCL kernel in " + (afterExecute - beforeExecute) + "ms");
-            }
+            // Read back the count word right behind the kernel; its value decides how many bytes
+            // Launch.await() reads. Four bytes on the compute queue delay the next kernel by
+            // nothing measurable, while the bulk read on the transfer queue overlaps it.
+            final ByteBuffer countHeader = slot.countHeader;
+            countHeader.clear();
+            countHeaderEvent =
+                    clApi.enqueueReadBufferNonBlocking(commandQueue, slot.dstMem, 0L, countHeader, List.of());
+            clApi.flush(commandQueue);
         }
-        {
-            // Read back the count word first, then only the bytes the kernel produced:
-            // full mode -> overallWorkSize entries; compact mode -> K hit entries.
-            final ByteBuffer countHeader = ByteBuffer.allocateDirect(OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES)
-                    .order(OpenClKernelConstants.GPU_NATIVE_WORD_ORDER);
-            clApi.enqueueReadBuffer(commandQueue, dstMem, 0L, countHeader, false);
-            clApi.finish(commandQueue);
-
-            final int count = countHeader.getInt(0);
-            final long entriesToRead;
-            if (count == OpenClKernelConstants.OUTPUT_COUNT_FULL_TRANSFER_SENTINEL) {
-                entriesToRead = cProducer.getOverallWorkSize();
-            } else {
-                // The sentinel (0xFFFF_FFFF = 4_294_967_295 unsigned) can never alias a
-                // real compact count: MAXIMUM_CHUNK_ELEMENTS (~19.9 M) is far below that
-                // value, so the bounds check below always catches it before it would
-                // silently look like a normal count.
-                final long compactCount = Integer.toUnsignedLong(count);
-                if (compactCount > cProducer.getOverallWorkSize()) {
-                    throw new IllegalStateException("GPU compact-mode count " + compactCount
-                            + " exceeds overallWorkSize " + cProducer.getOverallWorkSize()
-                            + "; kernel output is corrupt");
-                }
-                entriesToRead = compactCount;
-            }
-            final long bytesToRead = OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES
-                    + entriesToRead * OpenClKernelConstants.OUTPUT_ENTRY_SIZE_BYTES;
-
-            final long beforeRead = System.currentTimeMillis();
-            // The read length is the destination's remaining bytes, so the window is narrowed to
-            // exactly the produced range — this is where compact mode's bandwidth saving happens.
-            dstByteBuffer.position(0).limit(ByteBufferUtility.ensureByteBufferCapacityFitsInt(bytesToRead));
-            final @Nullable ClEvent readEvent =
-                    clApi.enqueueReadBuffer(commandQueue, dstMem, 0L, dstByteBuffer, profiling);
-            clApi.finish(commandQueue);
-            lastResultReadbackNanos = consumeElapsedNanos(readEvent);
-            dstByteBuffer.position(0);
-
-            final long afterRead = System.currentTimeMillis();
-
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("Read OpenCL data " + ((bytesToRead / 1024) / 1024) + "Mb in " + (afterRead - beforeRead)
-                        + "ms");
-            }
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Enqueued OpenCL kernel in slot " + slotIndex);
         }
-        return dstByteBuffer;
+        final Launch launch = new Launch(slot, transferQueue, dstByteBuffer, kernelEvent, countHeaderEvent);
+        slot.launch = launch;
+        return launch;
     }
 
     /**
@@ -477,7 +634,7 @@ public class OpenClTask implements ReleaseCLObject {
     }
 
     /**
-     * Returns the on-device kernel execution time of the most recent {@link #executeKernel} call.
+     * Returns the on-device kernel execution time of the most recently read-back launch.
      *
      * <p>Populated only when {@link CProducerOpenCL#enableProfiling} is {@code true}; otherwise
      * returns {@link #PROFILING_NOT_AVAILABLE}. This is GPU compute time only &mdash; it excludes
@@ -490,8 +647,8 @@ public class OpenClTask implements ReleaseCLObject {
     }
 
     /**
-     * Returns the on-device result read-back (PCIe transfer) time of the most recent
-     * {@link #executeKernel} call.
+     * Returns the on-device result read-back (PCIe transfer) time of the most recently read-back
+     * launch.
      *
      * <p>Populated only when {@link CProducerOpenCL#enableProfiling} is {@code true}; otherwise
      * returns {@link #PROFILING_NOT_AVAILABLE}. In compact mode this covers only the {@code K} hit
@@ -511,12 +668,23 @@ public class OpenClTask implements ReleaseCLObject {
     @Override
     public void close() {
         if (!closed) {
-            privateKeySourceArgument.close();
-            // Release the reusable GPU output buffer. Safe here: close() runs only after the
-            // producer has stopped issuing launches; the asynchronous result readers never touch
-            // dstMem (they read the host-side ByteBuffer copies), so there is no use-after-free.
-            clApi.releaseMemObject(dstMem);
             closed = true;
+            for (Slot slot : slots) {
+                // close() runs only after the producer has stopped issuing launches. A launch still
+                // in flight is read back first, so its result stays valid for the reader that has
+                // not consumed it yet and no read can touch a released buffer.
+                final Launch launch = slot.launch;
+                if (launch != null) {
+                    try {
+                        launch.await();
+                    } catch (RuntimeException e) {
+                        LOGGER.trace("Launch in flight at close failed.", e);
+                    }
+                    slot.launch = null;
+                }
+                slot.privateKeySource.close();
+                clApi.releaseMemObject(slot.dstMem);
+            }
         }
     }
 }
@@ -133,6 +133,14 @@ public interface ClApi {
      */
     void finish(ClCommandQueue commandQueue);
 
+    /**
+     * Submits every command previously enqueued on the queue to the device without waiting for
+     * them, so work enqueued without a blocking call starts while the host moves on.
+     *
+     * @param commandQueue the queue to flush
+     */
+    void flush(ClCommandQueue commandQueue);
+
     // ---------------------------------------------------------------------------------------
     // Program and kernel
     // ---------------------------------------------------------------------------------------
@@ -146,6 +154,26 @@ public interface ClApi {
      */
     ClProgram createProgramWithSource(ClContext context, String[] sources);
 
+    /**
+     * Creates a program from a device binary previously obtained with {@link #getProgramBinary}. The
+     * program must still be built with {@link #buildProgram} before kernels can be created from it.
+     *
+     * @param context the owning context
+     * @param device  the device the binary was built for
+     * @param binary  the device binary
+     * @return the created program
+     * @throws OpenClCallFailedException if the device rejects the binary, e.g. after a driver update
+     */
+    ClProgram createProgramWithBinary(ClContext context, ClDeviceId device, byte[] binary);
+
+    /**
+     * Returns the device binary of a program built for exactly one device.
+     *
+     * @param program the built program
+     * @return the binary, empty if the runtime does not expose one
+     */
+    byte[] getProgramBinary(ClProgram program);
+
     /**
      * Compiles and links a program for one device.
      *
@@ -321,6 +349,36 @@ public interface ClApi {
     ClEvent enqueueReadBuffer(
             ClCommandQueue commandQueue, ClMem mem, long deviceOffset, ByteBuffer destination, boolean profilingEvent);
 
+    /**
+     * Enqueues a non-blocking write from a direct host buffer into a device buffer.
+     *
+     * <p>The call returns before the transfer has happened: the caller must leave {@code source}
+     * untouched until a later command on the same in-order queue, or an event depending on it, has
+     * completed.
+     *
+     * @param commandQueue the queue to submit to
+     * @param mem          the destination device buffer
+     * @param deviceOffset the byte offset into the device buffer
+     * @param source       the direct host buffer; its remaining bytes are written
+     */
+    void enqueueWriteBufferNonBlocking(ClCommandQueue commandQueue, ClMem mem, long deviceOffset, ByteBuffer source);
+
+    /**
+     * Enqueues a non-blocking read from a device buffer into a direct host buffer that starts only
+     * once the given events have completed. This is how a command on one queue is made to wait for a
+     * command on another.
+     *
+     * @param commandQueue the queue to submit to
+     * @param mem          the source device buffer
+     * @param deviceOffset the byte offset into the device buffer
+     * @param destination  the direct host buffer; its remaining bytes are filled once the returned
+     *                     event has completed
+     * @param waitFor      the events the read depends on, possibly empty
+     * @return the event of the read; the caller releases it
+     */
+    ClEvent enqueueReadBufferNonBlocking(
+            ClCommandQueue commandQueue, ClMem mem, long deviceOffset, ByteBuffer destination, List<ClEvent> waitFor);
+
     // ---------------------------------------------------------------------------------------
     // Events
     // ---------------------------------------------------------------------------------------
@@ -333,6 +391,13 @@ public interface ClApi {
      */
     long getEventElapsedNanos(ClEvent event);
 
+    /**
+     * Blocks until every given event has completed.
+     *
+     * @param events the events to wait for; an empty list returns immediately
+     */
+    void waitForEvents(List<ClEvent> events);
+
     // ---------------------------------------------------------------------------------------
     // Release
     // ---------------------------------------------------------------------------------------
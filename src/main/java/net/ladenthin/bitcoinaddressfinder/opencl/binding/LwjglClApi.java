@@ -9,6 +9,7 @@ import java.nio.IntBuffer;
 import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import lombok.ToString;
 import org.jspecify.annotations.Nullable;
 import org.lwjgl.PointerBuffer;
@@ -44,9 +45,12 @@ public class LwjglClApi implements ClApi {
     /** Terminator of a {@code cl_context_properties} / {@code cl_queue_properties} list. */
     private static final long PROPERTY_LIST_TERMINATOR = 0L;
 
-    /** Blocking flag for the enqueue calls; every transfer in this project is synchronous. */
+    /** Blocking flag for the synchronous enqueue calls. */
     private static final boolean BLOCKING = true;
 
+    /** Blocking flag for the enqueue calls the pipelined kernel dispatch awaits through events. */
+    private static final boolean NON_BLOCKING = false;
+
     /** Number of dimensions used for every kernel launch in this project. */
     private static final int WORK_DIMENSIONS = 1;
 
@@ -277,6 +281,11 @@ public class LwjglClApi implements ClApi {
         errorChecker.checkSuccess(CL10.clFinish(commandQueue.handle()), "clFinish");
     }
 
+    @Override
+    public void flush(ClCommandQueue commandQueue) {
+        errorChecker.checkSuccess(CL10.clFlush(commandQueue.handle()), "clFlush");
+    }
+
     // ---------------------------------------------------------------------------------------
     // Program and kernel
     // ---------------------------------------------------------------------------------------
@@ -292,6 +301,55 @@ public class LwjglClApi implements ClApi {
         }
     }
 
+    @Override
+    public ClProgram createProgramWithBinary(ClContext context, ClDeviceId device, byte[] binary) {
+        libraryLoader.ensureLoaded();
+        // Off the stack on purpose: a program binary is several megabytes.
+        final ByteBuffer binaryBuffer = MemoryUtil.memAlloc(binary.length);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            binaryBuffer.put(0, binary);
+            final PointerBuffer devices = stack.pointers(device.handle());
+            final PointerBuffer lengths = stack.pointers(binary.length);
+            final PointerBuffer binaries = stack.pointers(binaryBuffer);
+            final IntBuffer binaryStatus = stack.mallocInt(1);
+            final IntBuffer errorCode = stack.mallocInt(1);
+            final long handle = CL10.clCreateProgramWithBinary(
+                    context.handle(), devices, lengths, binaries, binaryStatus, errorCode);
+            errorChecker.checkSuccess(errorCode.get(0), "clCreateProgramWithBinary");
+            errorChecker.checkSuccess(binaryStatus.get(0), "clCreateProgramWithBinary");
+            return new ClProgram(errorChecker.requireCreated(handle, "clCreateProgramWithBinary"));
+        } finally {
+            MemoryUtil.memFree(binaryBuffer);
+        }
+    }
+
+    @Override
+    public byte[] getProgramBinary(ClProgram program) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            final PointerBuffer binarySize = stack.mallocPointer(1);
+            errorChecker.checkSuccess(
+                    CL10.clGetProgramInfo(program.handle(), CL10.CL_PROGRAM_BINARY_SIZES, binarySize, null),
+                    "clGetProgramInfo");
+            final int byteCount = Math.toIntExact(binarySize.get(0));
+            if (byteCount == 0) {
+                return new byte[0];
+            }
+            final ByteBuffer binary = MemoryUtil.memAlloc(byteCount);
+            try {
+                // CL_PROGRAM_BINARIES takes one destination pointer per device, not the bytes.
+                final PointerBuffer binaries = stack.pointers(binary);
+                errorChecker.checkSuccess(
+                        CL10.clGetProgramInfo(program.handle(), CL10.CL_PROGRAM_BINARIES, binaries, null),
+                        "clGetProgramInfo");
+                final byte[] result = new byte[byteCount];
+                binary.get(0, result);
+                return result;
+            } finally {
+                MemoryUtil.memFree(binary);
+            }
+        }
+    }
+
     @Override
     public void buildProgram(ClProgram program, ClDeviceId device, String options) {
         errorChecker.checkSuccess(
@@ -478,6 +536,30 @@ public class LwjglClApi implements ClApi {
         }
     }
 
+    @Override
+    public void enqueueWriteBufferNonBlocking(
+            ClCommandQueue commandQueue, ClMem mem, long deviceOffset, ByteBuffer source) {
+        errorChecker.checkSuccess(
+                CL10.clEnqueueWriteBuffer(
+                        commandQueue.handle(), mem.handle(), NON_BLOCKING, deviceOffset, source, null, null),
+                "clEnqueueWriteBuffer");
+    }
+
+    @Override
+    public ClEvent enqueueReadBufferNonBlocking(
+            ClCommandQueue commandQueue, ClMem mem, long deviceOffset, ByteBuffer destination, List<ClEvent> waitFor) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            final PointerBuffer waitList = eventList(stack, waitFor);
+            final PointerBuffer event = stack.mallocPointer(1);
+            errorChecker.checkSuccess(
+                    CL10.clEnqueueReadBuffer(
+                            commandQueue.handle(), mem.handle(), NON_BLOCKING, deviceOffset, destination, waitList,
+                            event),
+                    "clEnqueueReadBuffer");
+            return new ClEvent(errorChecker.requireCreated(event.get(0), "clEnqueueReadBuffer"));
+        }
+    }
+
     // ---------------------------------------------------------------------------------------
     // Events
     // ---------------------------------------------------------------------------------------
@@ -498,6 +580,36 @@ public class LwjglClApi implements ClApi {
         }
     }
 
+    @Override
+    public void waitForEvents(List<ClEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            errorChecker.checkSuccess(
+                    CL10.clWaitForEvents(Objects.requireNonNull(eventList(stack, events))), "clWaitForEvents");
+        }
+    }
+
+    /**
+     * Copies event handles into a native list for an event wait list parameter.
+     *
+     * @param stack  the stack the list is allocated on
+     * @param events the events
+     * @return the native list, or {@code null} for an empty list, which OpenCL requires instead of
+     *     an empty one
+     */
+    private static @Nullable PointerBuffer eventList(MemoryStack stack, List<ClEvent> events) {
+        if (events.isEmpty()) {
+            return null;
+        }
+        final PointerBuffer list = stack.mallocPointer(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            list.put(i, events.get(i).handle());
+        }
+        return list;
+    }
+
     // ---------------------------------------------------------------------------------------
     // Release
     // ---------------------------------------------------------------------------------------
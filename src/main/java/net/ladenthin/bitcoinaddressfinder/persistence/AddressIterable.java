@@ -6,6 +6,7 @@ package net.ladenthin.bitcoinaddressfinder.persistence;
 import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Optional capability declared by backends that can stream their full address set, used
@@ -40,6 +41,45 @@ public interface AddressIterable {
      */
     Stream<ByteBuffer> addresses();
 
+    /**
+     * Streams the hash160 entries whose key lies in {@code [fromInclusive, toExclusive)}, compared as
+     * unsigned bytes. Used to split one pass over a sorted backend into independent key ranges that
+     * can be walked in parallel. Same closing and buffer rules as {@link #addresses()}.
+     *
+     * <p>The default implementation filters {@link #addresses()} and therefore still reads every
+     * entry; backends stored in key order (LMDB) should override it with a positioned cursor.
+     *
+     * @param fromInclusive the smallest key to include, or {@code null} for no lower bound
+     * @param toExclusive   the first key to exclude, or {@code null} for no upper bound
+     * @return a fresh stream over the stored hash160 entries in the range
+     */
+    default Stream<ByteBuffer> addresses(byte @Nullable [] fromInclusive, byte @Nullable [] toExclusive) {
+        final @Nullable ByteBuffer from = fromInclusive == null ? null : ByteBuffer.wrap(fromInclusive);
+        final @Nullable ByteBuffer to = toExclusive == null ? null : ByteBuffer.wrap(toExclusive);
+        return addresses().filter(address -> (from == null || compareUnsigned(address, from) >= 0)
+                && (to == null || compareUnsigned(address, to) < 0));
+    }
+
+    /**
+     * Compares the remaining bytes of two buffers as unsigned bytes, the order LMDB keeps its keys
+     * in; a proper prefix sorts first. Neither buffer's position is changed.
+     *
+     * @param a the first key
+     * @param b the second key
+     * @return a negative number, zero or a positive number as {@code a} sorts before, equal to or
+     *         after {@code b}
+     */
+    static int compareUnsigned(ByteBuffer a, ByteBuffer b) {
+        final int mismatch = a.mismatch(b);
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch < a.remaining() && mismatch < b.remaining()) {
+            return Byte.compareUnsigned(a.get(a.position() + mismatch), b.get(b.position() + mismatch));
+        }
+        return a.remaining() - b.remaining();
+    }
+
     /**
      * Returns the number of entries the backing storage currently holds. Used to size
      * the in-memory snapshot allocated by the accelerator factory.
@@ -3,6 +3,9 @@
 // SPDX-License-Identifier: Apache-2.0
 package net.ladenthin.bitcoinaddressfinder.persistence;
 
+import java.util.Optional;
+import org.jspecify.annotations.Nullable;
+
 /**
  * Bounded progress reporter for the O(n) phases of any in-memory address-lookup construction.
  *
@@ -41,6 +44,10 @@ package net.ladenthin.bitcoinaddressfinder.persistence;
  * {@code LOGGER::info}); this keeps the helper free of a {@code Logger} field and lets each backend
  * log under its own category.
  *
+ * <p>The phase last started or advanced is also published process-wide as a {@link Snapshot}
+ * ({@link #latest()}), so a metrics endpoint can expose the build progress without a reference to
+ * the backend being built.
+ *
  * <p><strong>Not thread-safe.</strong> Each instance is advanced by the single construction thread.
  */
 public final class FilterBuildProgress {
@@ -70,6 +77,22 @@ public final class FilterBuildProgress {
         long nanoTime();
     }
 
+    /**
+     * Progress of one phase at its last milestone.
+     *
+     * @param phase the phase label
+     * @param done  the units completed at the last milestone
+     * @param total the total number of units of the phase
+     */
+    public record Snapshot(String phase, long done, long total) {}
+
+    /**
+     * The phase last started or advanced by any instance. Written at most {@link #SEGMENTS} + 1 times
+     * per phase; a plain volatile reference is enough for a single construction thread and any
+     * number of readers.
+     */
+    private static volatile @Nullable Snapshot latest;
+
     /** Approximate number of interim percentage lines emitted per phase for large inputs. */
     public static final int SEGMENTS = 10;
 
@@ -121,6 +144,16 @@ public final class FilterBuildProgress {
         this.startNanos = clock.nanoTime();
         this.lastNanos = this.startNanos;
         this.lastDone = 0L;
+        latest = new Snapshot(phase, 0L, this.total);
+    }
+
+    /**
+     * Returns the progress of the phase last started or advanced in this process.
+     *
+     * @return the snapshot, or {@link Optional#empty()} if no build has started
+     */
+    public static Optional<Snapshot> latest() {
+        return Optional.ofNullable(latest);
     }
 
     /**
@@ -167,6 +200,7 @@ public final class FilterBuildProgress {
                 .append('.');
 
         sink.log(message.toString());
+        latest = new Snapshot(phase, done, total);
 
         lastNanos = now;
         lastDone = done;
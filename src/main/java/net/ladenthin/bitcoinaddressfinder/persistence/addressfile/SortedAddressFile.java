@@ -0,0 +1,327 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.persistence.addressfile;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import lombok.ToString;
+import net.ladenthin.bitcoinaddressfinder.persistence.AddressIterable;
+import net.ladenthin.bitcoinaddressfinder.persistence.AddressLookup;
+import org.bitcoinj.base.Coin;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Read-only, memory-mapped view of a sorted binary address file, usable as an {@link AddressIterable}
+ * source for every in-memory backend and as an exact {@link AddressLookup} — without LMDB.
+ *
+ * <h2>Format</h2>
+ * All numbers are big-endian.
+ * <ol>
+ *   <li>Header of {@link #HEADER_SIZE} bytes: the magic {@link #MAGIC}, the format {@link #VERSION}
+ *       and the record size {@link #RECORD_SIZE}, each checked on open.</li>
+ *   <li>The records: a 20-byte hash160 followed by its 8-byte amount in satoshi, in strictly
+ *       ascending unsigned hash160 order — the order LMDB keeps its keys in.</li>
+ *   <li>Index of {@link #INDEX_SIZE} bytes at the end of the file: for every first hash160 byte
+ *       {@code b} the number of records starting with a smaller byte, followed by the record count.</li>
+ * </ol>
+ * The record count follows from the file size. Written by {@link SortedAddressFileOutputStream}.
+ *
+ * <h2>Lookups</h2>
+ * The index narrows a lookup to the records sharing the key's first byte, and a binary search over
+ * the mapped records finds the key, so no part of the file is read into the heap. Reads use absolute
+ * positions only, so one instance serves any number of threads.
+ *
+ * <p>A mapping is limited to 2&nbsp;GiB, so the records are mapped in segments of whole records.
+ * Mapped memory is released when the segments are garbage collected, not by {@link #close()}.
+ */
+@ToString
+public final class SortedAddressFile implements AddressIterable, AddressLookup, AutoCloseable {
+
+    /** File magic, the ASCII bytes {@code BAFADDRS}. */
+    public static final long MAGIC = 0x4241_4641_4444_5253L;
+
+    /** Version of the format described above. */
+    public static final int VERSION = 1;
+
+    /** Length of the hash160 of a record. */
+    public static final int HASH160_LENGTH = 20;
+
+    /** Length of a record: hash160 and amount. */
+    public static final int RECORD_SIZE = HASH160_LENGTH + Long.BYTES;
+
+    /** Length of the header: magic, version and record size. */
+    public static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /** Number of index entries: one per first hash160 byte and the record count. */
+    static final int INDEX_ENTRIES = 256 + 1;
+
+    /** Length of the index at the end of the file. */
+    public static final int INDEX_SIZE = INDEX_ENTRIES * Long.BYTES;
+
+    /** Most records one mapping holds. */
+    private static final int MAX_RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final Path path;
+
+    private final long count;
+
+    @ToString.Exclude
+    private final long[] index;
+
+    private final int recordsPerSegment;
+
+    @ToString.Exclude
+    private final MappedByteBuffer[] segments;
+
+    @ToString.Exclude
+    private final FileChannel channel;
+
+    /**
+     * Opens and maps a sorted address file.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be read or is no valid sorted address file
+     */
+    public SortedAddressFile(Path path) throws IOException {
+        this(path, MAX_RECORDS_PER_SEGMENT);
+    }
+
+    @VisibleForTesting
+    SortedAddressFile(Path path, int recordsPerSegment) throws IOException {
+        this.path = path;
+        this.recordsPerSegment = recordsPerSegment;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            final long recordBytes = size - HEADER_SIZE - INDEX_SIZE;
+            if (recordBytes < 0 || recordBytes % RECORD_SIZE != 0) {
+                throw new IOException("Not a sorted address file, size " + size + " does not fit the format: " + path);
+            }
+            this.count = recordBytes / RECORD_SIZE;
+            checkHeader(read(0, HEADER_SIZE), path);
+            this.index = readIndex(read(HEADER_SIZE + recordBytes, INDEX_SIZE), count, path);
+
+            final int segmentCount = (int) ((count + recordsPerSegment - 1) / recordsPerSegment);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                final long first = (long) i * recordsPerSegment;
+                final long records = Math.min(recordsPerSegment, count - first);
+                segments[i] = channel.map(
+                        FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether a file starts with the magic of a sorted address file. Used to tell such a file
+     * from a text address file on import.
+     *
+     * @param path the file
+     * @return {@code true} if the file starts with {@link #MAGIC}
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSortedAddressFile(Path path) throws IOException {
+        if (Files.size(path) < Long.BYTES) {
+            return false;
+        }
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Long.BYTES);
+            while (magic.hasRemaining() && fileChannel.read(magic) >= 0) {
+                // read fully
+            }
+            return !magic.hasRemaining() && magic.getLong(0) == MAGIC;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of sorted address file: " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void checkHeader(ByteBuffer header, Path path) throws IOException {
+        final long magic = header.getLong();
+        final int version = header.getInt();
+        final int recordSize = header.getInt();
+        if (magic != MAGIC) {
+            throw new IOException("Not a sorted address file, wrong magic: " + path);
+        }
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+            throw new IOException("Unsupported sorted address file version " + version + " with record size "
+                    + recordSize + ": " + path);
+        }
+    }
+
+    private static long[] readIndex(ByteBuffer buffer, long count, Path path) throws IOException {
+        final long[] index = new long[INDEX_ENTRIES];
+        for (int i = 0; i < INDEX_ENTRIES; i++) {
+            index[i] = buffer.getLong();
+            if (index[i] < 0 || index[i] > count || (i > 0 && index[i] < index[i - 1])) {
+                throw new IOException("Corrupt index in sorted address file: " + path);
+            }
+        }
+        if (index[0] != 0 || index[INDEX_ENTRIES - 1] != count) {
+            throw new IOException("Corrupt index in sorted address file: " + path);
+        }
+        return index;
+    }
+
+    /**
+     * Copies the hash160 of a record.
+     *
+     * @param record      the record index, from {@code 0} to {@link #count()} exclusive
+     * @param destination the array to copy to
+     * @param offset      the offset in {@code destination}
+     */
+    public void copyHash160(long record, byte[] destination, int offset) {
+        segment(record).get(offset(record), destination, offset, HASH160_LENGTH);
+    }
+
+    /**
+     * Returns the amount of a record.
+     *
+     * @param record the record index, from {@code 0} to {@link #count()} exclusive
+     * @return the amount in satoshi
+     */
+    public long amount(long record) {
+        return segment(record).getLong(offset(record) + HASH160_LENGTH);
+    }
+
+    /**
+     * Returns the first record whose hash160 is not smaller than {@code key}, compared as unsigned
+     * bytes like {@link AddressIterable#compareUnsigned(ByteBuffer, ByteBuffer)}.
+     *
+     * @param key the key; a shorter key is a prefix and sorts before every hash160 it starts
+     * @return the record index, {@link #count()} if every hash160 is smaller
+     */
+    public long lowerBound(ByteBuffer key) {
+        if (!key.hasRemaining()) {
+            return 0;
+        }
+        final int firstByte = key.get(key.position()) & 0xFF;
+        long low = index[firstByte];
+        long high = index[firstByte + 1];
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (compare(middle, key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compare(long record, ByteBuffer key) {
+        final ByteBuffer segment = segment(record);
+        final int offset = offset(record);
+        final int keyLength = key.remaining();
+        final int length = Math.min(HASH160_LENGTH, keyLength);
+        for (int i = 0; i < length; i++) {
+            final int result = Byte.compareUnsigned(segment.get(offset + i), key.get(key.position() + i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return HASH160_LENGTH - keyLength;
+    }
+
+    private MappedByteBuffer segment(long record) {
+        return segments[(int) (record / recordsPerSegment)];
+    }
+
+    private int offset(long record) {
+        return (int) (record % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    /**
+     * Streams the hash160 of every record, in key order, as read-only views into the mapping.
+     * Closing the stream releases nothing; the mapping lives as long as this instance.
+     */
+    @Override
+    public Stream<ByteBuffer> addresses() {
+        return addresses(0, count);
+    }
+
+    /** Streams the records in {@code [fromInclusive, toExclusive)}, located by binary search. */
+    @Override
+    public Stream<ByteBuffer> addresses(byte @Nullable [] fromInclusive, byte @Nullable [] toExclusive) {
+        final long from = fromInclusive == null ? 0 : lowerBound(ByteBuffer.wrap(fromInclusive));
+        final long to = toExclusive == null ? count : lowerBound(ByteBuffer.wrap(toExclusive));
+        return addresses(from, Math.max(from, to));
+    }
+
+    private Stream<ByteBuffer> addresses(long from, long to) {
+        return LongStream.range(from, to)
+                .mapToObj(record -> segment(record).slice(offset(record), HASH160_LENGTH).asReadOnlyBuffer());
+    }
+
+    /**
+     * Copies every hash160 into one reused buffer and passes it to {@code action}, without the
+     * per-entry {@code Stream} dispatch and allocation of {@link #addresses()}. The buffer is only
+     * valid until the next call, as with {@code LMDBPersistence.forEachAddress}.
+     */
+    @Override
+    public void forEachAddress(Consumer<ByteBuffer> action) {
+        final byte[] scratch = new byte[HASH160_LENGTH];
+        final ByteBuffer view = ByteBuffer.wrap(scratch);
+        for (long record = 0; record < count; record++) {
+            copyHash160(record, scratch, 0);
+            view.clear();
+            action.accept(view);
+        }
+    }
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public boolean containsAddress(ByteBuffer hash160) {
+        final long record = lowerBound(hash160);
+        return record < count && compare(record, hash160) == 0;
+    }
+
+    @Override
+    public Coin getAmount(ByteBuffer hash160) {
+        final long record = lowerBound(hash160);
+        if (record < count && compare(record, hash160) == 0) {
+            return Coin.valueOf(amount(record));
+        }
+        return Coin.ZERO;
+    }
+
+    /**
+     * Every lookup is answered from the mapped file, so it has to stay open while this instance is
+     * the lookup.
+     *
+     * @return always {@code true}
+     */
+    @Override
+    public boolean requiresBackend() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
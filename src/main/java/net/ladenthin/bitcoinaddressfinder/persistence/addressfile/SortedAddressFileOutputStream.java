@@ -0,0 +1,138 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.persistence.addressfile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes a {@link SortedAddressFile}: the header on creation, then the records written to this
+ * stream, then the index on {@link #finish()}.
+ *
+ * <p>The bytes written are records of {@link SortedAddressFile#RECORD_SIZE} bytes each and may be
+ * split anywhere between calls. Every completed record is checked to be in strictly ascending hash160
+ * order — what lookups by binary search rely on — and counted for the index.
+ *
+ * <p>Not thread-safe.
+ */
+public final class SortedAddressFileOutputStream extends OutputStream {
+
+    private final OutputStream out;
+
+    /** The record being assembled from the bytes written so far. */
+    private final byte[] record = new byte[SortedAddressFile.RECORD_SIZE];
+
+    private int recordLength;
+
+    /** The hash160 of the last completed record, to check the order. */
+    private final byte[] previous = new byte[SortedAddressFile.HASH160_LENGTH];
+
+    /** Completed records per first hash160 byte. */
+    private final long[] firstByteCounts = new long[256];
+
+    private long count;
+
+    private boolean finished;
+
+    /**
+     * Creates the stream and writes the header to {@code out}.
+     *
+     * @param out the destination; buffer it, records are passed on one at a time
+     * @throws IOException if writing the header fails
+     */
+    public SortedAddressFileOutputStream(OutputStream out) throws IOException {
+        this.out = out;
+        ByteBuffer header = ByteBuffer.allocate(SortedAddressFile.HEADER_SIZE);
+        header.putLong(SortedAddressFile.MAGIC);
+        header.putInt(SortedAddressFile.VERSION);
+        header.putInt(SortedAddressFile.RECORD_SIZE);
+        out.write(header.array());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Sorted address file already finished");
+        }
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int copied = Math.min(remaining, record.length - recordLength);
+            System.arraycopy(b, offset, record, recordLength, copied);
+            recordLength += copied;
+            offset += copied;
+            remaining -= copied;
+            if (recordLength == record.length) {
+                completeRecord();
+            }
+        }
+    }
+
+    private void completeRecord() throws IOException {
+        final int hash160Length = SortedAddressFile.HASH160_LENGTH;
+        if (count > 0 && Arrays.compareUnsigned(record, 0, hash160Length, previous, 0, hash160Length) <= 0) {
+            throw new IOException("Record " + count + " is not in strictly ascending hash160 order");
+        }
+        out.write(record);
+        System.arraycopy(record, 0, previous, 0, hash160Length);
+        firstByteCounts[record[0] & 0xFF]++;
+        count++;
+        recordLength = 0;
+    }
+
+    /**
+     * Returns the number of records completed so far.
+     *
+     * @return the record count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the index and flushes, without closing the destination. Further calls do nothing.
+     *
+     * @throws IOException if a record is incomplete or writing fails
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (recordLength != 0) {
+            throw new IOException("Incomplete record of " + recordLength + " byte(s) at the end");
+        }
+        ByteBuffer index = ByteBuffer.allocate(SortedAddressFile.INDEX_SIZE);
+        long before = 0;
+        for (long firstByteCount : firstByteCounts) {
+            index.putLong(before);
+            before += firstByteCount;
+        }
+        index.putLong(before);
+        out.write(index.array());
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /** Finishes the file and closes the destination. */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+/**
+ * JSpecify {@code @NullMarked}: see {@link net.ladenthin.bitcoinaddressfinder}
+ * for the convention.
+ */
+@NullMarked
+package net.ladenthin.bitcoinaddressfinder.persistence.addressfile;
+
+import org.jspecify.annotations.NullMarked;
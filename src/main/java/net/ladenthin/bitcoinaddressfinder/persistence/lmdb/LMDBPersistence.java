@@ -5,10 +5,13 @@ package net.ladenthin.bitcoinaddressfinder.persistence.lmdb;
 
 import static org.lmdbjava.DbiFlags.MDB_CREATE;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -22,10 +25,13 @@ import lombok.ToString;
 import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFileOutputFormat;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationReadOnly;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationWrite;
+import net.ladenthin.bitcoinaddressfinder.io.AddressBatch;
 import net.ladenthin.bitcoinaddressfinder.io.SeparatorFormat;
 import net.ladenthin.bitcoinaddressfinder.persistence.AddressIterable;
 import net.ladenthin.bitcoinaddressfinder.persistence.Persistence;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.addressfile.SortedAddressFile;
+import net.ladenthin.bitcoinaddressfinder.persistence.addressfile.SortedAddressFileOutputStream;
 import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
 import net.ladenthin.bitcoinaddressfinder.util.ByteConversion;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
@@ -374,13 +380,38 @@ public class LMDBPersistence implements Persistence, AddressIterable {
      */
     @Override
     public Stream<ByteBuffer> addresses() {
+        return addresses(KeyRange.all());
+    }
+
+    /**
+     * Streams the stored hash160 entries in {@code [fromInclusive, toExclusive)}. The cursor is
+     * positioned on the first key of the range and stops at its end, so a range costs only the
+     * entries it contains. Same buffer and closing rules as {@link #addresses()}.
+     */
+    @Override
+    public Stream<ByteBuffer> addresses(byte @Nullable [] fromInclusive, byte @Nullable [] toExclusive) {
+        return addresses(keyRange(fromInclusive, toExclusive));
+    }
+
+    private static KeyRange<ByteBuffer> keyRange(byte @Nullable [] fromInclusive, byte @Nullable [] toExclusive) {
+        // LMDB requires direct buffers for the range bounds.
+        ByteBufferUtility direct = new ByteBufferUtility(true);
+        @Nullable ByteBuffer from = fromInclusive == null ? null : direct.byteArrayToByteBuffer(fromInclusive);
+        @Nullable ByteBuffer to = toExclusive == null ? null : direct.byteArrayToByteBuffer(toExclusive);
+        if (from == null) {
+            return to == null ? KeyRange.all() : KeyRange.lessThan(to);
+        }
+        return to == null ? KeyRange.atLeast(from) : KeyRange.closedOpen(from, to);
+    }
+
+    private Stream<ByteBuffer> addresses(KeyRange<ByteBuffer> range) {
         Env<ByteBuffer> localEnv = Objects.requireNonNull(env);
         Dbi<ByteBuffer> localLmdb_h160ToAmount = Objects.requireNonNull(lmdb_h160ToAmount);
 
         Txn<ByteBuffer> txn = localEnv.txnRead();
         CursorIterable<ByteBuffer> iterable;
         try {
-            iterable = localLmdb_h160ToAmount.iterate(txn, KeyRange.all());
+            iterable = localLmdb_h160ToAmount.iterate(txn, range);
         } catch (RuntimeException e) {
             txn.close();
             throw e;
@@ -418,43 +449,114 @@ public class LMDBPersistence implements Persistence, AddressIterable {
     @Override
     public void writeAllAmountsToAddressFile(
             File file, CAddressFileOutputFormat addressFileOutputFormat, AtomicBoolean shouldRun) throws IOException {
+        if (addressFileOutputFormat == CAddressFileOutputFormat.SortedBinaryHash160WithAmount) {
+            try (OutputStream out = new SortedAddressFileOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+                appendRecords(null, null, out, shouldRun);
+            }
+            return;
+        }
+        try (FileWriter writer = new FileWriter(file, java.nio.charset.StandardCharsets.UTF_8)) {
+            appendAmounts(null, null, addressFileOutputFormat, writer, shouldRun);
+        }
+    }
+
+    /**
+     * Writes the entries in {@code [fromInclusive, toExclusive)} to {@code out} in key order as
+     * {@link SortedAddressFile} records: the 20-byte hash160 followed by the 8-byte amount. Each call
+     * reads in its own transaction, so several ranges can be written concurrently.
+     *
+     * @param fromInclusive the first key of the range, {@code null} for the start of the database
+     * @param toExclusive   the key the range stops before, {@code null} for the end of the database
+     * @param out           the sink for the records
+     * @param shouldRun     cancellation flag checked between rows
+     * @throws IOException if writing to {@code out} fails or a stored key is not a hash160
+     */
+    public void appendRecords(
+            byte @Nullable [] fromInclusive, byte @Nullable [] toExclusive, OutputStream out, AtomicBoolean shouldRun)
+            throws IOException {
         Dbi<ByteBuffer> localLmdb_h160ToAmount = Objects.requireNonNull(lmdb_h160ToAmount);
         Env<ByteBuffer> localEnv = Objects.requireNonNull(env);
 
-        try (Txn<ByteBuffer> txn = localEnv.txnRead()) {
-            try (CursorIterable<ByteBuffer> iterable = localLmdb_h160ToAmount.iterate(txn, KeyRange.all())) {
-                try (FileWriter writer = new FileWriter(file, java.nio.charset.StandardCharsets.UTF_8)) {
-                    for (final CursorIterable.KeyVal<ByteBuffer> kv : iterable) {
-                        if (!shouldRun.get()) {
-                            return;
-                        }
-                        ByteBuffer addressAsByteBuffer = kv.key();
-                        if (LOGGER.isTraceEnabled()) {
-                            String hexFromByteBuffer =
-                                    new ByteBufferUtility(false).getHexFromByteBuffer(addressAsByteBuffer);
-                            LOGGER.trace("Process address: " + hexFromByteBuffer);
-                        }
-                        LegacyAddress address = keyUtility.byteBufferToAddress(addressAsByteBuffer);
-                        final String line =
-                                switch (addressFileOutputFormat) {
-                                    case HexHash -> Hex.encodeHexString(address.getHash()) + System.lineSeparator();
-                                    case FixedWidthBase58BitcoinAddress ->
-                                        String.format("%-34s", address.toBase58()) + System.lineSeparator();
-                                    case DynamicWidthBase58BitcoinAddressWithAmount -> {
-                                        ByteBuffer value = kv.val();
-                                        Coin coin = getCoinFromByteBuffer(value);
-                                        yield address.toBase58()
-                                                + SeparatorFormat.COMMA.getSymbol()
-                                                + coin.getValue()
-                                                + System.lineSeparator();
-                                    }
-                                    default ->
-                                        throw new IllegalArgumentException(
-                                                "Unknown addressFileOutputFormat: " + addressFileOutputFormat);
-                                };
-                        writer.write(line);
-                    }
+        final byte[] record = new byte[SortedAddressFile.RECORD_SIZE];
+        final ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+        try (Txn<ByteBuffer> txn = localEnv.txnRead();
+                CursorIterable<ByteBuffer> iterable =
+                        localLmdb_h160ToAmount.iterate(txn, keyRange(fromInclusive, toExclusive))) {
+            for (final CursorIterable.KeyVal<ByteBuffer> kv : iterable) {
+                if (!shouldRun.get()) {
+                    return;
+                }
+                ByteBuffer key = kv.key();
+                if (key.remaining() != SortedAddressFile.HASH160_LENGTH) {
+                    throw new IOException("Stored key of " + key.remaining() + " bytes is not a hash160");
+                }
+                key.get(key.position(), record, 0, SortedAddressFile.HASH160_LENGTH);
+                recordBuffer.putLong(SortedAddressFile.HASH160_LENGTH, getCoinFromByteBuffer(kv.val()).getValue());
+                out.write(record);
+            }
+        }
+    }
+
+    /**
+     * Appends the entries in {@code [fromInclusive, toExclusive)} to {@code out} in key order, one line
+     * each in the given output format, as {@link #writeAllAmountsToAddressFile} writes them. Each call
+     * reads in its own transaction, so several ranges can be formatted concurrently. The binary
+     * {@link CAddressFileOutputFormat#SortedBinaryHash160WithAmount} is written by
+     * {@link #appendRecords} instead.
+     *
+     * @param fromInclusive           the first key of the range, {@code null} for the start of the database
+     * @param toExclusive             the key the range stops before, {@code null} for the end of the database
+     * @param addressFileOutputFormat the output format
+     * @param out                     the sink for the lines
+     * @param shouldRun               cancellation flag checked between rows
+     * @throws IOException if appending to {@code out} fails
+     * @throws IllegalArgumentException for the binary output format
+     */
+    public void appendAmounts(
+            byte @Nullable [] fromInclusive,
+            byte @Nullable [] toExclusive,
+            CAddressFileOutputFormat addressFileOutputFormat,
+            Appendable out,
+            AtomicBoolean shouldRun)
+            throws IOException {
+        Dbi<ByteBuffer> localLmdb_h160ToAmount = Objects.requireNonNull(lmdb_h160ToAmount);
+        Env<ByteBuffer> localEnv = Objects.requireNonNull(env);
+
+        try (Txn<ByteBuffer> txn = localEnv.txnRead();
+                CursorIterable<ByteBuffer> iterable =
+                        localLmdb_h160ToAmount.iterate(txn, keyRange(fromInclusive, toExclusive))) {
+            for (final CursorIterable.KeyVal<ByteBuffer> kv : iterable) {
+                if (!shouldRun.get()) {
+                    return;
+                }
+                ByteBuffer addressAsByteBuffer = kv.key();
+                if (LOGGER.isTraceEnabled()) {
+                    String hexFromByteBuffer = new ByteBufferUtility(false).getHexFromByteBuffer(addressAsByteBuffer);
+                    LOGGER.trace("Process address: " + hexFromByteBuffer);
                 }
+                LegacyAddress address = keyUtility.byteBufferToAddress(addressAsByteBuffer);
+                final String line =
+                        switch (addressFileOutputFormat) {
+                            case HexHash -> Hex.encodeHexString(address.getHash()) + System.lineSeparator();
+                            case FixedWidthBase58BitcoinAddress ->
+                                String.format("%-34s", address.toBase58()) + System.lineSeparator();
+                            case DynamicWidthBase58BitcoinAddressWithAmount -> {
+                                ByteBuffer value = kv.val();
+                                Coin coin = getCoinFromByteBuffer(value);
+                                yield address.toBase58()
+                                        + SeparatorFormat.COMMA.getSymbol()
+                                        + coin.getValue()
+                                        + System.lineSeparator();
+                            }
+                            case SortedBinaryHash160WithAmount ->
+                                throw new IllegalArgumentException(
+                                        "Binary output format is not text: " + addressFileOutputFormat);
+                            default ->
+                                throw new IllegalArgumentException(
+                                        "Unknown addressFileOutputFormat: " + addressFileOutputFormat);
+                        };
+                out.append(line);
             }
         }
     }
@@ -565,6 +667,106 @@ public class LMDBPersistence implements Persistence, AddressIterable {
         }
     }
 
+    /**
+     * Writes a primitive {@link AddressBatch} in a single write transaction, like
+     * {@link #putNewAmounts(List, List)} but without a {@link ByteBuffer} or {@link Coin} per entry: one
+     * direct key and one direct value buffer are refilled for every entry.
+     *
+     * <p>Not thread-safe: LMDB permits only one write transaction at a time, so a single writer thread
+     * must own all calls.
+     *
+     * @param batch the entries to write, in order
+     */
+    public void putNewAmounts(AddressBatch batch) {
+        CLMDBConfigurationWrite localLmdbConfigurationWrite = Objects.requireNonNull(lmdbConfigurationWrite);
+
+        try {
+            putNewAmountsUnsafe(batch);
+        } catch (org.lmdbjava.Env.MapFullException e) {
+            if (localLmdbConfigurationWrite.increaseMapAutomatically) {
+                increaseDatabaseSize(new ByteConversion().mibToBytes(lmdbConfigurationWrite.increaseSizeInMiB));
+                putNewAmountsUnsafe(batch);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private void putNewAmountsUnsafe(AddressBatch batch) {
+        CLMDBConfigurationWrite localLmdbConfigurationWrite = Objects.requireNonNull(lmdbConfigurationWrite);
+        Dbi<ByteBuffer> localLmdb_h160ToAmount = Objects.requireNonNull(lmdb_h160ToAmount);
+        Env<ByteBuffer> localEnv = Objects.requireNonNull(env);
+
+        // LMDB copies key and value on put, so both buffers can be refilled for the next entry.
+        ByteBuffer hash160 = ByteBuffer.allocateDirect(AddressBatch.HASH160_BYTES);
+        ByteBuffer value = ByteBuffer.allocateDirect(Long.BYTES);
+        byte[] hash160s = batch.hash160s();
+        try (Txn<ByteBuffer> txn = localEnv.txnWrite()) {
+            for (int i = 0; i < batch.size(); i++) {
+                hash160.clear();
+                hash160.put(hash160s, i * AddressBatch.HASH160_BYTES, AddressBatch.HASH160_BYTES).flip();
+                long amount = batch.amount(i);
+                if (localLmdbConfigurationWrite.deleteEmptyAddresses && amount == 0L) {
+                    localLmdb_h160ToAmount.delete(txn, hash160);
+                } else {
+                    long amountAsLong = localLmdbConfigurationWrite.useStaticAmount
+                            ? localLmdbConfigurationWrite.staticAmount
+                            : amount;
+                    value.clear();
+                    value.putLong(amountAsLong).flip();
+                    localLmdb_h160ToAmount.put(txn, hash160, value);
+                }
+            }
+            txn.commit();
+        }
+    }
+
+    /**
+     * Removes the hash160s of a {@link AddressBatch} in a single write transaction; the amounts are
+     * ignored and hash160s that are not stored are skipped. On a full map the whole batch is retried
+     * after growing the map, as deleting can still need fresh pages for the copy-on-write B-tree.
+     *
+     * <p>Not thread-safe: LMDB permits only one write transaction at a time, so a single writer thread
+     * must own all calls.
+     *
+     * @param batch the hash160s to remove
+     * @return the number of hash160s that were stored and are now removed
+     */
+    public int deleteAddresses(AddressBatch batch) {
+        CLMDBConfigurationWrite localLmdbConfigurationWrite = Objects.requireNonNull(lmdbConfigurationWrite);
+
+        try {
+            return deleteAddressesUnsafe(batch);
+        } catch (org.lmdbjava.Env.MapFullException e) {
+            if (localLmdbConfigurationWrite.increaseMapAutomatically) {
+                increaseDatabaseSize(new ByteConversion().mibToBytes(lmdbConfigurationWrite.increaseSizeInMiB));
+                return deleteAddressesUnsafe(batch);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+    private int deleteAddressesUnsafe(AddressBatch batch) {
+        Dbi<ByteBuffer> localLmdb_h160ToAmount = Objects.requireNonNull(lmdb_h160ToAmount);
+        Env<ByteBuffer> localEnv = Objects.requireNonNull(env);
+
+        ByteBuffer hash160 = ByteBuffer.allocateDirect(AddressBatch.HASH160_BYTES);
+        byte[] hash160s = batch.hash160s();
+        int deleted = 0;
+        try (Txn<ByteBuffer> txn = localEnv.txnWrite()) {
+            for (int i = 0; i < batch.size(); i++) {
+                hash160.clear();
+                hash160.put(hash160s, i * AddressBatch.HASH160_BYTES, AddressBatch.HASH160_BYTES).flip();
+                if (localLmdb_h160ToAmount.delete(txn, hash160)) {
+                    deleted++;
+                }
+            }
+            txn.commit();
+        }
+        return deleted;
+    }
+
     /** Applies one hash160/amount to the open transaction (respecting deleteEmptyAddresses/useStaticAmount). */
     private void applyEntry(
             CLMDBConfigurationWrite config, Dbi<ByteBuffer> dbi, Txn<ByteBuffer> txn, ByteBuffer hash160, Coin amount) {
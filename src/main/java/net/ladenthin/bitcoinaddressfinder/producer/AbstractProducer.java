@@ -12,6 +12,9 @@ import net.ladenthin.bitcoinaddressfinder.configuration.CProducer;
 import net.ladenthin.bitcoinaddressfinder.consumer.Consumer;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducer;
 import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStage;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTrace;
 import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
@@ -211,6 +214,9 @@ public abstract class AbstractProducer implements Producer {
     @Override
     public void produceKeys() throws Exception {
         try {
+            final long batchId = BatchTrace.startBatch();
+            final BatchStageEvent createSecretsEvent = new BatchStageEvent();
+            createSecretsEvent.begin();
             BigInteger[] secrets;
             try {
                 secrets = keyProducer.createSecrets(
@@ -220,6 +226,7 @@ public abstract class AbstractProducer implements Producer {
                 interrupt();
                 return;
             }
+            createSecretsEvent.finish(batchId, BatchStage.CREATE_SECRETS, secrets.length, null, producerLabel());
 
             // assert the requested secrets array fulfill its request parameter
             if (cProducer.batchUsePrivateKeyIncrement) {
@@ -242,6 +249,13 @@ public abstract class AbstractProducer implements Producer {
         }
     }
 
+    /**
+     * Counts the batch and hands it to {@link #processSecretBase(BigInteger)} or
+     * {@link #processSecrets(BigInteger[])}. The batch is traced under the calling thread's current
+     * batch, see {@link BatchTrace#startBatch()}.
+     *
+     * @param secrets the secrets of one batch
+     */
     void consumeSecrets(BigInteger... secrets) {
         String producerLabel = producerLabel();
         runtimeStatistics.incrementBatches(producerLabel);
@@ -250,7 +264,11 @@ public abstract class AbstractProducer implements Producer {
             // so the candidate count is the grid size, not secrets.length.
             runtimeStatistics.addGeneratedKeys(producerLabel, cProducer.getOverallWorkSize());
             BigInteger secret = secrets[0];
+            final BatchStageEvent createSecretBaseEvent = new BatchStageEvent();
+            createSecretBaseEvent.begin();
             BigInteger secretBase = createSecretBase(secret, cProducer.logSecretBase);
+            createSecretBaseEvent.finish(BatchTrace.currentBatch(), BatchStage.CREATE_SECRET_BASE,
+                    cProducer.getOverallWorkSize(), secretBase, producerLabel);
             processSecretBase(secretBase);
         } else {
             // Non-increment: each supplied secret is one candidate. Counting the candidates that
@@ -9,6 +9,9 @@ import net.ladenthin.bitcoinaddressfinder.configuration.CProducerJava;
 import net.ladenthin.bitcoinaddressfinder.consumer.Consumer;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducer;
 import net.ladenthin.bitcoinaddressfinder.model.PublicKeyBytes;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStage;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTrace;
 import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
@@ -51,7 +54,11 @@ public class ProducerJava extends AbstractProducer {
     @Override
     public void processSecretBase(BigInteger secretBase) {
         try {
+            final BatchStageEvent deriveKeysEvent = new BatchStageEvent();
+            deriveKeysEvent.begin();
             PublicKeyBytes[] publicKeyBytesArray = createGrid(secretBase);
+            deriveKeysEvent.finish(BatchTrace.currentBatch(), BatchStage.DERIVE_KEYS, publicKeyBytesArray.length,
+                    secretBase, producerLabel());
             consumer.consumeKeys(publicKeyBytesArray, secretBase);
         } catch (Exception e) {
             logErrorInProduceKeys(e, secretBase);
@@ -61,10 +68,14 @@ public class ProducerJava extends AbstractProducer {
     @Override
     public void processSecrets(BigInteger[] secrets) {
         try {
+            final BatchStageEvent deriveKeysEvent = new BatchStageEvent();
+            deriveKeysEvent.begin();
             PublicKeyBytes[] publicKeyBytesArray = new PublicKeyBytes[secrets.length];
             for (int i = 0; i < secrets.length; i++) {
                 publicKeyBytesArray[i] = PublicKeyBytes.fromPrivate(secrets[i]);
             }
+            deriveKeysEvent.finish(BatchTrace.currentBatch(), BatchStage.DERIVE_KEYS, publicKeyBytesArray.length,
+                    null, producerLabel());
             // Independent secrets, so there is no common base to report.
             consumer.consumeKeys(publicKeyBytesArray, null);
         } catch (Exception e) {
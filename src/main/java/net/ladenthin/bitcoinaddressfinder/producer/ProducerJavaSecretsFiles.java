@@ -6,6 +6,7 @@ package net.ladenthin.bitcoinaddressfinder.producer;
 import java.io.File;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import net.ladenthin.bitcoinaddressfinder.configuration.CProducerJavaSecretsFiles;
@@ -13,6 +14,7 @@ import net.ladenthin.bitcoinaddressfinder.consumer.Consumer;
 import net.ladenthin.bitcoinaddressfinder.io.FileHelper;
 import net.ladenthin.bitcoinaddressfinder.io.SecretsFile;
 import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducer;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTrace;
 import net.ladenthin.bitcoinaddressfinder.statistics.ReadStatistic;
 import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
@@ -26,6 +28,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Producer that reads secret values from one or more files and forwards them through the consumer.
+ *
+ * <p>With {@code batchUsePrivateKeyIncrement} every secret is the base of its own grid, which is
+ * already a full batch. Without it the secrets are independent keys and are collected into batches
+ * of {@link CProducerJavaSecretsFiles#getOverallWorkSize()}, so a file costs one queue hand-off and
+ * one result per batch instead of per line; the remainder is flushed when reading ends.
  */
 public class ProducerJavaSecretsFiles extends ProducerJava {
 
@@ -40,6 +47,12 @@ public class ProducerJavaSecretsFiles extends ProducerJava {
     @NonNull
     AtomicReference<@Nullable SecretsFile> currentSecretsFile = new AtomicReference<>();
 
+    /** Independent secrets collected for the next batch; guarded by {@code this}. */
+    private BigInteger @Nullable [] pendingSecrets;
+
+    /** Number of secrets in {@link #pendingSecrets}; guarded by {@code this}. */
+    private int pendingCount;
+
     /**
      * Creates a new secrets-file producer.
      *
@@ -68,28 +81,100 @@ public class ProducerJavaSecretsFiles extends ProducerJava {
         fileHelper.assertFilesExists(files);
 
         LOGGER.info("Starting secrets file processing...");
-        for (File file : files) {
-            if (!shouldRun.get()) {
-                LOGGER.info("Key production stopped by flag.");
-                break;
-            }
-            SecretsFile secretsFile = new SecretsFile(
-                    network, file, producerJavaSecretsFiles.secretFormat, readStatistic, this::consumeSecrets);
+        try {
+            for (File file : files) {
+                if (!shouldRun.get()) {
+                    LOGGER.info("Key production stopped by flag.");
+                    break;
+                }
+                SecretsFile secretsFile = new SecretsFile(
+                        network,
+                        file,
+                        producerJavaSecretsFiles.secretFormat,
+                        readStatistic,
+                        this::acceptSecrets,
+                        producerJavaSecretsFiles.readThreads);
 
-            LOGGER.info("Processing secrets file: {}", file);
-            currentSecretsFile.set(secretsFile);
-            secretsFile.readFile();
-            currentSecretsFile.set(null);
-            LOGGER.info("Finished processing: {}", file);
+                LOGGER.info("Processing secrets file: {}", file);
+                currentSecretsFile.set(secretsFile);
+                secretsFile.readFile();
+                currentSecretsFile.set(null);
+                LOGGER.info("Finished processing: {}", file);
 
-            logProgress();
+                logProgress();
+            }
+        } finally {
+            // Also on interruption or a read failure: the secrets already read are still worth checking.
+            flushPendingSecrets();
         }
         LOGGER.info("All secrets files processed.");
     }
 
-    @Override
-    public void processSecrets(BigInteger[] secrets) {
-        throw new UnsupportedOperationException("Not supported yet.");
+    /**
+     * Receives the secrets of one line: a grid base is consumed right away, an independent secret is
+     * added to the pending batch, which is consumed once full. Called concurrently when the file is
+     * read with several threads; only collecting is serialized, the key derivation of a full batch
+     * runs on the thread that completed it.
+     *
+     * @param secrets the secrets read from one line
+     */
+    void acceptSecrets(BigInteger[] secrets) {
+        if (producerJavaSecretsFiles.batchUsePrivateKeyIncrement) {
+            BatchTrace.startBatch();
+            consumeSecrets(secrets);
+            return;
+        }
+        for (BigInteger secret : secrets) {
+            final BigInteger @Nullable [] fullBatch = addPendingSecret(secret);
+            if (fullBatch != null) {
+                consumePendingBatch(fullBatch);
+            }
+        }
+    }
+
+    /**
+     * Adds a secret to the pending batch.
+     *
+     * @param secret the secret
+     * @return the batch if the secret completed it, otherwise {@code null}
+     */
+    private synchronized BigInteger @Nullable [] addPendingSecret(BigInteger secret) {
+        final int overallWorkSize = producerJavaSecretsFiles.getOverallWorkSize();
+        BigInteger @Nullable [] pending = pendingSecrets;
+        if (pending == null) {
+            pending = new BigInteger[overallWorkSize];
+            pendingSecrets = pending;
+        }
+        pending[pendingCount++] = secret;
+        if (pendingCount < overallWorkSize) {
+            return null;
+        }
+        pendingSecrets = null;
+        pendingCount = 0;
+        return pending;
+    }
+
+    /** Consumes the pending secrets as one batch, which is shorter than a full one at the end. */
+    private void flushPendingSecrets() {
+        final BigInteger @Nullable [] batch;
+        synchronized (this) {
+            final BigInteger @Nullable [] pending = pendingSecrets;
+            if (pending == null || pendingCount == 0) {
+                return;
+            }
+            batch = Arrays.copyOf(pending, pendingCount);
+            pendingSecrets = null;
+            pendingCount = 0;
+        }
+        consumePendingBatch(batch);
+    }
+
+    private void consumePendingBatch(BigInteger[] batch) {
+        // One out-of-range line must not make fromPrivate fail the whole batch.
+        privateKeyValidator.replaceInvalidPrivateKeys(batch);
+        // Started on the thread that completed the batch, which is the one consuming it.
+        BatchTrace.startBatch();
+        consumeSecrets(batch);
     }
 
     private void logProgress() {
@@ -15,6 +15,10 @@ import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducer;
 import net.ladenthin.bitcoinaddressfinder.model.PublicKeyBytes;
 import net.ladenthin.bitcoinaddressfinder.opencl.OpenCLContext;
 import net.ladenthin.bitcoinaddressfinder.opencl.OpenCLGridResult;
+import net.ladenthin.bitcoinaddressfinder.opencl.OpenClTask;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStage;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTrace;
 import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
@@ -152,6 +156,38 @@ public class ProducerOpenCL extends AbstractProducer {
         return openCLContext != null;
     }
 
+    /**
+     * Returns the on-device kernel execution time of the most recently read-back launch.
+     *
+     * @return the time in nanoseconds, or {@link OpenClTask#PROFILING_NOT_AVAILABLE} unless
+     *     {@link CProducerOpenCL#enableProfiling} is set and a launch has been read back
+     */
+    public long getLastKernelExecutionNanos() {
+        final OpenCLContext localOpenCLContext = openCLContext;
+        if (localOpenCLContext == null) {
+            return OpenClTask.PROFILING_NOT_AVAILABLE;
+        }
+        return localOpenCLContext.getOpenClTask()
+                .map(OpenClTask::getLastKernelExecutionNanos)
+                .orElse(OpenClTask.PROFILING_NOT_AVAILABLE);
+    }
+
+    /**
+     * Returns the on-device result read-back time of the most recently read-back launch.
+     *
+     * @return the time in nanoseconds, or {@link OpenClTask#PROFILING_NOT_AVAILABLE} unless
+     *     {@link CProducerOpenCL#enableProfiling} is set and a launch has been read back
+     */
+    public long getLastResultReadbackNanos() {
+        final OpenCLContext localOpenCLContext = openCLContext;
+        if (localOpenCLContext == null) {
+            return OpenClTask.PROFILING_NOT_AVAILABLE;
+        }
+        return localOpenCLContext.getOpenClTask()
+                .map(OpenClTask::getLastResultReadbackNanos)
+                .orElse(OpenClTask.PROFILING_NOT_AVAILABLE);
+    }
+
     /**
      * Creates a new OpenCL producer with a default fixed-size result-reader thread pool
      * sized by {@code producerOpenCL.maxResultReaderThreads}.
@@ -266,9 +302,14 @@ public class ProducerOpenCL extends AbstractProducer {
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("openCLContext.createKeys for secretBase: " + secretBase);
                 }
+                final BatchStageEvent gpuLaunchEvent = new BatchStageEvent();
+                gpuLaunchEvent.begin();
                 OpenCLGridResult openCLGridResult = localOpenCLContext.createKeys(secretBase);
-                ResultReaderRunnable resultReaderRunnable =
-                        new ResultReaderRunnable(openCLGridResult, consumer, secretBase, this, submitSlot);
+                final long batchId = BatchTrace.currentBatch();
+                gpuLaunchEvent.finish(batchId, BatchStage.GPU_LAUNCH, cProducer.getOverallWorkSize(), secretBase,
+                        producerLabel());
+                ResultReaderRunnable resultReaderRunnable = new ResultReaderRunnable(
+                        openCLGridResult, consumer, secretBase, batchId, this, submitSlot);
 
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("submit resultReaderRunnable for secretBase: " + secretBase);
@@ -310,6 +351,8 @@ public class ProducerOpenCL extends AbstractProducer {
         private final OpenCLGridResult openCLGridResult;
         private final Consumer consumer;
         private final BigInteger secretBase;
+        /** The batch started on the producer thread; resumed on the reader thread for tracing. */
+        private final long batchId;
         private final AbstractProducer abstractProducer;
         private final Semaphore submitSlot;
 
@@ -317,11 +360,13 @@ public class ProducerOpenCL extends AbstractProducer {
                 OpenCLGridResult openCLGridResult,
                 Consumer consumer,
                 BigInteger secretBase,
+                long batchId,
                 AbstractProducer abstractProducer,
                 Semaphore submitSlot) {
             this.openCLGridResult = openCLGridResult;
             this.consumer = consumer;
             this.secretBase = secretBase;
+            this.batchId = batchId;
             this.abstractProducer = abstractProducer;
             this.submitSlot = submitSlot;
         }
@@ -331,7 +376,12 @@ public class ProducerOpenCL extends AbstractProducer {
             LOGGER.trace("ResultReaderRunnable started");
             try {
                 try {
+                    BatchTrace.resumeBatch(batchId);
+                    final BatchStageEvent readBackEvent = new BatchStageEvent();
+                    readBackEvent.begin();
                     PublicKeyBytes[] publicKeyBytesArray = openCLGridResult.getPublicKeyBytes();
+                    readBackEvent.finish(batchId, BatchStage.GPU_READ_BACK, publicKeyBytesArray.length, secretBase,
+                            abstractProducer.producerLabel());
                     consumer.consumeKeys(publicKeyBytesArray, secretBase);
                 } catch (Throwable e) {
                     abstractProducer.logErrorInProduceKeys(e, secretBase);
@@ -0,0 +1,73 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.secret;
+
+import java.util.Random;
+
+/**
+ * Positions a {@link java.util.Random} stream anywhere without drawing the values before it.
+ *
+ * <p>{@code java.util.Random} is a 48-bit linear congruential generator: every
+ * {@link Random#nextInt()} advances the state by {@code s' = (s * 0x5DEECE66D + 0xB) mod 2^48}. The
+ * {@code n}-th power of an affine map is itself affine and is found by repeated squaring, so the
+ * state after {@code n} draws costs {@code O(log n)} instead of {@code O(n)}. Replaying a weak wallet's
+ * {@code k}-th key for a seed therefore does not depend on {@code k}.
+ */
+public final class JavaRandomFastForward {
+
+    /** The LCG multiplier of {@link java.util.Random}. */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+
+    /** The LCG addend of {@link java.util.Random}. */
+    private static final long ADDEND = 0xBL;
+
+    /** The 48-bit state mask of {@link java.util.Random}. */
+    private static final long MASK = (1L << 48) - 1;
+
+    private JavaRandomFastForward() {
+        // utility class; not instantiable.
+    }
+
+    /**
+     * Returns a generator in the state {@code new Random(seed)} reaches after {@code steps} calls to
+     * {@link Random#nextInt()}.
+     *
+     * @param seed  the seed as passed to {@link Random#Random(long)}
+     * @param steps the number of {@code nextInt()} calls to skip, not negative
+     * @return a new generator positioned after the skipped calls
+     */
+    public static Random positioned(long seed, long steps) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("steps must not be negative but was " + steps);
+        }
+        long stepMultiplier = MULTIPLIER;
+        long stepAddend = ADDEND;
+        long multiplier = 1L;
+        long addend = 0L;
+        for (long remaining = steps; remaining != 0; remaining >>>= 1) {
+            if ((remaining & 1L) != 0) {
+                multiplier = (multiplier * stepMultiplier) & MASK;
+                addend = (addend * stepMultiplier + stepAddend) & MASK;
+            }
+            // square the step: x -> a(ax + c) + c
+            stepAddend = ((stepMultiplier + 1) * stepAddend) & MASK;
+            stepMultiplier = (stepMultiplier * stepMultiplier) & MASK;
+        }
+        final long state = (multiplier * ((seed ^ MULTIPLIER) & MASK) + addend) & MASK;
+        // Random(long) scrambles its argument with the multiplier; undo that to install the state.
+        return new Random(state ^ MULTIPLIER);
+    }
+
+    /**
+     * Returns how many {@link Random#nextInt()} calls {@link java.math.BigInteger#BigInteger(int, Random)}
+     * consumes: one per started four bytes of the requested bit length.
+     *
+     * @param bitLength the bit length of the secret
+     * @return the number of {@code nextInt()} calls per secret
+     */
+    public static int nextIntCallsPerSecret(int bitLength) {
+        final int bytes = (bitLength + Byte.SIZE - 1) / Byte.SIZE;
+        return (bytes + Integer.BYTES - 1) / Integer.BYTES;
+    }
+}
@@ -0,0 +1,48 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+/**
+ * The stages one batch passes on its way from the key producer to the result listeners, in pipeline
+ * order. Each is recorded as a {@link BatchStageEvent}.
+ *
+ * <p>A batch passes either {@link #DERIVE_KEYS} (CPU producers) or {@link #GPU_LAUNCH} and
+ * {@link #GPU_READ_BACK} (OpenCL producers), never both. A batch the consumer splits into chunks
+ * passes {@link #QUEUE_WAIT} and {@link #CHECK} once per chunk.
+ */
+public enum BatchStage {
+    /** {@code KeyProducer.createSecrets}: drawing the secrets of the batch. */
+    CREATE_SECRETS("the key producer; a cheaper keyProducer strategy or batchUsePrivateKeyIncrement helps"),
+    /** {@code AbstractProducer.createSecretBase}: aligning the secret to the grid. */
+    CREATE_SECRET_BASE("aligning the secret base, which should never dominate; please report it"),
+    /** Deriving the public keys and hashes of the batch on the CPU. */
+    DERIVE_KEYS("CPU key derivation; add producerJava entries or move the work to producerOpenCL"),
+    /** {@code OpenCLContext.createKeys}: uploading the base and running the kernel. */
+    GPU_LAUNCH("the GPU kernel; tune batchSizeInBits and keysPerWorkItem with TuneConfiguration"),
+    /** {@code OpenCLGridResult.getPublicKeyBytes}: reading the results back and unpacking them. */
+    GPU_READ_BACK("reading GPU results back; a GPU pre-filter (gpuFilterType) shrinks the transfer"),
+    /** {@code Consumer.consumeKeys}: handing the batch to the keys queue, including waits on a full queue. */
+    ENQUEUE("a full keys queue; the consumer cannot keep up, raise consumerJava.threads"),
+    /** The time a batch or chunk spends in the keys queue until a consumer thread takes it. */
+    QUEUE_WAIT("waiting for a free consumer thread; raise consumerJava.threads or lower batchChunkSize"),
+    /** The address lookups of a batch or chunk in the consumer. */
+    CHECK("address lookups; a faster addressLookupBackend or a GPU pre-filter helps"),
+    /** Notifying the result listeners of a checked batch. */
+    NOTIFY("the result listeners; a slow broadcaster client holds up the consumer thread");
+
+    private final String bottleneckHint;
+
+    BatchStage(String bottleneckHint) {
+        this.bottleneckHint = bottleneckHint;
+    }
+
+    /**
+     * Returns what it means when this stage dominates the critical path, and what to try.
+     *
+     * @return a one-line hint
+     */
+    public String bottleneckHint() {
+        return bottleneckHint;
+    }
+}
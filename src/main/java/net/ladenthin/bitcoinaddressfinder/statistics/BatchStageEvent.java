@@ -0,0 +1,90 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import java.math.BigInteger;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Java Flight Recorder event for one {@link BatchStage} of one batch.
+ *
+ * <p>Usage follows the JFR idiom: create, {@link #begin()}, do the work, then
+ * {@link #finish(long, BatchStage, int, BigInteger, String)}. While no recording has the event
+ * enabled, {@code begin} and {@code finish} are no-ops that the JIT removes along with the
+ * allocation, and the fields — the hex secret base in particular — are never filled.
+ *
+ * <p>Record with e.g. {@code -XX:StartFlightRecording=filename=trace.jfr} and analyze the file with
+ * the {@code AnalyzeBatchTrace} command.
+ */
+@Name(BatchStageEvent.NAME)
+@Label("Batch Stage")
+@Category({"BitcoinAddressFinder", "Pipeline"})
+@Description("One stage of one batch on its way from the key producer to the result listeners.")
+// One event per stage and batch; a stack trace would cost more than the event itself.
+@StackTrace(false)
+public class BatchStageEvent extends Event {
+
+    /** Name of the event type in a recording. */
+    public static final String NAME = "net.ladenthin.bitcoinaddressfinder.BatchStage";
+
+    /** Name of the {@code batchId} field. */
+    public static final String FIELD_BATCH_ID = "batchId";
+
+    /** Name of the {@code stage} field. */
+    public static final String FIELD_STAGE = "stage";
+
+    @Label("Batch Id")
+    @Description("Identifies the batch across stages and threads; 0 if the batch was not started by a producer.")
+    long batchId;
+
+    @Label("Stage")
+    @Description("The BatchStage the duration belongs to.")
+    @Nullable
+    String stage;
+
+    @Label("Producer")
+    @Description("The producer label as shown in the statistics line; empty for consumer stages.")
+    @Nullable
+    String producer;
+
+    @Label("Secret Base")
+    @Description("The aligned start of the swept grid in hex; empty for a batch of independent secrets.")
+    @Nullable
+    String secretBase;
+
+    @Label("Keys")
+    @Description("Candidate keys this stage handled: the batch, or the chunk for a split batch.")
+    int keys;
+
+    /** Creates an event; call {@link #begin()} right before the timed work. */
+    public BatchStageEvent() {}
+
+    /**
+     * Ends the timed work and commits the event if a recording wants it.
+     *
+     * @param batchId    the batch, see {@link BatchTrace}
+     * @param stage      the stage that was timed
+     * @param keys       the candidate keys the stage handled
+     * @param secretBase the aligned start of the swept grid, or {@code null}
+     * @param producer   the producer label, or {@code null} for consumer stages
+     */
+    public void finish(
+            long batchId, BatchStage stage, int keys, @Nullable BigInteger secretBase, @Nullable String producer) {
+        end();
+        if (shouldCommit()) {
+            this.batchId = batchId;
+            this.stage = stage.name();
+            this.keys = keys;
+            this.secretBase = secretBase == null ? null : secretBase.toString(16);
+            this.producer = producer;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the batch ids that tie the {@link BatchStageEvent}s of one batch together.
+ *
+ * <p>A producer starts a batch on its own thread and everything up to the keys queue runs on that
+ * thread, so the id travels as the thread's current batch instead of through every
+ * {@code processSecretBase} and {@code consumeKeys} signature. Where the batch changes threads — the
+ * OpenCL result reader, the queue — the id is carried along explicitly and
+ * {@link #resumeBatch(long) resumed}. A thread-local rather than a producer field, because
+ * {@code ProducerJavaSecretsFiles} completes batches on several reader threads at once.
+ */
+public final class BatchTrace {
+
+    /** The id of a batch no producer started, e.g. one handed to a consumer directly in a test. */
+    public static final long NO_BATCH = 0L;
+
+    private static final AtomicLong LAST_BATCH_ID = new AtomicLong(NO_BATCH);
+
+    /** A one-element array rather than a {@code Long}, so setting it per batch does not box. */
+    private static final ThreadLocal<long[]> CURRENT_BATCH = ThreadLocal.withInitial(() -> new long[] {NO_BATCH});
+
+    private BatchTrace() {}
+
+    /**
+     * Assigns the next batch id and makes it the current batch of the calling thread.
+     *
+     * @return the new batch id, never {@link #NO_BATCH}
+     */
+    public static long startBatch() {
+        final long batchId = LAST_BATCH_ID.incrementAndGet();
+        CURRENT_BATCH.get()[0] = batchId;
+        return batchId;
+    }
+
+    /**
+     * Makes a batch started on another thread the current batch of the calling thread.
+     *
+     * @param batchId the id returned by {@link #startBatch()}
+     */
+    public static void resumeBatch(long batchId) {
+        CURRENT_BATCH.get()[0] = batchId;
+    }
+
+    /**
+     * Returns the current batch of the calling thread.
+     *
+     * @return the batch id, or {@link #NO_BATCH} if the thread never started or resumed one
+     */
+    public static long currentBatch() {
+        return CURRENT_BATCH.get()[0];
+    }
+}
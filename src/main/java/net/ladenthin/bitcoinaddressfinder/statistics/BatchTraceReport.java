@@ -0,0 +1,215 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Aggregates recorded {@link BatchStageEvent}s into a per-stage latency breakdown and names the stage
+ * that dominates the critical path.
+ *
+ * <p>The critical path of one batch is the sum, over its stages, of the longest event of each stage:
+ * the chunks of a split batch are checked in parallel, so only the slowest chunk holds the batch up.
+ * Summed over all batches, the stage with the largest share is the one to work on first. Events
+ * without a batch id count towards the per-stage latencies but not towards the critical path.
+ *
+ * <p>Latencies are kept in {@link LatencyHistogram} buckets, so memory stays bounded however long
+ * the recording, and each percentile is an upper bound within 25 %. Per batch, only the longest
+ * event of each stage and the batch's start and end are held.
+ */
+@ToString
+public class BatchTraceReport {
+
+    private static final BatchStage[] STAGES = BatchStage.values();
+
+    /** Per-stage latency histograms, indexed by {@link BatchStage#ordinal()}. */
+    @ToString.Exclude
+    private final long[][] stageNanos = new long[STAGES.length][LatencyHistogram.BUCKETS];
+
+    private final long[] stageMaxNanos = new long[STAGES.length];
+
+    private final long[] stageTotalNanos = new long[STAGES.length];
+
+    /** Per batch: the longest event per stage, and the earliest start and latest end of any stage. */
+    @ToString.Exclude
+    private final Map<Long, BatchSpan> batches = new HashMap<>();
+
+    private long events;
+
+    private long unknownStageEvents;
+
+    /** The longest event per stage of one batch, and when the batch started and ended. */
+    private static final class BatchSpan {
+        final long[] stageMaxNanos = new long[STAGES.length];
+        long startNanos = Long.MAX_VALUE;
+        long endNanos = Long.MIN_VALUE;
+    }
+
+    /** Creates an empty report. */
+    public BatchTraceReport() {}
+
+    /**
+     * Adds one recorded event.
+     *
+     * @param batchId       the batch id, or {@link BatchTrace#NO_BATCH}
+     * @param stage         the stage name; unknown names, e.g. from a newer version, are counted and skipped
+     * @param startNanos    the start of the event on any fixed time line, e.g. epoch nanoseconds
+     * @param durationNanos the duration of the event
+     */
+    public void add(long batchId, @Nullable String stage, long startNanos, long durationNanos) {
+        final @Nullable BatchStage batchStage = parseStage(stage);
+        if (batchStage == null) {
+            unknownStageEvents++;
+            return;
+        }
+        final long nanos = Math.max(0L, durationNanos);
+        final int index = batchStage.ordinal();
+        events++;
+        stageNanos[index][LatencyHistogram.bucketOf(nanos)]++;
+        stageTotalNanos[index] += nanos;
+        stageMaxNanos[index] = Math.max(stageMaxNanos[index], nanos);
+        if (batchId != BatchTrace.NO_BATCH) {
+            final BatchSpan span = batches.computeIfAbsent(batchId, id -> new BatchSpan());
+            span.stageMaxNanos[index] = Math.max(span.stageMaxNanos[index], nanos);
+            span.startNanos = Math.min(span.startNanos, startNanos);
+            span.endNanos = Math.max(span.endNanos, startNanos + nanos);
+        }
+    }
+
+    private static @Nullable BatchStage parseStage(@Nullable String stage) {
+        if (stage == null) {
+            return null;
+        }
+        try {
+            return BatchStage.valueOf(stage);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of events added with a known stage.
+     *
+     * @return the event count
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the stage with the largest share of the critical path, summed over all batches.
+     *
+     * @return the bottleneck, or {@code null} if no event carried a batch id
+     */
+    public @Nullable BatchStage getBottleneck() {
+        final long[] criticalPath = criticalPathNanos();
+        @Nullable BatchStage bottleneck = null;
+        long longest = 0L;
+        for (BatchStage stage : STAGES) {
+            if (criticalPath[stage.ordinal()] > longest) {
+                longest = criticalPath[stage.ordinal()];
+                bottleneck = stage;
+            }
+        }
+        return bottleneck;
+    }
+
+    private long[] criticalPathNanos() {
+        final long[] criticalPath = new long[STAGES.length];
+        for (BatchSpan span : batches.values()) {
+            for (int i = 0; i < STAGES.length; i++) {
+                criticalPath[i] += span.stageMaxNanos[i];
+            }
+        }
+        return criticalPath;
+    }
+
+    /**
+     * Renders the breakdown: one row per recorded stage, the end-to-end latency per batch and the
+     * bottleneck.
+     *
+     * @return the multi-line report
+     */
+    public String render() {
+        final StringBuilder out = new StringBuilder(1024);
+        out.append(String.format(Locale.ROOT, "Batch trace: %d events of %d batches.\n", events, batches.size()));
+        if (unknownStageEvents > 0) {
+            out.append(String.format(Locale.ROOT, "Skipped %d events of unknown stages.\n", unknownStageEvents));
+        }
+        if (events == 0) {
+            out.append("No ").append(BatchStageEvent.NAME).append(" events recorded.");
+            return out.toString();
+        }
+
+        final long[] criticalPath = criticalPathNanos();
+        long criticalPathTotal = 0L;
+        for (long nanos : criticalPath) {
+            criticalPathTotal += nanos;
+        }
+        out.append(String.format(Locale.ROOT, "%-18s %10s %10s %10s %10s %10s %14s\n",
+                "Stage", "Events", "Mean", "p50", "p99", "Max", "Critical path"));
+        for (BatchStage stage : STAGES) {
+            final int index = stage.ordinal();
+            final long count = LatencyHistogram.count(stageNanos[index]);
+            if (count == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.ROOT, "%-18s %10d %10s %10s %10s %10s %14s\n",
+                    stage.name(),
+                    count,
+                    Statistics.formatNanos(stageTotalNanos[index] / count),
+                    Statistics.formatNanos(quantile(stageNanos[index], 0.5, stageMaxNanos[index])),
+                    Statistics.formatNanos(quantile(stageNanos[index], 0.99, stageMaxNanos[index])),
+                    Statistics.formatNanos(stageMaxNanos[index]),
+                    percent(criticalPath[index], criticalPathTotal)));
+        }
+
+        final long[] endToEnd = new long[LatencyHistogram.BUCKETS];
+        long endToEndMax = 0L;
+        for (BatchSpan span : batches.values()) {
+            final long nanos = Math.max(0L, span.endNanos - span.startNanos);
+            endToEnd[LatencyHistogram.bucketOf(nanos)]++;
+            endToEndMax = Math.max(endToEndMax, nanos);
+        }
+        if (!batches.isEmpty()) {
+            out.append("End-to-end per batch: p50 ")
+                    .append(Statistics.formatNanos(quantile(endToEnd, 0.5, endToEndMax)))
+                    .append(", p99 ")
+                    .append(Statistics.formatNanos(quantile(endToEnd, 0.99, endToEndMax)))
+                    .append(", max ")
+                    .append(Statistics.formatNanos(endToEndMax))
+                    .append('\n');
+        }
+
+        final @Nullable BatchStage bottleneck = getBottleneck();
+        if (bottleneck == null) {
+            out.append("Bottleneck: unknown, no event carried a batch id.");
+        } else {
+            out.append("Bottleneck: ")
+                    .append(bottleneck.name())
+                    .append(" (")
+                    .append(percent(criticalPath[bottleneck.ordinal()], criticalPathTotal))
+                    .append(" of the critical path) - ")
+                    .append(bottleneck.bottleneckHint())
+                    .append('.');
+        }
+        return out.toString();
+    }
+
+    /** A bucket upper bound can lie above every recorded value; the exact maximum caps it. */
+    private static long quantile(long[] histogram, double quantile, long max) {
+        return Math.min(LatencyHistogram.quantile(histogram, quantile), max);
+    }
+
+    private static String percent(long part, long total) {
+        if (total == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.1f %%", 100.0 * part / total);
+    }
+}
@@ -0,0 +1,178 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.ToString;
+
+/**
+ * A log-bucketed latency histogram for one recording thread that samples every {@code n}-th event.
+ *
+ * <p>Values below 16 ns get a bucket each; above that every power of two is
+ * split into four buckets, so a recorded value is known to within 25 %. That is
+ * plenty for p50/p99/p999 and keeps the whole histogram in {@link #BUCKETS} counters.
+ *
+ * <p>Exactly one thread calls {@link #sampleNext()} and {@link #record(long)}: the counters are only
+ * ever incremented by that thread, so an ordered store is enough and no cache line is shared with
+ * other recording threads. Any thread may read the counters with {@link #addTo(long[])} at any time.
+ */
+@ToString
+public class LatencyHistogram {
+
+    /** Values below this many nanoseconds are counted exactly. */
+    static final int LINEAR_BUCKETS = 16;
+
+    /** Buckets per power of two above {@link #LINEAR_BUCKETS}. */
+    static final int SUB_BUCKETS = 4;
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    /** Power of two of {@link #LINEAR_BUCKETS}. */
+    private static final int LINEAR_BITS = 4;
+
+    /** Number of buckets, covering every non-negative {@code long}. */
+    public static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS;
+
+    // Hundreds of mostly-zero counters; the statistics line renders the percentiles instead.
+    @ToString.Exclude
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Exact sum of the recorded values, for the Prometheus {@code _sum} series. */
+    private final AtomicLong sumNanos = new AtomicLong();
+
+    private final int sampleInterval;
+
+    /** Events left until the next one is sampled; touched by the recording thread only. */
+    @ToString.Exclude
+    private int untilNextSample;
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param sampleInterval record one event in this many, at least {@code 1}
+     */
+    public LatencyHistogram(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("sampleInterval must be positive but was " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+        this.untilNextSample = sampleInterval;
+    }
+
+    /**
+     * Counts an event and returns whether it is the one in {@code sampleInterval} to be timed.
+     * Recording thread only.
+     *
+     * @return {@code true} if the caller should time this event and {@link #record(long)} it
+     */
+    public boolean sampleNext() {
+        if (--untilNextSample > 0) {
+            return false;
+        }
+        untilNextSample = sampleInterval;
+        return true;
+    }
+
+    /**
+     * Records one latency. Recording thread only.
+     *
+     * @param nanos the latency in nanoseconds; negative values (a clock step) count as {@code 0}
+     */
+    public void record(long nanos) {
+        final long value = Math.max(nanos, 0L);
+        final int bucket = bucketOf(value);
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        sumNanos.lazySet(sumNanos.get() + value);
+    }
+
+    /**
+     * Returns the exact sum of the recorded values; any thread may call it.
+     *
+     * @return the sum in nanoseconds
+     */
+    public long sumNanos() {
+        return sumNanos.get();
+    }
+
+    /**
+     * Adds this histogram's counters to {@code totals}, e.g. to merge the histograms of all
+     * recording threads.
+     *
+     * @param totals an array of {@link #BUCKETS} counters
+     */
+    public void addTo(long[] totals) {
+        for (int i = 0; i < BUCKETS; i++) {
+            totals[i] += counts.get(i);
+        }
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param nanos a non-negative value
+     * @return its bucket index
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < LINEAR_BUCKETS) {
+            return (int) nanos;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the largest value counted in it
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        final long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+
+    /**
+     * Returns the sum of all counters.
+     *
+     * @param totals merged counters, see {@link #addTo(long[])}
+     * @return the number of recorded values
+     */
+    public static long count(long[] totals) {
+        long count = 0;
+        for (long bucketCount : totals) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * Returns an upper bound of the given quantile: the largest value of the bucket holding it.
+     *
+     * @param totals   merged counters, see {@link #addTo(long[])}
+     * @param quantile the quantile, e.g. {@code 0.99}
+     * @return the quantile in nanoseconds, or {@code -1} if nothing was recorded
+     */
+    public static long quantile(long[] totals, double quantile) {
+        final long count = count(totals);
+        if (count == 0) {
+            return -1;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < totals.length; i++) {
+            seen += totals[i];
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(totals.length - 1);
+    }
+}
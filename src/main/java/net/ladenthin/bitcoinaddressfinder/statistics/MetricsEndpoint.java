@@ -0,0 +1,124 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import lombok.ToString;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A minimal HTTP server answering {@code GET /metrics} with {@link MetricsRegistry#scrape()}.
+ *
+ * <p>Built on the JDK's own {@code com.sun.net.httpserver}, so it adds no dependency. Requests are
+ * handled one at a time on the server's single dispatcher thread: a scrape is a few microseconds
+ * of string building every few seconds, and a single thread keeps a misbehaving client from
+ * stealing more than one core from the scan.
+ */
+@ToString
+public class MetricsEndpoint implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    /** Path the metrics are served under. */
+    public static final String PATH = "/metrics";
+
+    /** Content type of the Prometheus text exposition format. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final String bindAddress;
+    private final int port;
+
+    // Shared with the scraping side; its toString is the identity of a collection of lambdas.
+    @ToString.Exclude
+    private final MetricsRegistry registry;
+
+    // HttpServer toString is verbose internals; the bound port is logged on start.
+    @ToString.Exclude
+    private volatile @Nullable HttpServer server;
+
+    /**
+     * Creates an endpoint that is not yet listening.
+     *
+     * @param bindAddress the address to bind to, e.g. {@code "127.0.0.1"}
+     * @param port        the TCP port, or {@code 0} for a free one
+     * @param registry    the metrics to serve
+     */
+    public MetricsEndpoint(String bindAddress, int port, MetricsRegistry registry) {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("port must be between 0 and 65535 but was " + port);
+        }
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.registry = registry;
+    }
+
+    /**
+     * Binds the socket and starts serving.
+     *
+     * @throws IOException if the address cannot be bound, e.g. because the port is in use
+     */
+    public void start() throws IOException {
+        final HttpServer localServer = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        localServer.createContext(PATH, this::handle);
+        localServer.start();
+        server = localServer;
+        LOGGER.info("Serving metrics on http://{}:{}{}", bindAddress, getPort(), PATH);
+    }
+
+    /**
+     * Returns the port the endpoint listens on; differs from the configured one if that was {@code 0}.
+     *
+     * @return the bound port, or {@code -1} if the endpoint is not running
+     */
+    public int getPort() {
+        final HttpServer localServer = server;
+        return localServer == null ? -1 : localServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            final String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final byte[] body;
+            try {
+                body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                // A failing supplier must not take the endpoint down; the scraper records a failed scrape.
+                LOGGER.warn("Could not render metrics.", e);
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /** Stops serving and releases the socket; a no-op if the endpoint is not running. */
+    @Override
+    public void close() {
+        final HttpServer localServer = server;
+        if (localServer != null) {
+            server = null;
+            localServer.stop(0);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.ToString;
+
+/**
+ * Named counters and gauges rendered in the Prometheus text exposition format (version
+ * {@code 0.0.4}, which OpenMetrics scrapers accept as well).
+ *
+ * <p>A metric is registered once with a supplier and read only when it is rendered: the hot paths
+ * keep updating their own counters ({@code LongAdder}, {@code AtomicLong}, {@code volatile} fields)
+ * exactly as before, and nothing is copied or locked per event. Registration and rendering are
+ * thread-safe, so metrics can be added while an endpoint is already being scraped.
+ */
+@ToString
+public class MetricsRegistry {
+
+    /** Prefix of every metric name. */
+    public static final String PREFIX = "bitcoinaddressfinder_";
+
+    /** Quantiles rendered for a {@link LatencyHistogram}. */
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** Renders the samples of one metric below its {@code HELP} and {@code TYPE} lines. */
+    @FunctionalInterface
+    private interface SampleWriter {
+        void write(StringBuilder out, String name);
+    }
+
+    private record Metric(String name, String help, String type, SampleWriter samples) {}
+
+    // Suppliers are lambdas; their toString is identity noise.
+    @ToString.Exclude
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    /** Creates an empty {@link MetricsRegistry}. */
+    public MetricsRegistry() {}
+
+    /**
+     * Registers a monotonically increasing counter.
+     *
+     * @param name  the name without {@link #PREFIX}; by convention ends with {@code _total}
+     * @param help  a one-line description
+     * @param value reads the current value
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        register(name, help, "counter", (out, fullName) -> appendSample(out, fullName, "", value.getAsLong()));
+    }
+
+    /**
+     * Registers a counter with one label, e.g. one series per producer.
+     *
+     * @param name      the name without {@link #PREFIX}; by convention ends with {@code _total}
+     * @param help      a one-line description
+     * @param labelName the name of the label
+     * @param values    reads the current value per label value
+     */
+    public void counter(String name, String help, String labelName, Supplier<Map<String, Long>> values) {
+        register(name, help, "counter", (out, fullName) -> {
+            for (Map.Entry<String, Long> entry : values.get().entrySet()) {
+                appendSample(out, fullName, label(labelName, entry.getKey()), entry.getValue());
+            }
+        });
+    }
+
+    /**
+     * Registers a gauge.
+     *
+     * @param name  the name without {@link #PREFIX}
+     * @param help  a one-line description
+     * @param value reads the current value
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        register(name, help, "gauge", (out, fullName) -> appendSample(out, fullName, "", value.getAsDouble()));
+    }
+
+    /**
+     * Registers a gauge with one label. A label value mapped to {@link Double#NaN} is left out, e.g.
+     * a device that has not reported yet.
+     *
+     * @param name      the name without {@link #PREFIX}
+     * @param help      a one-line description
+     * @param labelName the name of the label
+     * @param values    reads the current value per label value
+     */
+    public void gauge(String name, String help, String labelName, Supplier<Map<String, Double>> values) {
+        register(name, help, "gauge", (out, fullName) -> {
+            for (Map.Entry<String, Double> entry : values.get().entrySet()) {
+                if (!entry.getValue().isNaN()) {
+                    appendSample(out, fullName, label(labelName, entry.getKey()), entry.getValue());
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a summary of sampled latencies: the p50, p99 and p999 in seconds, the sum of the
+     * samples in seconds and their number. The quantiles are the bucket upper bounds of the
+     * {@link LatencyHistogram} and are left out until the first sample.
+     *
+     * @param name     the name without {@link #PREFIX}; by convention ends with {@code _seconds}
+     * @param help     a one-line description
+     * @param nanos    reads the merged {@link LatencyHistogram} counters
+     * @param sumNanos reads the exact sum of the samples, see {@link LatencyHistogram#sumNanos()}
+     */
+    public void latency(String name, String help, Supplier<long[]> nanos, LongSupplier sumNanos) {
+        register(name, help, "summary", (out, fullName) -> {
+            final long[] totals = nanos.get();
+            final long count = LatencyHistogram.count(totals);
+            if (count > 0) {
+                for (double quantile : QUANTILES) {
+                    appendSample(out, fullName, label("quantile", Double.toString(quantile)),
+                            LatencyHistogram.quantile(totals, quantile) / NANOS_PER_SECOND);
+                }
+            }
+            appendSample(out, fullName + "_sum", "", sumNanos.getAsLong() / NANOS_PER_SECOND);
+            appendSample(out, fullName + "_count", "", count);
+        });
+    }
+
+    private void register(String name, String help, String type, SampleWriter samples) {
+        final String fullName = PREFIX + name;
+        for (Metric metric : metrics) {
+            if (metric.name().equals(fullName)) {
+                throw new IllegalArgumentException("Metric already registered: " + fullName);
+            }
+        }
+        metrics.add(new Metric(fullName, help, type, samples));
+    }
+
+    /**
+     * Renders every registered metric.
+     *
+     * @return the metrics in the Prometheus text exposition format
+     */
+    public String scrape() {
+        final StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : metrics) {
+            out.append("# HELP ").append(metric.name()).append(' ').append(escapeHelp(metric.help())).append('\n');
+            out.append("# TYPE ").append(metric.name()).append(' ').append(metric.type()).append('\n');
+            metric.samples().write(out, metric.name());
+        }
+        return out.toString();
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static void appendSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(formatDouble(value)).append('\n');
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        // Prometheus parses Java's shortest round-trip form, e.g. 1.91E-7, as it is.
+        return Double.toString(value);
+    }
+
+    private static String label(String labelName, String labelValue) {
+        return "{" + labelName + "=\"" + escapeLabelValue(labelValue) + "\"}";
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
@@ -39,7 +39,9 @@ public class Statistics {
      * @param windowGeneratedPerSecond     current candidate-generation throughput in keys/second,
      *                                     averaged over the same trailing window
      * @param rateWindowSeconds            the trailing window (seconds) the rate is averaged over
-     * @param keysSumOfTimeToCheckContains cumulative time (ms) spent in presence lookups
+     * @param lookupBackend                the address lookup backend the latencies were measured on
+     * @param lookupLatencyNanos           merged {@link LatencyHistogram} counters of the sampled
+     *                                     presence lookups, rendered as p50, p99 and p999
      * @param generatedKeysByProducer      generated-candidate counts keyed by producer label
      *                                     ({@code "<keyProducerId> (<Strategy>, <CPU|GPU>)"}); lets
      *                                     concurrently running producers be told apart, and be
@@ -63,7 +65,8 @@ public class Statistics {
             long generatedKeys,
             double windowGeneratedPerSecond,
             long rateWindowSeconds,
-            long keysSumOfTimeToCheckContains,
+            String lookupBackend,
+            long[] lookupLatencyNanos,
             Map<String, Long> generatedKeysByProducer,
             long producersRunning,
             long consumersRunning,
@@ -74,8 +77,6 @@ public class Statistics {
         // calculate uptime (lifetime)
         long uptimeInSeconds = uptime / (long) ONE_SECOND_IN_MILLISECONDS;
         long uptimeInMinutes = uptimeInSeconds / 60;
-        // calculate average contains time
-        long averageContainsTime = keysSumOfTimeToCheckContains / Math.max(keys, 1);
         String producerShares = describeProducerShares(generatedKeysByProducer);
 
         // The two ends of the pipeline, side by side:
@@ -92,8 +93,9 @@ public class Statistics {
                 + "] [rate window " + rateWindowSeconds + "s] [Keys per producer: " + producerShares
                 + "] [Producers running: " + producersRunning + "] [Consumers running: " + consumersRunning
                 + "] [Consumer ready for work (queue empty): " + consumerReady
-                + "] [Producer blocked (queue full): " + producerBlocked + "] [Average contains time: "
-                + averageContainsTime + " ms] [keys queue size: " + keysQueueSize + "] [Hits: " + hits + "]";
+                + "] [Producer blocked (queue full): " + producerBlocked + "] [Lookup latency " + lookupBackend
+                + ": " + describeLatency(lookupLatencyNanos) + "] [keys queue size: " + keysQueueSize
+                + "] [Hits: " + hits + "]";
     }
 
     /**
@@ -130,6 +132,46 @@ public class Statistics {
         return Math.round(perSecond) + "/s";
     }
 
+    /**
+     * Renders the p50, p99 and p999 of the sampled lookup latencies, or {@code "no samples"} before
+     * the first sampled lookup.
+     *
+     * <p>Replaces an average of millisecond timestamps taken around every lookup: a probe takes
+     * nanoseconds to microseconds, so nearly every difference was {@code 0} and the average said
+     * nothing, while the two clock reads per lookup cost more than many probes. A tail percentile is
+     * also what reveals a lookup that occasionally goes to disk.
+     *
+     * @param lookupLatencyNanos merged {@link LatencyHistogram} counters
+     * @return e.g. {@code "p50 191 ns, p99 2.047 µs, p999 16.38 µs"}
+     */
+    static String describeLatency(long[] lookupLatencyNanos) {
+        if (LatencyHistogram.count(lookupLatencyNanos) == 0) {
+            return "no samples";
+        }
+        return "p50 " + formatNanos(LatencyHistogram.quantile(lookupLatencyNanos, 0.5))
+                + ", p99 " + formatNanos(LatencyHistogram.quantile(lookupLatencyNanos, 0.99))
+                + ", p999 " + formatNanos(LatencyHistogram.quantile(lookupLatencyNanos, 0.999));
+    }
+
+    /**
+     * Formats a duration, auto-scaling to µs, ms or s like {@link #formatRate(double)}.
+     *
+     * @param nanos the duration in nanoseconds
+     * @return e.g. {@code "180 ns"}, {@code "2.047 µs"} or {@code "1.500 s"}
+     */
+    static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000_000L) {
+            return withSignificantDigits(nanos / 1_000_000_000.0) + " s";
+        }
+        if (nanos >= 1_000_000L) {
+            return withSignificantDigits(nanos / 1_000_000.0) + " ms";
+        }
+        if (nanos >= 1_000L) {
+            return withSignificantDigits(nanos / 1_000.0) + " µs";
+        }
+        return nanos + " ns";
+    }
+
     /**
      * Renders a value that has already been divided into its unit — so it lies in {@code [1, 1000)} —
      * with as many decimals as it takes to reach {@link #SIGNIFICANT_DIGITS}.
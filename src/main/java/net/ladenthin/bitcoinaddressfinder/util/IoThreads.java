@@ -0,0 +1,89 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the threads that wait on network I/O: the socket and ZeroMQ readers of the network key
+ * producers, and the accept loop and client writers of the socket result broadcaster.
+ *
+ * <p>Such a thread spends nearly all of its life blocked in a socket call. As a platform thread it
+ * holds an OS thread and its stack the whole time; as a virtual thread it releases its carrier while
+ * blocked, so many connections cost a few carriers instead of one OS thread each. CPU-bound work —
+ * key derivation, hashing, the address lookups — never runs on these threads and stays on the
+ * bounded platform pools of the producers and the consumer.
+ *
+ * <p>Virtual threads do not help code that blocks where the JVM cannot see it: a page fault on a
+ * memory-mapped LMDB file blocks the carrier like any other thread, so the consumer's lookups are
+ * deliberately not moved here.
+ */
+public final class IoThreads {
+
+    /** Platform threads, as before virtual threads were available. */
+    public static final IoThreads PLATFORM = new IoThreads(false);
+
+    /** Virtual threads. */
+    public static final IoThreads VIRTUAL = new IoThreads(true);
+
+    private final boolean virtual;
+
+    private IoThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    /**
+     * Returns the instance for the configured mode.
+     *
+     * @param virtual {@code true} for virtual threads
+     * @return {@link #VIRTUAL} or {@link #PLATFORM}
+     */
+    public static IoThreads of(boolean virtual) {
+        return virtual ? VIRTUAL : PLATFORM;
+    }
+
+    /**
+     * Returns whether threads are virtual.
+     *
+     * @return {@code true} for virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Starts one named daemon thread.
+     *
+     * @param name the thread name
+     * @param task what the thread runs
+     * @return the started thread
+     */
+    public Thread start(String name, Runnable task) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).start(task);
+        }
+        return Thread.ofPlatform().name(name).daemon(true).start(task);
+    }
+
+    /**
+     * Creates an executor for one long-running blocking task, such as a read or accept loop. Its
+     * platform thread is not a daemon, as with {@link Executors#newSingleThreadExecutor()}; the owner
+     * shuts the executor down.
+     *
+     * @param name the name of the thread running the task
+     * @return a single-thread executor, or a thread-per-task executor on virtual threads
+     */
+    public ExecutorService newSingleTaskExecutor(String name) {
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name).factory());
+        }
+        return Executors.newSingleThreadExecutor(Thread.ofPlatform().name(name).factory());
+    }
+
+    @Override
+    public String toString() {
+        return virtual ? "IoThreads(VIRTUAL)" : "IoThreads(PLATFORM)";
+    }
+}
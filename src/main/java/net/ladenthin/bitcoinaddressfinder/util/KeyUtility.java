@@ -133,6 +133,16 @@ public record KeyUtility(@NonNull Network network, @NonNull ByteBufferUtility by
         return address.toBase58();
     }
 
+    /**
+     * Returns the version byte that leads the payload of a P2PKH address on this network
+     * ({@code 0x00} on mainnet, {@code 0x6f} on testnet).
+     *
+     * @return the legacy address version byte
+     */
+    public int legacyAddressVersion() {
+        return LegacyAddress.fromPubKeyHash(network, new byte[LegacyAddress.LENGTH]).getVersion();
+    }
+
     /**
      * Draws a non-negative random {@link BigInteger} of up to {@code maximumBitLength} bits.
      *
@@ -0,0 +1,151 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Pins the calling thread to a set of CPUs and reads the placement back, on Linux.
+ *
+ * <p>The JDK offers no thread-affinity API, so this goes through the operating system: the native
+ * thread id of the calling thread is the target of the {@code /proc/thread-self} link, and
+ * {@code taskset -p -c <cpus> <tid>} changes the affinity of exactly that thread. Forking a process
+ * per pin is expensive, but pinning happens once per pool thread at start-up, never on a hot path.
+ *
+ * <p>Everything is read from and verified against {@code /proc}, so the result can be checked
+ * independently of this class: {@code Cpus_allowed_list} in {@code /proc/self/task/<tid>/status}
+ * is the affinity mask, and field 39 of {@code /proc/self/task/<tid>/stat} is the CPU the thread
+ * last ran on.
+ */
+public class ThreadAffinity {
+
+    /**
+     * The accepted CPU list syntax: CPU numbers and inclusive ranges, comma-separated. Validated
+     * before the list is passed to {@code taskset}, which keeps configuration text out of the
+     * command line.
+     */
+    private static final Pattern CPU_LIST = Pattern.compile("\\d+(-\\d+)?(,\\d+(-\\d+)?)*");
+
+    private static final Path THREAD_SELF = Path.of("/proc/thread-self");
+
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+    /** One-based position of the {@code processor} field in {@code /proc/<pid>/task/<tid>/stat}. */
+    private static final int STAT_PROCESSOR_FIELD = 39;
+
+    private static final long TASKSET_TIMEOUT_SECONDS = 10L;
+
+    /** Creates a new {@link ThreadAffinity}. */
+    public ThreadAffinity() {}
+
+    /**
+     * Checks a CPU list against the syntax {@code taskset -c} accepts.
+     *
+     * @param cpuList the CPU list, for example {@code "0-3,8"}
+     * @return {@code true} if the list is well-formed
+     */
+    public static boolean isValidCpuList(String cpuList) {
+        return CPU_LIST.matcher(cpuList).matches();
+    }
+
+    /**
+     * Returns whether this platform exposes the per-thread {@code /proc} entries pinning relies on.
+     *
+     * @return {@code true} on Linux with {@code /proc} mounted
+     */
+    public boolean isSupported() {
+        return Files.isSymbolicLink(THREAD_SELF);
+    }
+
+    /**
+     * Returns the operating-system thread id of the calling thread.
+     *
+     * @return the native thread id
+     * @throws IOException if {@code /proc/thread-self} cannot be read
+     */
+    public long currentNativeThreadId() throws IOException {
+        // The link target is "<pid>/task/<tid>".
+        Path target = Files.readSymbolicLink(THREAD_SELF);
+        return Long.parseLong(target.getFileName().toString());
+    }
+
+    /**
+     * Restricts the calling thread to the given CPUs.
+     *
+     * @param cpuList the CPU list, for example {@code "0-3,8"}
+     * @throws IllegalArgumentException if {@code cpuList} is not well-formed
+     * @throws IOException              if the thread id cannot be determined, {@code taskset} cannot be
+     *                                  run, or it rejects the request (e.g. a CPU that does not exist)
+     * @throws InterruptedException     if interrupted while waiting for {@code taskset}
+     */
+    public void pinCurrentThread(String cpuList) throws IOException, InterruptedException {
+        if (!isValidCpuList(cpuList)) {
+            throw new IllegalArgumentException("Not a valid CPU list: \"" + cpuList + "\"");
+        }
+        long tid = currentNativeThreadId();
+        Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, Long.toString(tid))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (!process.waitFor(TASKSET_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("taskset did not finish within " + TASKSET_TIMEOUT_SECONDS + " seconds");
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException(
+                    "taskset failed to pin thread " + tid + " to CPUs " + cpuList + " (exit code "
+                            + process.exitValue() + "): " + output);
+        }
+    }
+
+    /**
+     * Reads the CPUs the given thread of this process may run on.
+     *
+     * @param tid a native thread id of this process
+     * @return the allowed CPU list as printed by the kernel, for example {@code "0-3,8"}
+     * @throws IOException if the status file cannot be read or has no {@code Cpus_allowed_list}
+     */
+    public String allowedCpuList(long tid) throws IOException {
+        List<String> lines = Files.readAllLines(taskFile(tid, "status"), StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.startsWith(CPUS_ALLOWED_LIST)) {
+                return line.substring(CPUS_ALLOWED_LIST.length()).trim();
+            }
+        }
+        throw new IOException("No " + CPUS_ALLOWED_LIST + " in " + taskFile(tid, "status"));
+    }
+
+    /**
+     * Reads the CPU the given thread of this process last ran on.
+     *
+     * @param tid a native thread id of this process
+     * @return the CPU number
+     * @throws IOException if the stat file cannot be read or parsed
+     */
+    public int lastRunCpu(long tid) throws IOException {
+        String stat = Files.readString(taskFile(tid, "stat"), StandardCharsets.UTF_8);
+        // Field 2 is the command name in parentheses and may itself contain spaces and parentheses;
+        // every field after the last ')' is space-separated and starts at field 3.
+        int commEnd = stat.lastIndexOf(')');
+        if (commEnd < 0) {
+            throw new IOException("Unexpected stat format: " + stat);
+        }
+        String[] fields = stat.substring(commEnd + 1).trim().split(" ");
+        int index = STAT_PROCESSOR_FIELD - 3;
+        if (fields.length <= index) {
+            throw new IOException("Unexpected stat format: " + stat);
+        }
+        return Integer.parseInt(fields[index]);
+    }
+
+    private static Path taskFile(long tid, String name) {
+        return Path.of("/proc/self/task", Long.toString(tid), name);
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.stream.Stream;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationWrite;
 import net.ladenthin.bitcoinaddressfinder.constants.Secp256k1Constants;
+import net.ladenthin.bitcoinaddressfinder.io.AddressBatch;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
 import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
 import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
@@ -148,6 +149,42 @@ public class LMDBPersistenceTest {
             assertThrows(IllegalArgumentException.class, () -> lmdbPersistence.putNewAmounts(hash160s, amounts));
         }
     }
+
+    /** The primitive batch write must store every entry with its own amount, like the list variant. */
+    @Test
+    public void putNewAmounts_addressBatch_allStoredWithCorrectAmounts() throws IOException {
+        // arrange
+        File lmdbFolder = Files.createDirectory(folder.resolve("lmdb")).toFile();
+
+        CLMDBConfigurationWrite cLMDBConfigurationWrite = new CLMDBConfigurationWrite();
+        cLMDBConfigurationWrite.initialMapSizeInMiB = 1;
+        cLMDBConfigurationWrite.lmdbDirectory = lmdbFolder.getAbsolutePath();
+        cLMDBConfigurationWrite.useStaticAmount = false;
+
+        try (LMDBPersistence lmdbPersistence = new LMDBPersistence(cLMDBConfigurationWrite, persistenceUtils)) {
+            lmdbPersistence.init();
+
+            int count = 1_000;
+            AddressBatch batch = new AddressBatch(count);
+            List<ByteBuffer> hash160s = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                BigInteger secret = keyUtility.createSecret(Secp256k1Constants.PRIVATE_KEY_MAX_NUM_BITS, random);
+                ECKey ecKey = keyUtility.createECKey(secret, true);
+                ByteBuffer hash160 = byteBufferUtility.byteArrayToByteBuffer(ecKey.getPubKeyHash());
+                hash160s.add(hash160);
+                batch.add(hash160, i + 1L);
+            }
+
+            // act — a single transaction for the whole batch
+            lmdbPersistence.putNewAmounts(batch);
+
+            // assert
+            assertThat(lmdbPersistence.count(), is(equalTo((long) count)));
+            for (int i = 0; i < count; i++) {
+                assertThat(lmdbPersistence.getAmount(hash160s.get(i)).getValue(), is(equalTo(i + 1L)));
+            }
+        }
+    }
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="requiresBackend">
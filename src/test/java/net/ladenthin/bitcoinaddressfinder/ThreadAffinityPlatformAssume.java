@@ -0,0 +1,33 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder;
+
+import java.io.File;
+import net.ladenthin.bitcoinaddressfinder.util.ThreadAffinity;
+import org.junit.jupiter.api.Assumptions;
+
+/**
+ * Platform assumption for tests that pin threads to CPUs: requires Linux ({@code /proc/thread-self})
+ * and {@code taskset} on the {@code PATH}.
+ */
+public class ThreadAffinityPlatformAssume implements PlatformAssume {
+
+    public void assumeThreadAffinitySupported() {
+        Assumptions.assumeTrue(new ThreadAffinity().isSupported(), "No /proc/thread-self; not Linux");
+        Assumptions.assumeTrue(isTasksetOnPath(), "taskset is not on the PATH");
+    }
+
+    private static boolean isTasksetOnPath() {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            if (new File(directory, "taskset").canExecute()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,206 @@
+// @formatter:off
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+// @formatter:on
+package net.ladenthin.bitcoinaddressfinder.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ladenthin.bitcoinaddressfinder.MockKeyProducer;
+import net.ladenthin.bitcoinaddressfinder.configuration.CConsumerJava;
+import net.ladenthin.bitcoinaddressfinder.configuration.CProducerJava;
+import net.ladenthin.bitcoinaddressfinder.consumer.ConsumerJava;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
+import net.ladenthin.bitcoinaddressfinder.persistence.AddressPresence;
+import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.PrngAddressIterable;
+import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.HashSetAddressPresence;
+import net.ladenthin.bitcoinaddressfinder.persistence.inmemory.TruncatedLong64SortedArrayPresence;
+import net.ladenthin.bitcoinaddressfinder.producer.ProducerJava;
+import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.Network;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end throughput and allocation benchmark of the CPU pipeline: a real {@link ProducerJava}
+ * feeding a real {@link ConsumerJava} whose worker thread checks every key against an in-memory
+ * lookup and reports the batch to a {@link ResultListener}.
+ *
+ * <h2>Why this exists alongside the component benchmarks</h2>
+ * {@link PublicKeyHashBenchmark}, {@link CalculateSecretKeyBenchmark} and {@link FilterLookupBenchmark}
+ * each measure one step in isolation, where escape analysis sees the whole call and often removes
+ * the allocations a step would make in the pipeline. What the scan pays per key — the
+ * {@code PublicKeyBytes}, the secrets, the queue entries, the per-batch hit list and
+ * {@code BatchResult}, the trace events — only shows up when the batch actually crosses the keys
+ * queue to another thread. This benchmark measures exactly that path, so allocation-reduction work
+ * can be tracked and a regression is visible before it shows up as GC pauses in a long scan.
+ *
+ * <h2>What is measured</h2>
+ * One invocation produces one batch of {@value #BATCH_SIZE} keys ({@code batchSizeInBits =}
+ * {@value #BATCH_SIZE_IN_BITS}) on the benchmark thread and waits until the consumer thread has
+ * reported it as checked, so batches never pile up in the queue and every invocation covers the
+ * full round trip. {@link OperationsPerInvocation} makes one operation one key:
+ * <ul>
+ *   <li>the primary score is <b>keys/s</b> through one producer and one consumer thread;</li>
+ *   <li>with {@code -prof gc}, {@code gc.alloc.rate.norm} is <b>bytes allocated per key</b>. The
+ *       profiler counts the allocations of every thread in the fork, the consumer thread
+ *       included.</li>
+ * </ul>
+ *
+ * <p>The lookup is built from {@link PrngAddressIterable}, so no LMDB is needed. Only the exact
+ * backends are offered: a filter's false positives take the hit path, whose logging and key
+ * rendering would dominate the bytes per key and make runs incomparable.
+ *
+ * <h2>Run</h2>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.args=&quot;PipelineAllocationBenchmark -prof gc&quot;
+ *
+ * # only the grid path the scan uses by default
+ * mvn test-compile exec:java \
+ *   -Dexec.args=&quot;PipelineAllocationBenchmark -p batchUsePrivateKeyIncrement=true -prof gc&quot;
+ * </pre>
+ *
+ * <p>Compare {@code gc.alloc.rate.norm} before and after a change in the same session; the keys/s
+ * score depends on the machine, the bytes per key do not.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PipelineAllocationBenchmark {
+
+    /** Bits of one producer batch; large enough that the per-batch overhead is amortised. */
+    private static final int BATCH_SIZE_IN_BITS = 10;
+
+    /** Keys per batch, and therefore operations per invocation. */
+    private static final int BATCH_SIZE = 1 << BATCH_SIZE_IN_BITS;
+
+    /** Number of addresses in the in-memory lookup. */
+    private static final long LOOKUP_ENTRIES = 1L << 20;
+
+    /** Seed of the lookup's address set; the derived keys never hit it. */
+    private static final long LOOKUP_SEED = 0xC0FFEEL;
+
+    /** Seed of the key producer, so every trial derives the same keys. */
+    private static final long KEY_SEED = 0x5EED_1234_ABCDL;
+
+    /**
+     * {@code true} derives each batch as a grid from one secret ({@code processSecretBase}, the
+     * default scan), {@code false} from independently drawn secrets ({@code processSecrets}).
+     */
+    @Param({"true", "false"})
+    public boolean batchUsePrivateKeyIncrement;
+
+    /** The exact in-memory lookup the consumer checks against. */
+    @Param({"TRUNCATED_LONG_64", "HASHSET"})
+    public String backend;
+
+    private ConsumerJava consumer;
+    private ProducerJava producer;
+    private CheckedBatchCounter checkedBatches;
+    private long producedBatches;
+
+    /** Creates a new benchmark instance (no-arg constructor for JMH). */
+    public PipelineAllocationBenchmark() {
+        // no-op
+    }
+
+    /** Counts checked batches; the only thing the consumer thread hands back to the benchmark. */
+    private static final class CheckedBatchCounter implements ResultListener {
+        private final AtomicLong batches = new AtomicLong();
+
+        @Override
+        public void onBatchChecked(BatchResult batchResult) {
+            batches.incrementAndGet();
+        }
+    }
+
+    /**
+     * Builds the lookup, starts one consumer thread and wires a producer to it.
+     *
+     * @throws IllegalArgumentException if {@link #backend} is not an exact backend
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        PrngAddressIterable source = new PrngAddressIterable(LOOKUP_SEED, LOOKUP_ENTRIES);
+        AddressPresence lookup = switch (backend) {
+            case "TRUNCATED_LONG_64" -> TruncatedLong64SortedArrayPresence.populateFrom(source);
+            case "HASHSET" -> HashSetAddressPresence.populateFrom(source);
+            default -> throw new IllegalArgumentException("unknown or non-exact backend: " + backend);
+        };
+
+        Network network = new NetworkParameterFactory().getNetwork();
+        KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        // One consumer thread: the benchmark waits for each batch, so more threads would only idle.
+        cConsumerJava.threads = 1;
+        checkedBatches = new CheckedBatchCounter();
+        consumer = new ConsumerJava(
+                cConsumerJava, keyUtility, new PersistenceUtils(network), List.of(checkedBatches));
+        consumer.initWithLookup(lookup);
+        consumer.startConsumer();
+
+        CProducerJava cProducerJava = new CProducerJava();
+        cProducerJava.batchSizeInBits = BATCH_SIZE_IN_BITS;
+        cProducerJava.batchUsePrivateKeyIncrement = batchUsePrivateKeyIncrement;
+        producer = new ProducerJava(
+                cProducerJava,
+                consumer,
+                keyUtility,
+                new MockKeyProducer(keyUtility, new Random(KEY_SEED)),
+                new BitHelper(),
+                new RuntimeStatistics());
+        producedBatches = 0;
+    }
+
+    /**
+     * Produces one batch and waits until the consumer has checked it.
+     *
+     * @return the number of checked batches, consumed by JMH
+     * @throws Exception if producing the batch fails
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long produceAndCheckBatch() throws Exception {
+        producer.produceKeys();
+        producedBatches++;
+        long checked;
+        while ((checked = checkedBatches.batches.get()) < producedBatches) {
+            Thread.onSpinWait();
+        }
+        return checked;
+    }
+
+    /** Stops the consumer thread started in {@link #setUp()}. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (consumer != null) {
+            consumer.interrupt();
+            consumer = null;
+        }
+    }
+}
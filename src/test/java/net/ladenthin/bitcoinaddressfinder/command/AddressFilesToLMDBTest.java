@@ -14,10 +14,12 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import net.ladenthin.bitcoinaddressfinder.CommonDataProvider;
 import net.ladenthin.bitcoinaddressfinder.LMDBBase;
 import net.ladenthin.bitcoinaddressfinder.LMDBHandle;
 import net.ladenthin.bitcoinaddressfinder.configuration.AddressLookupBackend;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFileOutputFormat;
 import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFilesToLMDB;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationReadOnly;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationWrite;
@@ -30,6 +32,7 @@ import net.ladenthin.bitcoinaddressfinder.staticaddresses.StaticAddressesFiles;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddresses;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddressesFiles;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.P2PKH;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.P2WPKH;
 import nl.altindag.log.LogCaptor;
 import org.bitcoinj.base.Coin;
 import org.bitcoinj.base.LegacyAddress;
@@ -280,6 +283,76 @@ public class AddressFilesToLMDBTest extends LMDBBase {
         }
     }
 
+    /**
+     * Lines are split on {@code \r\n}, {@code \r} and {@code \n} like {@code BufferedReader}; fast-path
+     * lines (Base58, Bech32 P2WPKH) and fallback lines (multiple columns) keep their amounts, and
+     * comments are skipped. The last line has no terminator.
+     */
+    @Test
+    public void addressFilesToLMDB_mixedLineTerminatorsAndFormats_importsWithAmounts() throws Exception {
+        // arrange
+        String content = P2PKH.Bitcoin.getPublicAddress() + "\t5000\r\n"
+                + "# comment\r"
+                + P2WPKH.BitcoinP2WPKH.getPublicAddress() + ",42\n"
+                + "\n"
+                + P2PKH.BitcoinCash.getPublicAddress() + "\t7\t99";
+        File file = folder.resolve("mixed.txt").toFile();
+        Files.writeString(file.toPath(), content);
+
+        // act
+        File lmdbDir = runImport(1, false, List.of(file.getAbsolutePath()), "mixed");
+
+        // assert
+        LMDBPersistence lmdb = openReadOnly(lmdbDir);
+        try {
+            assertThat(lmdb.count(), is(equalTo(3L)));
+            assertThat(lmdb.getAmount(P2PKH.Bitcoin.getPublicKeyHashAsByteBuffer()), is(equalTo(Coin.valueOf(5000))));
+            assertThat(lmdb.getAmount(P2WPKH.BitcoinP2WPKH.getWitnessProgramAsByteBuffer()),
+                    is(equalTo(Coin.valueOf(42))));
+            assertThat(lmdb.getAmount(P2PKH.BitcoinCash.getPublicKeyHashAsByteBuffer()), is(equalTo(Coin.valueOf(7))));
+        } finally {
+            lmdb.close();
+        }
+    }
+
+    /**
+     * A sorted binary address file exported from one database is recognized by its magic and
+     * bulk-loaded into another with its amounts.
+     */
+    @Test
+    public void addressFilesToLMDB_sortedBinaryAddressFile_importsWithAmounts() throws Exception {
+        // arrange
+        String content = P2PKH.Bitcoin.getPublicAddress() + ",5000\n"
+                + P2WPKH.BitcoinP2WPKH.getPublicAddress() + ",42\n"
+                + P2PKH.BitcoinCash.getPublicAddress() + ",7\n";
+        File text = folder.resolve("source.txt").toFile();
+        Files.writeString(text.toPath(), content);
+        File sourceDir = runImport(1, false, List.of(text.getAbsolutePath()), "source");
+        File binary = folder.resolve("addresses.bin").toFile();
+        LMDBPersistence source = openReadOnly(sourceDir);
+        try {
+            source.writeAllAmountsToAddressFile(
+                    binary, CAddressFileOutputFormat.SortedBinaryHash160WithAmount, new AtomicBoolean(true));
+        } finally {
+            source.close();
+        }
+
+        // act
+        File lmdbDir = runImport(2, false, List.of(binary.getAbsolutePath()), "binary");
+
+        // assert
+        LMDBPersistence lmdb = openReadOnly(lmdbDir);
+        try {
+            assertThat(lmdb.count(), is(equalTo(3L)));
+            assertThat(lmdb.getAmount(P2PKH.Bitcoin.getPublicKeyHashAsByteBuffer()), is(equalTo(Coin.valueOf(5000))));
+            assertThat(lmdb.getAmount(P2WPKH.BitcoinP2WPKH.getWitnessProgramAsByteBuffer()),
+                    is(equalTo(Coin.valueOf(42))));
+            assertThat(lmdb.getAmount(P2PKH.BitcoinCash.getPublicKeyHashAsByteBuffer()), is(equalTo(Coin.valueOf(7))));
+        } finally {
+            lmdb.close();
+        }
+    }
+
     private List<String> base58P2PKHAddresses() {
         List<String> addresses = new ArrayList<>();
         for (P2PKH staticTestAddress : P2PKH.values()) {
@@ -0,0 +1,98 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.command;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import jdk.jfr.Recording;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAnalyzeBatchTrace;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStage;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchStageEvent;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTrace;
+import net.ladenthin.bitcoinaddressfinder.statistics.BatchTraceReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Direct unit tests for {@link AnalyzeBatchTrace}, reading a recording made in this JVM.
+ */
+public class AnalyzeBatchTraceTest {
+
+    @TempDir
+    public Path folder;
+
+    private static void emit(long batchId, BatchStage stage) throws InterruptedException {
+        BatchStageEvent event = new BatchStageEvent();
+        event.begin();
+        Thread.sleep(2L);
+        event.finish(batchId, stage, 16, BigInteger.TEN, "test (Random, CPU)");
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="analyze">
+    @Test
+    public void analyze_recordedBatch_aggregatesItsStages() throws Exception {
+        // arrange — one traced batch, and a stage emitted before the recording started
+        Path jfrFile = folder.resolve("trace.jfr");
+        long batchId = BatchTrace.startBatch();
+        emit(batchId, BatchStage.CREATE_SECRETS);
+        try (Recording recording = new Recording()) {
+            recording.enable(BatchStageEvent.class);
+            recording.start();
+            emit(batchId, BatchStage.DERIVE_KEYS);
+            emit(batchId, BatchStage.CHECK);
+            emit(batchId, BatchStage.CHECK);
+            recording.stop();
+            recording.dump(jfrFile);
+        }
+        CAnalyzeBatchTrace config = new CAnalyzeBatchTrace();
+        config.jfrFile = jfrFile.toString();
+
+        // act
+        BatchTraceReport report = new AnalyzeBatchTrace(config).analyze();
+
+        // assert
+        assertThat(report.getEvents(), is(equalTo(3L)));
+        assertThat(report.render(), startsWith("Batch trace: 3 events of 1 batches.\n"));
+    }
+
+    @Test
+    public void analyze_missingFile_throwsIllegalArgumentException() {
+        CAnalyzeBatchTrace config = new CAnalyzeBatchTrace();
+        config.jfrFile = folder.resolve("missing.jfr").toString();
+
+        assertThrows(IllegalArgumentException.class, () -> new AnalyzeBatchTrace(config).analyze());
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="interrupt">
+    @Test
+    public void interrupt_beforeAnalyze_readsNoEvents() throws Exception {
+        // arrange
+        Path jfrFile = folder.resolve("trace.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(BatchStageEvent.class);
+            recording.start();
+            emit(BatchTrace.startBatch(), BatchStage.DERIVE_KEYS);
+            recording.stop();
+            recording.dump(jfrFile);
+        }
+        CAnalyzeBatchTrace config = new CAnalyzeBatchTrace();
+        config.jfrFile = jfrFile.toString();
+        AnalyzeBatchTrace analyzeBatchTrace = new AnalyzeBatchTrace(config);
+
+        // act
+        analyzeBatchTrace.interrupt();
+        BatchTraceReport report = analyzeBatchTrace.analyze();
+
+        // assert
+        assertThat(report.getEvents(), is(equalTo(0L)));
+    }
+    // </editor-fold>
+}
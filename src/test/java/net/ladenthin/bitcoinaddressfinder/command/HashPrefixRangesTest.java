@@ -0,0 +1,123 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.command;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class HashPrefixRangesTest {
+
+    // <editor-fold defaultstate="collapsed" desc="rangeStart">
+    @Test
+    public void rangeStart_splitsTwoBytePrefixesEvenly() {
+        assertThat(HashPrefixRanges.rangeStart(0, 4), is(nullValue()));
+        assertThat(HashPrefixRanges.rangeStart(1, 4), is(equalTo(new byte[] {0x40, 0x00})));
+        assertThat(HashPrefixRanges.rangeStart(2, 4), is(equalTo(new byte[] {(byte) 0x80, 0x00})));
+        assertThat(HashPrefixRanges.rangeStart(4, 4), is(nullValue()));
+    }
+
+    @Test
+    public void rangeStart_prefixSpacePartitions_onePrefixEach() {
+        int partitions = HashPrefixRanges.PREFIX_SPACE;
+
+        assertThat(HashPrefixRanges.rangeStart(1, partitions), is(equalTo(new byte[] {0x00, 0x01})));
+        assertThat(HashPrefixRanges.rangeStart(partitions - 1, partitions),
+                is(equalTo(new byte[] {(byte) 0xFF, (byte) 0xFF})));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="validate">
+    @Test
+    public void validate_partitionsZero_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> HashPrefixRanges.validate(0, 1));
+    }
+
+    @Test
+    public void validate_partitionsAbovePrefixSpace_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HashPrefixRanges.validate(HashPrefixRanges.PREFIX_SPACE + 1, 1));
+    }
+
+    @Test
+    public void validate_negativeThreads_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> HashPrefixRanges.validate(1, -1));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="resolveThreads">
+    @Test
+    public void resolveThreads_zero_availableProcessors() {
+        assertThat(HashPrefixRanges.resolveThreads(0), is(equalTo(Runtime.getRuntime().availableProcessors())));
+    }
+
+    @Test
+    public void resolveThreads_positive_unchanged() {
+        assertThat(HashPrefixRanges.resolveThreads(3), is(equalTo(3)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="forEachRangeInOrder">
+    @Test
+    public void forEachRangeInOrder_rangesFinishOutOfOrder_consumedInRangeOrder() throws Exception {
+        // arrange
+        int partitions = 16;
+        List<Integer> consumed = new ArrayList<>();
+
+        // act
+        HashPrefixRanges.forEachRangeInOrder(partitions, 4, new AtomicBoolean(true),
+                (from, to) -> {
+                    int prefix = from == null ? 0 : ((from[0] & 0xFF) << 8) | (from[1] & 0xFF);
+                    try {
+                        // Earlier ranges take longer, so later ranges finish first.
+                        Thread.sleep(partitions - prefix * partitions / HashPrefixRanges.PREFIX_SPACE);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return prefix;
+                },
+                (partition, prefix) -> {
+                    assertThat(prefix, is(equalTo(partition * HashPrefixRanges.PREFIX_SPACE / partitions)));
+                    consumed.add(partition);
+                });
+
+        // assert
+        assertThat(consumed.size(), is(equalTo(partitions)));
+        for (int i = 0; i < partitions; i++) {
+            assertThat(consumed.get(i), is(equalTo(i)));
+        }
+    }
+
+    @Test
+    public void forEachRangeInOrder_stopped_nothingSubmitted() throws Exception {
+        // arrange
+        List<Integer> consumed = new ArrayList<>();
+
+        // act
+        HashPrefixRanges.forEachRangeInOrder(4, 1, new AtomicBoolean(false), (from, to) -> 0,
+                (partition, result) -> consumed.add(partition));
+
+        // assert
+        assertThat(consumed.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void forEachRangeInOrder_rangeFails_throwsExecutionException() {
+        assertThrows(ExecutionException.class, () -> HashPrefixRanges.forEachRangeInOrder(4, 2, new AtomicBoolean(true),
+                (from, to) -> {
+                    throw new IOException("range failed");
+                },
+                (partition, result) -> {}));
+    }
+    // </editor-fold>
+}
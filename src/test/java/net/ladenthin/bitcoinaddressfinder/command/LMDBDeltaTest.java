@@ -8,6 +8,7 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.File;
 import java.io.IOException;
@@ -254,6 +255,59 @@ public class LMDBDeltaTest extends LMDBBase {
 
     // </editor-fold>
 
+    // <editor-fold defaultstate="collapsed" desc="key range partitions">
+
+    /**
+     * The ranges are merged in parallel but written in range order, so the output must not depend on
+     * the number of ranges or threads — including a single range and one range per two-byte prefix.
+     */
+    @Test
+    public void writeDelta_anyPartitionsAndThreads_sameOutputAsSingleRange() throws Exception {
+        // arrange: keys spread over the whole first byte, several of them sharing a range
+        List<byte[]> referenceKeys = new ArrayList<>();
+        List<byte[]> otherKeysA = new ArrayList<>();
+        List<byte[]> otherKeysB = new ArrayList<>();
+        for (int firstByte = 0; firstByte < 256; firstByte += 3) {
+            (firstByte % 2 == 0 ? referenceKeys : otherKeysA).add(hash160(firstByte));
+            if (firstByte % 5 == 0) {
+                otherKeysB.add(hash160(firstByte));
+            }
+        }
+        AddressIterable reference = iterableOf(referenceKeys.toArray(byte[][]::new));
+        List<AddressIterable> others =
+                List.of(iterableOf(otherKeysA.toArray(byte[][]::new)), iterableOf(otherKeysB.toArray(byte[][]::new)));
+        StringBuilder expected = new StringBuilder();
+        LMDBDelta.DeltaResult expectedResult = new LMDBDelta(config(1, 1)).writeDelta(reference, others, expected);
+
+        for (int partitions : new int[] {2, 3, 7, 1024, HashPrefixRanges.PREFIX_SPACE}) {
+            // act
+            StringBuilder out = new StringBuilder();
+            LMDBDelta.DeltaResult result = new LMDBDelta(config(partitions, 3)).writeDelta(reference, others, out);
+
+            // assert
+            assertThat(out.toString(), is(equalTo(expected.toString())));
+            assertThat(result.written(), is(equalTo(expectedResult.written())));
+            assertThat(result.perSourceContained(), is(equalTo(expectedResult.perSourceContained())));
+        }
+    }
+
+    @Test
+    public void constructor_partitionsZero_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new LMDBDelta(config(0, 1)));
+    }
+
+    @Test
+    public void constructor_partitionsAbovePrefixSpace_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new LMDBDelta(config(HashPrefixRanges.PREFIX_SPACE + 1, 1)));
+    }
+
+    @Test
+    public void constructor_negativeThreads_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new LMDBDelta(config(1, -1)));
+    }
+
+    // </editor-fold>
+
     // <editor-fold defaultstate="collapsed" desc="run() integration — writes to a real file">
 
     @Test
@@ -278,10 +332,51 @@ public class LMDBDeltaTest extends LMDBBase {
         assertThat(Files.readAllLines(deltaFile.toPath()), contains(keyUtility.toBase58(hC)));
     }
 
+    /**
+     * Range cursors on real LMDB databases: keys on both sides of every range boundary, including the
+     * first and last possible first byte, must each land in exactly one range.
+     */
+    @Test
+    public void run_severalPartitions_rangeCursorsCoverEveryKeyOnce() throws Exception {
+        byte[] h00 = hash160(0x00);
+        byte[] h55 = hash160(0x55);
+        byte[] h56 = hash160(0x56);
+        byte[] hAA = hash160(0xAA);
+        byte[] hAB = hash160(0xAB);
+        byte[] hFF = hash160(0xFF);
+        File referenceDir = writeLmdb("reference", List.of(h55, hAB));
+        File otherDir = writeLmdb("other", List.of(h00, h55, h56, hAA, hAB, hFF));
+        File deltaFile = folder.resolve("delta.txt").toFile();
+
+        CLMDBDelta config = config(3, 2);
+        config.referenceLmdbConfigurationReadOnly.lmdbDirectory = referenceDir.getAbsolutePath();
+        CLMDBConfigurationReadOnly other = new CLMDBConfigurationReadOnly();
+        other.lmdbDirectory = otherDir.getAbsolutePath();
+        config.lmdbConfigurationReadOnlyList.add(other);
+        config.deltaAddressesFile = deltaFile.getAbsolutePath();
+
+        new LMDBDelta(config).run();
+
+        assertThat(
+                Files.readAllLines(deltaFile.toPath()),
+                contains(
+                        keyUtility.toBase58(h00),
+                        keyUtility.toBase58(h56),
+                        keyUtility.toBase58(hAA),
+                        keyUtility.toBase58(hFF)));
+    }
+
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="helpers">
 
+    private static CLMDBDelta config(int partitions, int threads) {
+        CLMDBDelta config = new CLMDBDelta();
+        config.partitions = partitions;
+        config.threads = threads;
+        return config;
+    }
+
     /** Calls {@code writeDelta} and returns just the written count (most tests only assert on that). */
     private static long writeDelta(
             LMDBDelta delta, AddressIterable reference, List<? extends AddressIterable> others, Appendable out)
@@ -6,22 +6,32 @@ package net.ladenthin.bitcoinaddressfinder.command;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 import net.ladenthin.bitcoinaddressfinder.CommonDataProvider;
 import net.ladenthin.bitcoinaddressfinder.LMDBBase;
 import net.ladenthin.bitcoinaddressfinder.LMDBHandle;
+import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFileCompression;
 import net.ladenthin.bitcoinaddressfinder.configuration.CAddressFileOutputFormat;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBToAddressFile;
+import net.ladenthin.bitcoinaddressfinder.persistence.addressfile.SortedAddressFile;
+import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddressesFiles;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -136,4 +146,99 @@ public class LMDBToAddressFileTest extends LMDBBase {
             assertThat(contentsAsSet, is(equalTo(expected)));
         }
     }
+
+    // <editor-fold defaultstate="collapsed" desc="export">
+    @Test
+    public void export_severalPartitions_sameAsSequentialFile() throws Exception {
+        // arrange
+        TestAddressesFiles testAddressesFiles = new TestAddressesFiles(true);
+        try (LMDBHandle handle = createAndFillAndOpenLMDB(false, testAddressesFiles, false, false)) {
+            LMDBPersistence persistence = (LMDBPersistence) handle.persistence();
+            File file = Files.createTempFile(folder, "junit", "").toFile();
+            persistence.writeAllAmountsToAddressFile(
+                    file, CAddressFileOutputFormat.DynamicWidthBase58BitcoinAddressWithAmount, new AtomicBoolean(true));
+            byte[] expected = Files.readAllBytes(file.toPath());
+
+            for (int partitions : new int[] {1, 3, 7, 1024, HashPrefixRanges.PREFIX_SPACE}) {
+                // act
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                long written = new LMDBToAddressFile(config(partitions, CAddressFileCompression.NONE))
+                        .export(persistence, out);
+
+                // assert
+                assertThat(out.toByteArray(), is(equalTo(expected)));
+                assertThat(written, is(equalTo((long) expected.length)));
+            }
+        }
+    }
+
+    @Test
+    public void export_gzip_decompressesToPlainExport() throws Exception {
+        // arrange
+        TestAddressesFiles testAddressesFiles = new TestAddressesFiles(false);
+        try (LMDBHandle handle = createAndFillAndOpenLMDB(false, testAddressesFiles, false, false)) {
+            LMDBPersistence persistence = (LMDBPersistence) handle.persistence();
+            ByteArrayOutputStream plain = new ByteArrayOutputStream();
+            new LMDBToAddressFile(config(7, CAddressFileCompression.NONE)).export(persistence, plain);
+
+            // act
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            new LMDBToAddressFile(config(7, CAddressFileCompression.GZIP)).export(persistence, compressed);
+
+            // assert
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+                assertThat(gzip.readAllBytes(), is(equalTo(plain.toByteArray())));
+            }
+        }
+    }
+
+    @Test
+    public void export_sortedBinary_sameAsSequentialFile() throws Exception {
+        // arrange
+        TestAddressesFiles testAddressesFiles = new TestAddressesFiles(true);
+        try (LMDBHandle handle = createAndFillAndOpenLMDB(false, testAddressesFiles, false, false)) {
+            LMDBPersistence persistence = (LMDBPersistence) handle.persistence();
+            File file = Files.createTempFile(folder, "junit", "").toFile();
+            persistence.writeAllAmountsToAddressFile(
+                    file, CAddressFileOutputFormat.SortedBinaryHash160WithAmount, new AtomicBoolean(true));
+            byte[] expected = Files.readAllBytes(file.toPath());
+
+            // act
+            CLMDBToAddressFile config = config(7, CAddressFileCompression.NONE);
+            config.addressFileOutputFormat = CAddressFileOutputFormat.SortedBinaryHash160WithAmount;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long written = new LMDBToAddressFile(config).export(persistence, out);
+
+            // assert
+            assertThat(out.toByteArray(), is(equalTo(expected)));
+            assertThat(written, is(equalTo((long) expected.length)));
+            try (SortedAddressFile sortedAddressFile = new SortedAddressFile(file.toPath())) {
+                assertThat(sortedAddressFile.count(), is(equalTo(persistence.count())));
+            }
+        }
+    }
+
+    @Test
+    public void constructor_sortedBinaryWithGzip_throwsIllegalArgumentException() {
+        CLMDBToAddressFile config = config(7, CAddressFileCompression.GZIP);
+        config.addressFileOutputFormat = CAddressFileOutputFormat.SortedBinaryHash160WithAmount;
+
+        assertThrows(IllegalArgumentException.class, () -> new LMDBToAddressFile(config));
+    }
+
+    @Test
+    public void constructor_partitionsZero_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LMDBToAddressFile(config(0, CAddressFileCompression.NONE)));
+    }
+
+    private static CLMDBToAddressFile config(int partitions, CAddressFileCompression compression) {
+        CLMDBToAddressFile config = new CLMDBToAddressFile();
+        config.addressFileOutputFormat = CAddressFileOutputFormat.DynamicWidthBase58BitcoinAddressWithAmount;
+        config.partitions = partitions;
+        config.threads = 3;
+        config.compression = compression;
+        return config;
+    }
+    // </editor-fold>
 }
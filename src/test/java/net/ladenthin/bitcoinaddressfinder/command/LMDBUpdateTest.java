@@ -0,0 +1,187 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.command;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import net.ladenthin.bitcoinaddressfinder.LMDBBase;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationReadOnly;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationWrite;
+import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBUpdate;
+import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
+import net.ladenthin.bitcoinaddressfinder.persistence.lmdb.LMDBPersistence;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import org.bitcoinj.base.Coin;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LMDBUpdate} against real LMDB databases: removals and additions are applied to an
+ * existing database, which is then reopened read-only to check its contents.
+ */
+public class LMDBUpdateTest extends LMDBBase {
+
+    private final ByteBufferUtility byteBufferUtility = new ByteBufferUtility(true);
+
+    // <editor-fold defaultstate="collapsed" desc="run">
+    @Test
+    public void run_removalsAndAdditions_appliedToExistingDatabase() throws Exception {
+        // arrange
+        byte[] h1 = hash160(1);
+        byte[] h2 = hash160(2);
+        byte[] h3 = hash160(3);
+        byte[] h4 = hash160(4);
+        File lmdbDirectory = writeLmdb(List.of(h1, h2, h3));
+        CLMDBUpdate config = config(lmdbDirectory);
+        config.removalsFiles.add(addressFile("removals.txt", h2));
+        config.additionsFiles.add(addressFile("additions.txt", h4));
+
+        // act
+        new LMDBUpdate(config).run();
+
+        // assert
+        try (LMDBPersistence persistence = openReadOnly(lmdbDirectory)) {
+            assertThat(persistence.count(), is(equalTo(3L)));
+            assertThat(contains(persistence, h1), is(true));
+            assertThat(contains(persistence, h2), is(false));
+            assertThat(contains(persistence, h3), is(true));
+            assertThat(contains(persistence, h4), is(true));
+        }
+    }
+
+    @Test
+    public void run_addressInRemovalsAndAdditions_isPresentAfterwards() throws Exception {
+        // arrange
+        byte[] h1 = hash160(1);
+        File lmdbDirectory = writeLmdb(List.of(h1));
+        CLMDBUpdate config = config(lmdbDirectory);
+        config.removalsFiles.add(addressFile("removals.txt", h1));
+        config.additionsFiles.add(addressFile("additions.txt", h1));
+
+        // act
+        new LMDBUpdate(config).run();
+
+        // assert
+        try (LMDBPersistence persistence = openReadOnly(lmdbDirectory)) {
+            assertThat(contains(persistence, h1), is(true));
+        }
+    }
+
+    @Test
+    public void run_unsortedAdditionsOverSeveralBatches_allWritten() throws Exception {
+        // arrange: descending input, batches of two
+        File lmdbDirectory = writeLmdb(List.of(hash160(0xFF)));
+        CLMDBUpdate config = config(lmdbDirectory);
+        config.writeBatchSize = 2;
+        config.additionsFiles.add(addressFile("additions.txt", hash160(0x90), hash160(0x80), hash160(0x10),
+                hash160(0x01), hash160(0x7F)));
+
+        // act
+        new LMDBUpdate(config).run();
+
+        // assert
+        try (LMDBPersistence persistence = openReadOnly(lmdbDirectory)) {
+            assertThat(persistence.count(), is(equalTo(6L)));
+            assertThat(contains(persistence, hash160(0x80)), is(true));
+            assertThat(contains(persistence, hash160(0x01)), is(true));
+        }
+    }
+
+    @Test
+    public void run_removalOfAbsentAddressAndUnsupportedLine_ignored() throws Exception {
+        // arrange
+        byte[] h1 = hash160(1);
+        File lmdbDirectory = writeLmdb(List.of(h1));
+        CLMDBUpdate config = config(lmdbDirectory);
+        File removals = folder.resolve("removals.txt").toFile();
+        Files.writeString(removals.toPath(), keyUtility.toBase58(hash160(9)) + "\nnot an address\n",
+                StandardCharsets.UTF_8);
+        config.removalsFiles.add(removals.getAbsolutePath());
+
+        // act
+        new LMDBUpdate(config).run();
+
+        // assert
+        try (LMDBPersistence persistence = openReadOnly(lmdbDirectory)) {
+            assertThat(persistence.count(), is(equalTo(1L)));
+            assertThat(contains(persistence, h1), is(true));
+        }
+    }
+
+    @Test
+    public void run_missingDatabaseDirectory_throwsIllegalArgumentException() {
+        CLMDBUpdate config = config(folder.resolve("missing").toFile());
+
+        assertThrows(IllegalArgumentException.class, () -> new LMDBUpdate(config).run());
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="helpers">
+    private static byte[] hash160(int firstByte) {
+        byte[] hash160 = new byte[20];
+        hash160[0] = (byte) firstByte;
+        return hash160;
+    }
+
+    private CLMDBUpdate config(File lmdbDirectory) {
+        CLMDBUpdate config = new CLMDBUpdate();
+        config.lmdbConfigurationWrite = writeConfiguration(lmdbDirectory);
+        return config;
+    }
+
+    private static CLMDBConfigurationWrite writeConfiguration(File lmdbDirectory) {
+        CLMDBConfigurationWrite write = new CLMDBConfigurationWrite();
+        write.lmdbDirectory = lmdbDirectory.getAbsolutePath();
+        write.useStaticAmount = true;
+        write.staticAmount = 0L;
+        return write;
+    }
+
+    private String addressFile(String name, byte[]... hash160s) throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (byte[] hash160 : hash160s) {
+            lines.append(keyUtility.toBase58(hash160)).append('\n');
+        }
+        File file = folder.resolve(name).toFile();
+        Files.writeString(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file.getAbsolutePath();
+    }
+
+    private File writeLmdb(List<byte[]> hash160s) throws Exception {
+        File directory = Files.createDirectory(folder.resolve("lmdb")).toFile();
+        try (LMDBPersistence persistence =
+                new LMDBPersistence(writeConfiguration(directory), new PersistenceUtils(network))) {
+            persistence.init();
+            List<ByteBuffer> keys = new ArrayList<>();
+            List<Coin> amounts = new ArrayList<>();
+            for (byte[] hash160 : hash160s) {
+                keys.add(byteBufferUtility.byteArrayToByteBuffer(hash160));
+                amounts.add(Coin.ZERO);
+            }
+            persistence.putNewAmounts(keys, amounts);
+        }
+        return directory;
+    }
+
+    private LMDBPersistence openReadOnly(File lmdbDirectory) {
+        CLMDBConfigurationReadOnly readOnly = new CLMDBConfigurationReadOnly();
+        readOnly.lmdbDirectory = lmdbDirectory.getAbsolutePath();
+        LMDBPersistence persistence = new LMDBPersistence(readOnly, new PersistenceUtils(network));
+        persistence.init();
+        return persistence;
+    }
+
+    private boolean contains(LMDBPersistence persistence, byte[] hash160) {
+        return persistence.containsAddress(byteBufferUtility.byteArrayToByteBuffer(hash160));
+    }
+    // </editor-fold>
+}
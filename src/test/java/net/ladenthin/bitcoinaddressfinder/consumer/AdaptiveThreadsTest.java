@@ -0,0 +1,173 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import net.ladenthin.bitcoinaddressfinder.configuration.CAdaptiveThreads;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveThreadsTest {
+
+    /** One adjustment interval of one second. */
+    private static final long INTERVAL_NANOS = 1_000_000_000L;
+
+    private static CAdaptiveThreads enabled(int minThreads) {
+        CAdaptiveThreads config = new CAdaptiveThreads();
+        config.enabled = true;
+        config.minThreads = minThreads;
+        config.targetUtilization = 0.8;
+        return config;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_enabledMinThreadsZero_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveThreads(enabled(0), 4));
+    }
+
+    @Test
+    public void constructor_enabledMinThreadsAboveMax_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveThreads(enabled(5), 4));
+    }
+
+    @Test
+    public void constructor_enabledTargetUtilizationAboveOne_throwsIllegalArgumentException() {
+        CAdaptiveThreads config = enabled(1);
+        config.targetUtilization = 1.5;
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveThreads(config, 4));
+    }
+
+    @Test
+    public void constructor_enabledAdjustIntervalZero_throwsIllegalArgumentException() {
+        CAdaptiveThreads config = enabled(1);
+        config.adjustEveryNMillis = 0;
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveThreads(config, 4));
+    }
+
+    @Test
+    public void constructor_disabledWithInvalidBounds_isAcceptedAndAllWorkersActive() {
+        CAdaptiveThreads config = enabled(0);
+        config.enabled = false;
+
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(config, 4);
+
+        assertThat(adaptiveThreads.getActiveThreads(), is(equalTo(4)));
+        assertThat(adaptiveThreads.isActive(3), is(true));
+        assertThat(adaptiveThreads.isActive(4), is(false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="adjust">
+    @Test
+    public void adjust_disabled_neverChanges() {
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(new CAdaptiveThreads(), 4);
+
+        int active = adaptiveThreads.adjust(0, 100, INTERVAL_NANOS);
+
+        assertThat(active, is(equalTo(4)));
+    }
+
+    @Test
+    public void adjust_idleWorkers_shrinksByOneDownToMinimum() {
+        // arrange
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(enabled(2), 4);
+
+        // act: no busy time and rising ready counts, three intervals in a row
+        int first = adaptiveThreads.adjust(0, 10, INTERVAL_NANOS);
+        int second = adaptiveThreads.adjust(0, 20, INTERVAL_NANOS);
+        int third = adaptiveThreads.adjust(0, 30, INTERVAL_NANOS);
+
+        // assert
+        assertThat(first, is(equalTo(3)));
+        assertThat(second, is(equalTo(2)));
+        assertThat(third, is(equalTo(2)));
+        assertThat(adaptiveThreads.isActive(1), is(true));
+        assertThat(adaptiveThreads.isActive(2), is(false));
+    }
+
+    @Test
+    public void adjust_producerBlocked_growsByOneUpToMaximum() {
+        // arrange
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(enabled(1), 4);
+        adaptiveThreads.adjust(0, 10, INTERVAL_NANOS);
+        adaptiveThreads.adjust(0, 20, INTERVAL_NANOS);
+
+        // act: a full queue in each of the following intervals
+        int first = adaptiveThreads.adjust(1, 20, INTERVAL_NANOS);
+        int second = adaptiveThreads.adjust(2, 20, INTERVAL_NANOS);
+        int third = adaptiveThreads.adjust(3, 20, INTERVAL_NANOS);
+
+        // assert
+        assertThat(first, is(equalTo(3)));
+        assertThat(second, is(equalTo(4)));
+        assertThat(third, is(equalTo(4)));
+    }
+
+    @Test
+    public void adjust_busyAboveTarget_grows() {
+        // arrange
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(enabled(1), 4);
+        adaptiveThreads.adjust(0, 10, INTERVAL_NANOS);
+        adaptiveThreads.adjust(0, 20, INTERVAL_NANOS);
+        // two active workers, each busy 90 % of the interval
+        adaptiveThreads.addBusyNanos(INTERVAL_NANOS * 9 / 10);
+        adaptiveThreads.addBusyNanos(INTERVAL_NANOS * 9 / 10);
+
+        // act
+        int active = adaptiveThreads.adjust(0, 20, INTERVAL_NANOS);
+
+        // assert
+        assertThat(active, is(equalTo(3)));
+    }
+
+    @Test
+    public void adjust_busyWithinHysteresisBand_holds() {
+        // arrange: four workers busy 70 % each; below the 80 % target, but three would be at 93 %
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(enabled(1), 4);
+        for (int i = 0; i < 4; i++) {
+            adaptiveThreads.addBusyNanos(INTERVAL_NANOS * 7 / 10);
+        }
+
+        // act
+        int active = adaptiveThreads.adjust(0, 10, INTERVAL_NANOS);
+
+        // assert
+        assertThat(active, is(equalTo(4)));
+    }
+
+    @Test
+    public void adjust_noReadyCycles_doesNotShrink() {
+        // arrange: hardly busy, but no worker ever found the queue empty
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(enabled(1), 4);
+
+        // act
+        int active = adaptiveThreads.adjust(0, 0, INTERVAL_NANOS);
+
+        // assert
+        assertThat(active, is(equalTo(4)));
+    }
+
+    @Test
+    public void adjust_busyTimeIsPerInterval() {
+        // arrange: a busy interval followed by an idle one
+        AdaptiveThreads adaptiveThreads = new AdaptiveThreads(enabled(1), 2);
+        adaptiveThreads.adjust(0, 10, INTERVAL_NANOS);
+        adaptiveThreads.addBusyNanos(INTERVAL_NANOS);
+        int afterBusy = adaptiveThreads.adjust(0, 10, INTERVAL_NANOS);
+
+        // act
+        int afterIdle = adaptiveThreads.adjust(0, 20, INTERVAL_NANOS);
+
+        // assert
+        assertThat(afterBusy, is(equalTo(2)));
+        assertThat(afterIdle, is(equalTo(1)));
+    }
+    // </editor-fold>
+}
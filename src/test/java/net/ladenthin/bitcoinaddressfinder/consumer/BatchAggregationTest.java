@@ -0,0 +1,66 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.core.Hit;
+import org.junit.jupiter.api.Test;
+
+public class BatchAggregationTest {
+
+    private static final BigInteger SECRET_BASE = BigInteger.valueOf(0x4000L);
+
+    private static final Hit HIT_A = new Hit(BigInteger.ONE, "aa", "1A", false, false);
+    private static final Hit HIT_B = new Hit(BigInteger.TWO, "bb", "1B", true, false);
+
+    // <editor-fold defaultstate="collapsed" desc="construction">
+    @Test
+    public void constructor_chunkCountBelowOne_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchAggregation(SECRET_BASE, 10, 0));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="completeChunk">
+    @Test
+    public void completeChunk_notLastChunk_returnsEmpty() {
+        BatchAggregation aggregation = new BatchAggregation(SECRET_BASE, 10, 2);
+
+        Optional<BatchResult> result = aggregation.completeChunk(0, List.of());
+
+        assertThat(result.isPresent(), is(false));
+    }
+
+    @Test
+    public void completeChunk_lastChunkCompletedOutOfOrder_hitsInChunkOrderAndFullCount() {
+        BatchAggregation aggregation = new BatchAggregation(SECRET_BASE, 10, 3);
+
+        aggregation.completeChunk(2, List.of(HIT_B));
+        aggregation.completeChunk(1, List.of());
+        Optional<BatchResult> result = aggregation.completeChunk(0, List.of(HIT_A));
+
+        assertThat(result.isPresent(), is(true));
+        BatchResult batchResult = result.get();
+        assertThat(batchResult.secretBase(), is(equalTo(SECRET_BASE)));
+        assertThat(batchResult.checkedCount(), is(equalTo(10)));
+        assertThat(batchResult.hits(), contains(HIT_A, HIT_B));
+    }
+
+    @Test
+    public void completeChunk_sameChunkTwice_throwsIllegalStateException() {
+        BatchAggregation aggregation = new BatchAggregation(null, 10, 2);
+        aggregation.completeChunk(0, List.of());
+
+        assertThrows(IllegalStateException.class, () -> aggregation.completeChunk(0, List.of()));
+    }
+    // </editor-fold>
+}
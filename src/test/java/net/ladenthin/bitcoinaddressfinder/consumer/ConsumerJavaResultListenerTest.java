@@ -11,6 +11,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
 
 import java.io.File;
 import java.math.BigInteger;
@@ -24,8 +25,10 @@ import net.ladenthin.bitcoinaddressfinder.configuration.CConsumerJava;
 import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationReadOnly;
 import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
 import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.core.Hit;
 import net.ladenthin.bitcoinaddressfinder.core.ResultListener;
 import net.ladenthin.bitcoinaddressfinder.model.PublicKeyBytes;
+import net.ladenthin.bitcoinaddressfinder.persistence.AddressPresence;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddressesFiles;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddressesLMDB;
@@ -158,6 +161,62 @@ class ConsumerJavaResultListenerTest {
         }
     }
 
+    @Test
+    void consumeKeys_batchSplitIntoChunks_reportsOneEventWithTheFullCount() throws Exception {
+        // arrange: a five-candidate batch split into chunks of two -> three queue entries
+        final RecordingResultListener listener = new RecordingResultListener();
+        final CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.batchChunkSize = 2;
+        final ConsumerJava consumerJava =
+                new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils, List.of(listener));
+        consumerJava.initWithLookup(mock(AddressPresence.class));
+        final PublicKeyBytes[] batch = new PublicKeyBytes[5];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = PublicKeyBytes.fromPrivate(BigInteger.valueOf(73 + i));
+        }
+
+        // act
+        consumerJava.consumeKeys(batch, SECRET_BASE);
+
+        // pre-assert: every chunk is its own queue entry, nothing reported before the checks
+        assertThat(consumerJava.keysQueueSize(), is(equalTo(3)));
+        assertThat(listener.received(), is(empty()));
+
+        consumerJava.consumeKeys(ByteBuffer.allocateDirect(OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES));
+
+        // assert: one event for the whole batch, emitted once the last chunk was checked
+        assertThat(listener.received(), hasSize(1));
+        final BatchResult reported = listener.received().get(0);
+        assertThat(reported.secretBase(), is(equalTo(SECRET_BASE)));
+        assertThat(reported.checkedCount(), is(equalTo(batch.length)));
+        assertThat(consumerJava.getCheckedKeys(), is(equalTo(2L * batch.length)));
+    }
+
+    @Test
+    void consumeKeys_vanityPatterns_hitNamesTheFirstMatchingPattern() throws Exception {
+        // arrange: 1JYHzX3ndZEcnjrWSQ9VC7324TJ9BAoGy4 is the compressed address of private key 73
+        final RecordingResultListener listener = new RecordingResultListener();
+        final CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.enableVanity = true;
+        cConsumerJava.vanityPatterns = List.of("1Q.*", ".*oGy4", "1JYH.*");
+        final ConsumerJava consumerJava =
+                new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils, List.of(listener));
+        consumerJava.initWithLookup(mock(AddressPresence.class));
+
+        // act
+        consumerJava.consumeKeys(
+                new PublicKeyBytes[] {PublicKeyBytes.fromPrivate(BigInteger.valueOf(73))}, SECRET_BASE);
+        consumerJava.consumeKeys(ByteBuffer.allocateDirect(OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES));
+
+        // assert
+        assertThat(listener.received(), hasSize(1));
+        final List<Hit> hits = listener.received().get(0).hits();
+        assertThat(hits, hasSize(1));
+        assertThat(hits.get(0).address(), is(equalTo("1JYHzX3ndZEcnjrWSQ9VC7324TJ9BAoGy4")));
+        assertThat(hits.get(0).vanity(), is(true));
+        assertThat(hits.get(0).vanityPattern(), is(equalTo(".*oGy4")));
+    }
+
     @Test
     void consumeOneCycle_noListenerConfigured_noExceptionThrown() throws Exception {
         new LMDBPlatformAssume().assumeLMDBExecution();
@@ -32,6 +32,7 @@ import net.ladenthin.bitcoinaddressfinder.configuration.CLMDBConfigurationReadOn
 import net.ladenthin.bitcoinaddressfinder.configuration.CProducerJava;
 import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
 import net.ladenthin.bitcoinaddressfinder.model.PublicKeyBytes;
+import net.ladenthin.bitcoinaddressfinder.persistence.AddressPresence;
 import net.ladenthin.bitcoinaddressfinder.persistence.Persistence;
 import net.ladenthin.bitcoinaddressfinder.persistence.PersistenceUtils;
 import net.ladenthin.bitcoinaddressfinder.producer.ProducerJava;
@@ -359,11 +360,241 @@ public class ConsumerJavaTest {
             assertThat(consumerJava.producerBlockedCount.get(), is(equalTo(1L)));
 
             // release the parked producer so the executor can terminate cleanly
-            consumerJava.keysQueue.poll();
+            consumerJava.keysQueues.get(0).poll();
         } finally {
             producer.shutdownNow();
         }
     }
+
+    @Test
+    public void consumeKeys_batchSplitIntoMoreChunksThanQueueSize_notCountedAsBlocked() throws Exception {
+        // arrange: one batch of eight keys in chunks of two takes four entries, more than queueSize
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.queueSize = 1;
+        cConsumerJava.batchChunkSize = 2;
+        ConsumerJava consumerJava = new ConsumerJava(
+                cConsumerJava, keyUtility, persistenceUtils, new RuntimeStatistics(), List.of(), 8);
+        PublicKeyBytes[] batch = new PublicKeyBytes[8];
+        Arrays.fill(batch, PublicKeyBytes.fromPrivate(BigInteger.valueOf(73)));
+
+        // act
+        consumerJava.consumeKeys(batch, null);
+
+        // assert: the queue is sized for one whole batch, so it took every chunk without blocking
+        assertThat(consumerJava.keysQueueSize(), is(equalTo(4)));
+        assertThat(consumerJava.keysQueues.get(0).remainingCapacity(), is(equalTo(0)));
+        assertThat(consumerJava.producerBlockedCount.get(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void chunksPerBatch_largestBatchSplit_roundsUp() {
+        assertThat(ConsumerJava.chunksPerBatch(1 << 20, 1 << 16), is(equalTo(16)));
+        assertThat(ConsumerJava.chunksPerBatch(10, 4), is(equalTo(3)));
+    }
+
+    @Test
+    public void chunksPerBatch_unknownOrNotSplit_one() {
+        assertThat(ConsumerJava.chunksPerBatch(0, 1 << 16), is(equalTo(1)));
+        assertThat(ConsumerJava.chunksPerBatch(1 << 16, 1 << 16), is(equalTo(1)));
+        assertThat(ConsumerJava.chunksPerBatch(1 << 20, 0), is(equalTo(1)));
+    }
+
+    @Test
+    public void split_batchNotLargerThanChunkSize_singleWholeEntry() {
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.batchChunkSize = 1;
+        ConsumerJava consumerJava = new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils);
+        PublicKeyBytes[] batch = createExamplePublicKeyBytesfromPrivateKey73();
+
+        List<QueuedBatch> entries = consumerJava.split(batch, BigInteger.ONE);
+
+        assertThat(entries, hasSize(1));
+        assertThat(entries.get(0).fromIndex(), is(equalTo(0)));
+        assertThat(entries.get(0).toIndex(), is(equalTo(1)));
+        assertThat(entries.get(0).aggregation(), is(nullValue()));
+    }
+
+    @Test
+    public void split_splittingDisabled_singleWholeEntry() {
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.batchChunkSize = 0;
+        ConsumerJava consumerJava = new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils);
+        PublicKeyBytes[] batch = new PublicKeyBytes[10];
+        Arrays.fill(batch, PublicKeyBytes.fromPrivate(BigInteger.valueOf(73)));
+
+        List<QueuedBatch> entries = consumerJava.split(batch, null);
+
+        assertThat(entries, hasSize(1));
+        assertThat(entries.get(0).toIndex(), is(equalTo(10)));
+    }
+
+    @Test
+    public void split_batchLargerThanChunkSize_contiguousChunksSharingOneAggregation() {
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.batchChunkSize = 4;
+        ConsumerJava consumerJava = new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils);
+        PublicKeyBytes[] batch = new PublicKeyBytes[10];
+        Arrays.fill(batch, PublicKeyBytes.fromPrivate(BigInteger.valueOf(73)));
+
+        List<QueuedBatch> entries = consumerJava.split(batch, BigInteger.TEN);
+
+        assertThat(entries, hasSize(3));
+        assertThat(entries.get(0).fromIndex(), is(equalTo(0)));
+        assertThat(entries.get(0).toIndex(), is(equalTo(4)));
+        assertThat(entries.get(1).fromIndex(), is(equalTo(4)));
+        assertThat(entries.get(1).toIndex(), is(equalTo(8)));
+        assertThat(entries.get(2).fromIndex(), is(equalTo(8)));
+        assertThat(entries.get(2).toIndex(), is(equalTo(10)));
+        for (int i = 0; i < entries.size(); i++) {
+            assertThat(entries.get(i).chunkIndex(), is(equalTo(i)));
+            assertThat(entries.get(i).keys(), is(sameInstance(batch)));
+            assertThat(entries.get(i).aggregation(), is(sameInstance(entries.get(0).aggregation())));
+        }
+        assertThat(Objects.requireNonNull(entries.get(0).aggregation()).chunkCount(), is(equalTo(3)));
+    }
+
+    @Test
+    public void consumeKeys_claimBatchSizeGreaterOne_drainsAllQueuedBatches() throws Exception {
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.queueSize = 5;
+        cConsumerJava.queueClaimBatchSize = 2;
+        ConsumerJava consumerJava = new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils);
+        AddressPresence absent = mock(AddressPresence.class);
+        consumerJava.initWithLookup(absent);
+        for (int i = 0; i < 5; i++) {
+            consumerJava.consumeKeys(createExamplePublicKeyBytesfromPrivateKey73(), null);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES);
+
+        long drained = consumerJava.consumeKeys(buffer);
+
+        // claims of two, two and one: every batch processed, both hash160s looked up per key
+        assertThat(drained, is(equalTo(5L)));
+        assertThat(consumerJava.keysQueueSize(), is(equalTo(0)));
+        assertThat(consumerJava.getCheckedKeys(), is(equalTo(10L)));
+    }
+
+    @Test
+    public void consumeKeys_threadPlacementTwoNodes_oneQueuePerNodeAndAllDrained() throws Exception {
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.threadPlacement.enabled = true;
+        cConsumerJava.threadPlacement.nodeCpuSets = List.of("0", "0");
+        ConsumerJava consumerJava = new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils);
+        consumerJava.initWithLookup(mock(AddressPresence.class));
+
+        // the test thread never entered a node, so its batches are spread over both nodes
+        consumerJava.consumeKeys(createExamplePublicKeyBytesfromPrivateKey73(), null);
+        consumerJava.consumeKeys(createExamplePublicKeyBytesfromPrivateKey73(), null);
+
+        assertThat(consumerJava.keysQueues.size(), is(equalTo(2)));
+        assertThat(consumerJava.keysQueues.get(0).size(), is(equalTo(1)));
+        assertThat(consumerJava.keysQueues.get(1).size(), is(equalTo(1)));
+        assertThat(consumerJava.keysQueueSize(), is(equalTo(2)));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES);
+        long drained = consumerJava.consumeKeys(buffer);
+
+        // a consumer helps with the other node's queue once its own is empty
+        assertThat(drained, is(equalTo(2L)));
+        assertThat(consumerJava.keysQueueSize(), is(equalTo(0)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="collectVanityPatterns">
+    @Test
+    public void collectVanityPatterns_allSources_inConfigurationOrder() throws Exception {
+        // arrange
+        Path patternsFile = folder.resolve("vanity.txt");
+        Files.writeString(patternsFile, "# comment\n1File.*\n\n  .*End  \n");
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.vanityPattern = "1Single.*";
+        cConsumerJava.vanityPatterns = List.of("1ListA.*", "1ListB.*");
+        cConsumerJava.vanityPatternsFile = patternsFile.toString();
+
+        // act
+        List<String> patterns = ConsumerJava.collectVanityPatterns(cConsumerJava);
+
+        // assert
+        assertThat(patterns, contains("1Single.*", "1ListA.*", "1ListB.*", "1File.*", ".*End"));
+    }
+
+    @Test
+    public void collectVanityPatterns_fileDoesNotExist_throwsIllegalArgumentException() {
+        // arrange
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.vanityPatternsFile = folder.resolve("does-not-exist.txt").toString();
+
+        // act, assert
+        assertThrows(IllegalArgumentException.class, () -> ConsumerJava.collectVanityPatterns(cConsumerJava));
+    }
+
+    @Test
+    public void constructor_vanityEnabledWithoutPattern_throwsIllegalArgumentException() {
+        // arrange
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.enableVanity = true;
+
+        // act, assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils));
+    }
+
+    @Test
+    public void constructor_lookupLatencySampleIntervalZero_throwsIllegalArgumentException() {
+        // arrange
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.lookupLatencySampleInterval = 0;
+
+        // act, assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils));
+    }
+
+    @Test
+    public void adjustActiveThreads_batchesLargerThanQueueSizeTimesChunkSize_doesNotGrow() throws Exception {
+        // arrange: batches of eight keys in chunks of two, far more than queueSize * batchChunkSize
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.threads = 4;
+        cConsumerJava.queueSize = 1;
+        cConsumerJava.batchChunkSize = 2;
+        cConsumerJava.queuePollTimeoutMillis = 1;
+        cConsumerJava.adaptiveThreads.enabled = true;
+        cConsumerJava.adaptiveThreads.minThreads = 1;
+        ConsumerJava consumerJava = new ConsumerJava(
+                cConsumerJava, keyUtility, persistenceUtils, new RuntimeStatistics(), List.of(), 8);
+        consumerJava.initWithLookup(mock(AddressPresence.class));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(OpenClKernelConstants.RIPEMD160_HASH_NUM_BYTES);
+        long elapsedNanos = Duration.ofSeconds(60).toNanos();
+        // one idle cycle lets the pool shrink below its maximum, so a grow would be visible
+        consumerJava.consumeOneCycle(buffer);
+        assertThat(consumerJava.adjustActiveThreads(elapsedNanos), is(equalTo(3)));
+        PublicKeyBytes[] batch = new PublicKeyBytes[8];
+        Arrays.fill(batch, PublicKeyBytes.fromPrivate(BigInteger.valueOf(73)));
+
+        // act
+        for (int i = 0; i < 3; i++) {
+            consumerJava.consumeKeys(batch, null);
+            consumerJava.consumeKeys(buffer);
+        }
+        int activeThreads = consumerJava.adjustActiveThreads(elapsedNanos);
+
+        // assert
+        assertThat(consumerJava.producerBlockedCount.get(), is(equalTo(0L)));
+        assertThat(activeThreads, is(equalTo(3)));
+    }
+
+    @Test
+    public void constructor_adaptiveMinThreadsAboveThreads_throwsIllegalArgumentException() {
+        // arrange
+        CConsumerJava cConsumerJava = new CConsumerJava();
+        cConsumerJava.threads = 2;
+        cConsumerJava.adaptiveThreads.enabled = true;
+        cConsumerJava.adaptiveThreads.minThreads = 3;
+
+        // act, assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsumerJava(cConsumerJava, keyUtility, persistenceUtils));
+    }
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="toString">
@@ -421,7 +652,7 @@ public class ConsumerJavaTest {
                     arguments,
                     hasItem(
                             equalTo(
-                                    "Statistics: [uptime 0 min] [Generated 0/s (0 M total)] [-> LMDB 0/s (0 M lookups total)] [rate window 60s] [Keys per producer: none] [Producers running: 0] [Consumers running: 0] [Consumer ready for work (queue empty): 0] [Producer blocked (queue full): 0] [Average contains time: 0 ms] [keys queue size: 0] [Hits: 0]")));
+                                    "Statistics: [uptime 0 min] [Generated 0/s (0 M total)] [-> LMDB 0/s (0 M lookups total)] [rate window 60s] [Keys per producer: none] [Producers running: 0] [Consumers running: 0] [Consumer ready for work (queue empty): 0] [Producer blocked (queue full): 0] [Lookup latency LMDB_ONLY: no samples] [keys queue size: 0] [Hits: 0]")));
         }
     }
 
@@ -0,0 +1,237 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.ladenthin.bitcoinaddressfinder.configuration.QueueWaitStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class MpmcRingBufferTest {
+
+    // <editor-fold defaultstate="collapsed" desc="construction">
+    @Test
+    public void constructor_capacityBelowOne_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new MpmcRingBuffer<Integer>(0, QueueWaitStrategy.PARK));
+    }
+
+    @Test
+    public void constructor_newBuffer_isEmptyWithFullRemainingCapacity() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(4, QueueWaitStrategy.PARK);
+
+        assertThat(buffer.size(), is(equalTo(0)));
+        assertThat(buffer.remainingCapacity(), is(equalTo(4)));
+        assertThat(buffer.capacity(), is(equalTo(4)));
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="offer / poll">
+    @Test
+    public void offer_untilFull_rejectsOnceCapacityReached() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(3, QueueWaitStrategy.PARK);
+
+        assertThat(buffer.offer(1), is(true));
+        assertThat(buffer.offer(2), is(true));
+        assertThat(buffer.offer(3), is(true));
+        assertThat(buffer.offer(4), is(false));
+        assertThat(buffer.size(), is(equalTo(3)));
+        assertThat(buffer.remainingCapacity(), is(equalTo(0)));
+    }
+
+    @Test
+    public void poll_afterOffers_returnsInFifoOrderAcrossManyLaps() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(3, QueueWaitStrategy.PARK);
+
+        // wrap around the slots several times so every slot sees more than one lap
+        for (int i = 0; i < 20; i++) {
+            assertThat(buffer.offer(i), is(true));
+            assertThat(buffer.offer(i + 1000), is(true));
+            assertThat(buffer.poll(), is(equalTo(i)));
+            assertThat(buffer.poll(), is(equalTo(i + 1000)));
+        }
+        assertThat(buffer.poll(), is(nullValue()));
+    }
+
+    @Test
+    public void offer_capacityOne_distinguishesFullFromFree() {
+        // queueSize = 1 is a supported configuration; a single slot must not read as free while full
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(1, QueueWaitStrategy.PARK);
+
+        assertThat(buffer.offer(1), is(true));
+        assertThat(buffer.offer(2), is(false));
+        assertThat(buffer.poll(), is(equalTo(1)));
+        assertThat(buffer.poll(), is(nullValue()));
+        assertThat(buffer.offer(3), is(true));
+        assertThat(buffer.poll(), is(equalTo(3)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="drainTo">
+    @Test
+    public void drainTo_limitSmallerThanSize_claimsOnlyTheLimitInOrder() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(5, QueueWaitStrategy.PARK);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> sink = new ArrayList<>();
+
+        int claimed = buffer.drainTo(sink, 3);
+
+        assertThat(claimed, is(equalTo(3)));
+        assertThat(sink, contains(0, 1, 2));
+        assertThat(buffer.size(), is(equalTo(2)));
+    }
+
+    @Test
+    public void drainTo_limitLargerThanCapacity_isCappedAtCapacity() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(2, QueueWaitStrategy.PARK);
+        buffer.offer(7);
+        buffer.offer(8);
+        List<Integer> sink = new ArrayList<>();
+
+        int claimed = buffer.drainTo(sink, Integer.MAX_VALUE);
+
+        assertThat(claimed, is(equalTo(2)));
+        assertThat(sink, contains(7, 8));
+        assertThat(buffer.offer(9), is(true));
+    }
+
+    @Test
+    public void drainTo_emptyBuffer_returnsZero() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(2, QueueWaitStrategy.PARK);
+        List<Integer> sink = new ArrayList<>();
+
+        assertThat(buffer.drainTo(sink, 2), is(equalTo(0)));
+        assertThat(sink.isEmpty(), is(true));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="waiting">
+    @ParameterizedTest
+    @EnumSource(QueueWaitStrategy.class)
+    public void pollWithTimeout_emptyBuffer_returnsNullAfterTimeout(QueueWaitStrategy waitStrategy)
+            throws InterruptedException {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(2, waitStrategy);
+
+        assertThat(buffer.poll(5, TimeUnit.MILLISECONDS), is(nullValue()));
+    }
+
+    @Test
+    public void pollWithTimeout_interrupted_throwsInterruptedException() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(2, QueueWaitStrategy.PARK);
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> buffer.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void put_fullBuffer_waitsUntilAConsumerFreesASlot() throws Exception {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(1, QueueWaitStrategy.PARK);
+        buffer.offer(1);
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> put = producer.submit(() -> {
+                buffer.put(2);
+                return null;
+            });
+
+            // pre-assert: the producer is parked on the full buffer
+            assertThat(put.isDone(), is(false));
+
+            assertThat(buffer.poll(), is(equalTo(1)));
+            put.get(10, TimeUnit.SECONDS);
+            assertThat(buffer.poll(), is(equalTo(2)));
+        } finally {
+            producer.shutdownNow();
+        }
+    }
+
+    /**
+     * {@link QueueWaitStrategy#SPIN} is left out on purpose: it assumes a dedicated core per waiting
+     * thread, and eight spinning threads on a small CI runner only make progress at the scheduler's
+     * time-slice granularity.
+     */
+    @ParameterizedTest
+    @EnumSource(value = QueueWaitStrategy.class, names = {"YIELD", "PARK"})
+    public void putAndPoll_manyProducersAndConsumers_everyElementDeliveredExactlyOnce(
+            QueueWaitStrategy waitStrategy) throws Exception {
+        final int producers = 4;
+        final int consumers = 4;
+        final int perProducer = 5_000;
+        final int expected = producers * perProducer;
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(8, waitStrategy);
+        AtomicInteger consumedTotal = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> producerFutures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final int offset = p * perProducer;
+                producerFutures.add(executor.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        buffer.put(offset + i);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<List<Integer>>> consumerFutures = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                // half of the consumers use the batch claim, half the single poll
+                final boolean useDrain = c % 2 == 0;
+                consumerFutures.add(executor.submit(() -> {
+                    List<Integer> received = new ArrayList<>();
+                    while (consumedTotal.get() < expected) {
+                        if (useDrain) {
+                            int claimed = buffer.drainTo(received, 3);
+                            if (claimed > 0) {
+                                consumedTotal.addAndGet(claimed);
+                                continue;
+                            }
+                        }
+                        Integer element = buffer.poll(10, TimeUnit.MILLISECONDS);
+                        if (element != null) {
+                            received.add(element);
+                            consumedTotal.incrementAndGet();
+                        }
+                    }
+                    return received;
+                }));
+            }
+
+            for (Future<?> future : producerFutures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            Set<Integer> all = new HashSet<>();
+            int total = 0;
+            for (Future<List<Integer>> future : consumerFutures) {
+                List<Integer> received = future.get(60, TimeUnit.SECONDS);
+                total += received.size();
+                all.addAll(received);
+            }
+
+            assertThat(total, is(equalTo(expected)));
+            assertThat(all.size(), is(equalTo(expected)));
+            assertThat(buffer.size(), is(equalTo(0)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,143 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.IOException;
+import java.util.List;
+import net.ladenthin.bitcoinaddressfinder.configuration.CThreadPlacement;
+import net.ladenthin.bitcoinaddressfinder.util.ThreadAffinity;
+import org.junit.jupiter.api.Test;
+
+public class ThreadPlacementTest {
+
+    private static CThreadPlacement enabled(String... nodeCpuSets) {
+        CThreadPlacement config = new CThreadPlacement();
+        config.enabled = true;
+        config.nodeCpuSets = List.of(nodeCpuSets);
+        return config;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_enabledWithoutNodes_throwsIllegalArgumentException() {
+        CThreadPlacement config = enabled();
+
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPlacement(config, mock(ThreadAffinity.class)));
+    }
+
+    @Test
+    public void constructor_malformedCpuList_throwsIllegalArgumentException() {
+        CThreadPlacement config = enabled("0-3", "4-7;reboot");
+
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPlacement(config, mock(ThreadAffinity.class)));
+    }
+
+    @Test
+    public void constructor_disabledWithMalformedCpuList_isAccepted() {
+        CThreadPlacement config = enabled("not a cpu list");
+        config.enabled = false;
+
+        ThreadPlacement threadPlacement = new ThreadPlacement(config, mock(ThreadAffinity.class));
+
+        assertThat(threadPlacement.isEnabled(), is(false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="disabled">
+    @Test
+    public void disabled_singleNodeAndNothingPinned() {
+        ThreadAffinity threadAffinity = mock(ThreadAffinity.class);
+        ThreadPlacement threadPlacement = new ThreadPlacement(new CThreadPlacement(), threadAffinity);
+
+        threadPlacement.enterNode(0);
+
+        assertThat(threadPlacement.nodeCount(), is(equalTo(1)));
+        assertThat(threadPlacement.nodeForWorker(5), is(equalTo(0)));
+        assertThat(threadPlacement.routingNode(), is(equalTo(0)));
+        verifyNoInteractions(threadAffinity);
+    }
+
+    @Test
+    public void replicatesLookup_requestedButDisabled_returnsFalse() {
+        CThreadPlacement config = new CThreadPlacement();
+        config.replicateLookupPerNode = true;
+
+        assertThat(new ThreadPlacement(config, mock(ThreadAffinity.class)).replicatesLookup(), is(false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="enabled">
+    @Test
+    public void nodeForWorker_twoNodes_spreadsRoundRobin() {
+        ThreadPlacement threadPlacement = new ThreadPlacement(enabled("0-3", "4-7"), mock(ThreadAffinity.class));
+
+        assertThat(threadPlacement.nodeCount(), is(equalTo(2)));
+        assertThat(threadPlacement.nodeForWorker(0), is(equalTo(0)));
+        assertThat(threadPlacement.nodeForWorker(1), is(equalTo(1)));
+        assertThat(threadPlacement.nodeForWorker(2), is(equalTo(0)));
+    }
+
+    @Test
+    public void enterNode_enabled_pinsToTheNodesCpusAndRoutesToTheNode() throws Exception {
+        ThreadAffinity threadAffinity = mock(ThreadAffinity.class);
+        ThreadPlacement threadPlacement = new ThreadPlacement(enabled("0-3", "4-7"), threadAffinity);
+
+        Thread thread = new Thread(() -> threadPlacement.enterNode(1));
+        thread.start();
+        thread.join();
+
+        verify(threadAffinity).pinCurrentThread("4-7");
+    }
+
+    @Test
+    public void routingNode_threadEnteredANode_alwaysReturnsThatNode() throws Exception {
+        ThreadPlacement threadPlacement = new ThreadPlacement(enabled("0-3", "4-7"), mock(ThreadAffinity.class));
+        int[] routed = new int[3];
+
+        Thread thread = new Thread(threadPlacement.onNode(1, () -> {
+            for (int i = 0; i < routed.length; i++) {
+                routed[i] = threadPlacement.routingNode();
+            }
+        }));
+        thread.start();
+        thread.join();
+
+        assertThat(routed, is(equalTo(new int[] {1, 1, 1})));
+    }
+
+    @Test
+    public void routingNode_unplacedThread_roundRobinsOverTheNodes() {
+        ThreadPlacement threadPlacement = new ThreadPlacement(enabled("0", "1", "2"), mock(ThreadAffinity.class));
+
+        assertThat(threadPlacement.currentNode(), is(equalTo(ThreadPlacement.UNPLACED)));
+        assertThat(threadPlacement.routingNode(), is(equalTo(0)));
+        assertThat(threadPlacement.routingNode(), is(equalTo(1)));
+        assertThat(threadPlacement.routingNode(), is(equalTo(2)));
+        assertThat(threadPlacement.routingNode(), is(equalTo(0)));
+    }
+
+    @Test
+    public void enterNode_pinningFails_nodeIsStillRecorded() throws Exception {
+        ThreadAffinity threadAffinity = mock(ThreadAffinity.class);
+        doThrow(new IOException("taskset: failed")).when(threadAffinity).pinCurrentThread("4-7");
+        ThreadPlacement threadPlacement = new ThreadPlacement(enabled("0-3", "4-7"), threadAffinity);
+        int[] node = new int[1];
+
+        Thread thread = new Thread(threadPlacement.onNode(1, () -> node[0] = threadPlacement.currentNode()));
+        thread.start();
+        thread.join();
+
+        assertThat(node[0], is(equalTo(1)));
+    }
+    // </editor-fold>
+}
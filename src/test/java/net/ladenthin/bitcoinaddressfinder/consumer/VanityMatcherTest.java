@@ -0,0 +1,130 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.Network;
+import org.junit.jupiter.api.Test;
+
+public class VanityMatcherTest {
+
+    private final Network network = new NetworkParameterFactory().getNetwork();
+    private final KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+
+    /** 1JYHzX3ndZEcnjrWSQ9VC7324TJ9BAoGy4 (private key 73, compressed). */
+    private byte[] hash160OfKey73() {
+        return keyUtility.createECKey(BigInteger.valueOf(73), true).getPubKeyHash();
+    }
+
+    private VanityMatcher compile(List<String> regexes) {
+        return VanityMatcher.compile(regexes, keyUtility.legacyAddressVersion(), keyUtility::toBase58);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="compile">
+    @Test
+    public void compile_noPattern_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> compile(List.of()));
+    }
+
+    @Test
+    public void compile_mixedPatterns_onlyUncompiledAndUnrestrictedAreUnindexed() {
+        VanityMatcher vanityMatcher = compile(List.of("1A.*", ".*z", "1[A-C].*", ".*", "1B.*c"));
+
+        assertThat(vanityMatcher.patternCount(), is(equalTo(5)));
+        assertThat(vanityMatcher.unindexedPatternCount(), is(equalTo(2)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="match">
+    @Test
+    public void match_severalPatternsMatch_returnsFirstInConfigurationOrder() {
+        VanityMatcher vanityMatcher = compile(List.of("1Q.*", ".*oGy4", "1JYH.*", "1J.*"));
+
+        VanityPattern matched = vanityMatcher.match(hash160OfKey73());
+
+        assertThat(matched.regex(), is(equalTo(".*oGy4")));
+    }
+
+    @Test
+    public void match_onlyPrefixPatternMatches_returnsIt() {
+        VanityMatcher vanityMatcher = compile(List.of("1Q.*", ".*oGy5", "1JYH.*"));
+
+        VanityPattern matched = vanityMatcher.match(hash160OfKey73());
+
+        assertThat(matched.regex(), is(equalTo("1JYH.*")));
+    }
+
+    @Test
+    public void match_uncompiledPattern_matchedByRegex() {
+        VanityMatcher vanityMatcher = compile(List.of("1Q.*", "1J[XYZ]H.*"));
+
+        VanityPattern matched = vanityMatcher.match(hash160OfKey73());
+
+        assertThat(matched.regex(), is(equalTo("1J[XYZ]H.*")));
+    }
+
+    @Test
+    public void match_noPatternMatches_returnsNull() {
+        VanityMatcher vanityMatcher = compile(List.of("1Q.*", ".*oGy5", "1JYJ.*", "1JYH.*Gy5"));
+
+        assertThat(vanityMatcher.match(hash160OfKey73()), is(nullValue()));
+    }
+
+    /**
+     * The index must return exactly what checking every regex in order returns, for overlapping,
+     * nested and suffix-only patterns alike.
+     */
+    @Test
+    public void match_randomHash160s_agreesWithRegexInOrder() {
+        List<String> regexes = new ArrayList<>(List.of("1A.*", "1Ab.*", "11.*", ".*z", ".*zz", "1B.*9", "1[C-E].*"));
+        String alphabet = VanityPattern.BASE58_ALPHABET;
+        Random random = new Random(42L);
+        for (int i = 0; i < 300; i++) {
+            char first = alphabet.charAt(random.nextInt(alphabet.length()));
+            char second = alphabet.charAt(random.nextInt(alphabet.length()));
+            regexes.add(i % 3 == 0 ? ".*" + first + second : "1" + first + ".*");
+        }
+        List<VanityPattern> patterns = regexes.stream()
+                .map(regex -> VanityPattern.compile(regex, keyUtility.legacyAddressVersion()))
+                .toList();
+        VanityMatcher vanityMatcher = compile(regexes);
+        int matches = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            byte[] hash160 = new byte[20];
+            random.nextBytes(hash160);
+            if (i % 10 == 0) {
+                hash160[0] = 0;
+            }
+            String address = keyUtility.toBase58(hash160);
+            String expected = patterns.stream()
+                    .filter(pattern -> pattern.matches(address))
+                    .map(VanityPattern::regex)
+                    .findFirst()
+                    .orElse(null);
+
+            VanityPattern matched = vanityMatcher.match(hash160);
+
+            assertThat(address, matched == null ? null : matched.regex(), is(equalTo(expected)));
+            if (expected != null) {
+                matches++;
+            }
+        }
+        assertThat(matches, is(greaterThan(0)));
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,146 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.BitcoinNetwork;
+import org.bitcoinj.base.Network;
+import org.bitcoinj.crypto.ECKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class VanityPatternTest {
+
+    private final Network network = new NetworkParameterFactory().getNetwork();
+    private final KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+
+    /** Random hash160s, a sixth of them with one to three leading zero bytes (addresses "11…", "111…"). */
+    private static byte[][] randomHash160s(int count) {
+        Random random = new Random(1337L);
+        byte[][] hash160s = new byte[count][20];
+        for (byte[] hash160 : hash160s) {
+            random.nextBytes(hash160);
+            int zeroBytes = random.nextInt(18);
+            for (int i = 0; i < zeroBytes && i < 3; i++) {
+                hash160[i] = 0;
+            }
+        }
+        return hash160s;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="compile">
+    @ParameterizedTest
+    @ValueSource(strings = {"1JYH.*", "^1JYH.*$", ".*iZt", "1a.*b", "11.*", "1.*", ".*"})
+    public void compile_literalPrefixAndSuffix_isCompiled(String regex) {
+        assertThat(VanityPattern.compile(regex, 0).isCompiled(), is(true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1JYH", "1[A-C].*", "1A.*[0-9]", "(1A|1B).*", ".*0", "1I.*", ".*abcdefghij"})
+    public void compile_notALiteralPrefixSuffixForm_fallsBackToRegex(String regex) {
+        VanityPattern vanityPattern = VanityPattern.compile(regex, 0);
+
+        assertThat(vanityPattern.isCompiled(), is(false));
+        // the prefilter lets everything through, the regex decides
+        assertThat(vanityPattern.mayMatch(new byte[20]), is(true));
+    }
+
+    @Test
+    public void compile_suffixOfMaximumLength_isCompiled() {
+        String suffix = "abcdefghi";
+
+        assertThat(suffix.length(), is(equalTo(VanityPattern.MAX_COMPILED_SUFFIX_LENGTH)));
+        assertThat(VanityPattern.compile(".*" + suffix, 0).isCompiled(), is(true));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="mayMatch">
+    @Test
+    public void mayMatch_knownAddress_prefixAndSuffixPass() {
+        // 1JYHzX3ndZEcnjrWSQ9VC7324TJ9BAoGy4 (private key 73, compressed)
+        ECKey ecKey = keyUtility.createECKey(BigInteger.valueOf(73), true);
+        byte[] hash160 = ecKey.getPubKeyHash();
+
+        assertThat(VanityPattern.compile("1JYH.*", 0).mayMatch(hash160), is(true));
+        assertThat(VanityPattern.compile(".*oGy4", 0).mayMatch(hash160), is(true));
+        assertThat(VanityPattern.compile("1JYHz.*Gy4", 0).mayMatch(hash160), is(true));
+        assertThat(VanityPattern.compile("1JYJ.*", 0).mayMatch(hash160), is(false));
+        assertThat(VanityPattern.compile(".*oGy5", 0).mayMatch(hash160), is(false));
+    }
+
+    @Test
+    public void mayMatch_prefixNoMainnetAddressHas_neverPasses() {
+        // every mainnet legacy address starts with '1'
+        VanityPattern vanityPattern = VanityPattern.compile("2.*", 0);
+
+        for (byte[] hash160 : randomHash160s(1_000)) {
+            assertThat(vanityPattern.mayMatch(hash160), is(false));
+        }
+    }
+
+    /**
+     * The compiled check must never reject an address the regex matches, and should let through
+     * barely more than the regex matches.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"1A.*", "11.*", "111.*", "1z.*", "12.*", "1Q.*", ".*z", ".*11", "1.*ab", "^1B.*$"})
+    public void mayMatch_randomHash160s_isExactSupersetOfRegex(String regex) {
+        VanityPattern vanityPattern = VanityPattern.compile(regex, 0);
+        int regexMatches = 0;
+        int passed = 0;
+
+        for (byte[] hash160 : randomHash160s(20_000)) {
+            boolean mayMatch = vanityPattern.mayMatch(hash160);
+            boolean matches = vanityPattern.matches(keyUtility.toBase58(hash160));
+            if (matches) {
+                assertThat("rejected a match of " + regex, mayMatch, is(true));
+                regexMatches++;
+            }
+            if (mayMatch) {
+                passed++;
+            }
+        }
+
+        assertThat(passed - regexMatches, is(lessThan(1 + regexMatches / 100)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"m.*", "n.*", "n.*Z", ".*z"})
+    public void mayMatch_testnet_isExactSupersetOfRegex(String regex) {
+        KeyUtility testnetKeyUtility = new KeyUtility(BitcoinNetwork.TESTNET, new ByteBufferUtility(false));
+        VanityPattern vanityPattern = VanityPattern.compile(regex, testnetKeyUtility.legacyAddressVersion());
+
+        for (byte[] hash160 : randomHash160s(5_000)) {
+            if (vanityPattern.matches(testnetKeyUtility.toBase58(hash160))) {
+                assertThat("rejected a match of " + regex, vanityPattern.mayMatch(hash160), is(true));
+            }
+        }
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="mergeRanges">
+    @Test
+    public void mergeRanges_overlappingAdjacentAndUnsorted_mergedAscendingUnsigned() {
+        List<long[]> merged = VanityPattern.mergeRanges(List.of(
+                new long[] {-2L, -1L}, new long[] {10L, 20L}, new long[] {21L, 30L}, new long[] {0L, 5L},
+                new long[] {3L, 4L}));
+
+        assertThat(merged.size(), is(equalTo(3)));
+        assertThat(merged.get(0), is(equalTo(new long[] {0L, 5L})));
+        assertThat(merged.get(1), is(equalTo(new long[] {10L, 30L})));
+        assertThat(merged.get(2), is(equalTo(new long[] {-2L, -1L})));
+    }
+    // </editor-fold>
+}
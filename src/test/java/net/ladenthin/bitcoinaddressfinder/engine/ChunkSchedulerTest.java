@@ -0,0 +1,380 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.engine;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ladenthin.bitcoinaddressfinder.MockConsumer;
+import net.ladenthin.bitcoinaddressfinder.configuration.CChunkScheduler;
+import net.ladenthin.bitcoinaddressfinder.configuration.CProducerJava;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyChunk;
+import net.ladenthin.bitcoinaddressfinder.keyproducer.KeyProducerJavaChunked;
+import net.ladenthin.bitcoinaddressfinder.producer.ProducerJava;
+import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import net.ladenthin.bitcoinaddressfinder.statistics.RuntimeStatistics;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.Network;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChunkSchedulerTest {
+
+    private static final long ONE_SECOND_NANOS = 1_000_000_000L;
+
+    @TempDir
+    public Path folder;
+
+    private final Network network = new NetworkParameterFactory().getNetwork();
+    private final KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+    private final BitHelper bitHelper = new BitHelper();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private static CChunkScheduler range(String startHex, String endHex) {
+        CChunkScheduler cChunkScheduler = new CChunkScheduler();
+        cChunkScheduler.keyProducerId = "chunked";
+        cChunkScheduler.startPrivateKey = startHex;
+        cChunkScheduler.endPrivateKey = endHex;
+        return cChunkScheduler;
+    }
+
+    private ChunkScheduler scheduler(CChunkScheduler cChunkScheduler) {
+        return new ChunkScheduler(cChunkScheduler, clock::get);
+    }
+
+    /** Asserts the chunks tile {@code [start, end)} exactly: no overlap, no gap. */
+    private static void assertTiles(List<KeyChunk> chunks, BigInteger start, BigInteger end) {
+        List<KeyChunk> sorted = new ArrayList<>(chunks);
+        sorted.sort(Comparator.comparing(KeyChunk::start));
+        BigInteger expected = start;
+        for (KeyChunk chunk : sorted) {
+            assertThat(chunk.start(), is(equalTo(expected)));
+            expected = chunk.end();
+        }
+        assertThat(expected, is(equalTo(end)));
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_targetChunkSecondsNotPositive_throwsIllegalArgumentException() {
+        CChunkScheduler cChunkScheduler = range("10", "20");
+        cChunkScheduler.targetChunkSeconds = 0.0;
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler(cChunkScheduler));
+    }
+
+    @Test
+    public void constructor_sharded_throwsIllegalArgumentException() {
+        CChunkScheduler cChunkScheduler = range("10", "20");
+        cChunkScheduler.shardCount = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler(cChunkScheduler));
+    }
+
+    @Test
+    public void constructor_startAfterEnd_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> scheduler(range("20", "10")));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="nextChunk">
+    @Test
+    public void nextChunk_firstRequest_oneUnitOfTheLargestBatchAlignedDown() {
+        ChunkScheduler chunkScheduler = scheduler(range("105", "4FF"));
+        chunkScheduler.createKeyProducer(2);
+        chunkScheduler.createKeyProducer(4);
+
+        KeyChunk chunk = chunkScheduler.nextChunk(0, null);
+
+        assertThat(chunk, is(equalTo(new KeyChunk(BigInteger.valueOf(0x100), 16L))));
+    }
+
+    @Test
+    public void nextChunk_previousChunkTookOneSecond_sizedForTargetChunkSeconds() {
+        CChunkScheduler cChunkScheduler = range("0", "FFFFFF");
+        cChunkScheduler.targetChunkSeconds = 10.0;
+        ChunkScheduler chunkScheduler = scheduler(cChunkScheduler);
+        chunkScheduler.createKeyProducer(4);
+        KeyChunk first = chunkScheduler.nextChunk(0, null);
+
+        clock.addAndGet(ONE_SECOND_NANOS);
+        KeyChunk second = chunkScheduler.nextChunk(0, first);
+
+        // 16 keys per second for 10 seconds
+        assertThat(second.keyCount(), is(equalTo(160L)));
+        assertThat(second.start(), is(equalTo(first.end())));
+    }
+
+    @Test
+    public void nextChunk_fasterProducer_getsProportionallyLargerChunks() {
+        CChunkScheduler cChunkScheduler = range("0", "FFFFFF");
+        cChunkScheduler.targetChunkSeconds = 40.0;
+        ChunkScheduler chunkScheduler = scheduler(cChunkScheduler);
+        chunkScheduler.createKeyProducer(4);
+        chunkScheduler.createKeyProducer(4);
+        KeyChunk fast = chunkScheduler.nextChunk(0, null);
+        KeyChunk slow = chunkScheduler.nextChunk(1, null);
+
+        clock.addAndGet(ONE_SECOND_NANOS);
+        KeyChunk fastNext = chunkScheduler.nextChunk(0, fast);
+        clock.addAndGet(3 * ONE_SECOND_NANOS);
+        KeyChunk slowNext = chunkScheduler.nextChunk(1, slow);
+
+        assertThat(fastNext.keyCount(), is(equalTo(4 * slowNext.keyCount())));
+    }
+
+    @Test
+    public void nextChunk_nearTheEnd_cappedToAnEqualShareOfTheRest() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "FF"));
+        chunkScheduler.createKeyProducer(4);
+        chunkScheduler.createKeyProducer(4);
+        KeyChunk first = chunkScheduler.nextChunk(0, null);
+
+        clock.addAndGet(ONE_SECOND_NANOS);
+        KeyChunk second = chunkScheduler.nextChunk(0, first);
+
+        // 15 units are left for two producers
+        assertThat(second.keyCount(), is(equalTo(7L * 16L)));
+    }
+
+    @Test
+    public void nextChunk_rangeExhausted_returnsNull() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "F"));
+        chunkScheduler.createKeyProducer(4);
+        KeyChunk only = chunkScheduler.nextChunk(0, null);
+
+        assertThat(chunkScheduler.nextChunk(0, only), is(nullValue()));
+    }
+
+    @Test
+    public void nextChunk_completedChunkNotInFlight_throwsIllegalStateException() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "FFF"));
+        chunkScheduler.createKeyProducer(4);
+        chunkScheduler.nextChunk(0, null);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> chunkScheduler.nextChunk(0, new KeyChunk(BigInteger.valueOf(0x800), 16L)));
+    }
+
+    @Test
+    public void nextChunk_manyRequestersConcurrently_chunksTileTheRange() throws InterruptedException {
+        ChunkScheduler chunkScheduler = new ChunkScheduler(range("1000", "8FFFF"));
+        int requesterCount = 8;
+        for (int i = 0; i < requesterCount; i++) {
+            chunkScheduler.createKeyProducer(2 + i % 3);
+        }
+        List<KeyChunk> chunks = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < requesterCount; i++) {
+            int requesterId = i;
+            threads.add(new Thread(() -> {
+                KeyChunk chunk = chunkScheduler.nextChunk(requesterId, null);
+                while (chunk != null) {
+                    chunks.add(chunk);
+                    chunk = chunkScheduler.nextChunk(requesterId, chunk);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTiles(chunks, BigInteger.valueOf(0x1000), BigInteger.valueOf(0x90000));
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(BigInteger.valueOf(0x90000))));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="createKeyProducer">
+    @Test
+    public void createKeyProducer_largerBatchAfterSchedulingStarted_throwsIllegalStateException() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "FFF"));
+        chunkScheduler.createKeyProducer(2);
+        chunkScheduler.nextChunk(0, null);
+
+        assertThrows(IllegalStateException.class, () -> chunkScheduler.createKeyProducer(4));
+    }
+
+    @Test
+    public void createKeyProducer_rangeExhausted_createSecretsThrowsNoMoreSecretsAvailableException() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "F"));
+        KeyProducerJavaChunked keyProducer = chunkScheduler.createKeyProducer(4);
+        keyProducer.createSecrets(16, true);
+
+        assertThrows(NoMoreSecretsAvailableException.class, () -> keyProducer.createSecrets(16, true));
+    }
+
+    @Test
+    public void createKeyProducer_smallerBatch_cutsTheChunkIntoSequentialBatches() {
+        ChunkScheduler chunkScheduler = scheduler(range("40", "FFF"));
+        KeyProducerJavaChunked small = chunkScheduler.createKeyProducer(2);
+        chunkScheduler.createKeyProducer(4);
+
+        BigInteger[] first = small.createSecrets(4, false);
+        BigInteger[] second = small.createSecrets(4, true);
+
+        assertThat(first, is(equalTo(new BigInteger[] {
+            BigInteger.valueOf(0x40), BigInteger.valueOf(0x41), BigInteger.valueOf(0x42), BigInteger.valueOf(0x43)
+        })));
+        assertThat(second, is(equalTo(new BigInteger[] {BigInteger.valueOf(0x44)})));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="watermark">
+    @Test
+    public void getWatermark_chunksCompletedOutOfOrder_staysAtTheOldestChunkInFlight() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "FFF"));
+        chunkScheduler.createKeyProducer(4);
+        chunkScheduler.createKeyProducer(4);
+        KeyChunk first = chunkScheduler.nextChunk(0, null);
+        KeyChunk second = chunkScheduler.nextChunk(1, null);
+
+        KeyChunk third = chunkScheduler.nextChunk(1, second);
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(first.start())));
+
+        chunkScheduler.nextChunk(0, first);
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(third.start())));
+    }
+
+    @Test
+    public void getWatermark_chunkHandedBackWithBatchesUnchecked_advancesOnlyOnceEveryBatchIsChecked()
+            throws IOException {
+        // A batch handed to the consumer may still be queued when the process dies; the chunk must
+        // not count as done, nor be persisted, before the consumer reports it checked.
+        Path watermarkFile = folder.resolve("watermark.txt");
+        CChunkScheduler cChunkScheduler = range("0", "FFF");
+        cChunkScheduler.checkpointFile = watermarkFile.toString();
+        ChunkScheduler chunkScheduler = scheduler(cChunkScheduler);
+        KeyProducerJavaChunked keyProducer = chunkScheduler.createKeyProducer(4);
+        BigInteger[] first = keyProducer.createSecrets(16, true);
+        BigInteger[] second = keyProducer.createSecrets(16, true);
+
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(first[0])));
+        assertThat(Files.exists(watermarkFile), is(false));
+
+        chunkScheduler.onBatchChecked(new BatchResult(first[0], 16, List.of()));
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(second[0])));
+        assertThat(Files.readString(watermarkFile), is(equalTo(second[0].toString(16))));
+    }
+
+    @Test
+    public void getWatermark_batchOfAnotherKeyProducerChecked_ignored() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "FFF"));
+        KeyProducerJavaChunked keyProducer = chunkScheduler.createKeyProducer(4);
+        BigInteger[] first = keyProducer.createSecrets(16, true);
+        keyProducer.createSecrets(16, true);
+
+        chunkScheduler.onBatchChecked(new BatchResult(BigInteger.valueOf(0x10000), 16, List.of()));
+        chunkScheduler.onBatchChecked(new BatchResult(null, 16, List.of()));
+
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(first[0])));
+    }
+
+    @Test
+    public void getWatermark_independentSecretsIssued_staysForGood() {
+        ChunkScheduler chunkScheduler = scheduler(range("0", "FFF"));
+        KeyProducerJavaChunked keyProducer = chunkScheduler.createKeyProducer(4);
+        BigInteger[] first = keyProducer.createSecrets(16, false);
+        keyProducer.createSecrets(16, false);
+        keyProducer.createSecrets(16, false);
+
+        assertThat(chunkScheduler.getWatermark(), is(equalTo(first[0])));
+    }
+
+    @Test
+    public void checkpointFile_restart_resumesAtThePersistedWatermark() throws IOException {
+        Path watermarkFile = folder.resolve("watermark.txt");
+        CChunkScheduler cChunkScheduler = range("0", "FFF");
+        cChunkScheduler.checkpointFile = watermarkFile.toString();
+        ChunkScheduler chunkScheduler = scheduler(cChunkScheduler);
+        chunkScheduler.createKeyProducer(4);
+        KeyChunk first = chunkScheduler.nextChunk(0, null);
+        KeyChunk second = chunkScheduler.nextChunk(0, first);
+
+        assertThat(Files.readString(watermarkFile), is(equalTo(second.start().toString(16))));
+
+        ChunkScheduler restarted = scheduler(cChunkScheduler);
+        restarted.createKeyProducer(4);
+        assertThat(restarted.nextChunk(0, null).start(), is(equalTo(second.start())));
+    }
+
+    @Test
+    public void checkpointFile_unparsable_throwsIllegalArgumentException() throws IOException {
+        Path watermarkFile = Files.writeString(folder.resolve("watermark.txt"), "not hex");
+        CChunkScheduler cChunkScheduler = range("0", "FFF");
+        cChunkScheduler.checkpointFile = watermarkFile.toString();
+        ChunkScheduler chunkScheduler = scheduler(cChunkScheduler);
+        chunkScheduler.createKeyProducer(4);
+
+        assertThrows(IllegalArgumentException.class, () -> chunkScheduler.nextChunk(0, null));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="with producers">
+    /**
+     * A small-batch and a large-batch producer (standing in for a CPU and a GPU device) drain one
+     * range together; the batch bases they report cover it exactly once.
+     */
+    @Test
+    public void producers_differentBatchSizes_scanTheRangeExactlyOnce() throws Exception {
+        ChunkScheduler chunkScheduler = new ChunkScheduler(range("100", "4FF"));
+        List<MockConsumer> consumers = new ArrayList<>();
+        List<ProducerJava> producers = new ArrayList<>();
+        List<Integer> batchSizes = List.of(2, 4);
+        for (int batchSizeInBits : batchSizes) {
+            CProducerJava cProducerJava = new CProducerJava();
+            cProducerJava.keyProducerId = "chunked";
+            cProducerJava.batchSizeInBits = batchSizeInBits;
+            cProducerJava.batchUsePrivateKeyIncrement = true;
+            cProducerJava.runOnce = false;
+            MockConsumer mockConsumer = new MockConsumer();
+            ProducerJava producerJava = new ProducerJava(
+                    cProducerJava,
+                    mockConsumer,
+                    keyUtility,
+                    chunkScheduler.createKeyProducer(batchSizeInBits),
+                    bitHelper,
+                    new RuntimeStatistics());
+            producerJava.initProducer();
+            consumers.add(mockConsumer);
+            producers.add(producerJava);
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (ProducerJava producer : producers) {
+            threads.add(new Thread(producer));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<KeyChunk> batches = new ArrayList<>();
+        for (int i = 0; i < consumers.size(); i++) {
+            for (BigInteger secretBase : consumers.get(i).secretBaseList) {
+                batches.add(new KeyChunk(secretBase, 1L << batchSizes.get(i)));
+            }
+        }
+        assertTiles(batches, BigInteger.valueOf(0x100), BigInteger.valueOf(0x500));
+    }
+    // </editor-fold>
+}
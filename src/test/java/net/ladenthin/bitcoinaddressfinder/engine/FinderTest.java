@@ -19,6 +19,7 @@ import net.ladenthin.bitcoinaddressfinder.AwaitTimeTest;
 import net.ladenthin.bitcoinaddressfinder.AwaitTimeTests;
 import net.ladenthin.bitcoinaddressfinder.CommonDataProvider;
 import net.ladenthin.bitcoinaddressfinder.LogLevelChange;
+import net.ladenthin.bitcoinaddressfinder.configuration.CChunkScheduler;
 import net.ladenthin.bitcoinaddressfinder.configuration.CConsumerJava;
 import net.ladenthin.bitcoinaddressfinder.configuration.CFinder;
 import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaBip39;
@@ -50,6 +51,7 @@ import net.ladenthin.bitcoinaddressfinder.producer.ProducerState;
 import net.ladenthin.bitcoinaddressfinder.producer.ProducerStateProvider;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddressesFiles;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddressesLMDB;
+import net.ladenthin.bitcoinaddressfinder.statistics.MetricsEndpoint;
 import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -106,6 +108,49 @@ public class FinderTest {
     }
     // </editor-fold>
 
+    // <editor-fold defaultstate="collapsed" desc="startMetricsEndpoint">
+    @Test
+    public void startMetricsEndpoint_disabled_metricsRegisteredButNotServed() throws Exception {
+        // arrange
+        CFinder cFinder = new CFinder();
+        configureConsumerJava(cFinder);
+        Finder finder = new Finder(cFinder);
+
+        // act
+        finder.startMetricsEndpoint();
+        finder.startConsumer();
+
+        // assert
+        String scrape = finder.getMetricsRegistry().scrape();
+        assertThat(scrape, containsString("bitcoinaddressfinder_generated_keys_total 0\n"));
+        assertThat(scrape, containsString("bitcoinaddressfinder_checked_addresses_total 0\n"));
+        assertThat(scrape, containsString("bitcoinaddressfinder_lookup_latency_seconds_sum 0.0\n"));
+        assertThat(scrape, containsString("bitcoinaddressfinder_lookup_latency_seconds_count 0\n"));
+        assertThat(scrape, containsString("bitcoinaddressfinder_filter_survivor_ratio 0.0\n"));
+        assertThat(finder.getMetricsEndpoint(), is(nullValue()));
+        finder.shutdownAndAwaitTermination();
+    }
+
+    @Test
+    public void startMetricsEndpoint_enabled_servedUntilInterrupted() throws Exception {
+        // arrange
+        CFinder cFinder = new CFinder();
+        cFinder.metricsEndpoint.enabled = true;
+        cFinder.metricsEndpoint.port = 0;
+        Finder finder = new Finder(cFinder);
+
+        // act
+        finder.startMetricsEndpoint();
+
+        // assert
+        MetricsEndpoint endpoint = Objects.requireNonNull(finder.getMetricsEndpoint());
+        assertThat(endpoint.getPort(), is(greaterThan(0)));
+        finder.interrupt();
+        assertThat(finder.getMetricsEndpoint(), is(nullValue()));
+        assertThat(endpoint.getPort(), is(equalTo(-1)));
+    }
+    // </editor-fold>
+
     // <editor-fold defaultstate="collapsed" desc="shutdownAndAwaitTermination">
     @Test
     public void shutdownAndAwaitTermination_noProducersSet_shutdownCalled() throws Exception {
@@ -283,6 +328,45 @@ public class FinderTest {
         // act
         assertThrows(KeyProducerIdIsNotUniqueException.class, () -> finder.startKeyProducer());
     }
+
+    @Test
+    public void startKeyProducer_chunkSchedulerIdClashesWithKeyProducer_ExceptionThrown() throws Exception {
+        // arrange
+        CFinder cFinder = new CFinder();
+        String sameIdTwice = "123";
+        configureKeyProducerJavaRandom(sameIdTwice, cFinder);
+        CChunkScheduler cChunkScheduler = new CChunkScheduler();
+        cChunkScheduler.keyProducerId = sameIdTwice;
+        cFinder.chunkScheduler.add(cChunkScheduler);
+
+        configureConsumerJava(cFinder);
+        Finder finder = new Finder(cFinder);
+        // act
+        assertThrows(KeyProducerIdIsNotUniqueException.class, () -> finder.startKeyProducer());
+    }
+
+    @Test
+    public void getKeyProducer_chunkScheduler_distinctChunkedKeyProducerPerProducer() throws Exception {
+        // arrange
+        CFinder cFinder = new CFinder();
+        CChunkScheduler cChunkScheduler = new CChunkScheduler();
+        cChunkScheduler.keyProducerId = "chunked";
+        cFinder.chunkScheduler.add(cChunkScheduler);
+        CProducerJava cProducerJava = new CProducerJava();
+        cProducerJava.keyProducerId = "chunked";
+
+        configureConsumerJava(cFinder);
+        Finder finder = new Finder(cFinder);
+        finder.startKeyProducer();
+
+        // act
+        KeyProducer first = finder.getKeyProducer(cProducerJava);
+        KeyProducer second = finder.getKeyProducer(cProducerJava);
+
+        // assert
+        assertThat(first, is(instanceOf(KeyProducerJavaChunked.class)));
+        assertThat(second, is(not(sameInstance(first))));
+    }
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="configureProducer">
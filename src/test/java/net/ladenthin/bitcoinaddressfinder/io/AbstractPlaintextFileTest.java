@@ -4,6 +4,8 @@
 package net.ladenthin.bitcoinaddressfinder.io;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
@@ -18,6 +20,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import net.ladenthin.bitcoinaddressfinder.statistics.ReadStatistic;
 import org.jspecify.annotations.NonNull;
@@ -122,6 +125,82 @@ public class AbstractPlaintextFileTest {
         // assert
         assertThat(readStatistic.errors, hasSize(3));
     }
+
+    @Test
+    public void readFile_carriageReturnLineEndings_splitLikeReadLine() throws IOException {
+        // arrange
+        File file = Files.createFile(folder.resolve("crlf.txt")).toFile();
+        Files.writeString(file.toPath(), "a\r\nb\rc\n\nd\n");
+        RecordingPlaintextFile sut = new RecordingPlaintextFile(file, new ReadStatistic());
+
+        // act
+        sut.readFile();
+
+        // assert
+        assertThat(sut.processedLines, contains("a", "b", "c", "", "d"));
+    }
+
+    @Test
+    public void readFile_linesAcrossChunkBoundaries_everyLineOnceInOrder() throws IOException {
+        // arrange
+        File file = Files.createFile(folder.resolve("chunks.txt")).toFile();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("line" + i);
+        }
+        Files.writeString(file.toPath(), String.join("\r\n", lines));
+        ReadStatistic readStatistic = new ReadStatistic();
+        RecordingPlaintextFile sut = new RecordingPlaintextFile(file, readStatistic, 1, 16);
+
+        // act
+        sut.readFile();
+
+        // assert
+        assertThat(sut.processedLines, is(equalTo(lines)));
+        assertThat(readStatistic.currentFileProgress, is(equalTo(100.0)));
+    }
+
+    @Test
+    public void readFile_multipleThreads_everyLineOnce() throws IOException {
+        // arrange
+        File file = Files.createFile(folder.resolve("parallel.txt")).toFile();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add("line" + i);
+        }
+        Files.writeString(file.toPath(), String.join("\n", lines) + "\n");
+        ReadStatistic readStatistic = new ReadStatistic();
+        RecordingPlaintextFile sut = new RecordingPlaintextFile(file, readStatistic, 4, 64);
+
+        // act
+        sut.readFile();
+
+        // assert
+        assertThat(sut.processedLines, containsInAnyOrder(lines.toArray(new String[0])));
+        assertThat(readStatistic.currentFileProgress, is(equalTo(100.0)));
+    }
+
+    @Test
+    public void readFile_multipleThreadsAndLmdbException_exceptionPropagated() throws IOException {
+        // arrange
+        File file = Files.createFile(folder.resolve("parallelLmdb.txt")).toFile();
+        Files.writeString(file.toPath(), "line1\nline2\nline3\nline4\n");
+        LmdbException mockLmdbException = mock(LmdbException.class);
+        ThrowingPlaintextFile sut =
+                new ThrowingPlaintextFile(file, new ReadStatistic(), mockLmdbException, 2, 6);
+
+        // act, assert
+        assertThrows(LmdbException.class, () -> sut.readFile());
+    }
+
+    @Test
+    public void constructor_noThreads_throwsIllegalArgumentException() {
+        File file = folder.resolve("unused.txt").toFile();
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new RecordingPlaintextFile(file, new ReadStatistic(), 0, 16));
+    }
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="interrupt">
@@ -175,6 +254,20 @@ public class AbstractPlaintextFileTest {
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="utf8 encoding">
+    @Test
+    public void readFile_utf8Content_decoded() throws IOException {
+        // arrange
+        File file = Files.createFile(folder.resolve("utf8.txt")).toFile();
+        Files.writeString(file.toPath(), "schön, für schälen\n密码", StandardCharsets.UTF_8);
+        RecordingPlaintextFile sut = new RecordingPlaintextFile(file, new ReadStatistic());
+
+        // act
+        sut.readFile();
+
+        // assert
+        assertThat(sut.processedLines, contains("schön, für schälen", "密码"));
+    }
+
     @Test
     public void readFile_asciiContent_contentPreserved() throws IOException {
         // arrange
@@ -197,12 +290,17 @@ public class AbstractPlaintextFileTest {
      */
     private static class RecordingPlaintextFile extends AbstractPlaintextFile {
 
-        final List<String> processedLines = new ArrayList<>();
+        final List<String> processedLines = Collections.synchronizedList(new ArrayList<>());
 
         RecordingPlaintextFile(@NonNull File file, @NonNull ReadStatistic readStatistic) {
             super(file, readStatistic);
         }
 
+        RecordingPlaintextFile(
+                @NonNull File file, @NonNull ReadStatistic readStatistic, int threads, int chunkSize) {
+            super(file, readStatistic, threads, chunkSize);
+        }
+
         @Override
         protected void processLine(String line) {
             processedLines.add(line);
@@ -223,6 +321,16 @@ public class AbstractPlaintextFileTest {
             this.exceptionToThrow = exceptionToThrow;
         }
 
+        ThrowingPlaintextFile(
+                @NonNull File file,
+                @NonNull ReadStatistic readStatistic,
+                RuntimeException exceptionToThrow,
+                int threads,
+                int chunkSize) {
+            super(file, readStatistic, threads, chunkSize);
+            this.exceptionToThrow = exceptionToThrow;
+        }
+
         @Override
         protected void processLine(String line) {
             throw exceptionToThrow;
@@ -0,0 +1,136 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class AddressBatchTest {
+
+    private static ByteBuffer hash160(int fill) {
+        byte[] bytes = new byte[AddressBatch.HASH160_BYTES];
+        Arrays.fill(bytes, (byte) fill);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_capacityZero_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new AddressBatch(0));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="add">
+    @Test
+    public void add_twoEntries_storedInConsecutiveSlots() {
+        // arrange
+        AddressBatch batch = new AddressBatch(2);
+
+        // act
+        batch.add(hash160(1), 10L);
+        batch.add(hash160(2), 20L);
+
+        // assert
+        assertThat(batch.size(), is(equalTo(2)));
+        assertThat(batch.isFull(), is(true));
+        assertThat(batch.hash160s()[0], is(equalTo((byte) 1)));
+        assertThat(batch.hash160s()[AddressBatch.HASH160_BYTES], is(equalTo((byte) 2)));
+        assertThat(batch.amount(0), is(equalTo(10L)));
+        assertThat(batch.amount(1), is(equalTo(20L)));
+    }
+
+    @Test
+    public void add_hash160Buffer_positionUnchanged() {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        ByteBuffer hash160 = hash160(3);
+
+        // act
+        batch.add(hash160, 1L);
+
+        // assert
+        assertThat(hash160.position(), is(equalTo(0)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="addFrom">
+    @Test
+    public void addFrom_moreEntriesThanFit_copiesUntilFull() {
+        // arrange
+        AddressBatch source = new AddressBatch(3);
+        source.add(hash160(1), 1L);
+        source.add(hash160(2), 2L);
+        source.add(hash160(3), 3L);
+        AddressBatch target = new AddressBatch(2);
+
+        // act
+        int copied = target.addFrom(source, 1);
+
+        // assert
+        assertThat(copied, is(equalTo(2)));
+        assertThat(target.hash160s()[0], is(equalTo((byte) 2)));
+        assertThat(target.amount(1), is(equalTo(3L)));
+        assertThat(target.addFrom(source, 0), is(equalTo(0)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="sortByHash160">
+    @Test
+    public void sortByHash160_unsortedEntries_sortedUnsignedWithAmounts() {
+        // arrange: 0x80 is negative as a signed byte and must sort after 0x7F
+        AddressBatch batch = new AddressBatch(3);
+        batch.add(hash160(0x80), 80L);
+        batch.add(hash160(0x01), 1L);
+        batch.add(hash160(0x7F), 127L);
+
+        // act
+        batch.sortByHash160();
+
+        // assert
+        assertThat(batch.hash160s()[0], is(equalTo((byte) 0x01)));
+        assertThat(batch.hash160s()[AddressBatch.HASH160_BYTES], is(equalTo((byte) 0x7F)));
+        assertThat(batch.hash160s()[2 * AddressBatch.HASH160_BYTES], is(equalTo((byte) 0x80)));
+        assertThat(batch.amount(0), is(equalTo(1L)));
+        assertThat(batch.amount(1), is(equalTo(127L)));
+        assertThat(batch.amount(2), is(equalTo(80L)));
+    }
+
+    @Test
+    public void sortByHash160_duplicateHash160_keepsInsertionOrder() {
+        // arrange
+        AddressBatch batch = new AddressBatch(3);
+        batch.add(hash160(2), 1L);
+        batch.add(hash160(1), 0L);
+        batch.add(hash160(2), 2L);
+
+        // act
+        batch.sortByHash160();
+
+        // assert
+        assertThat(batch.amount(1), is(equalTo(1L)));
+        assertThat(batch.amount(2), is(equalTo(2L)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="clear">
+    @Test
+    public void clear_filledBatch_isEmpty() {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        batch.add(hash160(1), 1L);
+
+        // act
+        batch.clear();
+
+        // assert
+        assertThat(batch.isEmpty(), is(true));
+        assertThat(batch.nextSlotOffset(), is(equalTo(0)));
+    }
+    // </editor-fold>
+}
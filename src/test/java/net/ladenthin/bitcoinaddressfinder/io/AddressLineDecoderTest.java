@@ -0,0 +1,87 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import java.nio.charset.StandardCharsets;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddresses42;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.P2PKH;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.StaticUnsupportedAddress;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class AddressLineDecoderTest {
+
+    private final TestAddresses42 testAddresses = new TestAddresses42(0, false);
+    private final KeyUtility keyUtility = new KeyUtility(testAddresses.network, new ByteBufferUtility(false));
+
+    private final AddressLineDecoder addressLineDecoder = new AddressLineDecoder(keyUtility);
+
+    // <editor-fold defaultstate="collapsed" desc="decode">
+    @Test
+    public void decode_fastPathLineInsideLargerArray_added() {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        byte[] line = ("xx" + P2PKH.Bitcoin.getPublicAddress() + "\t5000000000yy").getBytes(StandardCharsets.US_ASCII);
+
+        // act
+        AddressLineDecoder.Result result = addressLineDecoder.decode(line, 2, line.length - 2, batch);
+
+        // assert
+        assertThat(result, is(equalTo(AddressLineDecoder.Result.ADDED)));
+        assertThat(Hex.toHexString(batch.hash160s()), is(equalTo(P2PKH.Bitcoin.getPublicKeyHashAsHex())));
+        assertThat(batch.amount(0), is(equalTo(5_000_000_000L)));
+    }
+
+    @Test
+    public void decode_lineDeclinedByFastPath_addedByAddressTxtLine() {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        byte[] line = (" " + P2PKH.Bitcoin.getPublicAddress()).getBytes(StandardCharsets.US_ASCII);
+
+        // act
+        AddressLineDecoder.Result result = addressLineDecoder.decode(line, 0, line.length, batch);
+
+        // assert
+        assertThat(result, is(equalTo(AddressLineDecoder.Result.ADDED)));
+        assertThat(Hex.toHexString(batch.hash160s()), is(equalTo(P2PKH.Bitcoin.getPublicKeyHashAsHex())));
+        assertThat(batch.amount(0), is(equalTo(AddressTxtLine.DEFAULT_COIN.value)));
+    }
+
+    @Test
+    public void decode_commentLine_unsupportedAndNothingAppended() {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        byte[] line = "# comment".getBytes(StandardCharsets.US_ASCII);
+
+        // act
+        AddressLineDecoder.Result result = addressLineDecoder.decode(line, 0, line.length, batch);
+
+        // assert
+        assertThat(result, is(equalTo(AddressLineDecoder.Result.UNSUPPORTED)));
+        assertThat(batch.size(), is(equalTo(0)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StaticUnsupportedAddress.class)
+    public void decode_unsupportedAddresses_unsupported(StaticUnsupportedAddress address) {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        byte[] line = address.getPublicAddress().getBytes(StandardCharsets.UTF_8);
+
+        // act
+        AddressLineDecoder.Result result = addressLineDecoder.decode(line, 0, line.length, batch);
+
+        // assert
+        assertThat(result, is(equalTo(AddressLineDecoder.Result.UNSUPPORTED)));
+        assertThat(batch.size(), is(equalTo(0)));
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,154 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import net.ladenthin.bitcoinaddressfinder.model.AddressToCoin;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.TestAddresses42;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.P2PKH;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.P2SH;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.P2WPKH;
+import net.ladenthin.bitcoinaddressfinder.staticaddresses.enums.StaticUnsupportedAddress;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class AddressLineParserTest {
+
+    private final TestAddresses42 testAddresses = new TestAddresses42(0, false);
+    private final KeyUtility keyUtility = new KeyUtility(testAddresses.network, new ByteBufferUtility(false));
+
+    private final AddressLineParser addressLineParser = new AddressLineParser();
+
+    /**
+     * Parses {@code line} with the fast path and, if it accepts it, asserts that {@link AddressTxtLine}
+     * decodes the line to the very same hash160 and amount.
+     *
+     * @return whether the fast path accepted the line
+     */
+    private boolean assertFastPathMatchesAddressTxtLine(String line) {
+        AddressBatch batch = new AddressBatch(1);
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        boolean accepted = addressLineParser.parse(bytes, 0, bytes.length, batch);
+        if (!accepted) {
+            assertThat(batch.size(), is(equalTo(0)));
+            return false;
+        }
+        AddressToCoin expected;
+        try {
+            expected = new AddressTxtLine().fromLine(line, keyUtility);
+        } catch (AddressFormatNotAcceptedException e) {
+            fail("Fast path accepted a line AddressTxtLine rejects: " + line);
+            return true;
+        }
+        byte[] expectedHash160 = new byte[AddressBatch.HASH160_BYTES];
+        expected.hash160().get(0, expectedHash160);
+        assertThat(Hex.toHexString(batch.hash160s()), is(equalTo(Hex.toHexString(expectedHash160))));
+        assertThat(batch.amount(0), is(equalTo(expected.coin().value)));
+        return true;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="parse">
+    @ParameterizedTest
+    @EnumSource(P2PKH.class)
+    public void parse_p2pkhAddresses_matchAddressTxtLine(P2PKH address) {
+        assertFastPathMatchesAddressTxtLine(address.getPublicAddress());
+        assertFastPathMatchesAddressTxtLine(address.getPublicAddress() + "\t123456789");
+    }
+
+    @ParameterizedTest
+    @EnumSource(P2SH.class)
+    public void parse_p2shAddresses_matchAddressTxtLine(P2SH address) {
+        assertFastPathMatchesAddressTxtLine(address.getPublicAddress());
+        assertFastPathMatchesAddressTxtLine(address.getPublicAddress() + ",42");
+    }
+
+    @ParameterizedTest
+    @EnumSource(P2WPKH.class)
+    public void parse_p2wpkhAddresses_matchAddressTxtLine(P2WPKH address) {
+        assertFastPathMatchesAddressTxtLine(address.getPublicAddress());
+        assertFastPathMatchesAddressTxtLine(address.getPublicAddress() + " 0");
+    }
+
+    @ParameterizedTest
+    @EnumSource(StaticUnsupportedAddress.class)
+    public void parse_unsupportedAddresses_declined(StaticUnsupportedAddress address) {
+        // act
+        boolean accepted = assertFastPathMatchesAddressTxtLine(address.getPublicAddress());
+
+        // assert
+        assertThat(accepted, is(false));
+    }
+
+    @Test
+    public void parse_bitcoinBase58AddressWithAmount_decodedIntoSlot() {
+        // arrange
+        AddressBatch batch = new AddressBatch(2);
+        byte[] line = ("xx" + P2PKH.Bitcoin.getPublicAddress() + "\t5000000000yy").getBytes(StandardCharsets.US_ASCII);
+
+        // act
+        boolean accepted = addressLineParser.parse(line, 2, line.length - 2, batch);
+
+        // assert
+        assertThat(accepted, is(true));
+        assertThat(batch.size(), is(equalTo(1)));
+        assertThat(Hex.toHexString(Arrays.copyOf(batch.hash160s(), AddressBatch.HASH160_BYTES)),
+                is(equalTo(P2PKH.Bitcoin.getPublicKeyHashAsHex())));
+        assertThat(batch.amount(0), is(equalTo(5_000_000_000L)));
+    }
+
+    @Test
+    public void parse_bech32P2WPKHAddressWithoutAmount_defaultAmount() {
+        // arrange
+        AddressBatch batch = new AddressBatch(1);
+        byte[] line = P2WPKH.BitcoinP2WPKH.getPublicAddress().getBytes(StandardCharsets.US_ASCII);
+
+        // act
+        boolean accepted = addressLineParser.parse(line, 0, line.length, batch);
+
+        // assert
+        assertThat(accepted, is(true));
+        assertThat(Hex.toHexString(batch.hash160s()), is(equalTo("e8df018c7e326cc253faac7e46cdc51e68542c42")));
+        assertThat(batch.amount(0), is(equalTo(AddressTxtLine.DEFAULT_COIN.value)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "",
+                "# comment",
+                "address\tbalance",
+                " 1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH\t",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH\t12\t34",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH\t-12",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH\t1234567890123456789",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH:12",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMH, 12",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAMHH",
+                "1BgGZ9tcN4rm9KBzDn7KprQz87SZ26SAM0",
+                "bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdr",
+                "BC1QAR0SRRR7XFKVY5L643LYDNW9RE59GTZZWF5MDQ",
+                "t1Y8P3oq4VtNFG5MhWGMpuqHdHsrKmc7Yyy",
+                "76a914ae5c1a4a36fbdb3bbaa65a5fc4d1e4e3eb09e49588ac"
+            })
+    public void parse_notFastPathFormat_declinedAndNothingAppended(String line) {
+        // act
+        boolean accepted = assertFastPathMatchesAddressTxtLine(line);
+
+        // assert
+        assertThat(accepted, is(false));
+    }
+    // </editor-fold>
+}
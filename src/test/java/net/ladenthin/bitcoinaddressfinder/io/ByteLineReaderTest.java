@@ -0,0 +1,75 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ByteLineReaderTest {
+
+    private static List<String> readLines(String content, int bufferSize) throws IOException {
+        ByteLineReader reader = new ByteLineReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), bufferSize);
+        List<String> lines = new ArrayList<>();
+        while (reader.readLine()) {
+            int length = reader.end() - reader.start();
+            lines.add(new String(reader.bytes(), reader.start(), length, StandardCharsets.UTF_8));
+        }
+        return lines;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_bufferSizeZero_throwsIllegalArgumentException() {
+        assertThrows(
+                IllegalArgumentException.class, () -> new ByteLineReader(new ByteArrayInputStream(new byte[0]), 0));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="readLine">
+    @Test
+    public void readLine_emptyStream_noLine() throws IOException {
+        assertThat(readLines("", 4), is(empty()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 64})
+    public void readLine_mixedTerminators_splitLikeBufferedReader(int bufferSize) throws IOException {
+        // act
+        List<String> lines = readLines("a\nbc\r\ndef\rgh\n\r\n\rlast", bufferSize);
+
+        // assert
+        assertThat(lines, is(equalTo(List.of("a", "bc", "def", "gh", "", "", "last"))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 64})
+    public void readLine_trailingTerminator_noEmptyLastLine(int bufferSize) throws IOException {
+        assertThat(readLines("a\r\nb\r\n", bufferSize), is(equalTo(List.of("a", "b"))));
+        assertThat(readLines("a\rb\r", bufferSize), is(equalTo(List.of("a", "b"))));
+    }
+
+    @Test
+    public void readLine_lineLongerThanBuffer_returnedWhole() throws IOException {
+        // arrange
+        String longLine = "x".repeat(1000);
+
+        // act
+        List<String> lines = readLines(longLine + "\n" + longLine, 7);
+
+        // assert
+        assertThat(lines, is(equalTo(List.of(longLine, longLine))));
+    }
+    // </editor-fold>
+}
@@ -12,13 +12,17 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -128,4 +132,63 @@ public class FileHelperTest {
         }
     }
     // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="isGzip">
+    @Test
+    public void isGzip_gzSuffix_returnsTrue() {
+        assertThat(fileHelper.isGzip(new File("addresses.txt.gz")), is(equalTo(true)));
+        assertThat(fileHelper.isGzip(new File("ADDRESSES.GZ")), is(equalTo(true)));
+    }
+
+    @Test
+    public void isGzip_otherSuffix_returnsFalse() {
+        assertThat(fileHelper.isGzip(new File("addresses.txt")), is(equalTo(false)));
+        assertThat(fileHelper.isGzip(new File("addresses.gzip")), is(equalTo(false)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="decompressIfGzip">
+    @Test
+    public void decompressIfGzip_concatenatedMembers_readAsOneStream() throws IOException {
+        // arrange
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        members.write(gzip("first\n"));
+        members.write(gzip("second\n"));
+        File file = folder.resolve("addresses.txt.gz").toFile();
+        Files.write(file.toPath(), members.toByteArray());
+
+        // act
+        String content;
+        try (InputStream inputStream = fileHelper.decompressIfGzip(file, Files.newInputStream(file.toPath()))) {
+            content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // assert
+        assertThat(content, is(equalTo("first\nsecond\n")));
+    }
+
+    @Test
+    public void decompressIfGzip_uncompressedFile_returnsStreamUnchanged() throws IOException {
+        // arrange
+        File file = folder.resolve("addresses.txt").toFile();
+        Files.writeString(file.toPath(), "plain\n", StandardCharsets.UTF_8);
+
+        // act
+        String content;
+        try (InputStream inputStream = fileHelper.decompressIfGzip(file, Files.newInputStream(file.toPath()))) {
+            content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // assert
+        assertThat(content, is(equalTo("plain\n")));
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+    // </editor-fold>
 }
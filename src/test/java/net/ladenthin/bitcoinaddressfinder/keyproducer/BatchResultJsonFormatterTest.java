@@ -66,6 +66,22 @@ class BatchResultJsonFormatterTest {
         assertThat(reported.get("address").asText(), is(equalTo("1TestAddress")));
         assertThat(reported.get("compressed").asBoolean(), is(true));
         assertThat(reported.get("vanity").asBoolean(), is(false));
+        assertThat(reported.get("vanityPattern").isNull(), is(true));
+    }
+
+    @Test
+    void formatBatch_vanityHit_reportsTheMatchedPattern() throws Exception {
+        // arrange
+        final Hit hit = new Hit(BigInteger.valueOf(73), "aabb", "1TestAddress", true, true, "1Test.*");
+
+        // act
+        final JsonNode node =
+                objectMapper.readTree(formatter.formatBatch(new BatchResult(BigInteger.ONE, 1, List.of(hit))));
+
+        // assert
+        final JsonNode reported = node.get("hits").get(0);
+        assertThat(reported.get("vanity").asBoolean(), is(true));
+        assertThat(reported.get("vanityPattern").asText(), is(equalTo("1Test.*")));
     }
 
     @Test
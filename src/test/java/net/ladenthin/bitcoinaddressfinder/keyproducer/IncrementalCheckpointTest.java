@@ -0,0 +1,177 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IncrementalCheckpointTest {
+
+    private static final int CHECKPOINT_EVERY_N_SECONDS = 60;
+    private static final int BATCH = 16;
+
+    @TempDir
+    public Path folder;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private WatermarkFile watermarkFile;
+    private IncrementalCheckpoint checkpoint;
+
+    @BeforeEach
+    public void setUp() {
+        watermarkFile = new WatermarkFile(folder.resolve("checkpoint.txt"));
+        checkpoint = new IncrementalCheckpoint(
+                watermarkFile, BigInteger.valueOf(0x100), CHECKPOINT_EVERY_N_SECONDS, clock::get);
+    }
+
+    private static BatchResult checked(long secretBase) {
+        return new BatchResult(BigInteger.valueOf(secretBase), BATCH, List.of());
+    }
+
+    private void elapseInterval() {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(CHECKPOINT_EVERY_N_SECONDS));
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="getWatermark">
+    @Test
+    public void getWatermark_batchesIssuedNotChecked_staysAtTheFirstIssuedKey() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+        checkpoint.issued(BigInteger.valueOf(0x110), BATCH, true);
+
+        assertThat(checkpoint.getWatermark(), is(equalTo(BigInteger.valueOf(0x100))));
+    }
+
+    @Test
+    public void getWatermark_laterBatchCheckedFirst_staysAtTheOldestOutstandingBatch() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+        checkpoint.issued(BigInteger.valueOf(0x110), BATCH, true);
+        checkpoint.issued(BigInteger.valueOf(0x120), BATCH, true);
+
+        checkpoint.onBatchChecked(checked(0x110));
+        assertThat(checkpoint.getWatermark(), is(equalTo(BigInteger.valueOf(0x100))));
+
+        checkpoint.onBatchChecked(checked(0x100));
+        assertThat(checkpoint.getWatermark(), is(equalTo(BigInteger.valueOf(0x120))));
+    }
+
+    @Test
+    public void getWatermark_allBatchesChecked_nextKeyToIssue() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+        checkpoint.issued(BigInteger.valueOf(0x110), BATCH, true);
+
+        checkpoint.onBatchChecked(checked(0x110));
+        checkpoint.onBatchChecked(checked(0x100));
+
+        assertThat(checkpoint.getWatermark(), is(equalTo(BigInteger.valueOf(0x120))));
+    }
+
+    @Test
+    public void getWatermark_unalignedBatchReportedUnderAlignedBase_completesTheIssuedBatch() {
+        checkpoint.issued(BigInteger.valueOf(0x105), BATCH, true);
+
+        checkpoint.onBatchChecked(checked(0x100));
+
+        assertThat(checkpoint.getWatermark(), is(equalTo(BigInteger.valueOf(0x115))));
+    }
+
+    @Test
+    public void getWatermark_resultOfAnotherKeyProducer_ignored() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+
+        checkpoint.onBatchChecked(checked(0x900));
+        checkpoint.onBatchChecked(new BatchResult(null, BATCH, List.of()));
+
+        assertThat(checkpoint.getWatermark(), is(equalTo(BigInteger.valueOf(0x100))));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="onBatchChecked">
+    @Test
+    public void onBatchChecked_intervalNotElapsed_nothingWritten() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+
+        checkpoint.onBatchChecked(checked(0x100));
+
+        assertThat(Files.exists(watermarkFile.getPath()), is(false));
+    }
+
+    @Test
+    public void onBatchChecked_intervalElapsed_watermarkWritten() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+        checkpoint.issued(BigInteger.valueOf(0x110), BATCH, true);
+        elapseInterval();
+
+        checkpoint.onBatchChecked(checked(0x100));
+
+        assertThat(watermarkFile.read(), is(equalTo(BigInteger.valueOf(0x110))));
+    }
+
+    @Test
+    public void onBatchChecked_independentSecretsIssued_checkpointingStops() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, false);
+        elapseInterval();
+
+        checkpoint.onBatchChecked(new BatchResult(null, BATCH, List.of()));
+        checkpoint.flush();
+
+        assertThat(Files.exists(watermarkFile.getPath()), is(false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="flush">
+    @Test
+    public void flush_watermarkAdvanced_writtenRegardlessOfInterval() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+        checkpoint.onBatchChecked(checked(0x100));
+
+        checkpoint.flush();
+
+        assertThat(watermarkFile.read(), is(equalTo(BigInteger.valueOf(0x110))));
+    }
+
+    @Test
+    public void flush_nothingChecked_nothingWritten() {
+        checkpoint.issued(BigInteger.valueOf(0x100), BATCH, true);
+
+        checkpoint.flush();
+
+        assertThat(watermarkFile.read(), is(nullValue()));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="WatermarkFile">
+    @Test
+    public void watermarkFile_written_readBackAndNoTemporaryLeft() throws IOException {
+        watermarkFile.write(new BigInteger("7fffffffffffffffff", 16));
+
+        assertThat(watermarkFile.read(), is(equalTo(new BigInteger("7fffffffffffffffff", 16))));
+        try (var files = Files.list(folder)) {
+            assertThat(files.count(), is(equalTo(1L)));
+        }
+    }
+
+    @Test
+    public void watermarkFile_unparsable_throwsIllegalArgumentException() throws IOException {
+        Files.writeString(watermarkFile.getPath(), "not hex");
+
+        assertThrows(IllegalArgumentException.class, watermarkFile::read);
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,205 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaDictionary;
+import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.Network;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class KeyProducerJavaDictionaryTest {
+
+    @TempDir
+    public Path folder;
+
+    private final Network network = new NetworkParameterFactory().getNetwork();
+    private final KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+    private final BitHelper bitHelper = new BitHelper();
+
+    private CKeyProducerJavaDictionary config(String dictionary) throws IOException {
+        Path file = folder.resolve("dictionary.txt");
+        Files.writeString(file, dictionary, StandardCharsets.UTF_8);
+        CKeyProducerJavaDictionary cKeyProducerJavaDictionary = new CKeyProducerJavaDictionary();
+        cKeyProducerJavaDictionary.keyProducerId = "dictionary";
+        cKeyProducerJavaDictionary.dictionaryFile = file.toString();
+        return cKeyProducerJavaDictionary;
+    }
+
+    private KeyProducerJavaDictionary create(CKeyProducerJavaDictionary cKeyProducerJavaDictionary) {
+        return new KeyProducerJavaDictionary(cKeyProducerJavaDictionary, keyUtility, bitHelper);
+    }
+
+    /** The key {@code STRING_SHA256} derives from a passphrase. */
+    private static BigInteger brainWallet(String passphrase) {
+        return new BigInteger(
+                1, Hashing.sha256().hashString(passphrase, StandardCharsets.UTF_8).asBytes());
+    }
+
+    private static List<BigInteger> brainWallets(String... passphrases) {
+        List<BigInteger> keys = new ArrayList<>();
+        for (String passphrase : passphrases) {
+            keys.add(brainWallet(passphrase));
+        }
+        return keys;
+    }
+
+    private static List<BigInteger> drain(KeyProducerJavaDictionary keyProducer, int batchSize) {
+        List<BigInteger> keys = new ArrayList<>();
+        while (true) {
+            try {
+                keys.addAll(Arrays.asList(keyProducer.createSecrets(batchSize, false)));
+            } catch (NoMoreSecretsAvailableException e) {
+                return keys;
+            }
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="createSecrets">
+    @Test
+    public void createSecrets_plainLines_sha256OfEveryLineInFullBatches() throws IOException {
+        // arrange
+        KeyProducerJavaDictionary keyProducer = create(config("password\r\nsatoshi\ncorrect horse\n"));
+
+        // act
+        BigInteger[] secrets = keyProducer.createSecrets(3, false);
+
+        // assert
+        assertThat(Arrays.asList(secrets), is(equalTo(brainWallets("password", "satoshi", "correct horse"))));
+    }
+
+    @Test
+    public void createSecrets_wordlistEndsWithinBatch_paddedWithLastKey() throws IOException {
+        // arrange
+        KeyProducerJavaDictionary keyProducer = create(config("one\ntwo\nthree"));
+
+        // act
+        List<BigInteger> keys = drain(keyProducer, 2);
+
+        // assert
+        assertThat(keys, is(equalTo(brainWallets("one", "two", "three", "three"))));
+    }
+
+    @Test
+    public void createSecrets_emptyLinesAndBareCarriageReturns_emptyLinesSkipped() throws IOException {
+        // arrange
+        Path words = folder.resolve("words.txt");
+        Files.writeString(words, "\n!\n\n", StandardCharsets.UTF_8);
+        CKeyProducerJavaDictionary cKeyProducerJavaDictionary = config("\none\r\rtwo\r\n\r\nthree\r");
+        cKeyProducerJavaDictionary.appendWordsFile = words.toString();
+
+        // act
+        List<BigInteger> keys = drain(create(cKeyProducerJavaDictionary), 6);
+
+        // assert
+        assertThat(keys, is(equalTo(brainWallets("one", "one!", "two", "two!", "three", "three!"))));
+    }
+
+    @Test
+    public void createSecrets_caseMutations_distinctFormsOfEveryLine() throws IOException {
+        // arrange
+        CKeyProducerJavaDictionary cKeyProducerJavaDictionary = config("PassWord\nabc\n123\n");
+        cKeyProducerJavaDictionary.caseMutations = true;
+
+        // act
+        List<BigInteger> keys = drain(create(cKeyProducerJavaDictionary), 1);
+
+        // assert
+        assertThat(
+                keys,
+                is(equalTo(brainWallets(
+                        "PassWord", "password", "PASSWORD", "Password", "abc", "ABC", "Abc", "123"))));
+    }
+
+    @Test
+    public void createSecrets_appendNumbersAndWords_everyFormWithEverySuffix() throws IOException {
+        // arrange
+        Path words = folder.resolve("words.txt");
+        Files.writeString(words, "!\nbitcoin\n", StandardCharsets.UTF_8);
+        CKeyProducerJavaDictionary cKeyProducerJavaDictionary = config("a\nb\n");
+        cKeyProducerJavaDictionary.appendNumbersUpTo = 1;
+        cKeyProducerJavaDictionary.appendWordsFile = words.toString();
+
+        // act
+        List<BigInteger> keys = drain(create(cKeyProducerJavaDictionary), 5);
+
+        // assert
+        assertThat(
+                keys,
+                is(equalTo(brainWallets(
+                        "a", "a0", "a1", "a!", "abitcoin", "b", "b0", "b1", "b!", "bbitcoin"))));
+    }
+
+    @Test
+    public void createSecrets_returnStartSecretOnly_oneCandidatePerCall() throws IOException {
+        // arrange
+        KeyProducerJavaDictionary keyProducer = create(config("x\ny\n"));
+
+        // act
+        BigInteger[] first = keyProducer.createSecrets(4, true);
+        BigInteger[] second = keyProducer.createSecrets(4, true);
+
+        // assert
+        assertThat(Arrays.asList(first[0], second[0]), is(equalTo(brainWallets("x", "y"))));
+    }
+
+    @Test
+    public void createSecrets_interrupted_throwsNoMoreSecretsAvailableException() throws IOException {
+        // arrange
+        KeyProducerJavaDictionary keyProducer = create(config("x\ny\n"));
+        keyProducer.interrupt();
+
+        // act, assert
+        assertThrows(NoMoreSecretsAvailableException.class, () -> keyProducer.createSecrets(1, false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="caseForms">
+    @Test
+    public void caseForms_nonAscii_capitalizesFirstCodePoint() {
+        List<String> forms = new ArrayList<>();
+        for (byte[] form : KeyProducerJavaDictionary.caseForms("éCOLE".getBytes(StandardCharsets.UTF_8))) {
+            forms.add(new String(form, StandardCharsets.UTF_8));
+        }
+
+        assertThat(forms, contains("éCOLE", "école", "ÉCOLE", "École"));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_noDictionaryFile_throwsIllegalArgumentException() {
+        CKeyProducerJavaDictionary cKeyProducerJavaDictionary = new CKeyProducerJavaDictionary();
+
+        assertThrows(IllegalArgumentException.class, () -> create(cKeyProducerJavaDictionary));
+    }
+
+    @Test
+    public void constructor_negativeAppendNumbersUpTo_throwsIllegalArgumentException() throws IOException {
+        CKeyProducerJavaDictionary cKeyProducerJavaDictionary = config("x\n");
+        cKeyProducerJavaDictionary.appendNumbersUpTo = -1;
+
+        assertThrows(IllegalArgumentException.class, () -> create(cKeyProducerJavaDictionary));
+    }
+    // </editor-fold>
+}
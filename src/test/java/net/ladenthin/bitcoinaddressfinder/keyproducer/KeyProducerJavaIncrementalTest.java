@@ -6,10 +6,18 @@ package net.ladenthin.bitcoinaddressfinder.keyproducer;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import net.ladenthin.bitcoinaddressfinder.*;
 import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaIncremental;
 import net.ladenthin.bitcoinaddressfinder.constants.Radix;
@@ -22,6 +30,7 @@ import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
 import org.bitcoinj.base.Network;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Tests for KeyProducerJavaIncremental with respect to key range boundaries and batch handling.
@@ -125,6 +134,9 @@ import org.junit.jupiter.api.Test;
  */
 public class KeyProducerJavaIncrementalTest {
 
+    @TempDir
+    public Path folder;
+
     private final Network network = new NetworkParameterFactory().getNetwork();
     private final ByteBufferUtility byteBufferUtility = new ByteBufferUtility(true);
 
@@ -329,4 +341,126 @@ public class KeyProducerJavaIncrementalTest {
             fail("Exception thrown too early: " + e.getMessage());
         }
     }
+
+    // <editor-fold defaultstate="collapsed" desc="checkpointFile">
+    @Test
+    public void constructor_checkpointFileAboveStart_resumesAtCheckpoint() throws Exception {
+        Path checkpointFile = Files.writeString(folder.resolve("checkpoint.txt"), "7\n");
+        CKeyProducerJavaIncremental config = new CKeyProducerJavaIncremental();
+        config.startPrivateKey = startHex;
+        config.endPrivateKey = endHex;
+        config.checkpointFile = checkpointFile.toString();
+
+        KeyProducerJavaIncremental producer = new KeyProducerJavaIncremental(config, keyUtility, bitHelper);
+
+        assertThat(producer.createSecrets(1, true)[0], is(equalTo(BigInteger.valueOf(7))));
+    }
+
+    @Test
+    public void constructor_checkpointFileBelowStart_startsAtStartPrivateKey() throws Exception {
+        Path checkpointFile = Files.writeString(folder.resolve("checkpoint.txt"), "0");
+        CKeyProducerJavaIncremental config = new CKeyProducerJavaIncremental();
+        config.startPrivateKey = "5";
+        config.endPrivateKey = endHex;
+        config.checkpointFile = checkpointFile.toString();
+
+        KeyProducerJavaIncremental producer = new KeyProducerJavaIncremental(config, keyUtility, bitHelper);
+
+        assertThat(producer.createSecrets(1, true)[0], is(equalTo(BigInteger.valueOf(5))));
+    }
+
+    @Test
+    public void constructor_checkpointFileMissing_startsAtStartPrivateKeyAndCreatesCheckpoint() throws Exception {
+        CKeyProducerJavaIncremental config = new CKeyProducerJavaIncremental();
+        config.startPrivateKey = startHex;
+        config.endPrivateKey = endHex;
+        config.checkpointFile = folder.resolve("checkpoint.txt").toString();
+
+        KeyProducerJavaIncremental producer = new KeyProducerJavaIncremental(config, keyUtility, bitHelper);
+
+        assertThat(producer.getCheckpoint(), is(notNullValue()));
+        assertThat(producer.createSecrets(1, true)[0], is(equalTo(BigInteger.TWO)));
+    }
+
+    @Test
+    public void constructor_noCheckpointFile_noCheckpoint() {
+        KeyProducerJavaIncremental producer = createKeyProducerJavaIncremental(startHex, endHex);
+
+        assertThat(producer.getCheckpoint(), is(nullValue()));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="shard">
+    private KeyProducerJavaIncremental createShard(int shardIndex, int shardCount, String start, String end) {
+        CKeyProducerJavaIncremental config = new CKeyProducerJavaIncremental();
+        config.startPrivateKey = start;
+        config.endPrivateKey = end;
+        config.shardIndex = shardIndex;
+        config.shardCount = shardCount;
+        config.shardChunkSizeInBits = 2;
+        return new KeyProducerJavaIncremental(config, keyUtility, bitHelper);
+    }
+
+    @Test
+    public void createSecrets_shardOneOfThree_startsInOwnChunkAndSkipsTheOthers() {
+        KeyProducerJavaIncremental producer = createShard(1, 3, "10", "FF");
+
+        assertThat(producer.createSecrets(2, true)[0], is(equalTo(BigInteger.valueOf(0x14))));
+        assertThat(producer.createSecrets(2, true)[0], is(equalTo(BigInteger.valueOf(0x16))));
+        // chunks 2 and 3 belong to shards 2 and 0
+        assertThat(producer.createSecrets(2, true)[0], is(equalTo(BigInteger.valueOf(0x20))));
+    }
+
+    @Test
+    public void createSecrets_allShards_coverTheRangeExactlyOnce() {
+        int shardCount = 3;
+        List<BigInteger> scanned = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+            KeyProducerJavaIncremental producer = createShard(shardIndex, shardCount, "10", "3F");
+            try {
+                while (true) {
+                    scanned.addAll(Arrays.asList(producer.createSecrets(2, false)));
+                }
+            } catch (NoMoreSecretsAvailableException e) {
+                // this shard is done
+            }
+        }
+
+        Collections.sort(scanned);
+        List<BigInteger> expected = new ArrayList<>();
+        for (int key = 0x10; key <= 0x3F; key++) {
+            expected.add(BigInteger.valueOf(key));
+        }
+        assertThat(scanned, is(equalTo(expected)));
+    }
+
+    @Test
+    public void constructor_checkpointInAnotherShardsChunk_resumesAtOwnNextChunk() throws Exception {
+        Path checkpointFile = Files.writeString(folder.resolve("checkpoint.txt"), "18");
+        CKeyProducerJavaIncremental config = new CKeyProducerJavaIncremental();
+        config.startPrivateKey = "10";
+        config.endPrivateKey = "FF";
+        config.shardIndex = 1;
+        config.shardCount = 3;
+        config.shardChunkSizeInBits = 2;
+        config.checkpointFile = checkpointFile.toString();
+
+        KeyProducerJavaIncremental producer = new KeyProducerJavaIncremental(config, keyUtility, bitHelper);
+
+        // 0x18 starts chunk 2 (shard 2); shard 1 owns chunk 4
+        assertThat(producer.createSecrets(1, true)[0], is(equalTo(BigInteger.valueOf(0x20))));
+    }
+
+    @Test
+    public void constructor_shardIndexNotBelowShardCount_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> createShard(3, 3, "10", "FF"));
+    }
+
+    @Test
+    public void createSecrets_batchLargerThanShardChunk_throwsIllegalArgumentException() {
+        KeyProducerJavaIncremental producer = createShard(0, 3, "10", "FF");
+
+        assertThrows(IllegalArgumentException.class, () -> producer.createSecrets(8, true));
+    }
+    // </editor-fold>
 }
@@ -0,0 +1,168 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaRandomAlgorithm;
+import net.ladenthin.bitcoinaddressfinder.configuration.CKeyProducerJavaSeedRange;
+import net.ladenthin.bitcoinaddressfinder.constants.Secp256k1Constants;
+import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
+import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
+import org.bitcoinj.base.Network;
+import org.junit.jupiter.api.Test;
+
+public class KeyProducerJavaSeedRangeTest {
+
+    private static final int BITS = Secp256k1Constants.PRIVATE_KEY_MAX_NUM_BITS;
+
+    private final Network network = new NetworkParameterFactory().getNetwork();
+    private final KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+    private final BitHelper bitHelper = new BitHelper();
+
+    private static CKeyProducerJavaSeedRange config(long firstSeed, long lastSeed, int keysPerSeed) {
+        CKeyProducerJavaSeedRange cKeyProducerJavaSeedRange = new CKeyProducerJavaSeedRange();
+        cKeyProducerJavaSeedRange.keyProducerId = "seedRange";
+        cKeyProducerJavaSeedRange.firstSeed = firstSeed;
+        cKeyProducerJavaSeedRange.lastSeed = lastSeed;
+        cKeyProducerJavaSeedRange.keysPerSeed = keysPerSeed;
+        cKeyProducerJavaSeedRange.privateKeyMaxNumBits = BITS;
+        return cKeyProducerJavaSeedRange;
+    }
+
+    private KeyProducerJavaSeedRange create(CKeyProducerJavaSeedRange cKeyProducerJavaSeedRange) {
+        return new KeyProducerJavaSeedRange(cKeyProducerJavaSeedRange, keyUtility, bitHelper);
+    }
+
+    /** The first {@code count} keys a wallet drew from {@code random}, derived sequentially. */
+    private static List<BigInteger> walletKeys(Random random, int count) {
+        List<BigInteger> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(new BigInteger(BITS, random));
+        }
+        return keys;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="createSecrets">
+    @Test
+    public void createSecrets_javaRandom_matchesSequentiallySeededWallets() throws NoMoreSecretsAvailableException {
+        // arrange
+        KeyProducerJavaSeedRange keyProducer = create(config(100L, 102L, 3));
+        List<BigInteger> expected = new ArrayList<>();
+        for (long seed = 100L; seed <= 102L; seed++) {
+            expected.addAll(walletKeys(new Random(seed), 3));
+        }
+
+        // act
+        BigInteger[] first = keyProducer.createSecrets(4, false);
+        BigInteger[] second = keyProducer.createSecrets(4, false);
+
+        // assert
+        List<BigInteger> produced = new ArrayList<>(Arrays.asList(first));
+        produced.addAll(Arrays.asList(second).subList(0, 5));
+        assertThat(produced, is(equalTo(expected)));
+    }
+
+    @Test
+    public void createSecrets_rangeExhaustedWithinBatch_paddedWithLastKey() throws NoMoreSecretsAvailableException {
+        // arrange
+        KeyProducerJavaSeedRange keyProducer = create(config(7L, 7L, 3));
+        List<BigInteger> expected = walletKeys(new Random(7L), 3);
+
+        // act
+        BigInteger[] secrets = keyProducer.createSecrets(4, false);
+
+        // assert
+        assertThat(Arrays.asList(secrets).subList(0, 3), is(equalTo(expected)));
+        assertThat(secrets[3], is(equalTo(expected.get(2))));
+    }
+
+    @Test
+    public void createSecrets_rangeExhausted_throwsNoMoreSecretsAvailableException()
+            throws NoMoreSecretsAvailableException {
+        // arrange
+        KeyProducerJavaSeedRange keyProducer = create(config(7L, 8L, 1));
+        keyProducer.createSecrets(2, false);
+
+        // act, assert
+        assertThrows(NoMoreSecretsAvailableException.class, () -> keyProducer.createSecrets(2, false));
+    }
+
+    @Test
+    public void createSecrets_returnStartSecretOnly_advancesByOneKey() throws NoMoreSecretsAvailableException {
+        // arrange
+        KeyProducerJavaSeedRange keyProducer = create(config(42L, 43L, 2));
+        List<BigInteger> expected = walletKeys(new Random(42L), 2);
+
+        // act
+        BigInteger[] first = keyProducer.createSecrets(4, true);
+        BigInteger[] second = keyProducer.createSecrets(4, true);
+
+        // assert
+        assertThat(first.length, is(equalTo(1)));
+        assertThat(first[0], is(equalTo(expected.get(0))));
+        assertThat(second[0], is(equalTo(expected.get(1))));
+    }
+
+    @Test
+    public void createSecrets_sha1Prng_matchesSeededSecureRandom() throws Exception {
+        // arrange
+        CKeyProducerJavaSeedRange cKeyProducerJavaSeedRange = config(5L, 6L, 2);
+        cKeyProducerJavaSeedRange.randomAlgorithm = CKeyProducerJavaRandomAlgorithm.SHA1_PRNG;
+        KeyProducerJavaSeedRange keyProducer = create(cKeyProducerJavaSeedRange);
+        List<BigInteger> expected = new ArrayList<>();
+        for (long seed = 5L; seed <= 6L; seed++) {
+            SecureRandom sha1prng = SecureRandom.getInstance("SHA1PRNG");
+            sha1prng.setSeed(seed);
+            expected.addAll(walletKeys(sha1prng, 2));
+        }
+
+        // act
+        BigInteger[] first = keyProducer.createSecrets(1, false);
+        BigInteger[] rest = keyProducer.createSecrets(3, false);
+
+        // assert
+        List<BigInteger> produced = new ArrayList<>(Arrays.asList(first));
+        produced.addAll(Arrays.asList(rest));
+        assertThat(produced, is(equalTo(expected)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_secureRandom_throwsIllegalArgumentException() {
+        CKeyProducerJavaSeedRange cKeyProducerJavaSeedRange = config(0L, 1L, 1);
+        cKeyProducerJavaSeedRange.randomAlgorithm = CKeyProducerJavaRandomAlgorithm.SECURE_RANDOM;
+
+        assertThrows(IllegalArgumentException.class, () -> create(cKeyProducerJavaSeedRange));
+    }
+
+    @Test
+    public void constructor_firstSeedAfterLastSeed_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> create(config(2L, 1L, 1)));
+    }
+
+    @Test
+    public void constructor_keysPerSeedZero_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> create(config(0L, 1L, 0)));
+    }
+
+    @Test
+    public void constructor_rangeTooLarge_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> create(config(Long.MIN_VALUE, Long.MAX_VALUE, 1)));
+    }
+    // </editor-fold>
+}
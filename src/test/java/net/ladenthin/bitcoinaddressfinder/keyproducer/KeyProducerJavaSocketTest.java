@@ -23,6 +23,7 @@ import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
 import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException;
 import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
 import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import net.ladenthin.bitcoinaddressfinder.util.IoThreads;
 import net.ladenthin.bitcoinaddressfinder.util.KeyUtility;
 import net.ladenthin.bitcoinaddressfinder.util.NetworkParameterFactory;
 import org.bitcoinj.base.Network;
@@ -147,6 +148,34 @@ public class KeyProducerJavaSocketTest {
         serverKeyProducer.interrupt();
     }
 
+    @Test
+    public void createSecrets_serverModeOnVirtualThreads_readsSecret() throws Exception {
+        // arrange
+        int port = findFreePort();
+        CKeyProducerJavaSocket serverConfig = createServerConfig(port);
+        serverConfig.timeoutMillis = TestTimeProvider.DEFAULT_SOCKET_TIMEOUT;
+        serverConfig.connectRetryCount = TestTimeProvider.DEFAULT_CONNECTION_RETRY_COUNT;
+        serverConfig.connectRetryDelayMillis = TestTimeProvider.SHORT_DELAY;
+        KeyProducerJavaSocket serverKeyProducer =
+                new KeyProducerJavaSocket(serverConfig, keyUtility, bitHelper, IoThreads.VIRTUAL);
+        serverKeyProducer.start();
+        Future<BigInteger[]> secretsFuture = executorService.submit(() -> serverKeyProducer.createSecrets(1, true));
+        waitUntilPortOpen(TestTimeProvider.DEFAULT_ESTABLISH_DELAY);
+
+        // act
+        try (Socket clientSocket = new Socket(serverConfig.host, serverConfig.port);
+                DataOutputStream out = new DataOutputStream(clientSocket.getOutputStream())) {
+            out.write(new KeyProducerTestUtility().createZeroedSecret());
+            out.flush();
+
+            // assert
+            BigInteger[] secrets = secretsFuture.get(TestTimeProvider.DEFAULT_SOCKET_TIMEOUT, TimeUnit.MILLISECONDS);
+            assertThat(secrets.length, is(equalTo(1)));
+        } finally {
+            serverKeyProducer.interrupt();
+        }
+    }
+
     private void waitUntilPortOpen(int timeoutMillis) throws Exception {
         Thread.sleep(timeoutMillis);
     }
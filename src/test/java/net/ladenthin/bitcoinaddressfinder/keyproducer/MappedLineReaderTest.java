@@ -0,0 +1,85 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.keyproducer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedLineReaderTest {
+
+    @TempDir
+    public Path folder;
+
+    private List<String> readAll(String content, int windowSize) throws IOException {
+        Path file = folder.resolve("lines.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(file, windowSize)) {
+            for (byte[] line = reader.nextLine(); line != null; line = reader.nextLine()) {
+                lines.add(new String(line, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="nextLine">
+    @Test
+    public void nextLine_mixedLineEndings_terminatorsStripped() throws IOException {
+        assertThat(readAll("a\r\nbb\n\nccc", MappedLineReader.DEFAULT_WINDOW_SIZE), contains("a", "bb", "", "ccc"));
+    }
+
+    @Test
+    public void nextLine_bareCarriageReturn_terminatesLine() throws IOException {
+        assertThat(readAll("a\rbb\r\rccc\r", MappedLineReader.DEFAULT_WINDOW_SIZE), contains("a", "bb", "", "ccc"));
+    }
+
+    @Test
+    public void nextLine_carriageReturnLineFeedSplitByWindowBorder_oneTerminator() throws IOException {
+        assertThat(readAll("alpha\r\nbeta\rgamma", 6), contains("alpha", "beta", "gamma"));
+    }
+
+    @Test
+    public void nextLine_trailingLineFeed_noEmptyLastLine() throws IOException {
+        assertThat(readAll("a\nb\n", MappedLineReader.DEFAULT_WINDOW_SIZE), contains("a", "b"));
+    }
+
+    @Test
+    public void nextLine_emptyFile_noLines() throws IOException {
+        assertThat(readAll("", MappedLineReader.DEFAULT_WINDOW_SIZE), is(empty()));
+    }
+
+    @Test
+    public void nextLine_linesCrossWindowBorders_readWhole() throws IOException {
+        assertThat(readAll("alpha\nbeta\ngamma\r\ndelta", 8), contains("alpha", "beta", "gamma", "delta"));
+    }
+
+    @Test
+    public void nextLine_utf8_bytesUnchanged() throws IOException {
+        assertThat(readAll("grüße\n密码", MappedLineReader.DEFAULT_WINDOW_SIZE), contains("grüße", "密码"));
+    }
+
+    @Test
+    public void nextLine_lineLongerThanWindow_throwsIllegalArgumentException() throws IOException {
+        Path file = folder.resolve("lines.txt");
+        Files.writeString(file, "ab\nabcdefghijk\n", StandardCharsets.UTF_8);
+
+        try (MappedLineReader reader = new MappedLineReader(file, 8)) {
+            reader.nextLine();
+            assertThrows(IllegalArgumentException.class, reader::nextLine);
+        }
+    }
+    // </editor-fold>
+}
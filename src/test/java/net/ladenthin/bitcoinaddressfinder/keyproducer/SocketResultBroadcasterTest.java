@@ -7,6 +7,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,6 +20,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import net.ladenthin.bitcoinaddressfinder.core.BatchResult;
 import net.ladenthin.bitcoinaddressfinder.core.Hit;
+import net.ladenthin.bitcoinaddressfinder.util.IoThreads;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -178,6 +180,104 @@ class SocketResultBroadcasterTest {
     }
     // </editor-fold>
 
+    // <editor-fold defaultstate="collapsed" desc="virtual threads">
+    @Test
+    void onBatchChecked_virtualThreadsTwoConnectedClients_bothReceiveTheSameLine() throws Exception {
+        // arrange
+        final int port = freePort();
+        final SocketResultBroadcaster broadcaster =
+                new SocketResultBroadcaster(port, new BatchResultJsonFormatter(), IoThreads.VIRTUAL);
+        try {
+            broadcaster.start();
+            ConnectionUtils.waitUntilTcpPortOpen("127.0.0.1", port, AWAIT_MILLIS);
+
+            try (Socket first = connect(port);
+                    Socket second = connect(port)) {
+                final BufferedReader firstReader = reader(first);
+                final BufferedReader secondReader = reader(second);
+                broadcaster.awaitClientCount(2, AWAIT_MILLIS);
+
+                // act
+                broadcaster.onBatchChecked(new BatchResult(BigInteger.valueOf(0x4000L), 4096, List.of()));
+
+                // assert
+                for (BufferedReader clientReader : List.of(firstReader, secondReader)) {
+                    final JsonNode message = objectMapper.readTree(clientReader.readLine());
+                    assertThat(message.get("checkedCount").asInt(), is(equalTo(4096)));
+                }
+            }
+        } finally {
+            broadcaster.close();
+        }
+    }
+
+    @Test
+    void announceConfiguration_virtualThreadsClientConnectsAfterwards_receivesConfigurationBeforeBatches()
+            throws Exception {
+        // The greeting is queued ahead of everything else, so the per-client writer cannot reorder it.
+
+        // arrange
+        final int port = freePort();
+        final SocketResultBroadcaster broadcaster =
+                new SocketResultBroadcaster(port, new BatchResultJsonFormatter(), IoThreads.VIRTUAL);
+        try {
+            broadcaster.announceConfiguration(18, true);
+            broadcaster.start();
+            ConnectionUtils.waitUntilTcpPortOpen("127.0.0.1", port, AWAIT_MILLIS);
+
+            try (Socket client = connect(port)) {
+                final BufferedReader clientReader = reader(client);
+                broadcaster.awaitClientCount(1, AWAIT_MILLIS);
+
+                // act
+                broadcaster.onBatchChecked(new BatchResult(BigInteger.ONE, 1, List.of()));
+
+                // assert
+                assertThat(objectMapper.readTree(clientReader.readLine()).get("type").asText(),
+                        is(equalTo("config")));
+                assertThat(objectMapper.readTree(clientReader.readLine()).get("type").asText(),
+                        is(equalTo("batch")));
+            }
+        } finally {
+            broadcaster.close();
+        }
+    }
+
+    @Test
+    void close_virtualThreadsResultStillQueued_isDeliveredBeforeTheConnectionCloses() throws Exception {
+        // The writer runs on its own thread, so a result broadcast just before close() may still be
+        // in the outbox; close() must let it drain rather than discard it.
+
+        // arrange
+        final int port = freePort();
+        final SocketResultBroadcaster broadcaster =
+                new SocketResultBroadcaster(port, new BatchResultJsonFormatter(), IoThreads.VIRTUAL);
+        try {
+            broadcaster.start();
+            ConnectionUtils.waitUntilTcpPortOpen("127.0.0.1", port, AWAIT_MILLIS);
+
+            try (Socket client = connect(port)) {
+                final BufferedReader clientReader = reader(client);
+                broadcaster.awaitClientCount(1, AWAIT_MILLIS);
+                final Hit hit = new Hit(BigInteger.valueOf(73), "aabb", "1TestAddress", true, false);
+
+                // act
+                broadcaster.onBatchChecked(new BatchResult(BigInteger.ONE, 1, List.of(hit)));
+                broadcaster.close();
+
+                // assert
+                final String line = clientReader.readLine();
+                assertThat(line, is(notNullValue()));
+                assertThat(objectMapper.readTree(line).get("hits").get(0).get("privateKey").asText(),
+                        is(equalTo("49")));
+                assertThat(clientReader.readLine(), is(nullValue()));
+            }
+        } finally {
+            broadcaster.close();
+        }
+    }
+    // </editor-fold>
+
     /**
      * Opens a client connection with a bounded read timeout.
      *
@@ -0,0 +1,180 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.opencl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClApi;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClContext;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClDeviceId;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClProgram;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.OpenClCallFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OpenCLProgramCacheTest {
+
+    private static final String DEVICE_NAME = "NVIDIA GeForce RTX 3070";
+    private static final String DEVICE_VENDOR = "NVIDIA Corporation";
+    private static final String DRIVER_VERSION = "550.54.14";
+    private static final String[] SOURCES = {"__kernel void a() {}", "__kernel void b() {}"};
+    private static final String OPTIONS = "-cl-std=CL2.0";
+    private static final byte[] BINARY = {1, 2, 3, 4};
+
+    @TempDir
+    public Path folder;
+
+    private final ClContext context = new ClContext(1L);
+    private final ClDeviceId device = new ClDeviceId(2L);
+    private final ClProgram sourceProgram = new ClProgram(3L);
+    private final ClProgram binaryProgram = new ClProgram(4L);
+
+    private ClApi clApi;
+    private OpenCLProgramCache openCLProgramCache;
+
+    @BeforeEach
+    public void setUp() {
+        clApi = mock(ClApi.class);
+        when(clApi.createProgramWithSource(context, SOURCES)).thenReturn(sourceProgram);
+        when(clApi.createProgramWithBinary(any(), any(), any())).thenReturn(binaryProgram);
+        when(clApi.getProgramBinary(sourceProgram)).thenReturn(BINARY);
+        openCLProgramCache = new OpenCLProgramCache(clApi, folder.resolve("cache"));
+    }
+
+    private ClProgram build() {
+        return openCLProgramCache.build(context, device, DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS);
+    }
+
+    private Path entry() {
+        return openCLProgramCache.entryPath(
+                OpenCLProgramCache.cacheKey(DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS));
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="build">
+    @Test
+    public void build_emptyCache_buildsFromSourceAndStoresBinary() throws IOException {
+        ClProgram program = build();
+
+        assertThat(program, is(equalTo(sourceProgram)));
+        verify(clApi).buildProgram(sourceProgram, device, OPTIONS);
+        verify(clApi, never()).createProgramWithBinary(any(), any(), any());
+        assertThat(Files.readAllBytes(entry()), is(equalTo(BINARY)));
+    }
+
+    @Test
+    public void build_cachedBinary_loadsBinaryWithoutCompilingSource() {
+        build();
+
+        ClProgram program = build();
+
+        assertThat(program, is(equalTo(binaryProgram)));
+        verify(clApi).createProgramWithBinary(context, device, BINARY);
+        verify(clApi).buildProgram(binaryProgram, device, OPTIONS);
+        // only the first build compiled from source
+        verify(clApi).createProgramWithSource(context, SOURCES);
+    }
+
+    @Test
+    public void build_binaryRejected_fallsBackToSourceAndReplacesEntry() throws IOException {
+        Files.createDirectories(entry().getParent());
+        Files.write(entry(), new byte[] {9, 9});
+        when(clApi.createProgramWithBinary(any(), any(), any()))
+                .thenThrow(new OpenClCallFailedException("invalid binary", -42, "clCreateProgramWithBinary"));
+
+        ClProgram program = build();
+
+        assertThat(program, is(equalTo(sourceProgram)));
+        assertThat(Files.readAllBytes(entry()), is(equalTo(BINARY)));
+    }
+
+    @Test
+    public void build_binaryBuildFails_releasesBinaryProgramAndFallsBackToSource() throws IOException {
+        Files.createDirectories(entry().getParent());
+        Files.write(entry(), BINARY);
+        doThrow(new OpenClCallFailedException("build failed", -11, "clBuildProgram"))
+                .when(clApi).buildProgram(binaryProgram, device, OPTIONS);
+
+        ClProgram program = build();
+
+        assertThat(program, is(equalTo(sourceProgram)));
+        verify(clApi).releaseProgram(binaryProgram);
+    }
+
+    @Test
+    public void build_sourceBuildFails_releasesProgramAndRethrows() {
+        doThrow(new OpenClCallFailedException("build failed", -11, "clBuildProgram"))
+                .when(clApi).buildProgram(sourceProgram, device, OPTIONS);
+
+        assertThrows(OpenClCallFailedException.class, this::build);
+
+        verify(clApi).releaseProgram(sourceProgram);
+        assertThat(Files.exists(entry()), is(false));
+    }
+
+    @Test
+    public void build_cacheDirectoryNotWritable_stillReturnsProgram() throws IOException {
+        Path notADirectory = Files.createFile(folder.resolve("file"));
+        OpenCLProgramCache unwritable = new OpenCLProgramCache(clApi, notADirectory);
+
+        ClProgram program = unwritable.build(context, device, DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS);
+
+        assertThat(program, is(equalTo(sourceProgram)));
+    }
+
+    @Test
+    public void build_runtimeExposesNoBinary_nothingStored() {
+        when(clApi.getProgramBinary(sourceProgram)).thenReturn(new byte[0]);
+
+        build();
+
+        assertThat(Files.exists(entry()), is(false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="cacheKey">
+    @Test
+    public void cacheKey_sameInputs_sameKey() {
+        assertThat(
+                OpenCLProgramCache.cacheKey(DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS),
+                is(equalTo(OpenCLProgramCache.cacheKey(DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS))));
+    }
+
+    @Test
+    public void cacheKey_anyInputChanged_differentKey() {
+        String key = OpenCLProgramCache.cacheKey(DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS);
+
+        assertThat(OpenCLProgramCache.cacheKey("other", DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS), is(not(key)));
+        assertThat(OpenCLProgramCache.cacheKey(DEVICE_NAME, "other", DRIVER_VERSION, SOURCES, OPTIONS), is(not(key)));
+        assertThat(OpenCLProgramCache.cacheKey(DEVICE_NAME, DEVICE_VENDOR, "551.0", SOURCES, OPTIONS), is(not(key)));
+        assertThat(OpenCLProgramCache.cacheKey(
+                DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, SOURCES, OPTIONS + " -D USE_REDUCED_RADIX_FIELD"),
+                is(not(key)));
+        assertThat(OpenCLProgramCache.cacheKey(
+                DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, new String[] {"__kernel void a() {}"}, OPTIONS),
+                is(not(key)));
+    }
+
+    @Test
+    public void cacheKey_sourceBoundaryMoved_differentKey() {
+        assertThat(
+                OpenCLProgramCache.cacheKey(DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, new String[] {"ab", "c"}, OPTIONS),
+                is(not(OpenCLProgramCache.cacheKey(
+                        DEVICE_NAME, DEVICE_VENDOR, DRIVER_VERSION, new String[] {"a", "bc"}, OPTIONS))));
+    }
+    // </editor-fold>
+}
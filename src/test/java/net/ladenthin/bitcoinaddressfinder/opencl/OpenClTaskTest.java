@@ -0,0 +1,213 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.opencl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ladenthin.bitcoinaddressfinder.configuration.CProducerOpenCL;
+import net.ladenthin.bitcoinaddressfinder.constants.OpenClKernelConstants;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClApi;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClCommandQueue;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClContext;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClEvent;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClKernel;
+import net.ladenthin.bitcoinaddressfinder.opencl.binding.ClMem;
+import net.ladenthin.bitcoinaddressfinder.util.BitHelper;
+import net.ladenthin.bitcoinaddressfinder.util.ByteBufferUtility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+/**
+ * Drives {@link OpenClTask} against a mocked {@link ClApi}, so the order in which the pipelined
+ * launches are enqueued, flushed and read back can be verified without an OpenCL device.
+ */
+public class OpenClTaskTest {
+
+    private static final int BATCH_SIZE_IN_BITS = 2;
+
+    private final ClContext context = new ClContext(1L);
+    private final ClCommandQueue commandQueue = new ClCommandQueue(2L);
+    private final ClCommandQueue transferQueue = new ClCommandQueue(3L);
+    private final ClKernel kernel = new ClKernel(4L);
+    private final ClMem filterMem = new ClMem(5L);
+
+    private ClApi clApi;
+    private CProducerOpenCL cProducerOpenCL;
+
+    /** The count word the mocked device reports for every launch. */
+    private final AtomicInteger countWord = new AtomicInteger(OpenClKernelConstants.OUTPUT_COUNT_FULL_TRANSFER_SENTINEL);
+
+    @BeforeEach
+    public void setUp() {
+        clApi = mock(ClApi.class);
+        cProducerOpenCL = new CProducerOpenCL();
+        cProducerOpenCL.batchSizeInBits = BATCH_SIZE_IN_BITS;
+
+        AtomicLong handles = new AtomicLong(100L);
+        when(clApi.createBuffer(any(), anyLong(), anyLong())).thenAnswer(invocation -> new ClMem(handles.incrementAndGet()));
+        when(clApi.createBufferFromHostMemory(any(), anyLong(), any()))
+                .thenAnswer(invocation -> new ClMem(handles.incrementAndGet()));
+        when(clApi.enqueueReadBufferNonBlocking(any(), any(), anyLong(), any(), anyList())).thenAnswer(invocation -> {
+            ByteBuffer destination = invocation.getArgument(3);
+            destination.putInt(0, countWord.get());
+            return new ClEvent(handles.incrementAndGet());
+        });
+    }
+
+    private OpenClTask createOpenClTask() {
+        return new OpenClTask(clApi, context, cProducerOpenCL, new BitHelper(), new ByteBufferUtility(true));
+    }
+
+    private OpenClTask.Launch launch(OpenClTask openClTask, long privateKeyBase) {
+        openClTask.setSrcPrivateKeyChunk(BigInteger.valueOf(privateKeyBase));
+        return openClTask.launchKernel(
+                kernel, commandQueue, transferQueue, filterMem, filterMem, 1, 0, filterMem, filterMem);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_pipelineDepthZero_throwsIllegalArgumentException() {
+        cProducerOpenCL.pipelineDepth = 0;
+
+        assertThrows(IllegalArgumentException.class, this::createOpenClTask);
+    }
+
+    @Test
+    public void constructor_pipelineDepthThree_oneOutputBufferPerSlot() {
+        cProducerOpenCL.pipelineDepth = 3;
+
+        createOpenClTask();
+
+        verify(clApi, times(3)).createBuffer(eq(context), anyLong(), anyLong());
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="launchKernel">
+    @Test
+    public void launchKernel_singleLaunch_enqueuedInOrderAndFlushedWithoutWaiting() {
+        OpenClTask openClTask = createOpenClTask();
+
+        launch(openClTask, 0x100L);
+
+        InOrder inOrder = inOrder(clApi);
+        inOrder.verify(clApi).enqueueWriteBufferNonBlocking(eq(commandQueue), any(), eq(0L), any());
+        inOrder.verify(clApi).enqueueWriteBufferNonBlocking(eq(commandQueue), any(), eq(0L), any());
+        inOrder.verify(clApi).enqueueNDRangeKernel(eq(commandQueue), eq(kernel), any(), anyBoolean());
+        inOrder.verify(clApi).enqueueReadBufferNonBlocking(eq(commandQueue), any(), eq(0L), any(), anyList());
+        inOrder.verify(clApi).flush(commandQueue);
+        verify(clApi, never()).finish(any());
+        verify(clApi, never()).waitForEvents(anyList());
+        verify(clApi, never()).enqueueReadBuffer(any(), any(), anyLong(), any(), anyBoolean());
+    }
+
+    @Test
+    public void launchKernel_twoLaunchesWithDepthTwo_useDifferentOutputBuffersWithoutReadBack() {
+        cProducerOpenCL.pipelineDepth = 2;
+        OpenClTask openClTask = createOpenClTask();
+
+        OpenClTask.Launch first = launch(openClTask, 0x100L);
+        OpenClTask.Launch second = launch(openClTask, 0x200L);
+
+        assertThat(first.getHostBuffer(), is(not(sameInstance(second.getHostBuffer()))));
+        verify(clApi, times(2)).enqueueNDRangeKernel(eq(commandQueue), eq(kernel), any(), anyBoolean());
+        verify(clApi, never()).waitForEvents(anyList());
+        verify(clApi, never()).enqueueReadBuffer(any(), any(), anyLong(), any(), anyBoolean());
+        verify(clApi, never()).finish(any());
+    }
+
+    @Test
+    public void launchKernel_thirdLaunchWithDepthTwo_readsBackFirstLaunchBeforeEnqueueing() {
+        cProducerOpenCL.pipelineDepth = 2;
+        OpenClTask openClTask = createOpenClTask();
+        launch(openClTask, 0x100L);
+        launch(openClTask, 0x200L);
+
+        launch(openClTask, 0x300L);
+
+        InOrder inOrder = inOrder(clApi);
+        inOrder.verify(clApi, times(2)).enqueueNDRangeKernel(eq(commandQueue), eq(kernel), any(), anyBoolean());
+        inOrder.verify(clApi).waitForEvents(anyList());
+        inOrder.verify(clApi).enqueueReadBuffer(eq(transferQueue), any(), eq(0L), any(), anyBoolean());
+        inOrder.verify(clApi).enqueueNDRangeKernel(eq(commandQueue), eq(kernel), any(), anyBoolean());
+        verify(clApi, times(1)).enqueueReadBuffer(any(), any(), anyLong(), any(), anyBoolean());
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="await">
+    @Test
+    public void await_fullTransfer_readsWholeGridOnTransferQueueOnce() {
+        OpenClTask openClTask = createOpenClTask();
+        OpenClTask.Launch launch = launch(openClTask, 0x100L);
+
+        ByteBuffer result = launch.await();
+        ByteBuffer again = launch.await();
+
+        long expectedBytes = OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES
+                + cProducerOpenCL.getOverallWorkSize() * OpenClKernelConstants.OUTPUT_ENTRY_SIZE_BYTES;
+        assertThat((long) result.limit(), is(equalTo(expectedBytes)));
+        assertThat(again, is(sameInstance(result)));
+        verify(clApi, times(1)).enqueueReadBuffer(eq(transferQueue), any(), eq(0L), any(), anyBoolean());
+    }
+
+    @Test
+    public void await_compactCount_readsOnlyTheHitEntries() {
+        countWord.set(1);
+        OpenClTask openClTask = createOpenClTask();
+        OpenClTask.Launch launch = launch(openClTask, 0x100L);
+
+        ByteBuffer result = launch.await();
+
+        assertThat(result.limit(), is(equalTo(
+                OpenClKernelConstants.OUTPUT_HEADER_SIZE_BYTES + OpenClKernelConstants.OUTPUT_ENTRY_SIZE_BYTES)));
+    }
+
+    @Test
+    public void await_compactCountExceedsWorkSize_throwsIllegalStateExceptionOnEveryCall() {
+        countWord.set(1_000);
+        OpenClTask openClTask = createOpenClTask();
+        OpenClTask.Launch launch = launch(openClTask, 0x100L);
+
+        assertThrows(IllegalStateException.class, launch::await);
+        assertThrows(IllegalStateException.class, launch::await);
+        verify(clApi, never()).enqueueReadBuffer(any(), any(), anyLong(), any(), anyBoolean());
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="close">
+    @Test
+    public void close_launchInFlight_readBackBeforeBuffersReleased() {
+        cProducerOpenCL.pipelineDepth = 2;
+        OpenClTask openClTask = createOpenClTask();
+        launch(openClTask, 0x100L);
+
+        openClTask.close();
+
+        InOrder inOrder = inOrder(clApi);
+        inOrder.verify(clApi).enqueueReadBuffer(eq(transferQueue), any(), eq(0L), any(), anyBoolean());
+        inOrder.verify(clApi, times(4)).releaseMemObject(any());
+        assertThat(openClTask.isClosed(), is(true));
+    }
+    // </editor-fold>
+}
@@ -149,4 +149,19 @@ class FilterBuildProgressTest {
         assertThat(lines.get(1), containsString("ETA 2h13m"));
         assertThat(lines.get(1), containsString("elapsed 16m50s"));
     }
+
+    @Test
+    void latest_afterConstructionAndMilestone_publishesThePhaseProgress() {
+        long total = 2_000_000L; // step = 200_000
+        FilterBuildProgress progress = new FilterBuildProgress(sink, "latest phase", total, clock);
+        assertThat(FilterBuildProgress.latest().orElseThrow(),
+                is(new FilterBuildProgress.Snapshot("latest phase", 0L, total)));
+
+        clock.advanceSeconds(1);
+        progress.report(150_000L); // below the first milestone: not published
+        progress.report(400_000L);
+
+        assertThat(FilterBuildProgress.latest().orElseThrow(),
+                is(new FilterBuildProgress.Snapshot("latest phase", 400_000L, total)));
+    }
 }
@@ -0,0 +1,261 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.persistence.addressfile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bitcoinj.base.Coin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SortedAddressFileTest {
+
+    @TempDir
+    Path folder;
+
+    // <editor-fold defaultstate="collapsed" desc="write and open">
+    @Test
+    void writeAndOpen_roundTrip_recordsInOrder() throws Exception {
+        // arrange
+        Path path = write(hash160(0x00, 1), hash160(0x42, 1), hash160(0x42, 2), hash160(0xFF, 9));
+
+        // act
+        try (SortedAddressFile file = new SortedAddressFile(path)) {
+            // assert
+            assertThat(file.count(), is(equalTo(4L)));
+            assertThat(Files.size(path),
+                    is(equalTo(SortedAddressFile.HEADER_SIZE + 4L * SortedAddressFile.RECORD_SIZE
+                            + SortedAddressFile.INDEX_SIZE)));
+            byte[] hash160 = new byte[SortedAddressFile.HASH160_LENGTH];
+            file.copyHash160(2, hash160, 0);
+            assertThat(hash160, is(equalTo(hash160(0x42, 2))));
+            assertThat(file.amount(2), is(equalTo(amount(0x42, 2))));
+        }
+    }
+
+    @Test
+    void writeAndOpen_empty_hasNoRecords() throws Exception {
+        // arrange
+        Path path = write();
+
+        // act
+        try (SortedAddressFile file = new SortedAddressFile(path)) {
+            // assert
+            assertThat(file.count(), is(equalTo(0L)));
+            assertThat(file.containsAddress(ByteBuffer.wrap(hash160(0x42, 1))), is(false));
+            assertThat(file.addresses().count(), is(equalTo(0L)));
+        }
+    }
+
+    @Test
+    void open_severalSegments_sameRecordsAsOneSegment() throws Exception {
+        // arrange
+        List<byte[]> hash160s = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            hash160s.add(hash160(i * 5, i));
+        }
+        Path path = write(hash160s.toArray(new byte[0][]));
+
+        // act
+        try (SortedAddressFile file = new SortedAddressFile(path, 3)) {
+            // assert
+            List<byte[]> read = new ArrayList<>();
+            file.forEachAddress(hash160 -> {
+                byte[] copy = new byte[hash160.remaining()];
+                hash160.get(copy);
+                read.add(copy);
+            });
+            assertThat(read.size(), is(equalTo(hash160s.size())));
+            for (int i = 0; i < hash160s.size(); i++) {
+                assertThat(read.get(i), is(equalTo(hash160s.get(i))));
+                assertThat(file.containsAddress(ByteBuffer.wrap(hash160s.get(i))), is(true));
+            }
+        }
+    }
+
+    @Test
+    void isSortedAddressFile_textFile_false() throws Exception {
+        // arrange
+        Path sorted = write(hash160(0x01, 1));
+        Path text = folder.resolve("addresses.txt");
+        Files.writeString(text, "1BoatSLRHtKNngkdXEeobR76b53LETtpyT\n");
+
+        // act, assert
+        assertThat(SortedAddressFile.isSortedAddressFile(sorted), is(true));
+        assertThat(SortedAddressFile.isSortedAddressFile(text), is(false));
+    }
+
+    @Test
+    void open_wrongMagic_throwsIOException() throws Exception {
+        // arrange
+        Path path = write(hash160(0x01, 1));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[0] ^= 0x01;
+        Files.write(path, bytes);
+
+        // act, assert
+        assertThrows(IOException.class, () -> new SortedAddressFile(path));
+    }
+
+    @Test
+    void open_truncated_throwsIOException() throws Exception {
+        // arrange
+        Path path = write(hash160(0x01, 1));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        // act, assert
+        assertThrows(IOException.class, () -> new SortedAddressFile(path));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="output stream">
+    @Test
+    void write_unsortedRecords_throwsIOException() throws Exception {
+        try (SortedAddressFileOutputStream out = new SortedAddressFileOutputStream(new ByteArrayOutputStream())) {
+            writeRecord(out, hash160(0x42, 2));
+
+            assertThrows(IOException.class, () -> writeRecord(out, hash160(0x42, 1)));
+        }
+    }
+
+    @Test
+    void write_duplicateRecord_throwsIOException() throws Exception {
+        try (SortedAddressFileOutputStream out = new SortedAddressFileOutputStream(new ByteArrayOutputStream())) {
+            writeRecord(out, hash160(0x42, 1));
+
+            assertThrows(IOException.class, () -> writeRecord(out, hash160(0x42, 1)));
+        }
+    }
+
+    @Test
+    void finish_incompleteRecord_throwsIOException() throws Exception {
+        // arrange
+        SortedAddressFileOutputStream out = new SortedAddressFileOutputStream(new ByteArrayOutputStream());
+        out.write(new byte[SortedAddressFile.RECORD_SIZE - 1]);
+
+        // act, assert
+        assertThrows(IOException.class, out::finish);
+    }
+
+    @Test
+    void write_recordSplitAcrossCalls_assembled() throws Exception {
+        // arrange
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] record = record(hash160(0x42, 1));
+
+        // act
+        try (SortedAddressFileOutputStream out = new SortedAddressFileOutputStream(bytes)) {
+            out.write(record, 0, 5);
+            out.write(record[5]);
+            out.write(record, 6, record.length - 6);
+
+            // assert
+            assertThat(out.getCount(), is(equalTo(1L)));
+        }
+        int expectedSize =
+                SortedAddressFile.HEADER_SIZE + SortedAddressFile.RECORD_SIZE + SortedAddressFile.INDEX_SIZE;
+        assertThat(bytes.size(), is(equalTo(expectedSize)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="lookup">
+    @Test
+    void containsAddressAndGetAmount_knownAndAbsent() throws Exception {
+        // arrange
+        Path path = write(hash160(0x10, 1), hash160(0x42, 1), hash160(0x42, 3));
+
+        try (SortedAddressFile file = new SortedAddressFile(path)) {
+            // act, assert
+            assertThat(file.containsAddress(ByteBuffer.wrap(hash160(0x42, 3))), is(true));
+            assertThat(file.containsAddress(ByteBuffer.wrap(hash160(0x42, 2))), is(false));
+            assertThat(file.containsAddress(ByteBuffer.wrap(hash160(0x43, 1))), is(false));
+            assertThat(file.getAmount(ByteBuffer.wrap(hash160(0x10, 1))), is(equalTo(Coin.valueOf(amount(0x10, 1)))));
+            assertThat(file.getAmount(ByteBuffer.wrap(hash160(0x42, 2))), is(equalTo(Coin.ZERO)));
+            assertThat(file.requiresBackend(), is(true));
+        }
+    }
+
+    @Test
+    void containsAddress_doesNotMutateCallerBuffer() throws Exception {
+        // arrange
+        Path path = write(hash160(0x10, 7));
+        ByteBuffer query = ByteBuffer.wrap(hash160(0x10, 7));
+
+        try (SortedAddressFile file = new SortedAddressFile(path)) {
+            // act
+            file.containsAddress(query);
+
+            // assert
+            assertThat(query.position(), is(equalTo(0)));
+            assertThat(query.limit(), is(equalTo(SortedAddressFile.HASH160_LENGTH)));
+        }
+    }
+
+    @Test
+    void addresses_prefixRange_onlyRecordsOfRange() throws Exception {
+        // arrange
+        Path path = write(hash160(0x10, 1), hash160(0x42, 1), hash160(0x42, 2), hash160(0x43, 0), hash160(0x90, 1));
+
+        try (SortedAddressFile file = new SortedAddressFile(path, 2)) {
+            // act
+            long inRange = file.addresses(new byte[] {0x42}, new byte[] {0x43}).count();
+            long fromStart = file.addresses(null, new byte[] {0x42, 0x00}).count();
+            long toEnd = file.addresses(new byte[] {0x43}, null).count();
+
+            // assert
+            assertThat(inRange, is(equalTo(2L)));
+            assertThat(fromStart, is(equalTo(1L)));
+            assertThat(toEnd, is(equalTo(2L)));
+        }
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="helpers">
+    /** A hash160 starting with {@code firstByte} and ending with {@code last}. */
+    private static byte[] hash160(int firstByte, int last) {
+        byte[] hash160 = new byte[SortedAddressFile.HASH160_LENGTH];
+        hash160[0] = (byte) firstByte;
+        hash160[hash160.length - 1] = (byte) last;
+        return hash160;
+    }
+
+    private static long amount(int firstByte, int last) {
+        return firstByte * 1_000L + last;
+    }
+
+    private static byte[] record(byte[] hash160) {
+        return ByteBuffer.allocate(SortedAddressFile.RECORD_SIZE)
+                .put(hash160)
+                .putLong(amount(hash160[0] & 0xFF, hash160[hash160.length - 1]))
+                .array();
+    }
+
+    private static void writeRecord(OutputStream out, byte[] hash160) throws IOException {
+        out.write(record(hash160));
+    }
+
+    private Path write(byte[]... hash160s) throws IOException {
+        Path path = Files.createTempFile(folder, "addresses", ".bin");
+        try (SortedAddressFileOutputStream out = new SortedAddressFileOutputStream(Files.newOutputStream(path))) {
+            for (byte[] hash160 : hash160s) {
+                writeRecord(out, hash160);
+            }
+        }
+        return path;
+    }
+    // </editor-fold>
+}
@@ -9,6 +9,7 @@ import static net.ladenthin.bitcoinaddressfinder.configuration.CSecretFormat.STR
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 import com.google.common.hash.Hashing;
 import java.io.File;
@@ -201,6 +202,71 @@ public class ProducerJavaSecretsFilesTest {
                 mockConsumer.publicKeyBytesArrayList.get(5)[0],
                 is(equalTo(PrivateKey.WITH_SPECIAL_CHARACTER.getPublicKeyBytes())));
     }
+
+    @Test
+    public void produceKeys_independentSecrets_batchedToOverallWorkSizeAndRemainderFlushed() throws Exception {
+        CProducerJavaSecretsFiles cProducerJavaSecretsFiles = new CProducerJavaSecretsFiles();
+        List<File> secretsFiles = createSecretsFiles(CSecretFormat.STRING_SHA256);
+        cProducerJavaSecretsFiles.secretsFiles =
+                secretsFiles.stream().map(file -> file.getAbsolutePath()).collect(Collectors.toList());
+        cProducerJavaSecretsFiles.secretFormat = CSecretFormat.STRING_SHA256;
+        cProducerJavaSecretsFiles.batchSizeInBits = 2;
+        cProducerJavaSecretsFiles.batchUsePrivateKeyIncrement = false;
+
+        MockConsumer mockConsumer = new MockConsumer();
+        MockKeyProducer mockKeyProducer = new MockKeyProducer(keyUtility, new Random(1));
+        ProducerJavaSecretsFiles producerJavaSecretsFiles = new ProducerJavaSecretsFiles(
+                cProducerJavaSecretsFiles,
+                mockConsumer,
+                keyUtility,
+                mockKeyProducer,
+                bitHelper,
+                new RuntimeStatistics());
+
+        // act
+        producerJavaSecretsFiles.produceKeys();
+
+        // assert
+        assertThat(mockConsumer.publicKeyBytesArrayList.size(), is(equalTo(2)));
+        assertThat(mockConsumer.publicKeyBytesArrayList.get(0).length, is(equalTo(4)));
+        assertThat(mockConsumer.publicKeyBytesArrayList.get(1).length, is(equalTo(2)));
+
+        assertThat(mockConsumer.publicKeyBytesArrayList.get(0)[0], is(equalTo(PrivateKey.TEST.getPublicKeyBytes())));
+        assertThat(
+                mockConsumer.publicKeyBytesArrayList.get(0)[3], is(equalTo(PrivateKey.NUMBER_73.getPublicKeyBytes())));
+        assertThat(
+                mockConsumer.publicKeyBytesArrayList.get(1)[1],
+                is(equalTo(PrivateKey.WITH_SPECIAL_CHARACTER.getPublicKeyBytes())));
+        assertThat(mockConsumer.secretBaseList.get(0), is(nullValue()));
+    }
+
+    @Test
+    public void produceKeys_independentSecretsFewerThanBatch_oneBatchAtTheEnd() throws Exception {
+        CProducerJavaSecretsFiles cProducerJavaSecretsFiles = new CProducerJavaSecretsFiles();
+        List<File> secretsFiles = createSecretsFiles(CSecretFormat.STRING_SHA256);
+        cProducerJavaSecretsFiles.secretsFiles =
+                secretsFiles.stream().map(file -> file.getAbsolutePath()).collect(Collectors.toList());
+        cProducerJavaSecretsFiles.secretFormat = CSecretFormat.STRING_SHA256;
+        cProducerJavaSecretsFiles.batchSizeInBits = 4;
+        cProducerJavaSecretsFiles.batchUsePrivateKeyIncrement = false;
+
+        MockConsumer mockConsumer = new MockConsumer();
+        MockKeyProducer mockKeyProducer = new MockKeyProducer(keyUtility, new Random(1));
+        ProducerJavaSecretsFiles producerJavaSecretsFiles = new ProducerJavaSecretsFiles(
+                cProducerJavaSecretsFiles,
+                mockConsumer,
+                keyUtility,
+                mockKeyProducer,
+                bitHelper,
+                new RuntimeStatistics());
+
+        // act
+        producerJavaSecretsFiles.produceKeys();
+
+        // assert
+        assertThat(mockConsumer.publicKeyBytesArrayList.size(), is(equalTo(1)));
+        assertThat(mockConsumer.publicKeyBytesArrayList.get(0).length, is(equalTo(6)));
+    }
     // </editor-fold>
 
     private List<File> createSecretsFiles(CSecretFormat secretFormat) throws IOException {
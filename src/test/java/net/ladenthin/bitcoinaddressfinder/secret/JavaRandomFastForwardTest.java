@@ -0,0 +1,74 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.secret;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class JavaRandomFastForwardTest {
+
+    private static final long SEED = 1_389_000_000_000L;
+
+    // <editor-fold defaultstate="collapsed" desc="positioned">
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1L, 2L, 7L, 64L, 1_000L, 12_345L})
+    public void positioned_stepsSkipped_continuesLikeSequentialDraws(long steps) {
+        // arrange
+        Random sequential = new Random(SEED);
+        for (long i = 0; i < steps; i++) {
+            sequential.nextInt();
+        }
+
+        // act
+        Random positioned = JavaRandomFastForward.positioned(SEED, steps);
+
+        // assert
+        for (int i = 0; i < 16; i++) {
+            assertThat(positioned.nextInt(), is(equalTo(sequential.nextInt())));
+        }
+    }
+
+    @Test
+    public void positioned_keysSkipped_nextKeyMatchesSequentialKey() {
+        // arrange
+        Random sequential = new Random(SEED);
+        BigInteger[] sequentialKeys = new BigInteger[6];
+        for (int i = 0; i < sequentialKeys.length; i++) {
+            sequentialKeys[i] = new BigInteger(256, sequential);
+        }
+
+        // act
+        Random positioned =
+                JavaRandomFastForward.positioned(SEED, 5L * JavaRandomFastForward.nextIntCallsPerSecret(256));
+
+        // assert
+        assertThat(new BigInteger(256, positioned), is(equalTo(sequentialKeys[5])));
+    }
+
+    @Test
+    public void positioned_negativeSteps_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> JavaRandomFastForward.positioned(SEED, -1L));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="nextIntCallsPerSecret">
+    @Test
+    public void nextIntCallsPerSecret_fullKey_eightCalls() {
+        assertThat(JavaRandomFastForward.nextIntCallsPerSecret(256), is(equalTo(8)));
+    }
+
+    @Test
+    public void nextIntCallsPerSecret_partialWord_roundedUp() {
+        assertThat(JavaRandomFastForward.nextIntCallsPerSecret(65), is(equalTo(3)));
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,99 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.jupiter.api.Test;
+
+public class BatchTraceReportTest {
+
+    private final BatchTraceReport report = new BatchTraceReport();
+
+    /**
+     * Two CPU batches; the first was split into two chunks. Durations below 16 ns, so the histogram
+     * percentiles are exact.
+     */
+    private void addTwoBatches() {
+        report.add(1L, "CREATE_SECRETS", 0L, 2L);
+        report.add(1L, "DERIVE_KEYS", 2L, 10L);
+        report.add(1L, "CHECK", 12L, 3L);
+        report.add(1L, "CHECK", 12L, 4L);
+        report.add(2L, "CREATE_SECRETS", 100L, 2L);
+        report.add(2L, "DERIVE_KEYS", 102L, 10L);
+        report.add(2L, "CHECK", 112L, 4L);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="add">
+    @Test
+    public void add_unknownOrMissingStage_skipped() {
+        report.add(1L, "FROM_A_NEWER_VERSION", 0L, 5L);
+        report.add(1L, null, 0L, 5L);
+
+        assertThat(report.getEvents(), is(equalTo(0L)));
+        assertThat(report.getBottleneck(), is(nullValue()));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="getBottleneck">
+    @Test
+    public void getBottleneck_splitBatch_onlyTheSlowestChunkCounts() {
+        // arrange — three chunks of 5 ns each checked in parallel are 5 ns on the critical path, not 15
+        report.add(1L, "DERIVE_KEYS", 0L, 6L);
+        report.add(1L, "CHECK", 6L, 5L);
+        report.add(1L, "CHECK", 6L, 5L);
+        report.add(1L, "CHECK", 6L, 5L);
+
+        // act
+        BatchStage bottleneck = report.getBottleneck();
+
+        // assert
+        assertThat(bottleneck, is(equalTo(BatchStage.DERIVE_KEYS)));
+    }
+
+    @Test
+    public void getBottleneck_eventsWithoutBatchId_notOnTheCriticalPath() {
+        // arrange
+        report.add(1L, "DERIVE_KEYS", 0L, 6L);
+        report.add(BatchTrace.NO_BATCH, "CHECK", 0L, 1_000L);
+
+        // act
+        BatchStage bottleneck = report.getBottleneck();
+
+        // assert
+        assertThat(bottleneck, is(equalTo(BatchStage.DERIVE_KEYS)));
+        assertThat(report.getEvents(), is(equalTo(2L)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="render">
+    @Test
+    public void render_noEvents_saysSo() {
+        assertThat(report.render(), is(equalTo("Batch trace: 0 events of 0 batches.\n"
+                + "No net.ladenthin.bitcoinaddressfinder.BatchStage events recorded.")));
+    }
+
+    @Test
+    public void render_twoBatches_breakdownEndToEndAndBottleneck() {
+        // arrange
+        addTwoBatches();
+
+        // act
+        String result = report.render();
+
+        // assert — critical path: CREATE_SECRETS 2 + 2, DERIVE_KEYS 10 + 10, CHECK max(3, 4) + 4 = 32 ns
+        assertThat(result, is(equalTo("Batch trace: 7 events of 2 batches.\n"
+                + "Stage                  Events       Mean        p50        p99        Max  Critical path\n"
+                + "CREATE_SECRETS              2       2 ns       2 ns       2 ns       2 ns         12.5 %\n"
+                + "DERIVE_KEYS                 2      10 ns      10 ns      10 ns      10 ns         62.5 %\n"
+                + "CHECK                       3       3 ns       4 ns       4 ns       4 ns         25.0 %\n"
+                + "End-to-end per batch: p50 16 ns, p99 16 ns, max 16 ns\n"
+                + "Bottleneck: DERIVE_KEYS (62.5 % of the critical path) - "
+                + BatchStage.DERIVE_KEYS.bottleneckHint() + ".")));
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,52 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class BatchTraceTest {
+
+    // <editor-fold defaultstate="collapsed" desc="startBatch">
+    @Test
+    public void startBatch_twice_distinctIdsAndTheLastIsCurrent() {
+        // act
+        long first = BatchTrace.startBatch();
+        long second = BatchTrace.startBatch();
+
+        // assert
+        assertThat(first, is(greaterThan(BatchTrace.NO_BATCH)));
+        assertThat(second, is(greaterThan(first)));
+        assertThat(BatchTrace.currentBatch(), is(equalTo(second)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="currentBatch">
+    @Test
+    public void currentBatch_otherThread_isItsOwn() throws InterruptedException {
+        // arrange
+        long batchId = BatchTrace.startBatch();
+        AtomicLong fresh = new AtomicLong(-1L);
+        AtomicLong resumed = new AtomicLong(-1L);
+
+        // act
+        Thread thread = new Thread(() -> {
+            fresh.set(BatchTrace.currentBatch());
+            BatchTrace.resumeBatch(batchId);
+            resumed.set(BatchTrace.currentBatch());
+        });
+        thread.start();
+        thread.join();
+
+        // assert
+        assertThat(fresh.get(), is(equalTo(BatchTrace.NO_BATCH)));
+        assertThat(resumed.get(), is(equalTo(batchId)));
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,161 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class LatencyHistogramTest {
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    public void constructor_sampleIntervalNotPositive_throwsIllegalArgumentException(int sampleInterval) {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(sampleInterval));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="sampleNext">
+    @Test
+    public void sampleNext_intervalOne_samplesEveryEvent() {
+        LatencyHistogram histogram = new LatencyHistogram(1);
+
+        assertThat(histogram.sampleNext(), is(true));
+        assertThat(histogram.sampleNext(), is(true));
+    }
+
+    @Test
+    public void sampleNext_intervalFour_samplesEveryFourthEvent() {
+        // arrange
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        int sampled = 0;
+
+        // act
+        for (int i = 0; i < 12; i++) {
+            if (histogram.sampleNext()) {
+                sampled++;
+                assertThat(i % 4, is(equalTo(3)));
+            }
+        }
+
+        // assert
+        assertThat(sampled, is(equalTo(3)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="bucketOf">
+    @Test
+    public void bucketOf_smallValues_exactBuckets() {
+        for (long nanos = 0; nanos < LatencyHistogram.LINEAR_BUCKETS; nanos++) {
+            assertThat(LatencyHistogram.bucketOf(nanos), is(equalTo((int) nanos)));
+            assertThat(LatencyHistogram.bucketUpperBound((int) nanos), is(equalTo(nanos)));
+        }
+    }
+
+    @Test
+    public void bucketOf_largestValue_lastBucket() {
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE), is(equalTo(LatencyHistogram.BUCKETS - 1)));
+        assertThat(LatencyHistogram.bucketUpperBound(LatencyHistogram.BUCKETS - 1), is(equalTo(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Every value lies in a bucket whose upper bound is at least the value and at most a quarter
+     * above it, and consecutive buckets follow each other without a gap.
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {16L, 17L, 19L, 20L, 31L, 32L, 180L, 191L, 192L, 1_000L, 2_047L, 123_456_789L, 1L << 40})
+    public void bucketOf_value_withinBucketBoundsOfTwentyFivePercent(long nanos) {
+        // act
+        int bucket = LatencyHistogram.bucketOf(nanos);
+
+        // assert
+        long upperBound = LatencyHistogram.bucketUpperBound(bucket);
+        long lowerBound = LatencyHistogram.bucketUpperBound(bucket - 1) + 1;
+        assertThat(nanos, is(greaterThanOrEqualTo(lowerBound)));
+        assertThat(nanos, is(lessThanOrEqualTo(upperBound)));
+        assertThat((double) upperBound, is(lessThanOrEqualTo(nanos * 1.25)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="record">
+    @Test
+    public void record_negativeValue_countsAsZero() {
+        // arrange
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        long[] totals = new long[LatencyHistogram.BUCKETS];
+
+        // act
+        histogram.record(-5L);
+        histogram.addTo(totals);
+
+        // assert
+        assertThat(totals[0], is(equalTo(1L)));
+        assertThat(histogram.sumNanos(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void sumNanos_severalValues_exactSum() {
+        // arrange
+        LatencyHistogram histogram = new LatencyHistogram(1);
+
+        // act
+        histogram.record(100L);
+        histogram.record(1_000_001L);
+
+        // assert
+        assertThat(histogram.sumNanos(), is(equalTo(1_000_101L)));
+    }
+
+    @Test
+    public void addTo_twoHistograms_merged() {
+        // arrange
+        LatencyHistogram first = new LatencyHistogram(1);
+        LatencyHistogram second = new LatencyHistogram(1);
+        first.record(100L);
+        second.record(100L);
+        second.record(5_000L);
+        long[] totals = new long[LatencyHistogram.BUCKETS];
+
+        // act
+        first.addTo(totals);
+        second.addTo(totals);
+
+        // assert
+        assertThat(LatencyHistogram.count(totals), is(equalTo(3L)));
+        assertThat(totals[LatencyHistogram.bucketOf(100L)], is(equalTo(2L)));
+        assertThat(totals[LatencyHistogram.bucketOf(5_000L)], is(equalTo(1L)));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="quantile">
+    @Test
+    public void quantile_nothingRecorded_minusOne() {
+        assertThat(LatencyHistogram.quantile(new long[LatencyHistogram.BUCKETS], 0.5), is(equalTo(-1L)));
+    }
+
+    @Test
+    public void quantile_hundredValues_upperBoundOfTheBucketHoldingTheRank() {
+        // arrange
+        long[] totals = new long[LatencyHistogram.BUCKETS];
+        totals[LatencyHistogram.bucketOf(10L)] = 90L;
+        totals[LatencyHistogram.bucketOf(100L)] = 9L;
+        totals[LatencyHistogram.bucketOf(1_000L)] = 1L;
+
+        // act, assert
+        assertThat(LatencyHistogram.quantile(totals, 0.0), is(equalTo(10L)));
+        assertThat(LatencyHistogram.quantile(totals, 0.5), is(equalTo(10L)));
+        assertThat(LatencyHistogram.quantile(totals, 0.9), is(equalTo(10L)));
+        assertThat(LatencyHistogram.quantile(totals, 0.99), is(equalTo(111L)));
+        assertThat(LatencyHistogram.quantile(totals, 1.0), is(equalTo(1_023L)));
+    }
+    // </editor-fold>
+}
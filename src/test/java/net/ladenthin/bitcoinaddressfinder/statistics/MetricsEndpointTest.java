@@ -0,0 +1,132 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class MetricsEndpointTest {
+
+    private static final String LOCALHOST = "127.0.0.1";
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private HttpResponse<String> send(MetricsEndpoint endpoint, String method, String path)
+            throws IOException, InterruptedException {
+        URI uri = URI.create("http://" + LOCALHOST + ":" + endpoint.getPort() + path);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="constructor">
+    @Test
+    public void constructor_portOutOfRange_throwsIllegalArgumentException() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        assertThrows(IllegalArgumentException.class, () -> new MetricsEndpoint(LOCALHOST, 65536, registry));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsEndpoint(LOCALHOST, -1, registry));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="start">
+    @Test
+    public void start_getMetrics_servesTheCurrentScrape() throws Exception {
+        // arrange
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong checked = new AtomicLong();
+        registry.counter("checked_addresses_total", "Lookups.", checked::get);
+
+        try (MetricsEndpoint endpoint = new MetricsEndpoint(LOCALHOST, 0, registry)) {
+            endpoint.start();
+            checked.set(42L);
+
+            // act
+            HttpResponse<String> response = send(endpoint, "GET", MetricsEndpoint.PATH);
+
+            // assert
+            assertThat(response.statusCode(), is(equalTo(200)));
+            assertThat(response.headers().firstValue("Content-Type").orElseThrow(),
+                    is(equalTo(MetricsEndpoint.CONTENT_TYPE)));
+            assertThat(response.body(), is(equalTo(registry.scrape())));
+            assertThat(response.body().endsWith("bitcoinaddressfinder_checked_addresses_total 42\n"), is(true));
+        }
+    }
+
+    @Test
+    public void start_post_methodNotAllowed() throws Exception {
+        try (MetricsEndpoint endpoint = new MetricsEndpoint(LOCALHOST, 0, new MetricsRegistry())) {
+            endpoint.start();
+
+            HttpResponse<String> response = send(endpoint, "POST", MetricsEndpoint.PATH);
+
+            assertThat(response.statusCode(), is(equalTo(405)));
+        }
+    }
+
+    @Test
+    public void start_failingSupplier_internalServerErrorAndEndpointStaysUp() throws Exception {
+        // arrange
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong failures = new AtomicLong(1);
+        registry.counter("flaky_total", "Fails once.", () -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("flaky");
+            }
+            return 1L;
+        });
+
+        try (MetricsEndpoint endpoint = new MetricsEndpoint(LOCALHOST, 0, registry)) {
+            endpoint.start();
+
+            // act
+            HttpResponse<String> failed = send(endpoint, "GET", MetricsEndpoint.PATH);
+            HttpResponse<String> recovered = send(endpoint, "GET", MetricsEndpoint.PATH);
+
+            // assert
+            assertThat(failed.statusCode(), is(equalTo(500)));
+            assertThat(recovered.statusCode(), is(equalTo(200)));
+        }
+    }
+
+    @Test
+    public void start_portInUse_throwsIOException() throws Exception {
+        try (MetricsEndpoint first = new MetricsEndpoint(LOCALHOST, 0, new MetricsRegistry())) {
+            first.start();
+            MetricsEndpoint second = new MetricsEndpoint(LOCALHOST, first.getPort(), new MetricsRegistry());
+
+            assertThrows(IOException.class, second::start);
+        }
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="close">
+    @Test
+    public void close_running_releasesThePort() throws Exception {
+        // arrange
+        MetricsEndpoint endpoint = new MetricsEndpoint(LOCALHOST, 0, new MetricsRegistry());
+        endpoint.start();
+        assertThat(endpoint.getPort(), is(greaterThan(0)));
+
+        // act
+        endpoint.close();
+
+        // assert
+        assertThat(endpoint.getPort(), is(equalTo(-1)));
+        endpoint.close(); // idempotent
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,130 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    // <editor-fold defaultstate="collapsed" desc="scrape">
+    @Test
+    public void scrape_nothingRegistered_empty() {
+        assertThat(registry.scrape(), is(equalTo("")));
+    }
+
+    @Test
+    public void scrape_counter_readsTheCurrentValue() {
+        // arrange
+        AtomicLong hits = new AtomicLong();
+        registry.counter("hits_total", "Addresses found.", hits::get);
+        hits.set(3L);
+
+        // act
+        String result = registry.scrape();
+
+        // assert
+        assertThat(result, is(equalTo("# HELP bitcoinaddressfinder_hits_total Addresses found.\n"
+                + "# TYPE bitcoinaddressfinder_hits_total counter\n"
+                + "bitcoinaddressfinder_hits_total 3\n")));
+    }
+
+    @Test
+    public void scrape_labelledCounter_oneSeriesPerLabelValueWithEscaping() {
+        // arrange
+        Map<String, Long> generated = new TreeMap<>();
+        generated.put("gpu0 (Random, GPU)", 10L);
+        generated.put("quote\" back\\slash", 2L);
+        registry.counter("producer_generated_keys_total", "Per producer.", "producer", () -> generated);
+
+        // act
+        String result = registry.scrape();
+
+        // assert
+        assertThat(result, is(equalTo("# HELP bitcoinaddressfinder_producer_generated_keys_total Per producer.\n"
+                + "# TYPE bitcoinaddressfinder_producer_generated_keys_total counter\n"
+                + "bitcoinaddressfinder_producer_generated_keys_total{producer=\"gpu0 (Random, GPU)\"} 10\n"
+                + "bitcoinaddressfinder_producer_generated_keys_total{producer=\"quote\\\" back\\\\slash\"} 2\n")));
+    }
+
+    @Test
+    public void scrape_gauges_doublesAndNaNSeriesLeftOut() {
+        // arrange
+        registry.gauge("ratio", "A ratio.", () -> 0.25);
+        registry.gauge("undefined", "Nothing yet.", () -> Double.NaN);
+        Map<String, Double> kernel = new TreeMap<>();
+        kernel.put("0", 0.0125);
+        kernel.put("1", Double.NaN);
+        registry.gauge("gpu_kernel_last_seconds", "Kernel time.", "producer", () -> kernel);
+
+        // act
+        String result = registry.scrape();
+
+        // assert
+        assertThat(result, is(equalTo("# HELP bitcoinaddressfinder_ratio A ratio.\n"
+                + "# TYPE bitcoinaddressfinder_ratio gauge\n"
+                + "bitcoinaddressfinder_ratio 0.25\n"
+                + "# HELP bitcoinaddressfinder_undefined Nothing yet.\n"
+                + "# TYPE bitcoinaddressfinder_undefined gauge\n"
+                + "bitcoinaddressfinder_undefined NaN\n"
+                + "# HELP bitcoinaddressfinder_gpu_kernel_last_seconds Kernel time.\n"
+                + "# TYPE bitcoinaddressfinder_gpu_kernel_last_seconds gauge\n"
+                + "bitcoinaddressfinder_gpu_kernel_last_seconds{producer=\"0\"} 0.0125\n")));
+    }
+
+    @Test
+    public void scrape_latencyWithoutSamples_onlySumAndCount() {
+        // arrange
+        registry.latency("lookup_latency_seconds", "Lookup latency.", () -> new long[LatencyHistogram.BUCKETS],
+                () -> 0L);
+
+        // act
+        String result = registry.scrape();
+
+        // assert
+        assertThat(result, is(equalTo("# HELP bitcoinaddressfinder_lookup_latency_seconds Lookup latency.\n"
+                + "# TYPE bitcoinaddressfinder_lookup_latency_seconds summary\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds_sum 0.0\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds_count 0\n")));
+    }
+
+    @Test
+    public void scrape_latency_quantilesAndSumInSeconds() {
+        // arrange
+        long[] totals = new long[LatencyHistogram.BUCKETS];
+        totals[LatencyHistogram.bucketOf(1_000_000L)] = 4L;
+        registry.latency("lookup_latency_seconds", "Lookup latency.", () -> totals, () -> 4_000_000L);
+
+        // act
+        String result = registry.scrape();
+
+        // assert — 1 ms lies in the bucket ending at 1_048_575 ns
+        assertThat(result, is(equalTo("# HELP bitcoinaddressfinder_lookup_latency_seconds Lookup latency.\n"
+                + "# TYPE bitcoinaddressfinder_lookup_latency_seconds summary\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds{quantile=\"0.5\"} 0.001048575\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds{quantile=\"0.99\"} 0.001048575\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds{quantile=\"0.999\"} 0.001048575\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds_sum 0.004\n"
+                + "bitcoinaddressfinder_lookup_latency_seconds_count 4\n")));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="register">
+    @Test
+    public void counter_nameAlreadyRegistered_throwsIllegalArgumentException() {
+        registry.gauge("hits_total", "First.", () -> 1.0);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("hits_total", "Second.", () -> 1L));
+    }
+    // </editor-fold>
+}
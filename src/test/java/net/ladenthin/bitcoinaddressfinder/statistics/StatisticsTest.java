@@ -31,6 +31,8 @@ public class StatisticsTest {
         Map<String, Long> generatedKeysByProducer = new TreeMap<>();
         generatedKeysByProducer.put("exampleRandom (Random, CPU)", 900_000_000L);
         generatedKeysByProducer.put("exampleOpenCL (Random, GPU)", 3_000_000_000L);
+        long[] lookupLatencyNanos = new long[LatencyHistogram.BUCKETS];
+        lookupLatencyNanos[LatencyHistogram.bucketOf(180L)] = 1_000L;
 
         // act — 130 M candidates/s generated, only 2 M hash160 lookups/s reach LMDB
         String result = statistics.createStatisticsMessage(
@@ -40,7 +42,8 @@ public class StatisticsTest {
                 3_900_000_000L, // candidates generated (lifetime)
                 130_000_000.0, // generation rate/s (pre-filter)
                 60L,
-                159_000_000L, // sum of contains time -> avg 3 ms
+                "BLOOM",
+                lookupLatencyNanos,
                 generatedKeysByProducer,
                 2L,
                 4L,
@@ -58,8 +61,8 @@ public class StatisticsTest {
                         + " exampleRandom (Random, CPU)=900.0 M (23.1%)]"
                         + " [Producers running: 2] [Consumers running: 4]"
                         + " [Consumer ready for work (queue empty): 4567]"
-                        + " [Producer blocked (queue full): 1234] [Average contains time: 3 ms]"
-                        + " [keys queue size: 5678] [Hits: 6789]")));
+                        + " [Producer blocked (queue full): 1234]"
+                        + " [Lookup latency BLOOM: p50 191 ns, p99 191 ns, p999 191 ns] [keys queue size: 5678] [Hits: 6789]")));
     }
 
     /**
@@ -80,7 +83,8 @@ public class StatisticsTest {
                 200_000_000L,
                 100_000_000.0,
                 60L,
-                0L,
+                "LMDB_ONLY",
+                new long[LatencyHistogram.BUCKETS],
                 new TreeMap<>(),
                 0L,
                 0L,
@@ -96,7 +100,7 @@ public class StatisticsTest {
                         + " [-> LMDB 200.0 M/s (400 M lookups total)] [rate window 60s]"
                         + " [Keys per producer: none] [Producers running: 0] [Consumers running: 0]"
                         + " [Consumer ready for work (queue empty): 0] [Producer blocked (queue full): 0]"
-                        + " [Average contains time: 0 ms] [keys queue size: 0] [Hits: 0]")));
+                        + " [Lookup latency LMDB_ONLY: no samples] [keys queue size: 0] [Hits: 0]")));
     }
     // </editor-fold>
 
@@ -142,6 +146,45 @@ public class StatisticsTest {
     }
     // </editor-fold>
 
+    // <editor-fold defaultstate="collapsed" desc="describeLatency">
+    @Test
+    public void describeLatency_noSamples_isNoSamples() {
+        assertThat(Statistics.describeLatency(new long[LatencyHistogram.BUCKETS]), is(equalTo("no samples")));
+    }
+
+    /**
+     * The point of the percentiles: two slow lookups in a thousand are invisible in the median but
+     * must show up in the p999.
+     */
+    @Test
+    public void describeLatency_rareSlowLookups_showInTheTail() {
+        // arrange
+        long[] lookupLatencyNanos = new long[LatencyHistogram.BUCKETS];
+        lookupLatencyNanos[LatencyHistogram.bucketOf(180L)] = 988L;
+        lookupLatencyNanos[LatencyHistogram.bucketOf(2_000L)] = 10L;
+        lookupLatencyNanos[LatencyHistogram.bucketOf(16_000L)] = 2L;
+
+        // act
+        String result = Statistics.describeLatency(lookupLatencyNanos);
+
+        // assert
+        assertThat(result, is(equalTo("p50 191 ns, p99 2.047 µs, p999 16.38 µs")));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="formatNanos">
+    @Test
+    public void formatNanos_autoScalesAcrossTheWholeRange() {
+        assertThat(Statistics.formatNanos(0L), is(equalTo("0 ns")));
+        assertThat(Statistics.formatNanos(999L), is(equalTo("999 ns")));
+        assertThat(Statistics.formatNanos(1_000L), is(equalTo("1.000 µs")));
+        assertThat(Statistics.formatNanos(2_047L), is(equalTo("2.047 µs")));
+        assertThat(Statistics.formatNanos(1_000_000L), is(equalTo("1.000 ms")));
+        assertThat(Statistics.formatNanos(15_359_999L), is(equalTo("15.36 ms")));
+        assertThat(Statistics.formatNanos(1_000_000_000L), is(equalTo("1.000 s")));
+    }
+    // </editor-fold>
+
     // <editor-fold defaultstate="collapsed" desc="describeProducerShares">
     /**
      * The reason this group counts candidates instead of dispatched batches: two GPUs at
@@ -223,7 +266,8 @@ public class StatisticsTest {
                 200_000_000L, // generated lifetime
                 100_000_000.0, // generation rate/s (> 0, so potentialLookups > 0)
                 60L,
-                0L,
+                "LMDB_ONLY",
+                new long[LatencyHistogram.BUCKETS],
                 new TreeMap<>(),
                 0L,
                 0L,
@@ -0,0 +1,94 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class IoThreadsTest {
+
+    // <editor-fold defaultstate="collapsed" desc="of">
+    @Test
+    public void of_true_returnsVirtual() {
+        assertThat(IoThreads.of(true), is(sameInstance(IoThreads.VIRTUAL)));
+        assertThat(IoThreads.of(true).isVirtual(), is(true));
+    }
+
+    @Test
+    public void of_false_returnsPlatform() {
+        assertThat(IoThreads.of(false), is(sameInstance(IoThreads.PLATFORM)));
+        assertThat(IoThreads.of(false).isVirtual(), is(false));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="start">
+    @Test
+    public void start_virtual_runsOnNamedVirtualThread() throws Exception {
+        // arrange
+        CompletableFuture<Thread> runningThread = new CompletableFuture<>();
+
+        // act
+        Thread thread = IoThreads.VIRTUAL.start("io-test", () -> runningThread.complete(Thread.currentThread()));
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // assert
+        assertThat(runningThread.get(10, TimeUnit.SECONDS).isVirtual(), is(true));
+        assertThat(thread.getName(), is(equalTo("io-test")));
+    }
+
+    @Test
+    public void start_platform_runsOnNamedDaemonPlatformThread() throws Exception {
+        // arrange
+        CompletableFuture<Thread> runningThread = new CompletableFuture<>();
+
+        // act
+        Thread thread = IoThreads.PLATFORM.start("io-test", () -> runningThread.complete(Thread.currentThread()));
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // assert
+        assertThat(runningThread.get(10, TimeUnit.SECONDS).isVirtual(), is(false));
+        assertThat(thread.isDaemon(), is(true));
+        assertThat(thread.getName(), is(equalTo("io-test")));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="newSingleTaskExecutor">
+    @Test
+    public void newSingleTaskExecutor_virtual_runsTaskOnVirtualThread() throws Exception {
+        // arrange
+        ExecutorService executor = IoThreads.VIRTUAL.newSingleTaskExecutor("io-test");
+        try {
+            // act
+            boolean virtual = executor.submit(() -> Thread.currentThread().isVirtual()).get(10, TimeUnit.SECONDS);
+
+            // assert
+            assertThat(virtual, is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void newSingleTaskExecutor_platform_runsTaskOnPlatformThread() throws Exception {
+        // arrange
+        ExecutorService executor = IoThreads.PLATFORM.newSingleTaskExecutor("io-test");
+        try {
+            // act
+            String name = executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+
+            // assert
+            assertThat(name, is(equalTo("io-test")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    // </editor-fold>
+}
@@ -20,6 +20,7 @@ import net.ladenthin.bitcoinaddressfinder.secret.NoMoreSecretsAvailableException
 import net.ladenthin.bitcoinaddressfinder.secret.RandomSecretSupplier;
 import net.ladenthin.bitcoinaddressfinder.secret.SecretSupplier;
 import net.ladenthin.bitcoinaddressfinder.staticaddresses.StaticKey;
+import org.bitcoinj.base.BitcoinNetwork;
 import org.bitcoinj.base.LegacyAddress;
 import org.bitcoinj.base.Network;
 import org.bitcoinj.crypto.ECKey;
@@ -103,6 +104,22 @@ public class KeyUtilityTest {
     }
     // </editor-fold>
 
+    // <editor-fold defaultstate="collapsed" desc="legacyAddressVersion">
+    @Test
+    public void legacyAddressVersion_mainnet_returnsZero() {
+        KeyUtility keyUtility = new KeyUtility(network, new ByteBufferUtility(false));
+
+        assertThat(keyUtility.legacyAddressVersion(), is(equalTo(0)));
+    }
+
+    @Test
+    public void legacyAddressVersion_testnet_returns0x6f() {
+        KeyUtility keyUtility = new KeyUtility(BitcoinNetwork.TESTNET, new ByteBufferUtility(false));
+
+        assertThat(keyUtility.legacyAddressVersion(), is(equalTo(0x6f)));
+    }
+    // </editor-fold>
+
     // <editor-fold defaultstate="collapsed" desc="getHexFromByteBuffer">
     @Test
     public void getHexFromByteBuffer_uncompressedPublicKeyHash_returnsExpectedHex() throws IOException {
@@ -0,0 +1,99 @@
+// SPDX-FileCopyrightText: 2017-2026 Bernard Ladenthin <bernard.ladenthin@gmail.com>
+//
+// SPDX-License-Identifier: Apache-2.0
+package net.ladenthin.bitcoinaddressfinder.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.ladenthin.bitcoinaddressfinder.ThreadAffinityPlatformAssume;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ThreadAffinityTest {
+
+    private final ThreadAffinityPlatformAssume platformAssume = new ThreadAffinityPlatformAssume();
+
+    // <editor-fold defaultstate="collapsed" desc="isValidCpuList">
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0-3", "0-15,32-47", "1,3,5", "0-1,4"})
+    public void isValidCpuList_wellFormed_returnsTrue(String cpuList) {
+        assertThat(ThreadAffinity.isValidCpuList(cpuList), is(true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a", "0-", "-1", "0,,1", "0 1", "0;reboot", "0-3,"})
+    public void isValidCpuList_malformed_returnsFalse(String cpuList) {
+        assertThat(ThreadAffinity.isValidCpuList(cpuList), is(false));
+    }
+
+    @Test
+    public void pinCurrentThread_malformedCpuList_throwsIllegalArgumentException() {
+        ThreadAffinity threadAffinity = new ThreadAffinity();
+
+        assertThrows(IllegalArgumentException.class, () -> threadAffinity.pinCurrentThread("0;true"));
+    }
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Linux /proc">
+    @Test
+    public void currentNativeThreadId_linux_isPositive() throws IOException {
+        platformAssume.assumeThreadAffinitySupported();
+
+        assertThat(new ThreadAffinity().currentNativeThreadId(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void pinCurrentThread_firstAllowedCpu_procReportsThePinning() throws Exception {
+        platformAssume.assumeThreadAffinitySupported();
+        ThreadAffinity threadAffinity = new ThreadAffinity();
+
+        // pin a throwaway thread, so the test runner's thread keeps its affinity
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                        long tid = threadAffinity.currentNativeThreadId();
+                        String allowedBefore = threadAffinity.allowedCpuList(tid);
+                        String firstCpu = allowedBefore.split("[,-]")[0];
+
+                        threadAffinity.pinCurrentThread(firstCpu);
+
+                        assertThat(threadAffinity.allowedCpuList(tid), is(equalTo(firstCpu)));
+                        // the kernel migrates the thread when the mask changes; once it runs again
+                        // it can only run on the pinned CPU
+                        Thread.yield();
+                        assertThat(threadAffinity.lastRunCpu(tid), is(equalTo(Integer.parseInt(firstCpu))));
+                        return null;
+                    })
+                    .get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void pinCurrentThread_cpuThatDoesNotExist_throwsIOException() throws Exception {
+        platformAssume.assumeThreadAffinitySupported();
+        ThreadAffinity threadAffinity = new ThreadAffinity();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                        assertThrows(IOException.class, () -> threadAffinity.pinCurrentThread("100000"));
+                        return null;
+                    })
+                    .get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    // </editor-fold>
+}